@@ -0,0 +1,114 @@
+package de.tum.in.test.api.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Prints lines through an autoflush {@link PrintStream}, like the
+ * {@link IOTester} does, once with the {@link TestOutStream} and once with the
+ * previous implementation that copied and decoded all bytes on each flush
+ * with a shared decoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestOutStreamBenchmark {
+
+	@Param({ "Hello World", "Grüße, Ärger und Übermut: 10 € — 😀" })
+	public String line;
+
+	@Param({ "100" })
+	public int lines;
+
+	private PrintStream current;
+	private PrintStream previous;
+	private Blackhole blackhole;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		current = new PrintStream(new TestOutStream(this::accept, null, Long.MAX_VALUE), true,
+				StandardCharsets.UTF_8);
+		previous = new PrintStream(new PreviousTestOutStream(this::accept), true, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public void printlnCurrent() {
+		for (int i = 0; i < lines; i++)
+			current.println(line);
+	}
+
+	@Benchmark
+	public void printlnPrevious() {
+		for (int i = 0; i < lines; i++)
+			previous.println(line);
+	}
+
+	private void accept(CharBuffer output) {
+		blackhole.consume(output.length());
+	}
+
+	private static final class PreviousTestOutStream extends OutputStream {
+
+		private static final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+		static {
+			decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+			decoder.onMalformedInput(CodingErrorAction.REPORT);
+		}
+
+		private final LineAcceptor outputAcceptor;
+		private final ByteArrayOutputStream currentInput = new ByteArrayOutputStream();
+
+		PreviousTestOutStream(LineAcceptor outputAcceptor) {
+			this.outputAcceptor = outputAcceptor;
+		}
+
+		@Override
+		public void write(int b) {
+			currentInput.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int offset, int length) {
+			currentInput.write(b, offset, length);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			ByteBuffer bytes = ByteBuffer.wrap(currentInput.toByteArray());
+			CharBuffer result;
+			try {
+				result = decoder.decode(bytes);
+			} catch (CharacterCodingException e) {
+				throw new IllegalArgumentException(e);
+			}
+			outputAcceptor.acceptOutput(result);
+			currentInput.reset();
+		}
+	}
+}
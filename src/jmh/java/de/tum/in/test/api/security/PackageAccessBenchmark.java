@@ -0,0 +1,68 @@
+package de.tum.in.test.api.security;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.tum.in.test.api.util.PackageRule;
+import de.tum.in.test.api.util.RuleType;
+
+/**
+ * Compares the per rule regular expression matching previously done in
+ * {@link ArtemisSecurityManager#checkPackageAccess(String)} with the
+ * {@link PackageAccessMatcher}, once without and once with memoization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackageAccessBenchmark {
+
+	private static final Set<PackageRule> BLACKLIST = PackageRule
+			.from(RuleType.BLACKLIST, "java.net**", "java.lang.reflect**", "java.nio.file**", "org.*.internal.**",
+					"com.sun.**", "javax.script**")
+			.collect(Collectors.toSet());
+	private static final Set<PackageRule> WHITELIST = PackageRule
+			.from(RuleType.WHITELIST, "java.net.http", "java.nio.file.attribute", "org.junit.internal.**")
+			.collect(Collectors.toSet());
+	private static final List<String> PACKAGES = List.of("java.lang", "java.util", "java.util.concurrent",
+			"java.net", "java.nio.file", "java.nio.file.attribute", "org.junit.internal.runners", "org.foo.internal",
+			"de.tum.in.testuser.subject", "sun.misc", "jdk.internal.reflect", "com.sun.proxy", "javax.script");
+
+	private final PackageAccessMatcher matcher = PackageAccessMatcher.of(BLACKLIST, WHITELIST);
+
+	@Benchmark
+	public void regexPerRule(Blackhole blackhole) {
+		for (String packageName : PACKAGES) {
+			blackhole.consume(SecurityConstants.PACKAGE_USE_BLACKLIST.stream().anyMatch(packageName::startsWith)
+					|| (BLACKLIST.stream().anyMatch(rule -> rule.matches(packageName))
+							&& WHITELIST.stream().noneMatch(rule -> rule.matches(packageName))));
+		}
+	}
+
+	@Benchmark
+	public void automaton(Blackhole blackhole) {
+		for (String packageName : PACKAGES)
+			blackhole.consume(matcher.computeMatch(packageName));
+	}
+
+	@Benchmark
+	public void automatonMemoized(Blackhole blackhole) {
+		for (String packageName : PACKAGES)
+			blackhole.consume(matcher.isForbidden(packageName));
+	}
+}
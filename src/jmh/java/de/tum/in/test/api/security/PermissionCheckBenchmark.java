@@ -0,0 +1,83 @@
+package de.tum.in.test.api.security;
+
+import java.lang.reflect.Field;
+import java.security.Permission;
+import java.security.SecurityPermission;
+import java.util.PropertyPermission;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ArtemisSecurityManager#checkPermission(Permission)} for the
+ * frequent permissions that are granted anyway. Run with <code>-prof gc</code>
+ * to get the allocation rate per operation.
+ * <p>
+ * The security manager is not installed, the benchmark calls the instance
+ * directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+	private static final Permission GET_CLASS_LOADER = new RuntimePermission("getClassLoader"); //$NON-NLS-1$
+	private static final Permission ACCESS_SYSTEM_MODULES = new RuntimePermission("accessSystemModules"); //$NON-NLS-1$
+	private static final Permission LOAD_LIBRARY = new RuntimePermission("loadLibrary.net"); //$NON-NLS-1$
+	private static final Permission READ_PROPERTY = new PropertyPermission("user.dir", "read"); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final Permission GET_SECURITY_PROPERTY = new SecurityPermission("getProperty.jdk.tls"); //$NON-NLS-1$
+
+	private ArtemisSecurityManager securityManager;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		// the security manager must be initialized by a thread called main
+		Thread current = Thread.currentThread();
+		String name = current.getName();
+		current.setName("main"); //$NON-NLS-1$
+		try {
+			Field instance = ArtemisSecurityManager.class.getDeclaredField("INSTANCE"); //$NON-NLS-1$
+			instance.setAccessible(true);
+			securityManager = (ArtemisSecurityManager) instance.get(null);
+		} finally {
+			current.setName(name);
+		}
+	}
+
+	@Benchmark
+	public void getClassLoader() {
+		securityManager.checkPermission(GET_CLASS_LOADER);
+	}
+
+	@Benchmark
+	public void accessSystemModules() {
+		securityManager.checkPermission(ACCESS_SYSTEM_MODULES);
+	}
+
+	@Benchmark
+	public void loadLibrary() {
+		securityManager.checkPermission(LOAD_LIBRARY);
+	}
+
+	@Benchmark
+	public void readProperty() {
+		securityManager.checkPermission(READ_PROPERTY);
+	}
+
+	@Benchmark
+	public void getSecurityProperty() {
+		securityManager.checkPermission(GET_SECURITY_PROPERTY);
+	}
+}
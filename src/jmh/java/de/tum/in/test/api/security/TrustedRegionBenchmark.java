@@ -0,0 +1,93 @@
+package de.tum.in.test.api.security;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.tum.in.test.api.util.PackageRule;
+import de.tum.in.test.api.util.RuleType;
+
+/**
+ * Measures a sequence of stack checks, like an assertion performs them for
+ * reflection and class loading, below a deep stack of whitelisted frames, as
+ * found in tests run by JUnit. The checks are performed once directly and once
+ * inside a {@link TrustedRegion}, whose entry check is part of the
+ * measurement.
+ * <p>
+ * The security manager is not installed, the benchmark calls the checks
+ * directly. The JMH packages are configured as trusted, so the stack is
+ * whitelisted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrustedRegionBenchmark {
+
+	private static final Supplier<String> MESSAGE = () -> "not whitelisted"; //$NON-NLS-1$
+
+	@Param({ "16", "64" })
+	public int stackDepth;
+
+	@Param({ "20" })
+	public int checks;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		// the security manager must be initialized by a thread called main
+		Thread current = Thread.currentThread();
+		String name = current.getName();
+		current.setName("main"); //$NON-NLS-1$
+		try {
+			Field instance = ArtemisSecurityManager.class.getDeclaredField("INSTANCE"); //$NON-NLS-1$
+			instance.setAccessible(true);
+			Object securityManager = instance.get(null);
+			Field lastConfiguration = ArtemisSecurityManager.class.getDeclaredField("lastConfiguration"); //$NON-NLS-1$
+			lastConfiguration.setAccessible(true);
+			lastConfiguration.set(securityManager,
+					ArtemisSecurityConfigurationBuilder.create().withCurrentPath()
+							.withTrustedPackages(PackageRule.from(RuleType.WHITELIST, "org.openjdk.jmh.**") //$NON-NLS-1$
+									.collect(Collectors.toSet()))
+							.build());
+		} finally {
+			current.setName(name);
+		}
+	}
+
+	@Benchmark
+	public void checksWithoutRegion() {
+		atDepth(stackDepth, this::performChecks);
+	}
+
+	@Benchmark
+	public void checksInTrustedRegion() {
+		atDepth(stackDepth, () -> TrustedRegion.run(this::performChecks));
+	}
+
+	private void performChecks() {
+		for (int i = 0; i < checks; i++)
+			ArtemisSecurityManager.checkCurrentStack(MESSAGE);
+	}
+
+	private static void atDepth(int depth, Runnable action) {
+		if (depth == 0)
+			action.run();
+		else
+			atDepth(depth - 1, action);
+	}
+}
@@ -0,0 +1,67 @@
+package de.tum.in.test.api;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.io.IOTester;
+import de.tum.in.test.api.io.OmittedLines;
+
+/**
+ * This annotation can be applied to a class or method and tells the
+ * {@link IOTester} to only keep the first and the last lines of the output, for
+ * tested code with large output. The lines in between are counted and hashed,
+ * see {@link OmittedLines}, and only the first characters of each line are
+ * kept. The memory used for the output then does not depend on its length.
+ * <p>
+ * {@link MirrorOutput#maxCharCount()} does not apply to bounded output, longer
+ * output does not fail the test.
+ * <p>
+ * A {@link BoundedOutput} annotation on a method always overrides the one on
+ * the class level.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+@Documented
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, ANNOTATION_TYPE })
+public @interface BoundedOutput {
+
+	int DEFAULT_LINES = 1_000;
+
+	int DEFAULT_MAX_LINE_LENGTH = 10_000;
+
+	/**
+	 * The number of complete lines kept at the start of the output.
+	 * <p>
+	 * Default value is <code>1_000</code>
+	 */
+	int head() default DEFAULT_LINES;
+
+	/**
+	 * The number of complete lines kept at the end of the output, the line that is
+	 * not complete yet is always kept.
+	 * <p>
+	 * Default value is <code>1_000</code>
+	 */
+	int tail() default DEFAULT_LINES;
+
+	/**
+	 * The number of characters kept of each line, the characters after that are
+	 * only part of the counts and hashes. Assertions on the lines only see the kept
+	 * characters, and expected lines registered with
+	 * {@link de.tum.in.test.api.io.OutputTester#expectLinesMatch(String, String...)
+	 * expectLinesMatch} fail if they would have to be compared to a longer line.
+	 * <p>
+	 * Default value is <code>10_000</code>
+	 */
+	int maxLineLength() default DEFAULT_MAX_LINE_LENGTH;
+}
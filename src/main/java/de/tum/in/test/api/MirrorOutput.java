@@ -23,10 +23,15 @@ import de.tum.in.test.api.io.IOTester;
  * <p>
  * <code>maxCharCount</code> is used to restrict the number of characters that
  * are stored and printed to the original standard output.
+ * <p>
+ * With a positive <code>asyncBufferSize</code>, the output is mirrored by a
+ * background thread, so that a slow original standard output does not slow down
+ * the tested code or cause timeouts. The remaining output is written when the
+ * test is over.
  *
  * @author Christian Femers
  * @since 0.1.0
- * @version 1.1.0
+ * @version 1.2.0
  */
 @API(status = Status.MAINTAINED)
 @Documented
@@ -46,6 +51,29 @@ public @interface MirrorOutput {
 	 */
 	long maxCharCount() default DEFAULT_MAX_STD_OUT;
 
+	/**
+	 * The size of the buffer in bytes for mirroring the output asynchronously, it
+	 * is rounded up to a power of two. If it is zero, the output is mirrored
+	 * synchronously by the thread that writes it.
+	 * <p>
+	 * Default value is <code>0</code>
+	 *
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	int asyncBufferSize() default 0;
+
+	/**
+	 * What happens to output that does not fit into the buffer for asynchronous
+	 * mirroring, see {@link #asyncBufferSize()}.
+	 * <p>
+	 * Default value is {@link MirrorOverflowPolicy#DROP}
+	 *
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	MirrorOverflowPolicy overflowPolicy() default MirrorOverflowPolicy.DROP;
+
 	enum MirrorOutputPolicy {
 		DISABLED,
 		ENABLED;
@@ -54,4 +82,20 @@ public @interface MirrorOutput {
 			return this == ENABLED;
 		}
 	}
+
+	/**
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	enum MirrorOverflowPolicy {
+		/**
+		 * The output is not mirrored, the number of dropped bytes is noted in the
+		 * mirrored output
+		 */
+		DROP,
+		/**
+		 * The writing thread waits until there is enough space in the buffer
+		 */
+		BLOCK
+	}
 }
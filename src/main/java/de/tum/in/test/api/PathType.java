@@ -3,16 +3,21 @@ package de.tum.in.test.api;
 import java.io.File;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
 import de.tum.in.test.api.util.LruCache;
 
 public enum PathType {
@@ -24,6 +29,11 @@ public enum PathType {
 		public PathMatcher convertToPathMatcher(String s) {
 			return Path.of(s).toAbsolutePath().normalize()::equals;
 		}
+
+		@Override
+		public Optional<Path> getLiteralBase(String s) {
+			return Optional.of(Path.of(s).toAbsolutePath().normalize());
+		}
 	},
 	/**
 	 * The path must start with the given path; given path may be specified relative
@@ -34,6 +44,11 @@ public enum PathType {
 			Path begin = Path.of(s).toAbsolutePath().normalize();
 			return p -> p.normalize().startsWith(begin);
 		}
+
+		@Override
+		public Optional<Path> getLiteralBase(String s) {
+			return Optional.of(Path.of(s).toAbsolutePath().normalize());
+		}
 	},
 	/**
 	 * applies relative GLOB for a relativized path
@@ -47,6 +62,18 @@ public enum PathType {
 			PathMatcher pm = DEFAULT_FS.getPathMatcher("glob:" + normalizedGlob.getNormalizedGlobPattern());
 			return p -> pm.matches(relativizeSafe(p, normalizedGlob.getRelativeOffset()));
 		}
+
+		@Override
+		public Optional<Path> getLiteralBase(String s) {
+			GlobNormalizationResult normalizedGlob = GlobNormalizationResult.normalizeGlobPattern(s);
+			String literalPrefix = getLiteralGlobPrefix(normalizedGlob.getNormalizedGlobPattern());
+			// without a literal segment, the pattern can match relativized paths starting
+			// with ".."
+			if (literalPrefix.isEmpty())
+				return Optional.empty();
+			return toNormalizedPath(literalPrefix)
+					.map(CURRENT_PATH_HIERARCHY.get(normalizedGlob.getRelativeOffset())::resolve);
+		}
 	},
 	/**
 	 * applies relative RegEx for a relativized path
@@ -71,6 +98,11 @@ public enum PathType {
 			PathMatcher pm = DEFAULT_FS.getPathMatcher("glob:" + s);
 			return p -> pm.matches(p.normalize());
 		}
+
+		@Override
+		public Optional<Path> getLiteralBase(String s) {
+			return toNormalizedPath(getLiteralGlobPrefix(s)).filter(Path::isAbsolute);
+		}
 	},
 	/**
 	 * applies absolute RegEx for an absolute path
@@ -92,12 +124,27 @@ public enum PathType {
 	 */
 	public abstract PathMatcher convertToPathMatcher(String s);
 
+	/**
+	 * Returns the absolute path that all paths matched by the pattern start with,
+	 * as far as it can be determined from the literal part of the pattern. This
+	 * allows to index path rules instead of trying each of them.
+	 *
+	 * @param s the format/pattern
+	 * @return the normalized absolute base path, or an empty Optional if the
+	 *         pattern could match any path
+	 */
+	@API(status = Status.INTERNAL)
+	public Optional<Path> getLiteralBase(String s) {
+		return Optional.empty();
+	}
+
 	static final FileSystem DEFAULT_FS = FileSystems.getDefault();
 	static final Path CURRENT_PATH = Path.of("").toAbsolutePath();
 	static final List<Path> CURRENT_PATH_HIERARCHY = Stream.iterate(CURRENT_PATH, Path::getParent)
 			.takeWhile(Objects::nonNull).collect(Collectors.toUnmodifiableList());
 
 	private static final int NO_OFFSET = 0;
+	private static final String GLOB_SPECIAL_CHARS = "*?[]{}\\";
 	private static final Pattern GLOB_SINGLE_DOT_ELIMINATION;
 	private static final Pattern GLOB_DOUBLE_DOT_ELIMINATION;
 
@@ -110,6 +157,30 @@ public enum PathType {
 				.compile(String.format("^%2$s%1$s\\.\\.(?:%1$s|$)|%1$s%2$s%1$s\\.\\.(?=%1$s|$)", sepPat, nonSepPat));
 	}
 
+	private static String getLiteralGlobPrefix(String globPattern) {
+		int firstSpecial = 0;
+		while (firstSpecial < globPattern.length() && GLOB_SPECIAL_CHARS.indexOf(globPattern.charAt(firstSpecial)) < 0)
+			firstSpecial++;
+		if (firstSpecial == globPattern.length())
+			return globPattern;
+		int lastSeparator = globPattern.lastIndexOf('/', firstSpecial);
+		if (lastSeparator <= 0)
+			return lastSeparator == 0 ? "/" : "";
+		return globPattern.substring(0, lastSeparator);
+	}
+
+	private static Optional<Path> toNormalizedPath(String literalPath) {
+		if (literalPath.isEmpty())
+			return Optional.empty();
+		try {
+			Path path = Path.of(literalPath);
+			// remaining "." or ".." segments would not be matched literally
+			return Optional.of(path).filter(path.normalize()::equals);
+		} catch (@SuppressWarnings("unused") InvalidPathException e) {
+			return Optional.empty();
+		}
+	}
+
 	private static Path relativizeSafe(Path any, int offset) {
 		Path p = any.normalize().toAbsolutePath();
 		if (!Objects.equals(p.getRoot(), CURRENT_PATH.getRoot()))
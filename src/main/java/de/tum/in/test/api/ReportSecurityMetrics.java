@@ -0,0 +1,42 @@
+package de.tum.in.test.api;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.security.ArtemisSecurityManager;
+import de.tum.in.test.api.security.SecurityMetrics;
+
+/**
+ * Publishes the {@link SecurityMetrics} collected by the
+ * {@link ArtemisSecurityManager} during the test as report entries of the test.
+ * This allows to see how much of the test execution time is spent in the
+ * security checks.
+ * <p>
+ * The metrics are always collected; this annotation only controls whether they
+ * are reported. A {@link ReportSecurityMetrics} annotation on a method always
+ * overrides the one on the class level.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+@Documented
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, ANNOTATION_TYPE })
+public @interface ReportSecurityMetrics {
+
+	/**
+	 * Whether the metrics are published, can be used to disable reporting for
+	 * single methods.
+	 * <p>
+	 * The default value is <code>true</code>.
+	 */
+	boolean value() default true;
+}
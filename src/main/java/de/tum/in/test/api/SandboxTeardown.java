@@ -0,0 +1,83 @@
+package de.tum.in.test.api;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.security.ArtemisSecurityManager;
+
+/**
+ * Controls the cleanup the {@link ArtemisSecurityManager} performs after each
+ * test, before the test threads are checked and stopped.
+ * <p>
+ * In the {@link TeardownMode#STRICT STRICT} mode, a garbage collection and the
+ * finalization of all pending objects is forced after every test. The
+ * {@link TeardownMode#ADAPTIVE ADAPTIVE} mode, which is the default, only does
+ * this if the test created threads, if objects are already waiting for
+ * finalization or if the used heap grew by more than
+ * <code>heapGrowthThreshold</code> bytes during the test. Finalizers of objects
+ * that are collected later still run under the security manager, as the
+ * finalizer thread is never whitelisted.
+ * <p>
+ * If no other test is running, the uninstall also waits for the common
+ * {@link java.util.concurrent.ForkJoinPool ForkJoinPool} used by parallel
+ * streams to become quiescent, at most for <code>commonPoolDrainBudget</code>
+ * milliseconds, after interrupting its workers.
+ * <p>
+ * A {@link SandboxTeardown} annotation on a method always overrides the one on
+ * the class level.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+@Documented
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, ANNOTATION_TYPE })
+public @interface SandboxTeardown {
+
+	long DEFAULT_HEAP_GROWTH_THRESHOLD = 64L * 1024 * 1024;
+
+	long DEFAULT_COMMON_POOL_DRAIN_BUDGET = 100;
+
+	TeardownMode value() default TeardownMode.ADAPTIVE;
+
+	/**
+	 * The growth of the used heap during a test in bytes, above which the
+	 * {@link TeardownMode#ADAPTIVE ADAPTIVE} mode forces a garbage collection.
+	 * <p>
+	 * The default value is <code>64 MiB</code>.
+	 */
+	long heapGrowthThreshold() default DEFAULT_HEAP_GROWTH_THRESHOLD;
+
+	/**
+	 * The maximum time in milliseconds the uninstall waits for the common
+	 * {@link java.util.concurrent.ForkJoinPool ForkJoinPool} to become quiescent.
+	 * The uninstall continues as soon as the pool is quiescent, so this only delays
+	 * tests that leave tasks running in the pool.
+	 * <p>
+	 * The default value is <code>100 ms</code>.
+	 */
+	long commonPoolDrainBudget() default DEFAULT_COMMON_POOL_DRAIN_BUDGET;
+
+	enum TeardownMode {
+		/**
+		 * Forces garbage collection and finalization only if needed.
+		 */
+		ADAPTIVE,
+		/**
+		 * Forces garbage collection and finalization after every test.
+		 */
+		STRICT;
+
+		public boolean isStrict() {
+			return this == STRICT;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package de.tum.in.test.api;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.security.ArtemisSecurityManager;
+
+/**
+ * Controls how the {@link ArtemisSecurityManager} decides whether a stack frame
+ * belongs to trusted code.
+ * <p>
+ * By default ({@link ClassificationMode#NAME NAME}), a frame is trusted if the
+ * name of its class starts with one of the static whitelisted prefixes like
+ * <code>java.</code> or <code>org.junit.</code>, or if it is whitelisted or
+ * trusted by the configuration. In the {@link ClassificationMode#ORIGIN ORIGIN}
+ * mode, the static prefixes are only accepted for classes that come from a
+ * trusted origin: the JDK, a named module, a JAR file or the location of this
+ * library. A class that was compiled into a package like <code>org.junit</code>
+ * next to the code under test is therefore no longer trusted. Classes
+ * whitelisted or trusted explicitly, e.g. by {@link TrustedPackage}, are
+ * trusted regardless of their origin.
+ * <p>
+ * The verdict is cached per class, so checking a frame is a lookup by class
+ * identity.
+ * <p>
+ * A {@link StackFrameClassification} annotation on a method always overrides
+ * the one on the class level.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+@Documented
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, ANNOTATION_TYPE })
+public @interface StackFrameClassification {
+
+	ClassificationMode value();
+
+	enum ClassificationMode {
+		/**
+		 * Classifies frames by the name of their class only.
+		 */
+		NAME,
+		/**
+		 * Requires classes trusted by a static prefix to come from a trusted origin.
+		 */
+		ORIGIN
+	}
+}
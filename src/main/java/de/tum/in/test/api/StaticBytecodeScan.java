@@ -0,0 +1,64 @@
+package de.tum.in.test.api;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.security.ArtemisSecurityManager;
+
+/**
+ * Analyzes the class files in the execution path before each test, without
+ * loading them. For every class that is not trusted, the constant pool is
+ * searched for references to guarded APIs like the file system, networking,
+ * processes, threads and reflection. The result is cached per class file
+ * content, so unchanged classes are only parsed once.
+ * <p>
+ * In the {@link ScanMode#REPORT REPORT} mode, the classes that can reach a
+ * guarded API are logged when the test starts, before anything is executed. The
+ * {@link ScanMode#SHORT_CIRCUIT SHORT_CIRCUIT} mode, which is the default,
+ * additionally lets the {@link ArtemisSecurityManager} skip frames of analyzed
+ * classes in the stack walk of package access checks, if neither the class nor
+ * the analyzed classes it refers to reference the package or use reflection.
+ * Frames below a JDK frame other than the class loading are never skipped.
+ * Package access checks happen on class loading and are among the most frequent
+ * and expensive checks.
+ * <p>
+ * A {@link StaticBytecodeScan} annotation on a method always overrides the one
+ * on the class level.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+@Documented
+@Retention(RUNTIME)
+@Target({ TYPE, METHOD, ANNOTATION_TYPE })
+public @interface StaticBytecodeScan {
+
+	ScanMode value() default ScanMode.SHORT_CIRCUIT;
+
+	enum ScanMode {
+		/**
+		 * No analysis, the default without annotation.
+		 */
+		OFF,
+		/**
+		 * Reports the guarded APIs the classes can reach.
+		 */
+		REPORT,
+		/**
+		 * Reports and uses the analysis to shorten package access checks.
+		 */
+		SHORT_CIRCUIT;
+
+		public boolean isEnabled() {
+			return this != OFF;
+		}
+	}
+}
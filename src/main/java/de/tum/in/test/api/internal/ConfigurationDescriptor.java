@@ -0,0 +1,208 @@
+package de.tum.in.test.api.internal;
+
+import static de.tum.in.test.api.internal.ConfigurationKeys.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The sandbox configuration annotations of a test, as resolved at compile time
+ * by the {@link ConfigurationProcessor}.
+ * <p>
+ * The processor writes one properties file for each top level class, with the
+ * annotations of that class, all classes nested in it and all their methods.
+ * For each of these elements, the file contains the annotations that
+ * {@link TestContextUtils} would find on the element by reflection, including
+ * the meta-annotations and the repeated ones. Elements without any of the
+ * annotations have no entries. A descriptor only exists if the files exist for
+ * all elements of the test, otherwise the configuration must be found by
+ * reflection.
+ * <p>
+ * A file is only used if it is the only one of its name on the class path and
+ * if it is located next to the class file of its class, at the location of the
+ * {@link CodeSource} of the class. Otherwise, other code on the class path,
+ * like the code under test, could replace the configuration of the tests. It is
+ * also ignored if its {@link ConfigurationFingerprint} does not match the
+ * class, e.g. if the class was compiled again without the processor.
+ * <p>
+ * Keys have the form <code>element attribute</code>, where the element is the
+ * binary name of a class or <code>class#method(parameter types)</code>.
+ * Repeatable annotations use one key for each value, with the index appended to
+ * the attribute, like <code>whitelistPath.0</code>.
+ */
+final class ConfigurationDescriptor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ConfigurationDescriptor.class);
+
+	private static final ClassValue<Optional<Properties>> FILES = new ClassValue<>() {
+		@Override
+		protected Optional<Properties> computeValue(Class<?> topLevelClass) {
+			return load(topLevelClass);
+		}
+	};
+
+	private final List<String> elements;
+	private final List<Properties> files;
+
+	private ConfigurationDescriptor(List<String> elements, List<Properties> files) {
+		this.elements = elements;
+		this.files = files;
+	}
+
+	/**
+	 * @return the descriptor for the test method and the classes enclosing the test
+	 *         class, or an empty Optional if any of them was not processed
+	 */
+	static Optional<ConfigurationDescriptor> of(TestContext context) {
+		List<String> elements = new ArrayList<>();
+		List<Properties> files = new ArrayList<>();
+		if (context.testMethod().isPresent()) {
+			Method method = context.testMethod().get();
+			var file = fileOf(method.getDeclaringClass());
+			if (file.isEmpty() || !isProcessed(file.get(), method.getDeclaringClass()))
+				return Optional.empty();
+			elements.add(keyOf(method));
+			files.add(file.get());
+		}
+		for (Class<?> testClass : TestContextUtils.getClassNestingInnermostFirst(context)
+				.collect(Collectors.toList())) {
+			var file = fileOf(testClass);
+			if (file.isEmpty() || !isProcessed(file.get(), testClass))
+				return Optional.empty();
+			elements.add(testClass.getName());
+			files.add(file.get());
+		}
+		if (elements.isEmpty())
+			return Optional.empty();
+		return Optional.of(new ConfigurationDescriptor(elements, files));
+	}
+
+	/**
+	 * Like {@link TestContextUtils#findAnnotationIn(TestContext, Class)}.
+	 *
+	 * @return the value of the innermost element that has the attribute
+	 */
+	Optional<String> find(String attribute) {
+		for (int i = 0; i < elements.size(); i++) {
+			String value = files.get(i).getProperty(key(elements.get(i), attribute));
+			if (value != null)
+				return Optional.of(value);
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Like
+	 * {@link TestContextUtils#findRepeatableAnnotationsIn(TestContext, Class)}.
+	 *
+	 * @return the values of all elements, innermost first
+	 */
+	Stream<String> findAll(String attribute) {
+		return IntStream.range(0, elements.size()).boxed().flatMap(i -> {
+			var file = files.get(i);
+			String prefix = key(elements.get(i), attribute) + '.';
+			return Stream.iterate(0, index -> file.getProperty(prefix + index) != null, index -> index + 1)
+					.map(index -> file.getProperty(prefix + index));
+		});
+	}
+
+	private static boolean isProcessed(Properties file, Class<?> type) {
+		return file.containsKey(key(type.getName(), PROCESSED));
+	}
+
+	private static Optional<Properties> fileOf(Class<?> type) {
+		Class<?> topLevelClass = type;
+		while (topLevelClass.getEnclosingClass() != null)
+			topLevelClass = topLevelClass.getEnclosingClass();
+		return FILES.get(topLevelClass);
+	}
+
+	private static Optional<Properties> load(Class<?> topLevelClass) {
+		ClassLoader classLoader = topLevelClass.getClassLoader();
+		if (classLoader == null)
+			return Optional.empty();
+		try {
+			return selectOwnFile(topLevelClass,
+					Collections.list(classLoader.getResources(fileNameOf(topLevelClass.getName()))))
+							.flatMap(url -> read(topLevelClass, url));
+		} catch (IOException | SecurityException e) {
+			LOG.warn("Failed to find configuration descriptor of {}", topLevelClass, e); //$NON-NLS-1$
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @param candidates all files with the name of the descriptor of the class
+	 * @return the file, if it is the only candidate and located next to the class
+	 *         file
+	 */
+	static Optional<URL> selectOwnFile(Class<?> topLevelClass, List<URL> candidates) {
+		if (candidates.isEmpty())
+			return Optional.empty();
+		var expected = expectedLocation(topLevelClass, fileNameOf(topLevelClass.getName()));
+		if (candidates.size() != 1 || expected.isEmpty()
+				|| !candidates.get(0).toExternalForm().equals(expected.get().toExternalForm())) {
+			LOG.warn("Ignoring configuration descriptors of {} not located next to the class: {}", //$NON-NLS-1$
+					topLevelClass, candidates);
+			return Optional.empty();
+		}
+		return Optional.of(candidates.get(0));
+	}
+
+	/**
+	 * @return the URL the file would have if it was located next to the class file
+	 *         of the class, in the same directory or JAR file
+	 */
+	private static Optional<URL> expectedLocation(Class<?> topLevelClass, String fileName) {
+		CodeSource codeSource = topLevelClass.getProtectionDomain().getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null)
+			return Optional.empty();
+		URL location = codeSource.getLocation();
+		try {
+			if (location.getPath().endsWith("/")) //$NON-NLS-1$
+				return Optional.of(new URL(location, fileName));
+			return Optional.of(new URL("jar:" + location.toExternalForm() + "!/" + fileName)); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (MalformedURLException e) {
+			LOG.debug("Unexpected code source location of {}", topLevelClass, e); //$NON-NLS-1$
+			return Optional.empty();
+		}
+	}
+
+	static Optional<Properties> read(Class<?> topLevelClass, URL url) {
+		try (InputStream in = url.openStream()) {
+			Properties file = new Properties();
+			file.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+			if (!VERSION.equals(file.getProperty(VERSION_KEY))) {
+				LOG.warn("Ignoring configuration descriptor of {} with unsupported version", topLevelClass); //$NON-NLS-1$
+				return Optional.empty();
+			}
+			if (!ConfigurationFingerprint.of(topLevelClass)
+					.equals(Optional.ofNullable(file.getProperty(FINGERPRINT_KEY)))) {
+				LOG.warn("Ignoring configuration descriptor of {}, it was written for a different version of the class", //$NON-NLS-1$
+						topLevelClass);
+				return Optional.empty();
+			}
+			return Optional.of(file);
+		} catch (IOException | IllegalArgumentException e) {
+			LOG.warn("Failed to read configuration descriptor of {}", topLevelClass, e); //$NON-NLS-1$
+			return Optional.empty();
+		}
+	}
+}
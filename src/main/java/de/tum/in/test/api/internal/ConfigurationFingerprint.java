@@ -0,0 +1,156 @@
+package de.tum.in.test.api.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A fingerprint of the annotations in a top level class, so that a
+ * {@link ConfigurationDescriptor} that was written for an older version of the
+ * class is not used.
+ * <p>
+ * The {@link ConfigurationProcessor} computes the fingerprint from the source
+ * and the descriptor from the class by reflection, which is why it only covers
+ * what both can see the same way: the types of the annotations retained at
+ * runtime on the class, all classes nested in it and all their methods, and all
+ * values of the annotations of Ares, which are the ones the descriptor
+ * contains. Like the descriptor, this class must not depend on other libraries.
+ */
+final class ConfigurationFingerprint {
+
+	static final String ARES_ANNOTATION_PREFIX = "de.tum.in.test.api."; //$NON-NLS-1$
+
+	private final List<String> entries = new ArrayList<>();
+
+	/**
+	 * @param element    the element as in the keys of the descriptor
+	 * @param annotation the binary name of the annotation type, followed by the
+	 *                   {@link #valuesOf(List) values} for annotations of Ares
+	 */
+	void add(String element, String annotation) {
+		entries.add(element + ' ' + annotation);
+	}
+
+	/**
+	 * @return the fingerprint, which does not depend on the order of the entries
+	 */
+	String value() {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+			entries.stream().sorted().forEach(entry -> {
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			});
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static boolean isAresAnnotation(String annotationType) {
+		return annotationType.startsWith(ARES_ANNOTATION_PREFIX);
+	}
+
+	/**
+	 * @param values the values of an annotation as <code>name=value</code>, with
+	 *               the values formatted by the methods of this class
+	 */
+	static String valuesOf(List<String> values) {
+		return values.stream().sorted().collect(Collectors.joining(",", "(", ")")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	static String stringValue(String value) {
+		return "\"" + value.length() + ':' + value; //$NON-NLS-1$
+	}
+
+	static String classValue(String typeName) {
+		return typeName + ".class"; //$NON-NLS-1$
+	}
+
+	static String arrayValue(Stream<String> values) {
+		return values.collect(Collectors.joining(",", "{", "}")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Computes the fingerprint of the class by reflection, as the processor does it
+	 * at compile time.
+	 *
+	 * @return the fingerprint, or an empty Optional if the annotations cannot be
+	 *         read, e.g. because a class they refer to is missing
+	 */
+	static Optional<String> of(Class<?> topLevelClass) {
+		try {
+			var fingerprint = new ConfigurationFingerprint();
+			fingerprint.addClass(topLevelClass);
+			return Optional.of(fingerprint.value());
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			return Optional.empty();
+		}
+	}
+
+	private void addClass(Class<?> type) throws ReflectiveOperationException {
+		addElement(type.getName(), type.getDeclaredAnnotations());
+		for (Method method : type.getDeclaredMethods()) {
+			if (!method.isSynthetic())
+				addElement(ConfigurationKeys.keyOf(method), method.getDeclaredAnnotations());
+		}
+		for (Class<?> member : type.getDeclaredClasses()) {
+			if (!member.isAnnotation())
+				addClass(member);
+		}
+	}
+
+	private void addElement(String element, Annotation[] annotations) throws ReflectiveOperationException {
+		for (Annotation annotation : annotations) {
+			String annotationType = annotation.annotationType().getName();
+			add(element, isAresAnnotation(annotationType) ? annotationType + valuesOf(annotation) : annotationType);
+		}
+	}
+
+	private static String valuesOf(Annotation annotation) throws ReflectiveOperationException {
+		List<String> values = new ArrayList<>();
+		for (Method method : annotation.annotationType().getDeclaredMethods())
+			values.add(method.getName() + '=' + valueOf(invoke(method, annotation)));
+		return valuesOf(values);
+	}
+
+	private static Object invoke(Method method, Annotation annotation) throws ReflectiveOperationException {
+		try {
+			return method.invoke(annotation);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	private static String valueOf(Object value) throws ReflectiveOperationException {
+		if (value instanceof String)
+			return stringValue((String) value);
+		if (value instanceof Class)
+			return classValue(((Class<?>) value).getTypeName());
+		if (value instanceof Enum)
+			return ((Enum<?>) value).name();
+		if (value instanceof Annotation) {
+			var annotation = (Annotation) value;
+			return annotation.annotationType().getName() + valuesOf(annotation);
+		}
+		if (value.getClass().isArray()) {
+			List<String> elements = new ArrayList<>();
+			for (int i = 0; i < Array.getLength(value); i++)
+				elements.add(valueOf(Array.get(value, i)));
+			return arrayValue(elements.stream());
+		}
+		return value.toString();
+	}
+}
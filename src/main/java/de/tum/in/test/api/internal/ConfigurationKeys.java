@@ -0,0 +1,66 @@
+package de.tum.in.test.api.internal;
+
+import java.lang.reflect.Method;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The names and keys of the {@link ConfigurationDescriptor} files, shared with
+ * the {@link ConfigurationProcessor}.
+ * <p>
+ * The processor runs in the compiler, where only Ares itself might be on the
+ * processor path, so this class must not depend on other libraries, nor on
+ * classes that do, like the descriptor with its logger.
+ */
+final class ConfigurationKeys {
+
+	static final String LOCATION = "META-INF/ares/configuration/"; //$NON-NLS-1$
+	static final String SUFFIX = ".properties"; //$NON-NLS-1$
+	static final String VERSION_KEY = "version"; //$NON-NLS-1$
+	static final String VERSION = "2"; //$NON-NLS-1$
+	/**
+	 * The {@link ConfigurationFingerprint} of the class the file was written for
+	 */
+	static final String FINGERPRINT_KEY = "fingerprint"; //$NON-NLS-1$
+
+	/**
+	 * Present for each processed class, so that classes the processor did not see,
+	 * like local classes, are not mistaken for classes without annotations
+	 */
+	static final String PROCESSED = "processed"; //$NON-NLS-1$
+	static final String WHITELIST_PATH = "whitelistPath"; //$NON-NLS-1$
+	static final String BLACKLIST_PATH = "blacklistPath"; //$NON-NLS-1$
+	static final String WHITELIST_CLASS = "whitelistClass"; //$NON-NLS-1$
+	static final String WHITELIST_PACKAGE = "whitelistPackage"; //$NON-NLS-1$
+	static final String BLACKLIST_PACKAGE = "blacklistPackage"; //$NON-NLS-1$
+	static final String TRUSTED_PACKAGE = "trustedPackage"; //$NON-NLS-1$
+	static final String ALLOW_THREADS = "allowThreads"; //$NON-NLS-1$
+	static final String ALLOW_LOCAL_PORT = "allowLocalPort"; //$NON-NLS-1$
+	static final String SANDBOX_TEARDOWN = "sandboxTeardown"; //$NON-NLS-1$
+	static final String STACK_FRAME_CLASSIFICATION = "stackFrameClassification"; //$NON-NLS-1$
+	static final String STATIC_BYTECODE_SCAN = "staticBytecodeScan"; //$NON-NLS-1$
+
+	/**
+	 * Separates the fields of composite values, like the path type, the action
+	 * level and the pattern of a path rule
+	 */
+	static final String FIELD_SEPARATOR = ";"; //$NON-NLS-1$
+
+	private ConfigurationKeys() {
+
+	}
+
+	static String key(String element, String attribute) {
+		return element + ' ' + attribute;
+	}
+
+	static String keyOf(Method method) {
+		return Stream.of(method.getParameterTypes()).map(Class::getTypeName)
+				.collect(Collectors.joining(",", method.getDeclaringClass().getName() + '#' + method.getName() + '(', //$NON-NLS-1$
+						")")); //$NON-NLS-1$
+	}
+
+	static String fileNameOf(String topLevelBinaryName) {
+		return LOCATION + topLevelBinaryName + SUFFIX;
+	}
+}
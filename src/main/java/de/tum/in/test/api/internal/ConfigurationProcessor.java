@@ -0,0 +1,385 @@
+package de.tum.in.test.api.internal;
+
+import static de.tum.in.test.api.internal.ConfigurationKeys.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.StandardLocation;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.AddTrustedPackage;
+import de.tum.in.test.api.AddTrustedPackages;
+import de.tum.in.test.api.AllowLocalPort;
+import de.tum.in.test.api.AllowThreads;
+import de.tum.in.test.api.BlacklistPackage;
+import de.tum.in.test.api.BlacklistPackages;
+import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.BlacklistPaths;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.StackFrameClassification;
+import de.tum.in.test.api.StaticBytecodeScan;
+import de.tum.in.test.api.WhitelistClass;
+import de.tum.in.test.api.WhitelistClasses;
+import de.tum.in.test.api.WhitelistPackage;
+import de.tum.in.test.api.WhitelistPackages;
+import de.tum.in.test.api.WhitelistPath;
+import de.tum.in.test.api.WhitelistPaths;
+
+/**
+ * Resolves the annotations that configure the sandbox at compile time and
+ * writes them as {@link ConfigurationDescriptor}, so that the configuration of
+ * a test does not need to search the test method and classes by reflection.
+ * <p>
+ * The annotations are resolved like JUnit does it at runtime, including
+ * meta-annotations and repeated annotations in their containers. Descriptors
+ * are only written for classes that contain tests or sandbox annotations. The
+ * processor never fails the compilation, if an annotation cannot be resolved,
+ * no descriptor is written for the class, and the configuration falls back to
+ * reflection. The same applies to classes with annotated interfaces, which
+ * JUnit also searches for annotations.
+ * <p>
+ * The processor is registered as service and runs automatically where Ares is
+ * on the class path of the compiler, usually when compiling the tests.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.INTERNAL)
+@SupportedAnnotationTypes("*")
+public final class ConfigurationProcessor extends AbstractProcessor {
+
+	private static final String META_ANNOTATION_PACKAGE = "java.lang.annotation"; //$NON-NLS-1$
+	private static final Set<String> TEST_ANNOTATION_PREFIXES = Set.of("org.junit.", "net.jqwik.", //$NON-NLS-1$ //$NON-NLS-2$
+			"de.tum.in.test."); //$NON-NLS-1$
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element root : roundEnv.getRootElements()) {
+			if (root instanceof TypeElement)
+				processTopLevelClass((TypeElement) root);
+		}
+		// other processors must still see all annotations
+		return false;
+	}
+
+	private void processTopLevelClass(TypeElement topLevelClass) {
+		String binaryName = processingEnv.getElementUtils().getBinaryName(topLevelClass).toString();
+		try {
+			var file = new DescriptorFile();
+			addClass(file, topLevelClass);
+			if (!file.relevant)
+				return;
+			file.properties.setProperty(VERSION_KEY, VERSION);
+			file.properties.setProperty(FINGERPRINT_KEY, file.fingerprint.value());
+			// sorted and without the date comment of Properties.store, for reproducible
+			// builds
+			var lines = new StringWriter();
+			file.properties.store(lines, null);
+			String content = lines.toString().lines().filter(line -> !line.startsWith("#")).sorted() //$NON-NLS-1$
+					.collect(Collectors.joining("\n", "", "\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			try (Writer out = processingEnv.getFiler()
+					.createResource(StandardLocation.CLASS_OUTPUT, "", fileNameOf(binaryName), topLevelClass) //$NON-NLS-1$
+					.openWriter()) {
+				out.write(content);
+			}
+		} catch (IOException | RuntimeException | LinkageError e) {
+			processingEnv.getMessager().printMessage(Kind.WARNING,
+					"Ares could not precompute the sandbox configuration of " + binaryName //$NON-NLS-1$
+							+ ", it will be read by reflection: " + e); //$NON-NLS-1$
+		}
+	}
+
+	private void addClass(DescriptorFile file, TypeElement type) {
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		if (!hasAnnotatedInterfaces(type))
+			file.properties.setProperty(key(binaryName, PROCESSED), Boolean.TRUE.toString());
+		addElement(file, type, binaryName);
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.METHOD)
+				addElement(file, member, methodKey(binaryName, (ExecutableElement) member));
+			else if (member instanceof TypeElement && member.getKind() != ElementKind.ANNOTATION_TYPE)
+				addClass(file, (TypeElement) member);
+		}
+	}
+
+	/**
+	 * @return true, if any of the interfaces of the type or their super interfaces
+	 *         has annotations that could configure the sandbox
+	 */
+	private boolean hasAnnotatedInterfaces(TypeElement type) {
+		for (TypeMirror superInterface : type.getInterfaces()) {
+			var element = processingEnv.getTypeUtils().asElement(superInterface);
+			if (!(element instanceof TypeElement))
+				continue;
+			if (element.getAnnotationMirrors().stream().map(this::typeNameOf)
+					.anyMatch(annotationType -> !annotationType.startsWith("java.")) //$NON-NLS-1$
+					|| hasAnnotatedInterfaces((TypeElement) element))
+				return true;
+		}
+		return false;
+	}
+
+	private void addElement(DescriptorFile file, Element element, String elementKey) {
+		if (element.getAnnotationMirrors().stream().map(this::typeNameOf)
+				.anyMatch(annotationType -> TEST_ANNOTATION_PREFIXES.stream().anyMatch(annotationType::startsWith)))
+			file.relevant = true;
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (isRetainedAtRuntime(annotation))
+				file.fingerprint.add(elementKey, fingerprintOf(annotation));
+		}
+		var values = new Properties();
+		for (AnnotationMirror path : findRepeatable(element, WhitelistPath.class.getName(),
+				WhitelistPaths.class.getName()))
+			addPathRules(values, WHITELIST_PATH, path);
+		for (AnnotationMirror path : findRepeatable(element, BlacklistPath.class.getName(),
+				BlacklistPaths.class.getName()))
+			addPathRules(values, BLACKLIST_PATH, path);
+		for (AnnotationMirror whitelistClass : findRepeatable(element, WhitelistClass.class.getName(),
+				WhitelistClasses.class.getName())) {
+			for (AnnotationValue value : arrayOf(whitelistClass, "value")) //$NON-NLS-1$
+				addIndexed(values, WHITELIST_CLASS, binaryNameOf((TypeMirror) value.getValue()));
+		}
+		for (AnnotationMirror packages : findRepeatable(element, BlacklistPackage.class.getName(),
+				BlacklistPackages.class.getName()))
+			addStrings(values, BLACKLIST_PACKAGE, packages);
+		for (AnnotationMirror packages : findRepeatable(element, WhitelistPackage.class.getName(),
+				WhitelistPackages.class.getName()))
+			addStrings(values, WHITELIST_PACKAGE, packages);
+		for (AnnotationMirror packages : findRepeatable(element, AddTrustedPackage.class.getName(),
+				AddTrustedPackages.class.getName()))
+			addStrings(values, TRUSTED_PACKAGE, packages);
+		find(element, AllowThreads.class.getName()).ifPresent(allowThreads -> values.setProperty(ALLOW_THREADS,
+				valueOf(allowThreads, "maxActiveCount").getValue().toString())); //$NON-NLS-1$
+		find(element, AllowLocalPort.class.getName()).ifPresent(allowLocalPort -> values.setProperty(ALLOW_LOCAL_PORT,
+				String.join(FIELD_SEPARATOR, intsOf(allowLocalPort, "value"), //$NON-NLS-1$
+						valueOf(allowLocalPort, "allowPortsAbove").getValue().toString(), //$NON-NLS-1$
+						intsOf(allowLocalPort, "exclude")))); //$NON-NLS-1$
+		find(element, SandboxTeardown.class.getName()).ifPresent(teardown -> values.setProperty(SANDBOX_TEARDOWN,
+				String.join(FIELD_SEPARATOR, enumOf(teardown, "value"), //$NON-NLS-1$
+						valueOf(teardown, "heapGrowthThreshold").getValue().toString(), //$NON-NLS-1$
+						valueOf(teardown, "commonPoolDrainBudget").getValue().toString()))); //$NON-NLS-1$
+		find(element, StackFrameClassification.class.getName()).ifPresent(
+				classification -> values.setProperty(STACK_FRAME_CLASSIFICATION, enumOf(classification, "value"))); //$NON-NLS-1$
+		find(element, StaticBytecodeScan.class.getName())
+				.ifPresent(scan -> values.setProperty(STATIC_BYTECODE_SCAN, enumOf(scan, "value"))); //$NON-NLS-1$
+		if (values.isEmpty())
+			return;
+		file.relevant = true;
+		values.forEach(
+				(attribute, value) -> file.properties.setProperty(key(elementKey, (String) attribute), (String) value));
+	}
+
+	private void addPathRules(Properties values, String attribute, AnnotationMirror path) {
+		String type = enumOf(path, "type"); //$NON-NLS-1$
+		String level = enumOf(path, "level"); //$NON-NLS-1$
+		for (AnnotationValue pattern : arrayOf(path, "value")) //$NON-NLS-1$
+			addIndexed(values, attribute, String.join(FIELD_SEPARATOR, type, level, (String) pattern.getValue()));
+	}
+
+	private void addStrings(Properties values, String attribute, AnnotationMirror annotation) {
+		for (AnnotationValue value : arrayOf(annotation, "value")) //$NON-NLS-1$
+			addIndexed(values, attribute, (String) value.getValue());
+	}
+
+	private static void addIndexed(Properties values, String attribute, String value) {
+		int index = 0;
+		while (values.containsKey(attribute + '.' + index))
+			index++;
+		values.setProperty(attribute + '.' + index, value);
+	}
+
+	/**
+	 * Like
+	 * {@link org.junit.platform.commons.support.AnnotationSupport#findAnnotation}
+	 * for annotations that are not inherited.
+	 */
+	private Optional<AnnotationMirror> find(Element element, String annotationType) {
+		return find(element, annotationType, new HashSet<>());
+	}
+
+	private Optional<AnnotationMirror> find(Element element, String annotationType, Set<String> visited) {
+		List<? extends AnnotationMirror> candidates = element.getAnnotationMirrors();
+		for (AnnotationMirror candidate : candidates) {
+			if (typeNameOf(candidate).equals(annotationType))
+				return Optional.of(candidate);
+		}
+		for (AnnotationMirror candidate : candidates) {
+			String candidateType = typeNameOf(candidate);
+			if (!isMetaAnnotationType(candidateType) && visited.add(candidateType)) {
+				var metaAnnotation = find(candidate.getAnnotationType().asElement(), annotationType, visited);
+				if (metaAnnotation.isPresent())
+					return metaAnnotation;
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Like
+	 * {@link org.junit.platform.commons.support.AnnotationSupport#findRepeatableAnnotations}
+	 * for annotations that are not inherited.
+	 */
+	private List<AnnotationMirror> findRepeatable(Element element, String annotationType, String containerType) {
+		List<AnnotationMirror> found = new ArrayList<>();
+		findRepeatable(element, annotationType, containerType, found, new HashSet<>());
+		return found;
+	}
+
+	private void findRepeatable(Element element, String annotationType, String containerType,
+			List<AnnotationMirror> found, Set<String> visited) {
+		for (AnnotationMirror candidate : element.getAnnotationMirrors()) {
+			String candidateType = typeNameOf(candidate);
+			if (candidateType.equals(annotationType))
+				found.add(candidate);
+			else if (candidateType.equals(containerType))
+				arrayOf(candidate, "value").forEach(value -> found.add((AnnotationMirror) value.getValue())); //$NON-NLS-1$
+			else if (!isMetaAnnotationType(candidateType) && visited.add(candidateType))
+				findRepeatable(candidate.getAnnotationType().asElement(), annotationType, containerType, found,
+						visited);
+		}
+	}
+
+	private static boolean isRetainedAtRuntime(AnnotationMirror annotation) {
+		var retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+		return retention != null && retention.value() == RetentionPolicy.RUNTIME;
+	}
+
+	/**
+	 * @return the annotation as {@link ConfigurationFingerprint} would read it by
+	 *         reflection
+	 */
+	private String fingerprintOf(AnnotationMirror annotation) {
+		String annotationType = binaryNameOf(annotation.getAnnotationType());
+		if (!ConfigurationFingerprint.isAresAnnotation(annotationType))
+			return annotationType;
+		return annotationType + fingerprintValuesOf(annotation);
+	}
+
+	private String fingerprintValuesOf(AnnotationMirror annotation) {
+		List<String> values = new ArrayList<>();
+		processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).forEach(
+				(name, value) -> values.add(name.getSimpleName() + "=" + fingerprintValueOf(value.getValue()))); //$NON-NLS-1$
+		return ConfigurationFingerprint.valuesOf(values);
+	}
+
+	private String fingerprintValueOf(Object value) {
+		if (value instanceof String)
+			return ConfigurationFingerprint.stringValue((String) value);
+		if (value instanceof TypeMirror)
+			return ConfigurationFingerprint.classValue(typeNameOf((TypeMirror) value));
+		if (value instanceof VariableElement)
+			return ((VariableElement) value).getSimpleName().toString();
+		if (value instanceof AnnotationMirror) {
+			var annotation = (AnnotationMirror) value;
+			return binaryNameOf(annotation.getAnnotationType()) + fingerprintValuesOf(annotation);
+		}
+		if (value instanceof List)
+			return ConfigurationFingerprint.arrayValue(((List<?>) value).stream()
+					.map(element -> fingerprintValueOf(((AnnotationValue) element).getValue())));
+		return value.toString();
+	}
+
+	private static boolean isMetaAnnotationType(String annotationType) {
+		return annotationType.startsWith(META_ANNOTATION_PACKAGE + '.');
+	}
+
+	private String typeNameOf(AnnotationMirror annotation) {
+		return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+	}
+
+	private AnnotationValue valueOf(AnnotationMirror annotation, String name) {
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils()
+				.getElementValuesWithDefaults(annotation);
+		return values.entrySet().stream().filter(entry -> entry.getKey().getSimpleName().contentEquals(name))
+				.map(Map.Entry::getValue).findFirst()
+				.orElseThrow(() -> new IllegalStateException("Missing value " + name + " of " + annotation)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<? extends AnnotationValue> arrayOf(AnnotationMirror annotation, String name) {
+		return (List<? extends AnnotationValue>) valueOf(annotation, name).getValue();
+	}
+
+	private String intsOf(AnnotationMirror annotation, String name) {
+		return arrayOf(annotation, name).stream().map(value -> value.getValue().toString())
+				.collect(Collectors.joining(",")); //$NON-NLS-1$
+	}
+
+	private String enumOf(AnnotationMirror annotation, String name) {
+		return ((VariableElement) valueOf(annotation, name).getValue()).getSimpleName().toString();
+	}
+
+	/**
+	 * @return the binary name as returned by {@link Class#getName()}, only
+	 *         supported for declared types
+	 */
+	private String binaryNameOf(TypeMirror type) {
+		if (type.getKind() != TypeKind.DECLARED)
+			throw new IllegalArgumentException("Unsupported class literal " + type); //$NON-NLS-1$
+		return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement())
+				.toString();
+	}
+
+	/**
+	 * @return the name as returned by {@link Class#getTypeName()} for the erasure
+	 *         of the type
+	 */
+	private String typeNameOf(TypeMirror type) {
+		TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+		if (erasure.getKind() == TypeKind.ARRAY)
+			return typeNameOf(((ArrayType) erasure).getComponentType()) + "[]"; //$NON-NLS-1$
+		// the name of the kind, as toString() also includes type annotations
+		if (erasure.getKind().isPrimitive())
+			return erasure.getKind().name().toLowerCase(Locale.ROOT);
+		return binaryNameOf(erasure);
+	}
+
+	private String methodKey(String declaringClass, ExecutableElement method) {
+		Function<VariableElement, String> parameterType = parameter -> typeNameOf(parameter.asType());
+		return method.getParameters().stream().map(parameterType)
+				.collect(Collectors.joining(",", declaringClass + '#' + method.getSimpleName() + '(', ")")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static final class DescriptorFile {
+		final Properties properties = new Properties();
+		final ConfigurationFingerprint fingerprint = new ConfigurationFingerprint();
+		boolean relevant;
+	}
+}
@@ -1,6 +1,7 @@
 package de.tum.in.test.api.internal;
 
 import java.lang.StackWalker.StackFrame;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
@@ -14,9 +15,19 @@ import de.tum.in.test.api.AllowLocalPort;
 import de.tum.in.test.api.AllowThreads;
 import de.tum.in.test.api.BlacklistPackage;
 import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.BoundedOutput;
 import de.tum.in.test.api.MirrorOutput;
 import de.tum.in.test.api.MirrorOutput.MirrorOutputPolicy;
+import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.PathType;
 import de.tum.in.test.api.PrivilegedExceptionsOnly;
+import de.tum.in.test.api.ReportSecurityMetrics;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.SandboxTeardown.TeardownMode;
+import de.tum.in.test.api.StackFrameClassification;
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.StaticBytecodeScan;
+import de.tum.in.test.api.StaticBytecodeScan.ScanMode;
 import de.tum.in.test.api.WhitelistClass;
 import de.tum.in.test.api.WhitelistPackage;
 import de.tum.in.test.api.WhitelistPath;
@@ -36,6 +47,11 @@ public final class ConfigurationUtils {
 		var config = ArtemisSecurityConfigurationBuilder.create();
 		config.configureFromContext(context);
 		config.withCurrentPath();
+		var descriptor = ConfigurationDescriptor.of(context);
+		if (descriptor.isPresent()) {
+			configureFromDescriptor(config, context, descriptor.get());
+			return config.build();
+		}
 		config.addWhitelistedClassNames(generateClassWhiteList(context));
 		config.withPathWhitelist(generatePathWhiteList(context));
 		config.withPathBlacklist(generatePathBlackList(context));
@@ -44,9 +60,72 @@ public final class ConfigurationUtils {
 		config.withPackageWhitelist(generatePackageWhiteList(context));
 		config.withTrustedPackages(getTrustedPackages(context));
 		configureAllowLocalPort(config, context);
+		configureSandboxTeardown(config, context);
+		configureStackFrameClassification(config, context);
+		configureStaticBytecodeScan(config, context);
 		return config.build();
 	}
 
+	/**
+	 * Configures the sandbox from the annotations resolved at compile time, which
+	 * are the same ones the reflective methods of this class would find.
+	 */
+	static void configureFromDescriptor(ArtemisSecurityConfigurationBuilder config, TestContext context,
+			ConfigurationDescriptor descriptor) {
+		Set<String> whitelistedClasses = generateClassWhiteList(context,
+				descriptor.findAll(ConfigurationKeys.WHITELIST_CLASS).collect(Collectors.toSet()));
+		config.addWhitelistedClassNames(whitelistedClasses);
+		config.withPathWhitelist(descriptor.findAll(ConfigurationKeys.WHITELIST_PATH)
+				.map(rule -> parsePathRule(RuleType.WHITELIST, rule)).collect(Collectors.toSet()));
+		config.withPathBlacklist(descriptor.findAll(ConfigurationKeys.BLACKLIST_PATH)
+				.map(rule -> parsePathRule(RuleType.BLACKLIST, rule)).collect(Collectors.toSet()));
+		config.withAllowedThreadCount(descriptor.find(ConfigurationKeys.ALLOW_THREADS)
+				.map(count -> OptionalInt.of(Integer.parseInt(count))).orElseGet(OptionalInt::empty));
+		config.withPackageBlacklist(PackageRule
+				.from(RuleType.BLACKLIST,
+						descriptor.findAll(ConfigurationKeys.BLACKLIST_PACKAGE).collect(Collectors.toList()))
+				.collect(Collectors.toSet()));
+		config.withPackageWhitelist(PackageRule
+				.from(RuleType.WHITELIST,
+						descriptor.findAll(ConfigurationKeys.WHITELIST_PACKAGE).collect(Collectors.toList()))
+				.collect(Collectors.toSet()));
+		config.withTrustedPackages(PackageRule
+				.from(RuleType.WHITELIST,
+						descriptor.findAll(ConfigurationKeys.TRUSTED_PACKAGE).collect(Collectors.toList()))
+				.collect(Collectors.toSet()));
+		descriptor.find(ConfigurationKeys.ALLOW_LOCAL_PORT).map(ConfigurationUtils::fieldsOf)
+				.ifPresent(allowLocalPort -> {
+					config.withAllowedLocalPorts(parsePorts(allowLocalPort[0]));
+					config.withAllowLocalPortsAbove(OptionalInt.of(Integer.parseInt(allowLocalPort[1])));
+					config.withExcludedLocalPorts(parsePorts(allowLocalPort[2]));
+				});
+		descriptor.find(ConfigurationKeys.SANDBOX_TEARDOWN).map(ConfigurationUtils::fieldsOf)
+				.ifPresent(sandboxTeardown -> {
+					config.withTeardownMode(TeardownMode.valueOf(sandboxTeardown[0]));
+					config.withHeapGrowthThreshold(Long.parseLong(sandboxTeardown[1]));
+					config.withCommonPoolDrainBudget(Duration.ofMillis(Long.parseLong(sandboxTeardown[2])));
+				});
+		descriptor.find(ConfigurationKeys.STACK_FRAME_CLASSIFICATION)
+				.ifPresent(mode -> config.withStackFrameClassification(ClassificationMode.valueOf(mode)));
+		descriptor.find(ConfigurationKeys.STATIC_BYTECODE_SCAN)
+				.ifPresent(mode -> config.withBytecodeScanMode(ScanMode.valueOf(mode)));
+	}
+
+	private static String[] fieldsOf(String value) {
+		return value.split(ConfigurationKeys.FIELD_SEPARATOR, -1);
+	}
+
+	private static PathRule parsePathRule(RuleType ruleType, String value) {
+		String[] fields = value.split(ConfigurationKeys.FIELD_SEPARATOR, 3);
+		return PathRule.of(ruleType, PathType.valueOf(fields[0]), PathActionLevel.valueOf(fields[1]), fields[2]);
+	}
+
+	private static Set<Integer> parsePorts(String ports) {
+		if (ports.isEmpty())
+			return Set.of();
+		return Arrays.stream(ports.split(",")).map(Integer::valueOf).collect(Collectors.toSet()); //$NON-NLS-1$
+	}
+
 	public static Set<PathRule> generatePathWhiteList(TestContext context) {
 		return TestContextUtils.findRepeatableAnnotationsIn(context, WhitelistPath.class).flatMap(PathRule::allOf)
 				.collect(Collectors.toSet());
@@ -58,10 +137,14 @@ public final class ConfigurationUtils {
 	}
 
 	public static Set<String> generateClassWhiteList(TestContext context) {
+		return generateClassWhiteList(context, getWhitelistedClasses(context));
+	}
+
+	private static Set<String> generateClassWhiteList(TestContext context, Set<String> whitelistedClasses) {
 		Set<String> entries = StackWalker.getInstance()
 				.walk(s -> s.map(StackFrame::getClassName).collect(Collectors.toCollection(HashSet::new)));
 		TestContextUtils.getClassNestingInnermostFirst(context).map(Class::getName).forEach(entries::add);
-		entries.addAll(getWhitelistedClasses(context));
+		entries.addAll(whitelistedClasses);
 		return entries;
 	}
 
@@ -75,11 +158,25 @@ public final class ConfigurationUtils {
 				.map(MirrorOutputPolicy::isEnabled).orElse(false);
 	}
 
+	public static boolean shouldReportSecurityMetrics(TestContext context) {
+		return TestContextUtils.findAnnotationIn(context, ReportSecurityMetrics.class).map(ReportSecurityMetrics::value)
+				.orElse(false);
+	}
+
 	public static long getMaxStandardOutput(TestContext context) {
 		return TestContextUtils.findAnnotationIn(context, MirrorOutput.class).map(MirrorOutput::maxCharCount)
 				.orElse(MirrorOutput.DEFAULT_MAX_STD_OUT);
 	}
 
+	public static Optional<MirrorOutput> getAsyncMirrorOutput(TestContext context) {
+		return TestContextUtils.findAnnotationIn(context, MirrorOutput.class)
+				.filter(mirrorOutput -> mirrorOutput.value().isEnabled() && mirrorOutput.asyncBufferSize() > 0);
+	}
+
+	public static Optional<BoundedOutput> getBoundedOutput(TestContext context) {
+		return TestContextUtils.findAnnotationIn(context, BoundedOutput.class);
+	}
+
 	public static void configureAllowLocalPort(ArtemisSecurityConfigurationBuilder config, TestContext context) {
 		TestContextUtils.findAnnotationIn(context, AllowLocalPort.class).ifPresent(allowLocalPort -> {
 			config.withAllowedLocalPorts(IntStream.of(allowLocalPort.value()).boxed().collect(Collectors.toSet()));
@@ -88,6 +185,25 @@ public final class ConfigurationUtils {
 		});
 	}
 
+	public static void configureSandboxTeardown(ArtemisSecurityConfigurationBuilder config, TestContext context) {
+		TestContextUtils.findAnnotationIn(context, SandboxTeardown.class).ifPresent(sandboxTeardown -> {
+			config.withTeardownMode(sandboxTeardown.value());
+			config.withHeapGrowthThreshold(sandboxTeardown.heapGrowthThreshold());
+			config.withCommonPoolDrainBudget(Duration.ofMillis(sandboxTeardown.commonPoolDrainBudget()));
+		});
+	}
+
+	public static void configureStackFrameClassification(ArtemisSecurityConfigurationBuilder config,
+			TestContext context) {
+		TestContextUtils.findAnnotationIn(context, StackFrameClassification.class)
+				.ifPresent(classification -> config.withStackFrameClassification(classification.value()));
+	}
+
+	public static void configureStaticBytecodeScan(ArtemisSecurityConfigurationBuilder config, TestContext context) {
+		TestContextUtils.findAnnotationIn(context, StaticBytecodeScan.class)
+				.ifPresent(scan -> config.withBytecodeScanMode(scan.value()));
+	}
+
 	public static OptionalInt getAllowedThreadCount(TestContext context) {
 		return TestContextUtils.findAnnotationIn(context, AllowThreads.class).map(AllowThreads::maxActiveCount)
 				.map(OptionalInt::of).orElseGet(OptionalInt::empty);
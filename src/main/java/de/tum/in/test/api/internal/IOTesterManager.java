@@ -1,5 +1,7 @@
 package de.tum.in.test.api.internal;
 
+import de.tum.in.test.api.MirrorOutput;
+import de.tum.in.test.api.MirrorOutput.MirrorOverflowPolicy;
 import de.tum.in.test.api.io.IOTester;
 import de.tum.in.test.api.security.ArtemisSecurityManager;
 
@@ -21,8 +23,17 @@ public final class IOTesterManager {
 
 	public void beforeTestExecution() {
 		boolean mirrorOutput = ConfigurationUtils.shouldMirrorOutput(context);
+		var asyncMirror = ConfigurationUtils.getAsyncMirrorOutput(context);
+		int asyncBufferSize = asyncMirror.map(MirrorOutput::asyncBufferSize).orElse(0);
+		var overflowPolicy = asyncMirror.map(MirrorOutput::overflowPolicy).orElse(MirrorOverflowPolicy.DROP);
+		var boundedOutput = ConfigurationUtils.getBoundedOutput(context);
+		if (boundedOutput.isPresent()) {
+			ioTester = IOTester.installNewBounded(mirrorOutput, boundedOutput.get().head(), boundedOutput.get().tail(),
+					boundedOutput.get().maxLineLength(), asyncBufferSize, overflowPolicy);
+			return;
+		}
 		long maxStdOut = ConfigurationUtils.getMaxStandardOutput(context);
-		ioTester = IOTester.installNew(mirrorOutput, maxStdOut);
+		ioTester = IOTester.installNew(mirrorOutput, maxStdOut, asyncBufferSize, overflowPolicy);
 	}
 
 	public void afterTestExecution() {
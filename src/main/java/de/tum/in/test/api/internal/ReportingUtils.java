@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import de.tum.in.test.api.internal.sanitization.ThrowableSanitizer;
 import de.tum.in.test.api.localization.Messages;
 import de.tum.in.test.api.security.ArtemisSecurityManager;
+import de.tum.in.test.api.security.TrustedRegion;
 
 /**
  * For handling and post processing Exceptions and Errors.
@@ -40,10 +41,12 @@ public final class ReportingUtils {
 	}
 
 	public static Throwable processThrowable(Throwable t, TestContext context) {
-		Optional<String> nonprivilegedFailureMessage = ConfigurationUtils.getNonprivilegedFailureMessage(context);
-		if (nonprivilegedFailureMessage.isPresent())
-			return processThrowablePrivilegedOnly(t, nonprivilegedFailureMessage.get());
-		return processThrowableRegularly(t);
+		return TrustedRegion.call(() -> {
+			Optional<String> nonprivilegedFailureMessage = ConfigurationUtils.getNonprivilegedFailureMessage(context);
+			if (nonprivilegedFailureMessage.isPresent())
+				return processThrowablePrivilegedOnly(t, nonprivilegedFailureMessage.get());
+			return processThrowableRegularly(t);
+		});
 	}
 
 	private static Throwable processThrowableRegularly(Throwable t) {
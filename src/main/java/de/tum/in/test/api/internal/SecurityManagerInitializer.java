@@ -0,0 +1,26 @@
+package de.tum.in.test.api.internal;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import de.tum.in.test.api.security.ArtemisSecurityManager;
+
+/**
+ * Initializes the {@link ArtemisSecurityManager} in the main thread before any
+ * test is executed. This is required if the tests are executed in parallel, as
+ * the tests are then no longer executed by the main thread.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.INTERNAL)
+public final class SecurityManagerInitializer implements TestExecutionListener {
+
+	@Override
+	public void testPlanExecutionStarted(TestPlan testPlan) {
+		if ("main".equals(Thread.currentThread().getName())) //$NON-NLS-1$
+			ArtemisSecurityManager.isInstalled();
+	}
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import org.apiguardian.api.API;
 import org.apiguardian.api.API.Status;
 
+import de.tum.in.test.api.security.TrustedRegion;
 import de.tum.in.test.api.util.UnexpectedExceptionError;
 
 @API(status = Status.INTERNAL)
@@ -26,13 +27,13 @@ public final class ThrowableSanitizer {
 	public static Throwable sanitize(final Throwable t) {
 		if (t == null)
 			return null;
-		return SanitizationUtils.sanitizeWithinScopeOf(t, () -> {
+		return TrustedRegion.call(() -> SanitizationUtils.sanitizeWithinScopeOf(t, () -> {
 			if (UnexpectedExceptionError.class.equals(t.getClass()))
 				return t;
 			var firstPossibleSan = SANITIZERS.stream().filter(s -> s.canSanitize(t)).findFirst();
 			if (firstPossibleSan.isPresent())
 				return firstPossibleSan.get().sanitize(t);
 			return UnexpectedExceptionError.wrap(t);
-		});
+		}));
 	}
 }
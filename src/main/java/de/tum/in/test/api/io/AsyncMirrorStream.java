@@ -0,0 +1,227 @@
+package de.tum.in.test.api.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.tum.in.test.api.MirrorOutput.MirrorOverflowPolicy;
+
+/**
+ * Mirrors the output to the original stream in a background thread, so that a
+ * slow original stream, like the log pipe of a build agent, does not slow down
+ * the tested code.
+ * <p>
+ * The bytes are copied into a bounded ring buffer with a single producer, the
+ * {@link TestOutStream} that is only written by its synchronized
+ * {@link java.io.PrintStream}, and a single consumer, the writer thread. The
+ * writer passes all bytes available at once to the original stream and flushes
+ * it when the buffer is empty. Then the writer parks until the producer unparks
+ * it, which the producer only does if the writer announced that it is idle. If
+ * a write does not fit into the buffer, it is either dropped completely, so
+ * that no characters are split, or the writing thread waits until the writer
+ * made room, depending on the {@link MirrorOverflowPolicy}. Only waiting writes
+ * larger than the buffer are split into parts. A waiting thread that is
+ * interrupted drops the write and keeps its interrupt status. Dropped bytes are
+ * reported by a note in the mirrored output.
+ * <p>
+ * The writer thread is started by the constructor, which should therefore be
+ * called outside of the test execution, so that the thread does not belong to
+ * the tested code.
+ */
+final class AsyncMirrorStream extends OutputStream {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+	private static final long FULL_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final OutputStream target;
+	private final MirrorOverflowPolicy overflowPolicy;
+	private final byte[] buffer;
+	private final int mask;
+	/**
+	 * Only written by the producer, with a volatile write, so that it cannot miss
+	 * that the writer is idle
+	 */
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Only written by the writer
+	 */
+	private volatile long head;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean closed;
+	/**
+	 * Set by the writer before it checks for new bytes a last time and parks
+	 */
+	private volatile boolean writerIdle;
+	private final Thread writer;
+
+	/**
+	 * @param capacity the size of the buffer in bytes, rounded up to a power of two
+	 */
+	AsyncMirrorStream(OutputStream target, int capacity, MirrorOverflowPolicy overflowPolicy, String threadName) {
+		if (capacity <= 0 || capacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("Invalid mirror buffer size: " + capacity); //$NON-NLS-1$
+		this.target = Objects.requireNonNull(target);
+		this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+		int roundedCapacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.buffer = new byte[roundedCapacity];
+		this.mask = roundedCapacity - 1;
+		this.writer = new Thread(this::writeLoop, threadName);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void write(int b) {
+		if (!awaitSpace(1))
+			return;
+		long position = tail.get();
+		buffer[(int) position & mask] = (byte) b;
+		tail.set(position + 1);
+		signalWriter();
+	}
+
+	@Override
+	public void write(byte[] b) {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		if (len > buffer.length && overflowPolicy == MirrorOverflowPolicy.DROP) {
+			dropped.addAndGet(len);
+			signalWriter();
+			return;
+		}
+		int written = 0;
+		while (written < len) {
+			// larger writes can only be split if the writing thread waits anyway
+			int chunk = Math.min(len - written, buffer.length);
+			if (!awaitSpace(chunk)) {
+				dropped.addAndGet(len - written - chunk);
+				signalWriter();
+				return;
+			}
+			put(b, off + written, chunk);
+			written += chunk;
+		}
+	}
+
+	/**
+	 * Does not wait for the writer, the writer flushes the original stream whenever
+	 * the buffer is empty. Only wakes the writer up, if it is idle.
+	 */
+	@Override
+	public void flush() {
+		signalWriter();
+	}
+
+	/**
+	 * Stops accepting bytes and waits until the writer has written the remaining
+	 * ones or until the timeout is over.
+	 *
+	 * @return true if all bytes were written
+	 */
+	boolean shutdown(Duration timeout) {
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(Math.max(1, timeout.toMillis()));
+		} catch (@SuppressWarnings("unused") InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return !writer.isAlive();
+	}
+
+	@Override
+	public void close() throws IOException {
+		shutdown(Duration.ZERO);
+		target.close();
+	}
+
+	/**
+	 * @return the number of bytes dropped so far and not yet reported
+	 */
+	long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return true if the bytes fit into the buffer now, false if they were dropped
+	 */
+	private boolean awaitSpace(int length) {
+		while (!closed) {
+			if (tail.get() + length - head <= buffer.length)
+				return true;
+			if (overflowPolicy == MirrorOverflowPolicy.DROP)
+				break;
+			if (Thread.currentThread().isInterrupted())
+				break;
+			LockSupport.parkNanos(this, FULL_PAUSE_NANOS);
+		}
+		dropped.addAndGet(length);
+		signalWriter();
+		return false;
+	}
+
+	private void put(byte[] b, int off, int len) {
+		long position = tail.get();
+		int index = (int) position & mask;
+		int firstPart = Math.min(len, buffer.length - index);
+		System.arraycopy(b, off, buffer, index, firstPart);
+		System.arraycopy(b, off + firstPart, buffer, 0, len - firstPart);
+		tail.set(position + len);
+		signalWriter();
+	}
+
+	private void signalWriter() {
+		if (writerIdle)
+			LockSupport.unpark(writer);
+	}
+
+	private void writeLoop() {
+		while (true) {
+			long position = head;
+			long available = tail.get() - position;
+			if (available == 0) {
+				reportDropped();
+				if (closed && tail.get() == position)
+					return;
+				writerIdle = true;
+				// a producer that did not see the flag has published its bytes before
+				if (tail.get() == position && dropped.get() == 0 && !closed)
+					LockSupport.park(this);
+				writerIdle = false;
+				continue;
+			}
+			int index = (int) position & mask;
+			int length = (int) Math.min(available, buffer.length - index);
+			try {
+				target.write(buffer, index, length);
+				if (length == available)
+					target.flush();
+			} catch (@SuppressWarnings("unused") IOException e) {
+				dropped.addAndGet(length);
+			}
+			head = position + length;
+		}
+	}
+
+	private void reportDropped() {
+		long droppedBytes = dropped.getAndSet(0);
+		if (droppedBytes == 0)
+			return;
+		String note = String.format("%n[%d bytes of output were not mirrored]%n", droppedBytes); //$NON-NLS-1$
+		try {
+			target.write(note.getBytes(StandardCharsets.UTF_8));
+			target.flush();
+		} catch (@SuppressWarnings("unused") IOException e) {
+			// the original stream is broken, nothing to report to
+		}
+	}
+}
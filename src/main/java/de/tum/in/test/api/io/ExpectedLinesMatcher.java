@@ -0,0 +1,255 @@
+package de.tum.in.test.api.io;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Matches the lines of the output one by one against the expected line
+ * patterns, while the tested program is still running.
+ * <p>
+ * The matching follows the one of
+ * {@link org.junit.jupiter.api.Assertions#assertLinesMatch(List, List, String)
+ * Assertions.assertLinesMatch}, without looking ahead: a fast-forward line with
+ * a limit skips exactly that many lines, one without a limit skips lines until
+ * the first one that matches the next expected line. Only mismatches that no
+ * later output can fix are reported, which are a line that does not match the
+ * expected line at its position and lines after the last expected line. The
+ * descriptions use the format of JUnit, so that they can be cleaned up in the
+ * same way. A line that was cut because it is too long cannot be compared to an
+ * expected line, this is reported as a mismatch, too.
+ * <p>
+ * Note: not thread-safe, like the {@link LineStore} it is used with.
+ */
+final class ExpectedLinesMatcher {
+
+	private static final int NO_FAST_FORWARD = 0;
+	private static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private final String message;
+	private final OutputTestOptions[] outputOptions;
+	private final List<String> expectedLines;
+	private final List<String> expectedLinePatterns;
+	/**
+	 * null for fast-forward lines
+	 */
+	private final Pattern[] compiledPatterns;
+	private final int[] fastForwardLimits;
+
+	private int expectedIndex;
+	private int linesToSkip;
+	private int skipLimit;
+	private boolean seeking;
+	private boolean acceptingAll;
+	private int terminalLimit = NO_FAST_FORWARD;
+	private int surplusLines;
+	private int checkedLines;
+	private AssertionFailedError failure;
+
+	/**
+	 * @param expectedLines        the expected lines as given by the user, one per
+	 *                             line
+	 * @param expectedLinePatterns the patterns for JUnit created from the expected
+	 *                             lines
+	 * @throws java.util.regex.PatternSyntaxException if a regular expression line
+	 *                                                is invalid
+	 * @throws IllegalArgumentException               if a fast-forward limit is not
+	 *                                                positive
+	 */
+	ExpectedLinesMatcher(String message, OutputTestOptions[] outputOptions, List<String> expectedLines,
+			List<String> expectedLinePatterns) {
+		this.message = message;
+		this.outputOptions = outputOptions.clone();
+		this.expectedLines = List.copyOf(expectedLines);
+		this.expectedLinePatterns = List.copyOf(expectedLinePatterns);
+		int size = expectedLinePatterns.size();
+		this.compiledPatterns = new Pattern[size];
+		this.fastForwardLimits = new int[size];
+		for (int i = 0; i < size; i++) {
+			String pattern = expectedLinePatterns.get(i);
+			if (isFastForwardLine(pattern))
+				fastForwardLimits[i] = parseFastForwardLimit(pattern);
+			else
+				compiledPatterns[i] = Pattern.compile(pattern);
+		}
+	}
+
+	String getMessage() {
+		return message;
+	}
+
+	OutputTestOptions[] getOutputOptions() {
+		return outputOptions.clone();
+	}
+
+	List<String> getExpectedLines() {
+		return expectedLines;
+	}
+
+	List<String> getExpectedLinePatterns() {
+		return expectedLinePatterns;
+	}
+
+	/**
+	 * @return the failure for the first definite mismatch, or null
+	 */
+	AssertionFailedError getFailure() {
+		return failure;
+	}
+
+	void setFailure(AssertionFailedError failure) {
+		this.failure = failure;
+	}
+
+	/**
+	 * Starts the matching from the first line again.
+	 */
+	void reset() {
+		expectedIndex = 0;
+		linesToSkip = 0;
+		skipLimit = 0;
+		seeking = false;
+		acceptingAll = false;
+		terminalLimit = NO_FAST_FORWARD;
+		surplusLines = 0;
+		checkedLines = 0;
+		failure = null;
+	}
+
+	/**
+	 * Matches the next complete line of the output.
+	 *
+	 * @return null if the line matches or might still match, the description of the
+	 *         mismatch in the format of JUnit otherwise
+	 */
+	String match(String actualLine) {
+		return match(actualLine, false);
+	}
+
+	/**
+	 * Matches the next complete line of the output, of which only the start might
+	 * be known.
+	 *
+	 * @param truncated whether the actual line is only the start of the line
+	 * @return null if the line matches or might still match, the description of the
+	 *         mismatch otherwise
+	 */
+	String match(String actualLine, boolean truncated) {
+		int actualLineNumber = ++checkedLines;
+		if (linesToSkip > 0) {
+			linesToSkip--;
+			return null;
+		}
+		if (!seeking)
+			enterFastForwards();
+		if (acceptingAll)
+			return null;
+		if (linesToSkip > 0) {
+			linesToSkip--;
+			return null;
+		}
+		if (expectedIndex == expectedLinePatterns.size()) {
+			surplusLines++;
+			if (terminalLimit != NO_FAST_FORWARD)
+				return String.format("terminal fast-forward(%d) error: fast-forward(%d) expected", //$NON-NLS-1$
+						terminalLimit, terminalLimit + surplusLines);
+			return String.format("more actual lines than expected: %d", surplusLines); //$NON-NLS-1$
+		}
+		if (truncated)
+			return String.format("expected line #%d cannot be matched, actual line #%d was truncated%n" //$NON-NLS-1$
+					+ "\texpected: `%s`%n\t  actual: `%s...`", expectedIndex + 1, actualLineNumber, //$NON-NLS-1$
+					expectedLinePatterns.get(expectedIndex), actualLine);
+		if (matches(expectedIndex, actualLine)) {
+			seeking = false;
+			expectedIndex++;
+			return null;
+		}
+		if (seeking)
+			return null;
+		return String.format("expected line #%d doesn't match actual line #%d%n\texpected: `%s`%n\t  actual: `%s`", //$NON-NLS-1$
+				expectedIndex + 1, actualLineNumber, expectedLinePatterns.get(expectedIndex), actualLine);
+	}
+
+	/**
+	 * Ends the matching after all lines were passed to {@link #match(String)}, for
+	 * output of which not all lines are kept.
+	 *
+	 * @param lastLine          the incomplete last line if it is part of the
+	 *                          output, or null
+	 * @param lastLineTruncated whether the last line is only the start of the line
+	 * @return null if the output matches, the description of the mismatch in the
+	 *         format of JUnit otherwise
+	 */
+	String finish(String lastLine, boolean lastLineTruncated) {
+		if (lastLine != null) {
+			String mismatch = match(lastLine, lastLineTruncated);
+			if (mismatch != null)
+				return mismatch;
+		}
+		if (!seeking)
+			enterFastForwards();
+		if (acceptingAll)
+			return null;
+		if (linesToSkip > 0) {
+			if (terminalLimit != NO_FAST_FORWARD)
+				return String.format("terminal fast-forward(%d) error: fast-forward(%d) expected", //$NON-NLS-1$
+						terminalLimit, terminalLimit - linesToSkip);
+			return String.format("fast-forward(%d) error: not enough actual lines remaining (%d)", //$NON-NLS-1$
+					skipLimit, skipLimit - linesToSkip);
+		}
+		if (expectedIndex == expectedLinePatterns.size())
+			return null;
+		if (seeking)
+			return String.format("fast-forward(\u221E) didn't find: `%s`", //$NON-NLS-1$
+					expectedLinePatterns.get(expectedIndex));
+		return String.format("expected line #%d:`%s` not found - actual lines depleted", expectedIndex + 1, //$NON-NLS-1$
+				expectedLinePatterns.get(expectedIndex));
+	}
+
+	private void enterFastForwards() {
+		while (expectedIndex < expectedLinePatterns.size() && linesToSkip == 0 && !seeking && !acceptingAll) {
+			int limit = fastForwardLimits[expectedIndex];
+			if (limit == NO_FAST_FORWARD)
+				return;
+			expectedIndex++;
+			boolean terminal = expectedIndex == expectedLinePatterns.size();
+			if (limit == UNLIMITED) {
+				acceptingAll = terminal;
+				seeking = !terminal;
+			} else {
+				linesToSkip = limit;
+				skipLimit = limit;
+				if (terminal)
+					terminalLimit = limit;
+			}
+		}
+	}
+
+	private boolean matches(int index, String actualLine) {
+		Pattern pattern = compiledPatterns[index];
+		if (pattern == null)
+			return expectedLinePatterns.get(index).equals(actualLine);
+		return pattern.matcher(actualLine).matches();
+	}
+
+	private static boolean isFastForwardLine(String line) {
+		String trimmed = line.trim();
+		return trimmed.length() >= 4 && trimmed.startsWith(">>") && trimmed.endsWith(">>"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static int parseFastForwardLimit(String fastForwardLine) {
+		String trimmed = fastForwardLine.trim();
+		String content = trimmed.substring(2, trimmed.length() - 2).trim();
+		int limit;
+		try {
+			limit = Integer.parseInt(content);
+		} catch (@SuppressWarnings("unused") NumberFormatException e) {
+			return UNLIMITED;
+		}
+		if (limit <= 0)
+			throw new IllegalArgumentException(
+					String.format("fast-forward(%d) limit must be greater than zero", limit)); //$NON-NLS-1$
+		return limit;
+	}
+}
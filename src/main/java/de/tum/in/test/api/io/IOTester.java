@@ -3,24 +3,32 @@ package de.tum.in.test.api.io;
 import static de.tum.in.test.api.localization.Messages.*;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.List;
 
 import org.apiguardian.api.API;
 import org.apiguardian.api.API.Status;
 
+import de.tum.in.test.api.MirrorOutput.MirrorOverflowPolicy;
+
 /**
  * Class for testing console input and output of programs.
  *
  * @author Christian Femers
  * @since 0.1.0
- * @version 1.0.1
+ * @version 1.1.0
  */
 @API(status = Status.MAINTAINED)
 public final class IOTester {
 
 	static final String LINE_SEPERATOR = "\n"; //$NON-NLS-1$
+	/**
+	 * How long uninstalling waits for the remaining output to be mirrored
+	 */
+	private static final Duration MIRROR_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
 
 	static {
 		checkEncoding();
@@ -35,6 +43,11 @@ public final class IOTester {
 	private final TestInStream in;
 	private final TestOutStream out;
 	private final TestOutStream err;
+	/**
+	 * Only present if the output is mirrored asynchronously
+	 */
+	private final AsyncMirrorStream outMirror;
+	private final AsyncMirrorStream errMirror;
 
 	private final InputTester inTester;
 	private final OutputTester outTester;
@@ -42,7 +55,12 @@ public final class IOTester {
 
 	private boolean isInstalled;
 
-	private IOTester(boolean mirrorOutput, long maxChars) {
+	private IOTester(boolean mirrorOutput, long maxChars, int asyncBufferSize, MirrorOverflowPolicy overflowPolicy) {
+		this(mirrorOutput, maxChars, asyncBufferSize, overflowPolicy, new OutputTester(), new OutputTester());
+	}
+
+	private IOTester(boolean mirrorOutput, long maxChars, int asyncBufferSize, MirrorOverflowPolicy overflowPolicy,
+			OutputTester outTester, OutputTester errTester) {
 		// backup
 		oldIn = System.in;
 		oldOut = System.out;
@@ -50,13 +68,25 @@ public final class IOTester {
 
 		// initialize expected input/output management
 		inTester = new InputTester();
-		outTester = new OutputTester();
-		errTester = new OutputTester();
+		this.outTester = outTester;
+		this.errTester = errTester;
 
 		// initialize test streams
 		in = new TestInStream(inTester);
-		out = new TestOutStream(outTester, mirrorOutput ? oldOut : null, maxChars);
-		err = new TestOutStream(errTester, mirrorOutput ? oldErr : null, maxChars);
+		boolean mirrorAsync = mirrorOutput && asyncBufferSize > 0;
+		outMirror = mirrorAsync ? new AsyncMirrorStream(oldOut, asyncBufferSize, overflowPolicy, "ajts-mirror-out") //$NON-NLS-1$
+				: null;
+		errMirror = mirrorAsync ? new AsyncMirrorStream(oldErr, asyncBufferSize, overflowPolicy, "ajts-mirror-err") //$NON-NLS-1$
+				: null;
+		out = new TestOutStream(outTester, mirrorStream(mirrorOutput, outMirror, oldOut), maxChars);
+		err = new TestOutStream(errTester, mirrorStream(mirrorOutput, errMirror, oldErr), maxChars);
+	}
+
+	private static OutputStream mirrorStream(boolean mirrorOutput, AsyncMirrorStream asyncMirror,
+			PrintStream original) {
+		if (!mirrorOutput)
+			return null;
+		return asyncMirror != null ? asyncMirror : original;
 	}
 
 	public synchronized void install() {
@@ -82,16 +112,45 @@ public final class IOTester {
 		System.setErr(oldErr);
 
 		isInstalled = false;
+		// output after this point is no longer mirrored
+		if (outMirror != null)
+			outMirror.shutdown(MIRROR_SHUTDOWN_TIMEOUT);
+		if (errMirror != null)
+			errMirror.shutdown(MIRROR_SHUTDOWN_TIMEOUT);
+		finishOutput();
 	}
 
 	public synchronized void reset() {
-		inTester.resetInput();
-		outTester.resetOutput();
-		errTester.resetOutput();
+		try {
+			finishOutput();
+		} finally {
+			inTester.resetInput();
+			outTester.resetOutput();
+			errTester.resetOutput();
+
+			in.resetInternalState();
+			out.resetInternalState();
+			err.resetInternalState();
+		}
+	}
 
-		in.resetInternalState();
-		out.resetInternalState();
-		err.resetInternalState();
+	/**
+	 * Reports an incomplete character at the end of the output
+	 */
+	private void finishOutput() {
+		IllegalArgumentException failure = null;
+		for (TestOutStream stream : List.of(out, err)) {
+			try {
+				stream.finishInput();
+			} catch (IllegalArgumentException e) {
+				if (failure == null)
+					failure = e;
+				else
+					failure.addSuppressed(e);
+			}
+		}
+		if (failure != null)
+			throw failure;
 	}
 
 	public IOTester provideInputLines(String... givenInputLines) {
@@ -205,9 +264,80 @@ public final class IOTester {
 	}
 
 	public static synchronized IOTester installNew(boolean mirrorOutput, long maxChars) {
+		return installNew(mirrorOutput, maxChars, 0, MirrorOverflowPolicy.DROP);
+	}
+
+	/**
+	 * Installs a new {@link IOTester} that mirrors the output asynchronously if the
+	 * buffer size is positive, see
+	 * {@link de.tum.in.test.api.MirrorOutput#asyncBufferSize()}. The output that
+	 * was not mirrored yet is written when the {@link IOTester} is uninstalled.
+	 *
+	 * @param mirrorOutput    whether to print the output to the original streams as
+	 *                        well
+	 * @param maxChars        the maximum number of characters of the output
+	 * @param asyncBufferSize the size of the buffer for asynchronous mirroring in
+	 *                        bytes, or 0 to mirror synchronously
+	 * @param overflowPolicy  what happens to output that does not fit into the
+	 *                        buffer
+	 * @return the installed {@link IOTester}
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static synchronized IOTester installNew(boolean mirrorOutput, long maxChars, int asyncBufferSize,
+			MirrorOverflowPolicy overflowPolicy) {
 		if (isInstalled())
 			throw new IllegalStateException(localized("io_tester.already_installed")); //$NON-NLS-1$
-		instance = new IOTester(mirrorOutput, maxChars);
+		instance = new IOTester(mirrorOutput, maxChars, asyncBufferSize, overflowPolicy);
+		instance.install();
+		return instance;
+	}
+
+	/**
+	 * Installs a new {@link IOTester} that only keeps the first and the last lines
+	 * of the output, see {@link de.tum.in.test.api.BoundedOutput}. The number of
+	 * characters is not limited.
+	 *
+	 * @param mirrorOutput  whether to print the output to the original streams as
+	 *                      well
+	 * @param headLines     the number of complete lines kept at the start
+	 * @param tailLines     the number of complete lines kept at the end
+	 * @param maxLineLength the number of characters kept of each line
+	 * @return the installed {@link IOTester}
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static synchronized IOTester installNewBounded(boolean mirrorOutput, int headLines, int tailLines,
+			int maxLineLength) {
+		return installNewBounded(mirrorOutput, headLines, tailLines, maxLineLength, 0, MirrorOverflowPolicy.DROP);
+	}
+
+	/**
+	 * Installs a new {@link IOTester} like
+	 * {@link #installNewBounded(boolean, int, int, int)} that mirrors the output
+	 * asynchronously if the buffer size is positive, like
+	 * {@link #installNew(boolean, long, int, MirrorOverflowPolicy)}.
+	 *
+	 * @param mirrorOutput    whether to print the output to the original streams as
+	 *                        well
+	 * @param headLines       the number of complete lines kept at the start
+	 * @param tailLines       the number of complete lines kept at the end
+	 * @param maxLineLength   the number of characters kept of each line
+	 * @param asyncBufferSize the size of the buffer for asynchronous mirroring in
+	 *                        bytes, or 0 to mirror synchronously
+	 * @param overflowPolicy  what happens to output that does not fit into the
+	 *                        buffer
+	 * @return the installed {@link IOTester}
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static synchronized IOTester installNewBounded(boolean mirrorOutput, int headLines, int tailLines,
+			int maxLineLength, int asyncBufferSize, MirrorOverflowPolicy overflowPolicy) {
+		if (isInstalled())
+			throw new IllegalStateException(localized("io_tester.already_installed")); //$NON-NLS-1$
+		instance = new IOTester(mirrorOutput, Long.MAX_VALUE, asyncBufferSize, overflowPolicy,
+				new OutputTester(headLines, tailLines, maxLineLength),
+				new OutputTester(headLines, tailLines, maxLineLength));
 		instance.install();
 		return instance;
 	}
@@ -215,8 +345,11 @@ public final class IOTester {
 	public static synchronized void uninstallCurrent() {
 		if (!isInstalled())
 			throw new IllegalStateException(localized("io_tester.not_installed")); //$NON-NLS-1$
-		instance.uninstall();
-		instance = null;
+		try {
+			instance.uninstall();
+		} finally {
+			instance = null;
+		}
 	}
 
 	private static void checkEncoding() {
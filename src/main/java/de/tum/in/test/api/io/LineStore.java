@@ -0,0 +1,468 @@
+package de.tum.in.test.api.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Stores the text of all lines in one array and the start of each line in
+ * another, instead of one object per line.
+ * <p>
+ * The text is stored as Latin-1 bytes as long as all characters fit in them,
+ * like compact strings do, and is converted to a char array on the first one
+ * that does not. Lines are separated by their start offsets only, line breaks
+ * are not stored. The last line is always the one under construction, all
+ * previous lines are complete.
+ * <p>
+ * {@link Line}s are only created on access, as views on the store. The text of
+ * a view is read from the store when requested, so the view of the last line
+ * sees the text appended later, like the lines of the {@link OutputTester}
+ * always did.
+ * <p>
+ * A bounded store only keeps a number of complete lines at the start, the head,
+ * and at the end, the tail, and only the first characters of each line. The
+ * tail is a ring of strings, a completed line moves there once the head is
+ * full, and the oldest line of the tail is omitted when it is full as well.
+ * Omitted lines are only counted and hashed, see {@link OmittedLines}, so the
+ * memory used does not depend on the length of the output. The complete lines
+ * of a bounded store are returned as copies, as the positions of the lines
+ * change.
+ * <p>
+ * Note: not thread-safe, the {@link TestOutStream} is only written by its
+ * synchronized {@link java.io.PrintStream}.
+ */
+final class LineStore {
+
+	private static final int INITIAL_TEXT_CAPACITY = 256;
+	private static final int INITIAL_LINE_CAPACITY = 16;
+	private static final int MAX_LATIN1 = 0xFF;
+	private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	private final boolean bounded;
+	private final int headLimit;
+	private final int tailLimit;
+	private final int maxLineLength;
+
+	private byte[] latin1 = new byte[INITIAL_TEXT_CAPACITY];
+	/**
+	 * null as long as the text is Latin-1
+	 */
+	private char[] utf16;
+	private int length;
+	/**
+	 * The head and the line under construction, the tail is stored separately
+	 */
+	private int[] lineStarts = new int[INITIAL_LINE_CAPACITY];
+	private int lineCount;
+	private long charCount;
+
+	/*
+	 * only used if bounded
+	 */
+	private final String[] tailTexts;
+	private final long[] tailHashes;
+	private final long[] tailLengths;
+	private int tailStart;
+	private int tailSize;
+	private long currentLineLength;
+	private long currentLineHash = OmittedLines.lineHashStart();
+	private long omittedLineCount;
+	private long omittedCharCount;
+	private long omittedHash;
+	private long truncatedLineCount;
+
+	LineStore() {
+		this(false, UNBOUNDED, 0, UNBOUNDED);
+	}
+
+	/**
+	 * Creates a bounded store.
+	 *
+	 * @param headLines     the number of complete lines kept at the start
+	 * @param tailLines     the number of complete lines kept at the end
+	 * @param maxLineLength the number of characters kept of each line
+	 */
+	LineStore(int headLines, int tailLines, int maxLineLength) {
+		this(true, headLines, tailLines, maxLineLength);
+		if (headLines < 0 || tailLines < 0 || maxLineLength < 0)
+			throw new IllegalArgumentException(String.format("Invalid bounds: head %d, tail %d, line length %d", //$NON-NLS-1$
+					headLines, tailLines, maxLineLength));
+	}
+
+	private LineStore(boolean bounded, int headLimit, int tailLimit, int maxLineLength) {
+		this.bounded = bounded;
+		this.headLimit = headLimit;
+		this.tailLimit = Math.max(tailLimit, 0);
+		this.maxLineLength = maxLineLength;
+		this.tailTexts = new String[this.tailLimit];
+		this.tailHashes = new long[this.tailLimit];
+		this.tailLengths = new long[this.tailLimit];
+	}
+
+	/**
+	 * @return a new empty store with the same bounds
+	 */
+	LineStore cleared() {
+		return new LineStore(bounded, headLimit, tailLimit, maxLineLength);
+	}
+
+	/**
+	 * @return the number of lines kept, including the one under construction
+	 */
+	int lineCount() {
+		return lineCount + tailSize;
+	}
+
+	/**
+	 * @return the number of all lines, including the omitted ones
+	 */
+	long totalLineCount() {
+		return omittedLineCount + lineCount();
+	}
+
+	/**
+	 * @return the number of all characters appended, without line breaks
+	 */
+	long totalCharCount() {
+		return charCount;
+	}
+
+	OmittedLines omittedLines() {
+		if (omittedLineCount == 0)
+			return OmittedLines.NONE;
+		return new OmittedLines(headLimit + 1L, omittedLineCount, omittedCharCount, omittedHash);
+	}
+
+	boolean isEmpty() {
+		return lineCount == 0;
+	}
+
+	/**
+	 * @return true if the line under construction is longer than the maximum line
+	 *         length, so that only its start is kept
+	 */
+	boolean isCurrentLineTruncated() {
+		return bounded && currentLineLength > maxLineLength;
+	}
+
+	/**
+	 * @return true if any line, kept or omitted, is longer than the maximum line
+	 *         length
+	 */
+	boolean hasTruncatedLines() {
+		return truncatedLineCount > 0 || isCurrentLineTruncated();
+	}
+
+	/**
+	 * Starts a new line if there is none yet, the last line is already the one
+	 * under construction otherwise.
+	 */
+	void ensureCurrentLine() {
+		if (lineCount == 0)
+			startLine();
+	}
+
+	/**
+	 * Appends the characters to the line under construction, they must not contain
+	 * line breaks.
+	 */
+	void append(CharSequence text, int start, int end) {
+		Objects.checkFromToIndex(start, end, text.length());
+		ensureCurrentLine();
+		charCount += end - start;
+		int storedEnd = end;
+		if (bounded) {
+			for (int i = start; i < end; i++)
+				currentLineHash = OmittedLines.updateLineHash(currentLineHash, text.charAt(i));
+			currentLineLength += end - start;
+			int remaining = maxLineLength - (length - lineStarts[lineCount - 1]);
+			storedEnd = start + Math.min(end - start, remaining);
+		}
+		ensureTextCapacity(storedEnd - start);
+		for (int i = start; i < storedEnd; i++) {
+			char c = text.charAt(i);
+			if (utf16 == null && c > MAX_LATIN1)
+				inflate();
+			if (utf16 == null)
+				latin1[length++] = (byte) c;
+			else
+				utf16[length++] = c;
+		}
+	}
+
+	/**
+	 * Completes the line under construction and starts the next one.
+	 */
+	void completeLine() {
+		ensureCurrentLine();
+		if (isCurrentLineTruncated())
+			truncatedLineCount++;
+		if (lineCount - 1 < headLimit)
+			startLine();
+		else
+			moveCurrentLineToTail();
+		currentLineLength = 0;
+		currentLineHash = OmittedLines.lineHashStart();
+	}
+
+	boolean isComplete(int line) {
+		Objects.checkIndex(line, lineCount());
+		return line < lineCount() - 1;
+	}
+
+	int lineLength(int line) {
+		int storedLine = storedLine(line);
+		if (storedLine < 0)
+			return tailText(line).length();
+		return lineEnd(storedLine) - lineStarts[storedLine];
+	}
+
+	String text(int line) {
+		int storedLine = storedLine(line);
+		if (storedLine < 0)
+			return tailText(line);
+		return text(storedLine, length);
+	}
+
+	/**
+	 * @param limit the text length at which the line ends at the latest
+	 */
+	private String text(int line, int limit) {
+		Objects.checkIndex(line, lineCount);
+		int start = lineStarts[line];
+		int end = Math.min(lineEnd(line), limit);
+		if (utf16 == null)
+			return new String(latin1, start, end - start, StandardCharsets.ISO_8859_1);
+		return new String(utf16, start, end - start);
+	}
+
+	boolean contentEquals(int line, CharSequence cs) {
+		int storedLine = storedLine(line);
+		if (storedLine < 0)
+			return tailText(line).contentEquals(cs);
+		int start = lineStarts[storedLine];
+		int lineLength = lineEnd(storedLine) - start;
+		if (cs.length() != lineLength)
+			return false;
+		for (int i = 0; i < lineLength; i++) {
+			if (charAt(start + i) != cs.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param size the number of lines from the start, lines added later are not
+	 *             part of the list
+	 * @return an unmodifiable list of views on the lines
+	 */
+	List<Line> lines(int size) {
+		Objects.checkFromToIndex(0, size, lineCount());
+		if (!bounded)
+			return new LineList(size);
+		List<Line> lines = new ArrayList<>(size);
+		for (int line = 0; line < size; line++) {
+			if (isComplete(line)) {
+				var copy = new StaticLine(text(line));
+				copy.setLineNumber(lineNumber(line));
+				lines.add(copy);
+			} else {
+				lines.add(new LineView(totalLineCount() - 1));
+			}
+		}
+		return Collections.unmodifiableList(lines);
+	}
+
+	/**
+	 * @param size the number of lines from the start
+	 * @return an unmodifiable list of the line texts, the strings are created on
+	 *         access, but text appended to the store later is not part of them
+	 */
+	List<String> texts(int size) {
+		Objects.checkFromToIndex(0, size, lineCount());
+		if (!bounded)
+			return new TextList(size);
+		List<String> texts = new ArrayList<>(size);
+		for (int line = 0; line < size; line++)
+			texts.add(text(line));
+		return Collections.unmodifiableList(texts);
+	}
+
+	/**
+	 * @return the index of the line in the arrays, or -1 if it is in the tail
+	 */
+	private int storedLine(int line) {
+		Objects.checkIndex(line, lineCount());
+		if (line < lineCount - 1)
+			return line;
+		return line == lineCount() - 1 ? lineCount - 1 : -1;
+	}
+
+	/**
+	 * @param absoluteLine the index of the line in the whole output
+	 * @return the index of the line in this store, or -1 if it was omitted
+	 */
+	private int keptLine(long absoluteLine) {
+		if (absoluteLine < lineCount - 1)
+			return (int) absoluteLine;
+		long line = absoluteLine - omittedLineCount;
+		return line < lineCount - 1 ? -1 : (int) line;
+	}
+
+	private String tailText(int line) {
+		return tailTexts[(tailStart + line - (lineCount - 1)) % tailLimit];
+	}
+
+	/**
+	 * @return the number of the line in the whole output, starting with 1
+	 */
+	private int lineNumber(int line) {
+		if (line < lineCount - 1)
+			return line + 1;
+		return (int) Math.min(Integer.MAX_VALUE, omittedLineCount + line + 1);
+	}
+
+	private void moveCurrentLineToTail() {
+		int start = lineStarts[lineCount - 1];
+		String text = text(lineCount - 1, length);
+		length = start;
+		if (tailLimit == 0) {
+			omit(currentLineLength, currentLineHash);
+			return;
+		}
+		int index;
+		if (tailSize == tailLimit) {
+			index = tailStart;
+			omit(tailLengths[index], tailHashes[index]);
+			tailStart = (tailStart + 1) % tailLimit;
+		} else {
+			index = (tailStart + tailSize++) % tailLimit;
+		}
+		tailTexts[index] = text;
+		tailHashes[index] = currentLineHash;
+		tailLengths[index] = currentLineLength;
+	}
+
+	private void omit(long lineLength, long lineHash) {
+		omittedLineCount++;
+		omittedCharCount += lineLength;
+		omittedHash = OmittedLines.combine(omittedHash, lineHash);
+	}
+
+	private char charAt(int index) {
+		return utf16 == null ? (char) (latin1[index] & MAX_LATIN1) : utf16[index];
+	}
+
+	private int lineEnd(int line) {
+		return line + 1 < lineCount ? lineStarts[line + 1] : length;
+	}
+
+	private void startLine() {
+		if (lineCount == lineStarts.length)
+			lineStarts = Arrays.copyOf(lineStarts, newCapacity(lineStarts.length, 1));
+		lineStarts[lineCount++] = length;
+	}
+
+	private void ensureTextCapacity(int additional) {
+		int capacity = utf16 == null ? latin1.length : utf16.length;
+		if (capacity - length >= additional)
+			return;
+		int newCapacity = newCapacity(capacity, length + additional - capacity);
+		if (utf16 == null)
+			latin1 = Arrays.copyOf(latin1, newCapacity);
+		else
+			utf16 = Arrays.copyOf(utf16, newCapacity);
+	}
+
+	private void inflate() {
+		utf16 = new char[latin1.length];
+		for (int i = 0; i < length; i++)
+			utf16[i] = (char) (latin1[i] & MAX_LATIN1);
+		latin1 = null;
+	}
+
+	private static int newCapacity(int capacity, int minGrowth) {
+		int newCapacity = capacity + Math.max(minGrowth, capacity >> 1);
+		if (newCapacity < 0)
+			throw new OutOfMemoryError("Output too large"); //$NON-NLS-1$
+		return newCapacity;
+	}
+
+	private final class LineView extends AbstractLine {
+
+		private final long absoluteLine;
+
+		LineView(long absoluteLine) {
+			this.absoluteLine = absoluteLine;
+			this.lineNumber = (int) Math.min(Integer.MAX_VALUE, absoluteLine + 1);
+		}
+
+		private int line() {
+			int line = keptLine(absoluteLine);
+			if (line < 0)
+				throw new IllegalStateException("Line " + lineNumber + " was omitted"); //$NON-NLS-1$ //$NON-NLS-2$
+			return line;
+		}
+
+		@Override
+		public String text() {
+			return LineStore.this.text(line());
+		}
+
+		@Override
+		public boolean isComplete() {
+			return absoluteLine < totalLineCount() - 1;
+		}
+
+		@Override
+		public boolean contentEquals(CharSequence cs) {
+			return LineStore.this.contentEquals(line(), cs);
+		}
+	}
+
+	private final class LineList extends AbstractList<Line> implements RandomAccess {
+
+		private final int size;
+
+		LineList(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public Line get(int index) {
+			Objects.checkIndex(index, size);
+			return new LineView(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private final class TextList extends AbstractList<String> implements RandomAccess {
+
+		private final int size;
+		private final int limit = length;
+
+		TextList(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public String get(int index) {
+			Objects.checkIndex(index, size);
+			return text(index, limit);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package de.tum.in.test.api.io;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.BoundedOutput;
+
+/**
+ * Describes the lines between the first and the last lines of the output that
+ * were not kept because of {@link BoundedOutput}. The lines are counted and
+ * hashed, so that tests can still check them without storing them.
+ * <p>
+ * The hash is a 64-bit FNV-1a hash of the characters of each line, combined in
+ * the order of the lines. Use {@link #hashOf(List)} to compute the hash of
+ * expected lines. Line breaks are not part of the lines, but lines longer than
+ * {@link BoundedOutput#maxLineLength()} are still hashed completely.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+public final class OmittedLines {
+
+	static final OmittedLines NONE = new OmittedLines(0, 0, 0, 0);
+
+	private static final long LINE_HASH_START = 0xcbf29ce484222325L;
+	private static final long LINE_HASH_PRIME = 0x100000001b3L;
+	private static final long COMBINE_PRIME = 31;
+
+	private final long firstLineNumber;
+	private final long lineCount;
+	private final long charCount;
+	private final long hash;
+
+	OmittedLines(long firstLineNumber, long lineCount, long charCount, long hash) {
+		this.firstLineNumber = firstLineNumber;
+		this.lineCount = lineCount;
+		this.charCount = charCount;
+		this.hash = hash;
+	}
+
+	/**
+	 * @return the number of the first omitted line, starting with 1, or 0 if no
+	 *         line was omitted
+	 */
+	public long firstLineNumber() {
+		return firstLineNumber;
+	}
+
+	/**
+	 * @return the number of omitted lines
+	 */
+	public long lineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * @return the number of characters of the omitted lines, without line breaks
+	 */
+	public long charCount() {
+		return charCount;
+	}
+
+	/**
+	 * @return the hash of all omitted lines, see {@link #hashOf(List)}
+	 */
+	public long hash() {
+		return hash;
+	}
+
+	public boolean isEmpty() {
+		return lineCount == 0;
+	}
+
+	/**
+	 * Computes the hash of the given lines like the one of the omitted lines.
+	 *
+	 * @param lines the lines without line breaks
+	 * @return the hash to compare to {@link #hash()}
+	 */
+	public static long hashOf(List<String> lines) {
+		long hash = 0;
+		for (String line : lines) {
+			long lineHash = LINE_HASH_START;
+			for (int i = 0; i < line.length(); i++)
+				lineHash = updateLineHash(lineHash, line.charAt(i));
+			hash = combine(hash, lineHash);
+		}
+		return hash;
+	}
+
+	static long lineHashStart() {
+		return LINE_HASH_START;
+	}
+
+	static long updateLineHash(long lineHash, char c) {
+		return (lineHash ^ c) * LINE_HASH_PRIME;
+	}
+
+	static long combine(long hash, long lineHash) {
+		return hash * COMBINE_PRIME + lineHash;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(firstLineNumber, lineCount, charCount, hash);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof OmittedLines))
+			return false;
+		OmittedLines other = (OmittedLines) obj;
+		return firstLineNumber == other.firstLineNumber && lineCount == other.lineCount && charCount == other.charCount
+				&& hash == other.hash;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("OmittedLines[firstLineNumber=%d, lineCount=%d, charCount=%d, hash=%016x]", //$NON-NLS-1$
+				firstLineNumber, lineCount, charCount, hash);
+	}
+}
@@ -3,10 +3,8 @@ package de.tum.in.test.api.io;
 import java.nio.CharBuffer;
 import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,6 +19,8 @@ import org.assertj.core.api.ListAssert;
 import org.opentest4j.AssertionFailedError;
 import org.opentest4j.ValueWrapper;
 
+import de.tum.in.test.api.security.TrustedRegion;
+
 /**
  * Captures console output as {@link Line}s, and therefore is OS line separator
  * independent. The lines get numbered.
@@ -44,12 +44,32 @@ public final class OutputTester implements LineAcceptor {
 			+ "(?=[^`]*(?:\\R|$))" // lookahead for not quoted text and then line break or end of the string
 	);
 
-	private final List<Line> actualOutput = new ArrayList<>();
+	private LineStore actualOutput;
+	private ExpectedLinesMatcher expectedLinesMatcher;
 
 	private final long randomBits;
 	private final String randomString;
 
 	public OutputTester() {
+		this(new LineStore());
+	}
+
+	/**
+	 * Creates an output tester that only keeps the first and last lines.
+	 *
+	 * @param headLines     the number of complete lines kept at the start
+	 * @param tailLines     the number of complete lines kept at the end
+	 * @param maxLineLength the number of characters kept of each line
+	 * @see de.tum.in.test.api.BoundedOutput
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public OutputTester(int headLines, int tailLines, int maxLineLength) {
+		this(new LineStore(headLines, tailLines, maxLineLength));
+	}
+
+	private OutputTester(LineStore actualOutput) {
+		this.actualOutput = actualOutput;
 		randomBits = SECURE_RANDOM.nextLong();
 		randomString = Long.toUnsignedString(randomBits, 16);
 	}
@@ -58,15 +78,8 @@ public final class OutputTester implements LineAcceptor {
 	public void acceptOutput(CharBuffer output) {
 		if (output.length() == 0)
 			return;
-		DynamicLine currentLine;
-		if (getCurrentLine().map(Line::isComplete).orElse(true)) {
-			// start new line
-			currentLine = new DynamicLine();
-			addNewLine(currentLine);
-		} else {
-			// extend old line
-			currentLine = (DynamicLine) getCurrentLine().get();
-		}
+		// extends the last line, which is never complete
+		actualOutput.ensureCurrentLine();
 		// add lines
 		int lastPos = 0;
 		boolean lastWasCarriageReturn = false;
@@ -76,10 +89,8 @@ public final class OutputTester implements LineAcceptor {
 				if (c == '\n' && lastWasCarriageReturn) {
 					lastPos++;
 				} else {
-					currentLine.append(output.subSequence(lastPos, i));
-					currentLine.complete();
-					currentLine = new DynamicLine();
-					addNewLine(currentLine);
+					actualOutput.append(output, lastPos, i);
+					completeLine();
 					lastPos = i + 1;
 				}
 				lastWasCarriageReturn = c == '\r';
@@ -88,22 +99,15 @@ public final class OutputTester implements LineAcceptor {
 			}
 		}
 		if (lastPos != output.length())
-			currentLine.append(output.subSequence(lastPos, output.length()));
-	}
-
-	private void addNewLine(AbstractLine line) {
-		actualOutput.add(line);
-		line.setLineNumber(actualOutput.size());
-	}
-
-	Optional<Line> getCurrentLine() {
-		if (actualOutput.isEmpty())
-			return Optional.empty();
-		return Optional.of(actualOutput.get(actualOutput.size() - 1));
+			actualOutput.append(output, lastPos, output.length());
+		throwExpectedLinesFailure();
 	}
 
 	public void resetOutput() {
-		actualOutput.clear();
+		// lines returned before keep their text
+		actualOutput = actualOutput.cleared();
+		if (expectedLinesMatcher != null)
+			expectedLinesMatcher.reset();
 	}
 
 	/**
@@ -115,20 +119,19 @@ public final class OutputTester implements LineAcceptor {
 	 */
 	@Deprecated(since = "1.3.2")
 	public List<Line> getOutput() {
-		return Collections.unmodifiableList(actualOutput);
+		return actualOutput.lines(actualOutput.lineCount());
 	}
 
 	public List<Line> getLines(OutputTestOptions... outputOptions) {
-		return Collections.unmodifiableList(processLines(outputOptions));
+		return actualOutput.lines(processLines(outputOptions));
 	}
 
 	public String getOutputAsString(OutputTestOptions... outputOptions) {
-		return processLines(outputOptions).stream().map(Line::text)
-				.collect(Collectors.joining(IOTester.LINE_SEPERATOR));
+		return String.join(IOTester.LINE_SEPERATOR, getLinesAsString(outputOptions));
 	}
 
 	public List<String> getLinesAsString(OutputTestOptions... outputOptions) {
-		return processLines(outputOptions).stream().map(Line::text).collect(Collectors.toUnmodifiableList());
+		return actualOutput.texts(processLines(outputOptions));
 	}
 
 	public AbstractStringAssert<?> assertThat(OutputTestOptions... outputOptions) {
@@ -139,6 +142,43 @@ public final class OutputTester implements LineAcceptor {
 		return Assertions.assertThat(getLinesAsString(outputOptions));
 	}
 
+	/**
+	 * Returns the number of lines of the whole output, including the lines omitted
+	 * because of {@link de.tum.in.test.api.BoundedOutput}. The other methods only
+	 * return the lines that were kept.
+	 *
+	 * @param outputOptions the {@link OutputTestOptions} for the last line
+	 * @return the number of all lines
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public long getTotalLineCount(OutputTestOptions... outputOptions) {
+		return actualOutput.omittedLines().lineCount() + processLines(outputOptions);
+	}
+
+	/**
+	 * @return the number of characters of the whole output without line breaks,
+	 *         including omitted lines and characters
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public long getTotalCharCount() {
+		return actualOutput.totalCharCount();
+	}
+
+	/**
+	 * Returns the lines omitted between the first and the last lines because of
+	 * {@link de.tum.in.test.api.BoundedOutput}.
+	 *
+	 * @return the omitted lines, empty if the output is not bounded or no lines
+	 *         were omitted
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public OmittedLines getOmittedLines() {
+		return actualOutput.omittedLines();
+	}
+
 	/**
 	 * Checks the lines using
 	 * {@link org.junit.jupiter.api.Assertions#assertLinesMatch(List, List, String)
@@ -205,7 +245,170 @@ public final class OutputTester implements LineAcceptor {
 	 * @author Christian Femers
 	 */
 	public void assertLinesMatch(String message, OutputTestOptions[] outputOptions, String... expectedLines) {
-		var lines = Stream.of(expectedLines).flatMap(String::lines).collect(Collectors.toList());
+		TrustedRegion.run(() -> assertLinesMatchTrusted(message, outputOptions, expectedLines));
+	}
+
+	/**
+	 * Registers expected lines that are matched while the output is produced,
+	 * instead of only after the tested code has finished. The expected lines use
+	 * the same format as for {@link #assertLinesMatch(String, String...)}.
+	 * <p>
+	 * Each complete line of the output is matched as soon as it is printed. On the
+	 * first mismatch that no later output can fix, the {@link AssertionFailedError}
+	 * that {@link #assertLinesMatch(String, String...)} would report is thrown by
+	 * the print call of the tested code, and again by all following ones. This ends
+	 * tested code that prints wrong output and then does not terminate long before
+	 * its timeout. Lines after the last expected line are such a mismatch, unless
+	 * the last expected line is a fast-forward line without limit. Output captured
+	 * before the call is matched immediately.
+	 * <p>
+	 * Output that is incomplete at the end, like missing lines, can only be
+	 * detected afterwards, use {@link #assertExpectedLinesMatch()} for that.
+	 * <p>
+	 * With {@link de.tum.in.test.api.BoundedOutput}, lines longer than
+	 * {@link de.tum.in.test.api.BoundedOutput#maxLineLength() maxLineLength} are
+	 * only kept in part and cannot be matched. If such a line would have to be
+	 * compared to an expected line, this fails like a mismatch, lines skipped by
+	 * fast-forward lines may be longer.
+	 *
+	 * @param message       the error message for the assertion failure.
+	 * @param expectedLines the expected line patterns as described in
+	 *                      {@link #assertLinesMatch(String, String...)}
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public void expectLinesMatch(String message, String... expectedLines) {
+		expectLinesMatch(message, OutputTestOptions.NONE, expectedLines);
+	}
+
+	/**
+	 * Registers expected lines that are matched while the output is produced, see
+	 * {@link #expectLinesMatch(String, String...)}.
+	 *
+	 * @param message       the error message for the assertion failure.
+	 * @param outputOptions the {@link OutputTestOptions} for the final check by
+	 *                      {@link #assertExpectedLinesMatch()}, they do not change
+	 *                      the matching of complete lines.
+	 * @param expectedLines the expected line patterns as described in
+	 *                      {@link #assertLinesMatch(String, String...)}
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public void expectLinesMatch(String message, OutputTestOptions[] outputOptions, String... expectedLines) {
+		TrustedRegion.run(() -> {
+			var lines = splitExpectedLines(expectedLines);
+			var matcher = new ExpectedLinesMatcher(message, outputOptions, lines, createExpectedLinePatterns(lines));
+			if (!actualOutput.omittedLines().isEmpty())
+				throw new IllegalStateException("Lines of the output were already omitted"); //$NON-NLS-1$
+			if (actualOutput.hasTruncatedLines())
+				throw new IllegalStateException("Lines of the output were already truncated"); //$NON-NLS-1$
+			for (int line = 0; line < actualOutput.lineCount() - 1; line++)
+				matchLine(matcher, line);
+			expectedLinesMatcher = matcher;
+			throwExpectedLinesFailure();
+		});
+	}
+
+	/**
+	 * Checks the complete output against the lines registered by
+	 * {@link #expectLinesMatch(String, String...)} like
+	 * {@link #assertLinesMatch(String, String...)} does and removes them. If a
+	 * mismatch was already detected while the output was produced, that failure is
+	 * thrown again. If lines were omitted because of
+	 * {@link de.tum.in.test.api.BoundedOutput}, the matching done while the output
+	 * was produced is completed instead.
+	 *
+	 * @throws IllegalStateException if no expected lines are registered
+	 * @since 1.4.7
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public void assertExpectedLinesMatch() {
+		var matcher = expectedLinesMatcher;
+		if (matcher == null)
+			throw new IllegalStateException("no expected lines registered"); //$NON-NLS-1$
+		expectedLinesMatcher = null;
+		if (matcher.getFailure() != null)
+			throw matcher.getFailure();
+		if (actualOutput.omittedLines().isEmpty() && !actualOutput.hasTruncatedLines()) {
+			assertLinesMatch(matcher.getMessage(), matcher.getOutputOptions(),
+					matcher.getExpectedLines().toArray(String[]::new));
+			return;
+		}
+		// only the matcher has seen the omitted lines and knows the truncated ones
+		TrustedRegion.run(() -> {
+			int lineCount = processLines(matcher.getOutputOptions());
+			boolean withLastLine = lineCount > 0 && lineCount == actualOutput.lineCount();
+			String mismatch = matcher.finish(withLastLine ? actualOutput.text(lineCount - 1) : null,
+					withLastLine && actualOutput.isCurrentLineTruncated());
+			if (mismatch != null)
+				throw createExpectedLinesFailure(matcher, mismatch, lineCount);
+		});
+	}
+
+	/**
+	 * Completes the current line, after matching it against the registered expected
+	 * lines, as a bounded store might omit it.
+	 */
+	private void completeLine() {
+		var matcher = expectedLinesMatcher;
+		if (matcher != null)
+			matchLine(matcher, actualOutput.lineCount() - 1, actualOutput.isCurrentLineTruncated());
+		actualOutput.completeLine();
+	}
+
+	private void matchLine(ExpectedLinesMatcher matcher, int line) {
+		matchLine(matcher, line, false);
+	}
+
+	private void matchLine(ExpectedLinesMatcher matcher, int line, boolean truncated) {
+		if (matcher.getFailure() != null)
+			return;
+		String mismatch = matcher.match(actualOutput.text(line), truncated);
+		if (mismatch != null)
+			matcher.setFailure(createExpectedLinesFailure(matcher, mismatch, line + 1));
+	}
+
+	private void throwExpectedLinesFailure() {
+		var matcher = expectedLinesMatcher;
+		if (matcher != null && matcher.getFailure() != null)
+			throw matcher.getFailure();
+	}
+
+	/**
+	 * Creates the failure in the same way as JUnit and cleans it up like the one of
+	 * {@link #assertLinesMatch(String, String...)}, with the lines checked so far
+	 * as actual value.
+	 */
+	private AssertionFailedError createExpectedLinesFailure(ExpectedLinesMatcher matcher, String mismatch,
+			int checkedLines) {
+		String message = matcher.getMessage();
+		String prefix = message == null || message.isBlank() ? "" : message + " ==> "; //$NON-NLS-1$ //$NON-NLS-2$
+		var failure = new AssertionFailedError(prefix + mismatch,
+				String.join(System.lineSeparator(), matcher.getExpectedLinePatterns()),
+				String.join(System.lineSeparator(), actualOutput.texts(checkedLines)));
+		return tryCleanUpAssertionFailedError(matcher.getExpectedLines(), failure);
+	}
+
+	private void assertLinesMatchTrusted(String message, OutputTestOptions[] outputOptions, String... expectedLines) {
+		var lines = splitExpectedLines(expectedLines);
+		var expectedLinePatterns = createExpectedLinePatterns(lines);
+		var linesAsString = getLinesAsString(outputOptions);
+		// use JUnit 5 API to to the line comparison
+		try {
+			org.junit.jupiter.api.Assertions.assertLinesMatch(expectedLinePatterns, linesAsString, message);
+		} catch (AssertionFailedError afe) {
+			throw tryCleanUpAssertionFailedError(lines, afe);
+		} catch (@SuppressWarnings("unused") NoSuchElementException nsee) {
+			throw new AssertionFailedError("The output does not contain enough lines for the test to work, only "
+					+ linesAsString.size() + " lines found.");
+		}
+	}
+
+	private static List<String> splitExpectedLines(String... expectedLines) {
+		return Stream.of(expectedLines).flatMap(String::lines).collect(Collectors.toList());
+	}
+
+	private List<String> createExpectedLinePatterns(List<String> lines) {
 		var lineCount = lines.size();
 		var expectedLinePatterns = new ArrayList<String>();
 		for (int i = 0; i < lineCount; i++) {
@@ -242,16 +445,7 @@ public final class OutputTester implements LineAcceptor {
 			}
 			expectedLinePatterns.add(newLine.toString());
 		}
-		var linesAsString = getLinesAsString(outputOptions);
-		// use JUnit 5 API to to the line comparison
-		try {
-			org.junit.jupiter.api.Assertions.assertLinesMatch(expectedLinePatterns, linesAsString, message);
-		} catch (AssertionFailedError afe) {
-			throw tryCleanUpAssertionFailedError(lines, afe);
-		} catch (@SuppressWarnings("unused") NoSuchElementException nsee) {
-			throw new AssertionFailedError("The output does not contain enough lines for the test to work, only "
-					+ linesAsString.size() + " lines found.");
-		}
+		return expectedLinePatterns;
 	}
 
 	private static AssertionFailedError tryCleanUpAssertionFailedError(List<String> lines, AssertionFailedError afe) {
@@ -296,10 +490,14 @@ public final class OutputTester implements LineAcceptor {
 		return expectedLine.startsWith("||") && expectedLine.endsWith("||");
 	}
 
-	private List<Line> processLines(OutputTestOptions... outputOptions) {
+	/**
+	 * @return the number of lines to process
+	 */
+	private int processLines(OutputTestOptions... outputOptions) {
 		boolean ignoreLastEmpty = !OutputTestOptions.DONT_IGNORE_LAST_EMPTY_LINE.isIn(outputOptions);
-		if (ignoreLastEmpty && !actualOutput.isEmpty() && actualOutput.get(actualOutput.size() - 1).text().isEmpty())
-			return actualOutput.subList(0, actualOutput.size() - 1);
-		return actualOutput;
+		int lineCount = actualOutput.lineCount();
+		if (ignoreLastEmpty && lineCount > 0 && actualOutput.lineLength(lineCount - 1) == 0)
+			return lineCount - 1;
+		return lineCount;
 	}
 }
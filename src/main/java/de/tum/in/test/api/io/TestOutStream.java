@@ -2,43 +2,62 @@ package de.tum.in.test.api.io;
 
 import static de.tum.in.test.api.localization.Messages.formatLocalized;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Decodes the written bytes as UTF-8 on each flush and passes the characters to
+ * a {@link LineAcceptor}.
+ * <p>
+ * Each stream has its own decoder and reuses its byte and character buffers.
+ * The bytes of a character that is split across two flushes are kept until the
+ * next flush, they are not malformed input. Bytes still kept at the end of the
+ * output are reported by {@link #finishInput()}.
+ */
 final class TestOutStream extends OutputStream {
 
-	private static final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
-	static {
-		decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
-		decoder.onMalformedInput(CodingErrorAction.REPORT);
-	}
+	private static final int INITIAL_CAPACITY = 256;
+	/**
+	 * Larger buffers are replaced by smaller ones after the flush, so that a single
+	 * large output does not keep its memory
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 1 << 16;
 
 	private final LineAcceptor outputAcceptor;
 	private final OutputStream mirror;
 	private final long maxChars;
+	private final CharsetDecoder decoder;
 	private long charCount;
 	private volatile boolean closed;
 
-	private final ByteArrayOutputStream currentInput;
+	/**
+	 * In write mode, contains the bytes not decoded yet
+	 */
+	private ByteBuffer currentInput;
+	private CharBuffer decoded;
 
 	TestOutStream(LineAcceptor outputAcceptor, OutputStream mirror, long maxChars) {
 		this.mirror = mirror;
 		this.outputAcceptor = outputAcceptor;
-		this.currentInput = new ByteArrayOutputStream();
 		this.maxChars = maxChars;
+		this.decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		this.currentInput = ByteBuffer.allocate(INITIAL_CAPACITY);
+		this.decoded = CharBuffer.allocate(INITIAL_CAPACITY);
 	}
 
 	@Override
 	public void write(int b) throws IOException {
 		checkCharCount(1);
-		currentInput.write(b);
+		ensureInputCapacity(1);
+		currentInput.put((byte) b);
 		if (mirror != null)
 			mirror.write(b);
 	}
@@ -46,7 +65,8 @@ final class TestOutStream extends OutputStream {
 	@Override
 	public void write(byte[] b) throws IOException {
 		checkCharCount(b.length);
-		currentInput.write(b);
+		ensureInputCapacity(b.length);
+		currentInput.put(b);
 		if (mirror != null)
 			mirror.write(b);
 	}
@@ -54,7 +74,8 @@ final class TestOutStream extends OutputStream {
 	@Override
 	public void write(byte[] b, int offset, int length) throws IOException {
 		checkCharCount(length);
-		currentInput.write(b, offset, length);
+		ensureInputCapacity(length);
+		currentInput.put(b, offset, length);
 		if (mirror != null)
 			mirror.write(b, offset, length);
 	}
@@ -62,17 +83,24 @@ final class TestOutStream extends OutputStream {
 	@Override
 	public void flush() throws IOException {
 		super.flush();
-		ByteBuffer bytes = ByteBuffer.wrap(currentInput.toByteArray());
-		CharBuffer result;
-		try {
-			result = decoder.decode(bytes);
-		} catch (CharacterCodingException e) {
-			String problemString = new String(bytes.array(), decoder.charset());
-			throw new IllegalArgumentException(formatLocalized("output_tester.output_is_invalid_utf8", problemString), //$NON-NLS-1$
-					e);
-		}
-		outputAcceptor.acceptOutput(result);
-		currentInput.reset();
+		if (currentInput.position() == 0)
+			return;
+		currentInput.flip();
+		// UTF-8 never decodes to more chars than bytes, so a single call decodes all
+		if (decoded.capacity() < currentInput.remaining())
+			decoded = CharBuffer.allocate(currentInput.remaining());
+		decoded.clear();
+		CoderResult result = decoder.decode(currentInput, decoded, false);
+		if (result.isError())
+			reportMalformedInput(result);
+		// keep the bytes of an incomplete character
+		currentInput.compact();
+		decoded.flip();
+		outputAcceptor.acceptOutput(decoded);
+		if (currentInput.capacity() > MAX_RETAINED_CAPACITY && currentInput.position() < INITIAL_CAPACITY)
+			currentInput = ByteBuffer.allocate(INITIAL_CAPACITY).put(currentInput.flip());
+		if (decoded.capacity() > MAX_RETAINED_CAPACITY)
+			decoded = CharBuffer.allocate(INITIAL_CAPACITY);
 	}
 
 	@Override
@@ -82,9 +110,55 @@ final class TestOutStream extends OutputStream {
 			mirror.close();
 	}
 
+	/**
+	 * Decodes the bytes that were kept for an incomplete character as the end of
+	 * the output, they are malformed then. Call {@link #resetInternalState()}
+	 * afterwards to start a new output.
+	 *
+	 * @throws IllegalArgumentException if bytes of an incomplete character were
+	 *                                  kept
+	 */
+	void finishInput() {
+		if (currentInput.position() == 0)
+			return;
+		currentInput.flip();
+		decoded.clear();
+		CoderResult result = decoder.decode(currentInput, decoded, true);
+		if (!result.isError())
+			result = decoder.flush(decoded);
+		if (result.isError())
+			reportMalformedInput(result);
+		currentInput.compact();
+		decoded.flip();
+		outputAcceptor.acceptOutput(decoded);
+	}
+
+	private void reportMalformedInput(CoderResult result) {
+		String problemString = new String(currentInput.array(), 0, currentInput.limit(), decoder.charset());
+		resetInternalState();
+		try {
+			result.throwException();
+		} catch (CharacterCodingException e) {
+			throw new IllegalArgumentException(formatLocalized("output_tester.output_is_invalid_utf8", problemString), //$NON-NLS-1$
+					e);
+		}
+	}
+
 	void resetInternalState() {
 		charCount = 0;
-		currentInput.reset();
+		currentInput.clear();
+		decoder.reset();
+	}
+
+	private void ensureInputCapacity(int length) {
+		if (currentInput.remaining() >= length)
+			return;
+		int required = currentInput.position() + length;
+		if (required < 0)
+			throw new OutOfMemoryError();
+		var larger = ByteBuffer.allocate(Math.max(required, currentInput.capacity() * 2));
+		currentInput.flip();
+		currentInput = larger.put(currentInput);
 	}
 
 	private void checkCharCount(int newChars) throws IOException {
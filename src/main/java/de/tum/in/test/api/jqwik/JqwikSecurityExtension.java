@@ -1,5 +1,6 @@
 package de.tum.in.test.api.jqwik;
 
+import java.util.LinkedHashMap;
 import java.util.Optional;
 
 import org.apiguardian.api.API;
@@ -43,6 +44,10 @@ public final class JqwikSecurityExtension implements AroundPropertyHook {
 		} finally {
 			try {
 				ArtemisSecurityManager.uninstall(accessToken);
+				if (ConfigurationUtils.shouldReportSecurityMetrics(testContext))
+					ArtemisSecurityManager.getLastMetrics(accessToken)
+							.ifPresent(metrics -> context.reporter().publishReports("security metrics", //$NON-NLS-1$
+									new LinkedHashMap<String, Object>(metrics.toReportEntries())));
 			} catch (Exception e) {
 				error = e;
 			}
@@ -1,32 +1,43 @@
 package de.tum.in.test.api.jupiter;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.apiguardian.api.API;
 import org.apiguardian.api.API.Status;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
 import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 
 import de.tum.in.test.api.internal.ConfigurationUtils;
+import de.tum.in.test.api.security.ArtemisSecurityConfiguration;
 import de.tum.in.test.api.security.ArtemisSecurityManager;
+import de.tum.in.test.api.security.TrustedRegion;
 
 @API(status = Status.INTERNAL)
 public final class JupiterSecurityExtension implements UnifiedInvocationInterceptor {
 
+	private static final Namespace NAMESPACE = Namespace.create(JupiterSecurityExtension.class);
+
 	@Override
 	public <T> T interceptGenericInvocation(Invocation<T> invocation, ExtensionContext extensionContext,
 			Optional<ReflectiveInvocationContext<?>> invocationContext) throws Throwable {
 		var testContext = JupiterContext.of(extensionContext);
-		var configuration = ConfigurationUtils.generateConfiguration(testContext);
+		var configuration = getConfiguration(extensionContext, testContext);
 		var accessToken = ArtemisSecurityManager.install(configuration);
 		Throwable failure = null;
 		try {
-			return invocation.proceed();
+			// bounds the stack walks during the test to the frames above the invocation
+			return TrustedRegion.call(invocation::proceed);
 		} catch (Throwable t) {
 			failure = t;
 		} finally {
 			try {
 				ArtemisSecurityManager.uninstall(accessToken);
+				if (ConfigurationUtils.shouldReportSecurityMetrics(testContext))
+					ArtemisSecurityManager.getLastMetrics(accessToken)
+							.ifPresent(metrics -> extensionContext.publishReportEntry(metrics.toReportEntries()));
 			} catch (Exception e) {
 				if (failure == null)
 					failure = e;
@@ -36,4 +47,25 @@ public final class JupiterSecurityExtension implements UnifiedInvocationIntercep
 		}
 		throw failure;
 	}
+
+	/**
+	 * The configuration only depends on the annotations found for the test, so it
+	 * is generated once per test class, test method and annotated element and then
+	 * shared by all invocations, e.g. of lifecycle methods, repeated and
+	 * parameterized tests. The configurations are kept in the store of the test
+	 * class and discarded together with it.
+	 */
+	private static ArtemisSecurityConfiguration getConfiguration(ExtensionContext extensionContext,
+			JupiterContext testContext) {
+		var key = List.of(testContext.testClass(), testContext.testMethod(), testContext.annotatedElement());
+		return getClassStore(extensionContext).getOrComputeIfAbsent(key,
+				k -> ConfigurationUtils.generateConfiguration(testContext), ArtemisSecurityConfiguration.class);
+	}
+
+	private static Store getClassStore(ExtensionContext extensionContext) {
+		ExtensionContext classContext = extensionContext;
+		while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent())
+			classContext = classContext.getParent().get();
+		return classContext.getStore(NAMESPACE);
+	}
 }
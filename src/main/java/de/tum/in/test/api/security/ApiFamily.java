@@ -0,0 +1,17 @@
+package de.tum.in.test.api.security;
+
+/**
+ * The groups of guarded APIs that the {@link ClassFileScan} reports for a
+ * class.
+ */
+enum ApiFamily {
+	FILE_SYSTEM,
+	NETWORK,
+	PROCESS,
+	RUNTIME,
+	THREADS,
+	/**
+	 * Reflection, method handles and class loading, which can reach anything
+	 */
+	REFLECTION
+}
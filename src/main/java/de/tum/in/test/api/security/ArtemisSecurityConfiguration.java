@@ -2,6 +2,7 @@ package de.tum.in.test.api.security;
 
 import java.lang.reflect.Method;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -12,6 +13,9 @@ import java.util.Set;
 import org.apiguardian.api.API;
 import org.apiguardian.api.API.Status;
 
+import de.tum.in.test.api.SandboxTeardown.TeardownMode;
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.StaticBytecodeScan.ScanMode;
 import de.tum.in.test.api.util.PackageRule;
 import de.tum.in.test.api.util.PathRule;
 
@@ -30,12 +34,27 @@ public final class ArtemisSecurityConfiguration {
 	private final Set<PackageRule> blacklistedPackages;
 	private final Set<PackageRule> whitelistedPackages;
 	private final Set<PackageRule> trustedPackages;
+	private final TeardownMode teardownMode;
+	private final long heapGrowthThreshold;
+	private final Duration commonPoolDrainBudget;
+	private final ClassificationMode stackFrameClassification;
+	private final ScanMode bytecodeScanMode;
+	private final StackWhitelistMatcher stackWhitelistMatcher;
+	private final PathAccessIndex pathAccessIndex;
+	private final LocalPortIndex localPortIndex;
+	private final PackageAccessMatcher packageAccessMatcher;
+	/**
+	 * Computed on first use, as it reads the execution path
+	 */
+	private volatile BytecodeScan bytecodeScan;
 
 	ArtemisSecurityConfiguration(Optional<Class<?>> testClass, Optional<Method> testMethod, Path executionPath,
 			Collection<String> whitelistedClassNames, Optional<Collection<PathRule>> whitelistedPaths,
 			Collection<PathRule> blacklistedPaths, Set<Integer> allowedLocalPorts, OptionalInt allowLocalPortsAbove,
 			Set<Integer> excludedLocalPorts, OptionalInt allowedThreadCount, Set<PackageRule> blacklistedPackages,
-			Set<PackageRule> whitelistedPackages, Set<PackageRule> trustedPackages) {
+			Set<PackageRule> whitelistedPackages, Set<PackageRule> trustedPackages, TeardownMode teardownMode,
+			long heapGrowthThreshold, Duration commonPoolDrainBudget, ClassificationMode stackFrameClassification,
+			ScanMode bytecodeScanMode) {
 		this.testClass = Objects.requireNonNull(testClass);
 		this.testMethod = Objects.requireNonNull(testMethod);
 		this.executionPath = executionPath.toAbsolutePath();
@@ -49,6 +68,17 @@ public final class ArtemisSecurityConfiguration {
 		this.blacklistedPackages = Set.copyOf(blacklistedPackages);
 		this.whitelistedPackages = Set.copyOf(whitelistedPackages);
 		this.trustedPackages = Set.copyOf(trustedPackages);
+		this.teardownMode = Objects.requireNonNull(teardownMode);
+		this.heapGrowthThreshold = heapGrowthThreshold;
+		this.commonPoolDrainBudget = Objects.requireNonNull(commonPoolDrainBudget);
+		this.stackFrameClassification = Objects.requireNonNull(stackFrameClassification);
+		this.bytecodeScanMode = Objects.requireNonNull(bytecodeScanMode);
+		this.stackWhitelistMatcher = StackWhitelistMatcher.of(this.whitelistedClassNames, this.trustedPackages,
+				this.stackFrameClassification);
+		this.pathAccessIndex = PathAccessIndex.of(this.whitelistedPaths, this.blacklistedPaths, this.executionPath);
+		this.localPortIndex = LocalPortIndex.of(this.allowedLocalPorts, this.allowLocalPortsAbove,
+				this.excludedLocalPorts);
+		this.packageAccessMatcher = PackageAccessMatcher.of(this.blacklistedPackages, this.whitelistedPackages);
 	}
 
 	public Optional<Class<?>> testClass() {
@@ -103,6 +133,64 @@ public final class ArtemisSecurityConfiguration {
 		return trustedPackages;
 	}
 
+	public TeardownMode teardownMode() {
+		return teardownMode;
+	}
+
+	public long heapGrowthThreshold() {
+		return heapGrowthThreshold;
+	}
+
+	public Duration commonPoolDrainBudget() {
+		return commonPoolDrainBudget;
+	}
+
+	public ClassificationMode stackFrameClassification() {
+		return stackFrameClassification;
+	}
+
+	public ScanMode bytecodeScanMode() {
+		return bytecodeScanMode;
+	}
+
+	/**
+	 * Scans the execution path on the first call, if the scan is enabled.
+	 *
+	 * @return the scan, or null if the {@link #bytecodeScanMode()} is
+	 *         {@link ScanMode#OFF OFF}
+	 */
+	BytecodeScan bytecodeScan() {
+		if (!bytecodeScanMode.isEnabled())
+			return null;
+		var scan = bytecodeScan;
+		if (scan == null) {
+			synchronized (this) {
+				scan = bytecodeScan;
+				if (scan == null) {
+					scan = BytecodeScan.of(executionPath, stackWhitelistMatcher);
+					bytecodeScan = scan;
+				}
+			}
+		}
+		return scan;
+	}
+
+	StackWhitelistMatcher stackWhitelistMatcher() {
+		return stackWhitelistMatcher;
+	}
+
+	PathAccessIndex pathAccessIndex() {
+		return pathAccessIndex;
+	}
+
+	LocalPortIndex localPortIndex() {
+		return localPortIndex;
+	}
+
+	PackageAccessMatcher packageAccessMatcher() {
+		return packageAccessMatcher;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -120,13 +208,18 @@ public final class ArtemisSecurityConfiguration {
 				&& Objects.equals(whitelistedPaths, other.whitelistedPaths)
 				&& Objects.equals(blacklistedPaths, other.blacklistedPaths)
 				&& Objects.equals(blacklistedPackages, other.blacklistedPackages)
-				&& Objects.equals(whitelistedPackages, other.whitelistedPackages);
+				&& Objects.equals(whitelistedPackages, other.whitelistedPackages) && teardownMode == other.teardownMode
+				&& heapGrowthThreshold == other.heapGrowthThreshold
+				&& Objects.equals(commonPoolDrainBudget, other.commonPoolDrainBudget)
+				&& stackFrameClassification == other.stackFrameClassification
+				&& bytecodeScanMode == other.bytecodeScanMode;
 	}
 
 	@Override
 	public int hashCode() {
 		return Objects.hash(executionPath, testClass, testMethod, whitelistedClassNames, allowedThreadCount,
-				whitelistedPaths, blacklistedPaths, blacklistedPackages, whitelistedPackages);
+				whitelistedPaths, blacklistedPaths, blacklistedPackages, whitelistedPackages, teardownMode,
+				heapGrowthThreshold, commonPoolDrainBudget, stackFrameClassification, bytecodeScanMode);
 	}
 
 	@Override
@@ -134,10 +227,12 @@ public final class ArtemisSecurityConfiguration {
 		return String.format("ArtemisSecurityConfigurationImpl [whitelistedClassNames=%s, executionPath=%s,"
 				+ " testClass=%s, testMethod=%s, whitelistedPaths=%s, blacklistedPaths=%s, allowedLocalPorts=%s,"
 				+ " allowLocalPortsAbove=%s, excludedLocalPorts=%s, allowedThreadCount=%s,"
-				+ " blacklistedPackages=%s, whitelistedPackages=%s, trustedPackages=%s]", whitelistedClassNames,
-				executionPath, testClass, testMethod, whitelistedPaths, blacklistedPaths, allowedLocalPorts,
-				allowLocalPortsAbove, excludedLocalPorts, allowedThreadCount, blacklistedPackages, whitelistedPackages,
-				trustedPackages);
+				+ " blacklistedPackages=%s, whitelistedPackages=%s, trustedPackages=%s, teardownMode=%s,"
+				+ " heapGrowthThreshold=%s, commonPoolDrainBudget=%s, stackFrameClassification=%s,"
+				+ " bytecodeScanMode=%s]", whitelistedClassNames, executionPath, testClass, testMethod,
+				whitelistedPaths, blacklistedPaths, allowedLocalPorts, allowLocalPortsAbove, excludedLocalPorts,
+				allowedThreadCount, blacklistedPackages, whitelistedPackages, trustedPackages, teardownMode,
+				heapGrowthThreshold, commonPoolDrainBudget, stackFrameClassification, bytecodeScanMode);
 	}
 
 	public String shortDesc() {
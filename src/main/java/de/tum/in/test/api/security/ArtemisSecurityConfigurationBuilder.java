@@ -2,6 +2,7 @@ package de.tum.in.test.api.security;
 
 import java.lang.reflect.Method;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -12,6 +13,10 @@ import java.util.OptionalInt;
 import java.util.Set;
 
 import de.tum.in.test.api.AllowLocalPort;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.SandboxTeardown.TeardownMode;
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.StaticBytecodeScan.ScanMode;
 import de.tum.in.test.api.internal.TestContext;
 import de.tum.in.test.api.util.PackageRule;
 import de.tum.in.test.api.util.PathRule;
@@ -30,6 +35,11 @@ public final class ArtemisSecurityConfigurationBuilder {
 	private Set<Integer> excludedLocalPorts;
 	private OptionalInt allowedThreadCount;
 	private Set<PackageRule> trustedPackages;
+	private TeardownMode teardownMode;
+	private long heapGrowthThreshold;
+	private Duration commonPoolDrainBudget;
+	private ClassificationMode stackFrameClassification;
+	private ScanMode bytecodeScanMode;
 
 	private ArtemisSecurityConfigurationBuilder() {
 		testClass = Optional.empty();
@@ -43,6 +53,11 @@ public final class ArtemisSecurityConfigurationBuilder {
 		excludedLocalPorts = Set.of();
 		allowedThreadCount = OptionalInt.empty();
 		trustedPackages = Set.of();
+		teardownMode = TeardownMode.ADAPTIVE;
+		heapGrowthThreshold = SandboxTeardown.DEFAULT_HEAP_GROWTH_THRESHOLD;
+		commonPoolDrainBudget = Duration.ofMillis(SandboxTeardown.DEFAULT_COMMON_POOL_DRAIN_BUDGET);
+		stackFrameClassification = ClassificationMode.NAME;
+		bytecodeScanMode = ScanMode.OFF;
 	}
 
 	public ArtemisSecurityConfigurationBuilder withCurrentPath() {
@@ -131,16 +146,47 @@ public final class ArtemisSecurityConfigurationBuilder {
 		return this;
 	}
 
+	public ArtemisSecurityConfigurationBuilder withTeardownMode(TeardownMode teardownMode) {
+		this.teardownMode = Objects.requireNonNull(teardownMode);
+		return this;
+	}
+
+	public ArtemisSecurityConfigurationBuilder withHeapGrowthThreshold(long heapGrowthThreshold) {
+		this.heapGrowthThreshold = heapGrowthThreshold;
+		return this;
+	}
+
+	public ArtemisSecurityConfigurationBuilder withCommonPoolDrainBudget(Duration commonPoolDrainBudget) {
+		this.commonPoolDrainBudget = Objects.requireNonNull(commonPoolDrainBudget);
+		return this;
+	}
+
+	public ArtemisSecurityConfigurationBuilder withStackFrameClassification(
+			ClassificationMode stackFrameClassification) {
+		this.stackFrameClassification = Objects.requireNonNull(stackFrameClassification);
+		return this;
+	}
+
+	public ArtemisSecurityConfigurationBuilder withBytecodeScanMode(ScanMode bytecodeScanMode) {
+		this.bytecodeScanMode = Objects.requireNonNull(bytecodeScanMode);
+		return this;
+	}
+
 	public ArtemisSecurityConfiguration build() {
 		validate();
 		return new ArtemisSecurityConfiguration(testClass, testMethod, executionPath, whitelistedClassNames,
 				Optional.ofNullable(whitelistedPaths), blacklistedPaths, allowedLocalPorts, allowLocalPortsAbove,
-				excludedLocalPorts, allowedThreadCount, blacklistedPackages, whitelistedPackages, trustedPackages);
+				excludedLocalPorts, allowedThreadCount, blacklistedPackages, whitelistedPackages, trustedPackages,
+				teardownMode, heapGrowthThreshold, commonPoolDrainBudget, stackFrameClassification, bytecodeScanMode);
 	}
 
 	private void validate() {
 		if (allowedThreadCount.orElse(0) < 0)
 			throw new ConfigurationException("Allowed thread count must be non-negative");
+		if (heapGrowthThreshold < 0)
+			throw new ConfigurationException("Heap growth threshold must be non-negative");
+		if (commonPoolDrainBudget.isNegative())
+			throw new ConfigurationException("Common pool drain budget must be non-negative");
 		if (!Collections.disjoint(allowedLocalPorts, excludedLocalPorts))
 			throw new ConfigurationException("Allowed and excluded local ports must not intersect");
 		allowedLocalPorts.forEach(ArtemisSecurityConfigurationBuilder::validatePortRange);
@@ -5,14 +5,15 @@ import static de.tum.in.test.api.localization.Messages.*;
 import java.awt.AWTPermission;
 import java.io.FilePermission;
 import java.io.SerializablePermission;
+import java.lang.StackWalker.Option;
 import java.lang.StackWalker.StackFrame;
-import java.lang.Thread.State;
+import java.lang.management.ManagementFactory;
 import java.lang.management.ManagementPermission;
+import java.lang.management.MemoryMXBean;
 import java.lang.reflect.ReflectPermission;
 import java.net.InetAddress;
 import java.net.NetPermission;
 import java.net.SocketPermission;
-import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.security.AccessController;
@@ -20,18 +21,24 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Permission;
 import java.security.SecurityPermission;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -42,11 +49,24 @@ import javax.security.auth.AuthPermission;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 import de.tum.in.test.api.AllowLocalPort;
 import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.StaticBytecodeScan.ScanMode;
 import de.tum.in.test.api.localization.Messages;
+import de.tum.in.test.api.security.SecurityAuditLog.AuditRecord;
+import de.tum.in.test.api.security.SecurityAuditLog.Kind;
+import de.tum.in.test.api.security.SecurityMetrics.CommonPoolDrain;
+import de.tum.in.test.api.security.SecurityMetrics.Hook;
+import de.tum.in.test.api.security.SecurityMetrics.Teardown;
+import de.tum.in.test.api.security.SecurityMetrics.TeardownPath;
+import de.tum.in.test.api.security.SecurityMetrics.TeardownReason;
+import de.tum.in.test.api.security.SecurityMetrics.ThreadOutcome;
+import de.tum.in.test.api.security.SecurityMetrics.ThreadTermination;
 import de.tum.in.test.api.util.DelayedFilter;
+import de.tum.in.test.api.util.LruCache;
 
 /**
  * Prevents System.exit, reflection to a certain degree, networking use,
@@ -57,9 +77,27 @@ import de.tum.in.test.api.util.DelayedFilter;
 public final class ArtemisSecurityManager extends SecurityManager {
 
 	private static final int MAX_PORT = AllowLocalPort.MAXIMUM;
+	private static final int MAX_SESSIONS_BY_TOKEN = 64;
+	/*
+	 * NOTE: threads with these name prefixes are never whitelisted
+	 */
+	private static final String[] THREAD_NAME_BLACKLIST = { "Finalizer", "InnocuousThread", //$NON-NLS-1$ //$NON-NLS-2$
+			"ForkJoinPool.commonPool" }; //$NON-NLS-1$
+	private static final Duration THREAD_INTERRUPT_BUDGET = Duration.ofMillis(500);
+	private static final Duration THREAD_STOP_BUDGET = Duration.ofMillis(1000);
 	private static final SecurityManager ORIGINAL = System.getSecurityManager();
+	private static final PermissionHandler GRANT = perm -> {
+		// no restrictions
+	};
 	private static final ArtemisSecurityManager INSTANCE = new ArtemisSecurityManager();
 	private static final Logger LOG = LoggerFactory.getLogger(ArtemisSecurityManager.class);
+	/*
+	 * NOTE: must be initialized before the security manager is set, the checks use
+	 * it
+	 */
+	private static final SecurityAuditLog AUDIT_LOG = createAuditLog();
+	private static final Duration AUDIT_FLUSH_TIMEOUT = Duration.ofMillis(100);
+	private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
 	private static final MessageDigest SHA256;
 	static {
 		try {
@@ -70,13 +108,17 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		// Allow to load resources
 		Messages.init();
 		/*
-		 * Initialize common ForkJoinPool for parallel streams and alike
+		 * Initialize common ForkJoinPool for parallel streams and alike. Not with the
+		 * call site backend, the security manager is never installed and might not be
+		 * allowed at all (JDK 18+).
 		 */
-		System.setSecurityManager(INSTANCE);
-		ForkJoinPool.commonPool();
-		INSTANCE.isPartlyDisabled = true;
-		System.setSecurityManager(ORIGINAL);
-		INSTANCE.isPartlyDisabled = false;
+		if (!SandboxCallSites.isBackendEnabled()) {
+			System.setSecurityManager(INSTANCE);
+			ForkJoinPool.commonPool();
+			INSTANCE.isPartlyDisabled = true;
+			System.setSecurityManager(ORIGINAL);
+			INSTANCE.isPartlyDisabled = false;
+		}
 		/*
 		 * Check for main Thread
 		 */
@@ -87,35 +129,77 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		}
 	}
 
+	/*
+	 * NOTE: must be initialized after the common pool was created with the security
+	 * manager installed
+	 */
+	private static final CommonPoolDrainer COMMON_POOL_DRAINER = new CommonPoolDrainer(ForkJoinPool.commonPool(),
+			INSTANCE.getRootThreadGroup());
+
 	private static final BiConsumer<String, Object> ON_SUPPRESSED_MOD = (method, object) -> LOG
 			.warn("addSuppressed, {} called with {}", method, object == null ? "null" : object.getClass()); //$NON-NLS-1$ //$NON-NLS-2$
 
 	private final ThreadGroup testThreadGroup = new ThreadGroup("Test-Threadgroup"); //$NON-NLS-1$
 	private final ThreadLocal<AtomicInteger> recursionBreak = ThreadLocal.withInitial(AtomicInteger::new);
-	private final StackWalker stackWalker = StackWalker.getInstance();
+	private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+	private final StackWalker stackWalker = StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE);
+	private final Map<String, PermissionHandler> runtimePermissionHandlers = createRuntimePermissionHandlers();
+	private final Map<Class<? extends Permission>, PermissionHandler> permissionClassHandlers = createPermissionClassHandlers();
+	private final ClassValue<PermissionHandler> permissionHandlers = new ClassValue<>() {
+		@Override
+		protected PermissionHandler computeValue(Class<?> type) {
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+				var handler = permissionClassHandlers.get(current);
+				if (handler != null)
+					return handler;
+			}
+			return GRANT;
+		}
+	};
+	private final Function<Stream<StackFrame>, Optional<StackFrame>> findUntilPrivileged;
+	private final Function<Stream<StackFrame>, Optional<StackFrame>> findInWholeStack;
 
-	private ArtemisSecurityConfiguration configuration;
-	private String accessToken;
-	private Set<Thread> whitelistedThreads = new HashSet<>();
+	/**
+	 * The active sessions, including the ones whose uninstall failed; only modified
+	 * while holding the class lock
+	 */
+	private final List<SandboxSession> sessions = new CopyOnWriteArrayList<>();
+	/**
+	 * Recently started sessions by the hash of their access token, to find ended
+	 * sessions; guarded by the class lock
+	 */
+	private final Map<String, SandboxSession> sessionsByToken = new LruCache<>(MAX_SESSIONS_BY_TOKEN);
+	private final AtomicInteger sessionCounter = new AtomicInteger();
+	/**
+	 * Incremented after each change of the sessions or their whitelisted threads
+	 */
+	private final AtomicLong stateGeneration = new AtomicLong();
+	/**
+	 * The configuration of the last session a thread owned or was whitelisted by,
+	 * for the time it does not belong to any session; only modified while holding
+	 * the class lock
+	 */
+	private final Map<Thread, ArtemisSecurityConfiguration> retainedConfigurations = Collections
+			.synchronizedMap(new WeakHashMap<>());
 	private volatile boolean isPartlyDisabled;
-	private volatile boolean blockThreadCreation;
-	private volatile boolean lastUninstallFailed;
-	private volatile boolean isActive;
 
 	private ArtemisSecurityManager() {
 		if (INSTANCE != null)
 			throw new IllegalStateException(localized("security.already_created")); //$NON-NLS-1$
+		findUntilPrivileged = stackFrames -> findFirstNonWhitelisted(stackFrames, true);
+		findInWholeStack = stackFrames -> findFirstNonWhitelisted(stackFrames, false);
 	}
 
-	private synchronized String generateAccessToken() {
-		String tokenString = UUID.randomUUID().toString();
-		accessToken = hash(tokenString);
-		return tokenString;
-	}
-
-	private synchronized void checkAccess(String accessToken) {
-		if (!this.accessToken.equals(hash(accessToken)))
+	private static synchronized SandboxSession getSession(String accessToken) {
+		String accessTokenHash = hash(accessToken);
+		for (SandboxSession session : INSTANCE.sessions) {
+			if (session.getAccessTokenHash().equals(accessTokenHash))
+				return session;
+		}
+		var session = INSTANCE.sessionsByToken.get(accessTokenHash);
+		if (session == null)
 			throw new SecurityException(localized("security.access_token_invalid")); //$NON-NLS-1$
+		return session;
 	}
 
 	private boolean enterPublicInterface() {
@@ -140,7 +224,8 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		try {
 			if (enterPublicInterface())
 				return;
-			if (Thread.currentThread() == SecurityConstants.MAIN_THREAD && getNonWhitelistedStackFrames().isEmpty()) {
+			if (Thread.currentThread() == SecurityConstants.MAIN_THREAD
+					&& findFirstNonWhitelistedStackFrame(true).isEmpty()) {
 				// always allow maven to exit
 				return;
 			}
@@ -168,9 +253,14 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		try {
 			if (enterPublicInterface())
 				return;
-			if (isConnectionAllowed(host, port))
+			long start = System.nanoTime();
+			if (isConnectionAllowed(host, port)) {
+				recordGranted(Hook.CHECK_CONNECT, start);
 				return;
-			throw new SecurityException(formatLocalized("security.error_network_connect", host, port)); //$NON-NLS-1$
+			}
+			var violation = new SecurityException(formatLocalized("security.error_network_connect", host, port)); //$NON-NLS-1$
+			recordDenied(Hook.CHECK_CONNECT, start, violation);
+			throw violation;
 		} finally {
 			exitPublicInterface();
 		}
@@ -181,9 +271,15 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		try {
 			if (enterPublicInterface())
 				return;
-			if (isConnectionAllowed(host, port))
+			long start = System.nanoTime();
+			if (isConnectionAllowed(host, port)) {
+				recordGranted(Hook.CHECK_CONNECT, start);
 				return;
-			throw new SecurityException(formatLocalized("security.error_network_connect_with_context", host, port)); //$NON-NLS-1$
+			}
+			var violation = new SecurityException(
+					formatLocalized("security.error_network_connect_with_context", host, port)); //$NON-NLS-1$
+			recordDenied(Hook.CHECK_CONNECT, start, violation);
+			throw violation;
 		} finally {
 			exitPublicInterface();
 		}
@@ -256,23 +352,55 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		try {
 			if (enterPublicInterface())
 				return;
-			super.checkAccess(t);
-			// Thread terminated
-			if (tg == null)
-				return;
-			if (isMainThreadAndInactive()) {
-				if (LOG.isTraceEnabled()) {
-					LOG.trace("Allowing Thread access to {} for main thread inbetween tests", externGet(t::toString));
-				}
-				return;
+			long start = System.nanoTime();
+			try {
+				checkThreadAccess(t, tg);
+			} catch (SecurityException e) {
+				recordDenied(Hook.CHECK_THREAD_ACCESS, start, e);
+				throw e;
 			}
-			if (!testThreadGroup.parentOf(tg))
-				checkForNonWhitelistedStackFrames(() -> localized("security.error_thread_access")); //$NON-NLS-1$
+			recordGranted(Hook.CHECK_THREAD_ACCESS, start);
 		} finally {
 			exitPublicInterface();
 		}
 	}
 
+	private void checkThreadAccess(Thread t, ThreadGroup tg) {
+		super.checkAccess(t);
+		// Thread terminated
+		if (tg == null)
+			return;
+		if (isMainThreadAndInactive()) {
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("Allowing Thread access to {} for main thread inbetween tests", externGet(t::toString));
+			}
+			return;
+		}
+		var session = currentSession();
+		if (session == null || !session.getThreadGroup().parentOf(tg))
+			checkForNonWhitelistedStackFrames(() -> localized("security.error_thread_access")); //$NON-NLS-1$
+		// called by the constructor of each thread, after the thread group was checked
+		if (t.getState() == Thread.State.NEW) {
+			var owningSession = findSession(t);
+			if (owningSession != null)
+				checkThreadCount(owningSession, t);
+		}
+	}
+
+	private void recordGranted(Hook hook, long startNanos) {
+		var session = currentSession();
+		var recorder = session == null ? null : session.getMetricsRecorder();
+		if (recorder != null)
+			recorder.recordGranted(hook, startNanos);
+	}
+
+	private void recordDenied(Hook hook, long startNanos, SecurityException violation) {
+		var session = currentSession();
+		var recorder = session == null ? null : session.getMetricsRecorder();
+		if (recorder != null)
+			recorder.recordDenied(hook, startNanos, violation);
+	}
+
 	@Override
 	public void checkAccess(ThreadGroup g) {
 		try {
@@ -286,9 +414,39 @@ public final class ArtemisSecurityManager extends SecurityManager {
 				}
 				return;
 			}
-			if (!testThreadGroup.parentOf(g))
+			var session = currentSession();
+			boolean isSessionThreadGroup = session != null && session.getThreadGroup().parentOf(g);
+			if (!isSessionThreadGroup)
 				checkForNonWhitelistedStackFrames(() -> localized("security.error_threadgroup_access")); //$NON-NLS-1$
-			checkThreadCreation();
+			checkThreadCreation(session);
+			if (isSessionThreadGroup) {
+				checkThreadGroupCount(session);
+				session.markThreadsCreated();
+			}
+		} finally {
+			exitPublicInterface();
+		}
+	}
+
+	/**
+	 * Replaces {@link #checkAccess(ThreadGroup)} for the {@link SandboxAgent},
+	 * which calls this before a thread is started. Without a security manager, the
+	 * new thread is not placed in the thread group of the session, so it is adopted
+	 * by the session instead.
+	 */
+	void checkThreadStart(Thread t) {
+		try {
+			if (enterPublicInterface())
+				return;
+			if (isMainThreadAndInactive() || t.getState() != Thread.State.NEW)
+				return;
+			var session = currentSession();
+			checkThreadCreation(session);
+			if (session != null) {
+				checkThreadCount(session, t);
+				session.adoptThread(t);
+				session.markThreadsCreated();
+			}
 		} finally {
 			exitPublicInterface();
 		}
@@ -299,9 +457,9 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		try {
 			if (enterPublicInterface())
 				return;
-			LOG.info("PKG-DEF: {}", pkg); //$NON-NLS-1$
+			AUDIT_LOG.record(Kind.PACKAGE_DEFINITION, pkg, null, null);
 			super.checkPackageDefinition(pkg);
-			if (SecurityConstants.STACK_WHITELIST.stream().anyMatch(pkg::startsWith))
+			if (StackWhitelistMatcher.STATIC.isStaticWhitelisted(pkg))
 				throw new SecurityException(formatLocalized("security.error_package_definition", pkg)); //$NON-NLS-1$
 		} finally {
 			exitPublicInterface();
@@ -310,63 +468,118 @@ public final class ArtemisSecurityManager extends SecurityManager {
 
 	@Override
 	public void checkPermission(Permission perm) {
-		String permName = perm.getName();
-		String permActions = perm.getActions();
-		String permString = String.valueOf(perm);
 		try {
 			if (enterPublicInterface())
 				return;
-			// for files: read, readlink, write, delete
-			// for threads: modifyThread
-			// for preferences: preferences
-			// for redefinition of IO: setIO
-			var whitelist = List.of("getClassLoader", "accessSystemModules"); //$NON-NLS-1$ //$NON-NLS-2$
-			if (whitelist.contains(permName))
-				return;
-			var blacklist = List.of("manageProcess", "shutdownHooks", "createSecurityManager"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-			if (blacklist.contains(permName))
-				throw new SecurityException(localized("security.error_blacklist") + permString); //$NON-NLS-1$
-			if ("setIO".equals(permName) && !isMainThreadAndInactive()) // $NON-NLS-1$
-				checkForNonWhitelistedStackFrames(() -> localized("security.error_blacklist") + permString); //$NON-NLS-1$
-			// this could be removed / reduced, if the specified part is needed
-			if ("setSecurityManager".equals(permName) && !isPartlyDisabled) //$NON-NLS-1$
-				throw new SecurityException(localized("security.error_security_manager")); //$NON-NLS-1$
-			if (perm instanceof SerializablePermission)
-				throw new SecurityException(localized("security.error_modify_serialization") + permString); //$NON-NLS-1$
-			if (perm instanceof AWTPermission)
-				throw new SecurityException(localized("security.error_awt") + permString); //$NON-NLS-1$
-			if (perm instanceof ManagementPermission)
-				checkForNonWhitelistedStackFrames(() -> localized("security.error_management") + permString); //$NON-NLS-1$
-			if ((configuration == null || configuration.allowLocalPortsAbove().isEmpty())
-					&& (perm instanceof NetPermission || perm instanceof SocketPermission))
-				throw new SecurityException(localized("security.error_networking") + permString); //$NON-NLS-1$
-			if (perm instanceof SecurityPermission) {
-				if (permName.startsWith("getPolicy") || permName.startsWith("getProperty")) //$NON-NLS-1$ //$NON-NLS-2$
-					return;
-				checkForNonWhitelistedStackFrames(() -> localized("security.error_modify_security") + permString); //$NON-NLS-1$
+			long start = System.nanoTime();
+			try {
+				permissionHandlers.get(perm.getClass()).check(perm);
+			} catch (SecurityException e) {
+				recordDenied(Hook.CHECK_PERMISSION, start, e);
+				throw e;
 			}
-			if (perm instanceof SSLPermission)
-				throw new SecurityException(localized("security.error_modify_ssl") + permString); //$NON-NLS-1$
-			if (perm instanceof AuthPermission)
-				throw new SecurityException(localized("security.error_modify_auth") + permString); //$NON-NLS-1$
-			if (perm instanceof FilePermission)
-				checkPathAccess(Path.of(permName), PathActionLevel.getLevelOf(permActions));
-			if (perm instanceof ReflectPermission || "accessDeclaredMembers".equals(permName))
-				checkForNonWhitelistedStackFrames(() -> localized("security.error_modify_security") + permString);
+			recordGranted(Hook.CHECK_PERMISSION, start);
 		} finally {
 			exitPublicInterface();
 		}
 	}
 
+	/**
+	 * Creates the handlers for the permission classes; subclasses are handled like
+	 * their closest registered superclass. Permissions without a handler are
+	 * granted.
+	 */
+	private Map<Class<? extends Permission>, PermissionHandler> createPermissionClassHandlers() {
+		return Map.ofEntries( //
+				Map.entry(RuntimePermission.class,
+						perm -> runtimePermissionHandlers.getOrDefault(perm.getName(), GRANT).check(perm)),
+				Map.entry(SerializablePermission.class, perm -> {
+					throw new SecurityException(localized("security.error_modify_serialization") + perm); //$NON-NLS-1$
+				}), //
+				Map.entry(AWTPermission.class, perm -> {
+					throw new SecurityException(localized("security.error_awt") + perm); //$NON-NLS-1$
+				}), //
+				Map.entry(ManagementPermission.class,
+						perm -> checkForNonWhitelistedStackFrames(() -> localized("security.error_management") + perm)), //$NON-NLS-1$
+				Map.entry(NetPermission.class, this::checkNetworkPermission),
+				Map.entry(SocketPermission.class, this::checkNetworkPermission),
+				Map.entry(SecurityPermission.class, perm -> {
+					String permName = perm.getName();
+					if (permName.startsWith("getPolicy") || permName.startsWith("getProperty")) //$NON-NLS-1$ //$NON-NLS-2$
+						return;
+					checkForNonWhitelistedStackFrames(() -> localized("security.error_modify_security") + perm); //$NON-NLS-1$
+				}), //
+				Map.entry(SSLPermission.class, perm -> {
+					throw new SecurityException(localized("security.error_modify_ssl") + perm); //$NON-NLS-1$
+				}), //
+				Map.entry(AuthPermission.class, perm -> {
+					throw new SecurityException(localized("security.error_modify_auth") + perm); //$NON-NLS-1$
+				}), //
+				Map.entry(FilePermission.class, this::checkFilePermission),
+				Map.entry(ReflectPermission.class, perm -> checkForNonWhitelistedStackFrames(
+						() -> localized("security.error_modify_security") + perm))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates the handlers for {@link RuntimePermission}s by their name.
+	 * <ul>
+	 * <li>for threads: modifyThread</li>
+	 * <li>for preferences: preferences</li>
+	 * <li>for redefinition of IO: setIO</li>
+	 * </ul>
+	 */
+	private Map<String, PermissionHandler> createRuntimePermissionHandlers() {
+		PermissionHandler blacklisted = perm -> {
+			throw new SecurityException(localized("security.error_blacklist") + perm); //$NON-NLS-1$
+		};
+		return Map.of( //
+				"getClassLoader", GRANT, //$NON-NLS-1$
+				"accessSystemModules", GRANT, //$NON-NLS-1$
+				"manageProcess", blacklisted, //$NON-NLS-1$
+				"shutdownHooks", blacklisted, //$NON-NLS-1$
+				"createSecurityManager", blacklisted, //$NON-NLS-1$
+				"setIO", perm -> { //$NON-NLS-1$
+					if (!isMainThreadAndInactive())
+						checkForNonWhitelistedStackFrames(() -> localized("security.error_blacklist") + perm); //$NON-NLS-1$
+				},
+				// this could be removed / reduced, if the specified part is needed
+				"setSecurityManager", perm -> { //$NON-NLS-1$
+					if (!isPartlyDisabled)
+						throw new SecurityException(localized("security.error_security_manager")); //$NON-NLS-1$
+				}, //
+				"accessDeclaredMembers", perm -> checkForNonWhitelistedStackFrames( //$NON-NLS-1$
+						() -> localized("security.error_modify_security") + perm)); //$NON-NLS-1$
+	}
+
+	private void checkFilePermission(Permission perm) {
+		long start = System.nanoTime();
+		try {
+			checkPathAccess(Path.of(perm.getName()), PathActionLevel.getLevelOf(perm.getActions()));
+		} catch (SecurityException e) {
+			recordDenied(Hook.CHECK_PATH_ACCESS, start, e);
+			throw e;
+		}
+		recordGranted(Hook.CHECK_PATH_ACCESS, start);
+	}
+
+	private void checkNetworkPermission(Permission perm) {
+		var configuration = currentConfiguration();
+		if (configuration == null || configuration.allowLocalPortsAbove().isEmpty())
+			throw new SecurityException(localized("security.error_networking") + perm); //$NON-NLS-1$
+	}
+
 	private void checkPathAccess(Path p, PathActionLevel pathActionLevel) {
 		boolean whitelisted = false;
 		boolean blacklisted = false;
+		var configuration = currentConfiguration();
 		try {
-			Path pa = p.toAbsolutePath();
-			blacklisted = isPathBlacklisted(pa, pathActionLevel);
-			whitelisted = isPathWhitelisted(pa, pathActionLevel);
-			if (!blacklisted && whitelisted)
-				return;
+			if (configuration != null) {
+				var verdict = configuration.pathAccessIndex().getVerdict(p, pathActionLevel);
+				blacklisted = verdict.isBlacklisted();
+				whitelisted = verdict.isWhitelisted();
+				if (verdict.isAllowed())
+					return;
+			}
 		} catch (Exception e) {
 			LOG.warn("Error in checkPathAccess", e);
 		}
@@ -374,89 +587,196 @@ public final class ArtemisSecurityManager extends SecurityManager {
 			LOG.trace("Allowing read access for main thread inbetween tests"); // appears very often
 			return;
 		}
-		String message = String.format("BAD PATH ACCESS: %s (BL:%s, WL:%s)", p, blacklisted, whitelisted); //$NON-NLS-1$
+		boolean wasBlacklisted = blacklisted;
+		boolean wasWhitelisted = whitelisted;
 		checkForNonWhitelistedStackFrames(() -> {
-			LOG.warn(message);
+			AUDIT_LOG.record(Kind.BAD_PATH_ACCESS, p.toString(),
+					String.format("(BL:%s, WL:%s)", wasBlacklisted, wasWhitelisted), null); //$NON-NLS-1$
 			return formatLocalized("security.error_path_access", p); //$NON-NLS-1$
 		});
 	}
 
-	private boolean isPathWhitelisted(Path pa, PathActionLevel pathActionLevel) {
-		var pathWhitelist = configuration.whitelistedPaths();
-		if (pathWhitelist.isEmpty())
-			return pa.startsWith(configuration.executionPath());
-		return pathWhitelist.get().stream().anyMatch(pm -> pm.matchesWithLevel(pa, pathActionLevel));
-	}
-
-	private boolean isPathBlacklisted(Path pa, PathActionLevel pathActionLevel) {
-		var pathBlacklist = configuration.blacklistedPaths();
-		return pathBlacklist.stream().anyMatch(pm -> pm.matchesWithLevel(pa, pathActionLevel));
-	}
-
 	@Override
 	public void checkPackageAccess(String pkg) {
 		try {
 			if (enterPublicInterface())
 				return;
-			super.checkPackageAccess(pkg);
-			if (!isMainThreadAndInactive() && isPackageAccessForbidden(pkg)) {
-				/*
-				 * this is a very expensive operation, can we do better? (no)
-				 */
-				checkForNonWhitelistedStackFrames(() -> {
-					LOG.warn("BAD PACKAGE ACCESS: {} (BL:{}, WL:{})", pkg, isPackageBlacklisted(pkg),
-							isPackageWhitelisted(pkg));
-					return formatLocalized("security.error_disallowed_package", pkg); // $NON-NLS-1$
-				}, stackFrame -> true);
+			long start = System.nanoTime();
+			try {
+				super.checkPackageAccess(pkg);
+				var packageAccessMatcher = getPackageAccessMatcher();
+				if (!isMainThreadAndInactive() && packageAccessMatcher.isForbidden(pkg)) {
+					/*
+					 * this is a very expensive operation, the static scan can at least exempt
+					 * analyzed classes that cannot reach the package
+					 */
+					checkForNonWhitelistedStackFrames(() -> {
+						int match = packageAccessMatcher.getMatch(pkg);
+						AUDIT_LOG.record(Kind.BAD_PACKAGE_ACCESS, pkg,
+								String.format("(BL:%s, WL:%s)", (match & PackageAccessMatcher.BLACKLISTED) != 0, //$NON-NLS-1$
+										(match & PackageAccessMatcher.WHITELISTED) != 0),
+								null);
+						return formatLocalized("security.error_disallowed_package", pkg); // $NON-NLS-1$
+					}, false, packageAccessExemption(pkg));
+				}
+			} catch (SecurityException e) {
+				recordDenied(Hook.CHECK_PACKAGE_ACCESS, start, e);
+				throw e;
 			}
+			recordGranted(Hook.CHECK_PACKAGE_ACCESS, start);
 		} finally {
 			exitPublicInterface();
 		}
 	}
 
-	private boolean isPackageAccessForbidden(String pkg) {
-		return SecurityConstants.PACKAGE_USE_BLACKLIST.stream().anyMatch(pkg::startsWith)
-				|| (isPackageBlacklisted(pkg) && !isPackageWhitelisted(pkg));
+	/**
+	 * Exempts the frames of analyzed classes that cannot reach the package, but
+	 * only as long as no JDK frame other than the class loading itself is above
+	 * them. The JDK can load classes by name on behalf of its caller, like
+	 * deserialization and resource bundles do, so the frames below such a frame are
+	 * always checked.
+	 *
+	 * @return a stateful filter for the frames of one stack walk, starting at the
+	 *         top, or null if the static scan is not used
+	 */
+	private Predicate<StackFrame> packageAccessExemption(String pkg) {
+		var configuration = currentConfiguration();
+		if (configuration == null || configuration.bytecodeScanMode() != ScanMode.SHORT_CIRCUIT)
+			return null;
+		var scan = configuration.bytecodeScan();
+		return new Predicate<>() {
+			private boolean exempting = true;
+
+			@Override
+			public boolean test(StackFrame stackFrame) {
+				if (!exempting)
+					return false;
+				Class<?> type = stackFrame.getDeclaringClass();
+				if (scan.cannotReachPackage(type, pkg))
+					return true;
+				if (isJdkClass(type) && !isClassLoading(type))
+					exempting = false;
+				return false;
+			}
+		};
+	}
+
+	private static boolean isJdkClass(Class<?> type) {
+		// does not need a permission, unlike the class loader
+		return type.getModule().getLayer() == ModuleLayer.boot();
 	}
 
-	private boolean isPackageBlacklisted(String packageName) {
-		var packageBlacklist = configuration.blacklistedPackages();
-		return packageBlacklist.stream().anyMatch(pm -> pm.matches(packageName));
+	private static boolean isClassLoading(Class<?> type) {
+		String name = type.getName();
+		return ClassLoader.class.isAssignableFrom(type) || name.startsWith("java.lang.ClassLoader") //$NON-NLS-1$
+				|| name.startsWith("jdk.internal.loader.") || type == AccessController.class; //$NON-NLS-1$
 	}
 
-	private boolean isPackageWhitelisted(String packageName) {
-		var packageWhitelist = configuration.whitelistedPackages();
-		return packageWhitelist.stream().anyMatch(pm -> pm.matches(packageName));
+	private PackageAccessMatcher getPackageAccessMatcher() {
+		var currentConfiguration = currentConfiguration();
+		if (currentConfiguration == null)
+			return PackageAccessMatcher.STATIC;
+		return currentConfiguration.packageAccessMatcher();
 	}
 
 	private void checkForNonWhitelistedStackFrames(Supplier<String> message) {
-		var nonWhitelisted = getNonWhitelistedStackFrames();
-		throwSecurityExceptionIfNonWhitelistedFound(message, nonWhitelisted);
+		checkForNonWhitelistedStackFrames(message, true);
 	}
 
-	private void checkForNonWhitelistedStackFrames(Supplier<String> message,
-			Predicate<StackFrame> takeFromTopWhileFilter) {
-		var nonWhitelisted = getNonWhitelistedStackFrames(takeFromTopWhileFilter);
-		throwSecurityExceptionIfNonWhitelistedFound(message, nonWhitelisted);
+	private void checkForNonWhitelistedStackFrames(Supplier<String> message, boolean untilPrivileged) {
+		checkForNonWhitelistedStackFrames(message, untilPrivileged, null);
 	}
 
-	private static void throwSecurityExceptionIfNonWhitelistedFound(Supplier<String> message,
-			List<StackFrame> nonWhitelisted) {
-		if (!nonWhitelisted.isEmpty()) {
-			LOG.warn("NWSFs ==> {}", nonWhitelisted); //$NON-NLS-1$
-			var first = nonWhitelisted.get(0);
+	/**
+	 * @param exempt tested with every frame from the top, the frames it accepts are
+	 *               ignored even if they are not whitelisted; or null
+	 */
+	private void checkForNonWhitelistedStackFrames(Supplier<String> message, boolean untilPrivileged,
+			Predicate<StackFrame> exempt) {
+		var nonWhitelisted = exempt == null ? findFirstNonWhitelistedStackFrame(untilPrivileged)
+				: stackWalker.walk(stackFrames -> findFirstNonWhitelisted(stackFrames, untilPrivileged, exempt));
+		if (nonWhitelisted.isPresent()) {
+			var first = nonWhitelisted.get();
+			AUDIT_LOG.record(Kind.NON_WHITELISTED_FRAME, null, null, first);
+			if (LOG.isDebugEnabled())
+				LOG.debug("NWSFs ==> {}", getNonWhitelistedStackFrames(untilPrivileged)); //$NON-NLS-1$
 			throw new SecurityException(formatLocalized("security.stackframe_add_info", message.get(), //$NON-NLS-1$
 					first.getLineNumber(), first.getFileName()));
 		}
 	}
 
-	private List<StackFrame> getNonWhitelistedStackFrames() {
-		// one for AccessController itself and one for the caller
-		DelayedFilter<StackFrame> delayedIsNotPrivileged = new DelayedFilter<>(2, this::isNotPrivileged, true);
-		return getNonWhitelistedStackFrames(delayedIsNotPrivileged);
+	/**
+	 * Walks the stack only until the first non-whitelisted frame is found.
+	 *
+	 * @param untilPrivileged if true, the walk ends after the caller of the topmost
+	 *                        {@link AccessController} frame
+	 */
+	private Optional<StackFrame> findFirstNonWhitelistedStackFrame(boolean untilPrivileged) {
+		return stackWalker.walk(untilPrivileged ? findUntilPrivileged : findInWholeStack);
+	}
+
+	private Optional<StackFrame> findFirstNonWhitelisted(Stream<StackFrame> stackFrames, boolean untilPrivileged) {
+		return findFirstNonWhitelisted(stackFrames, untilPrivileged, null);
+	}
+
+	private Optional<StackFrame> findFirstNonWhitelisted(Stream<StackFrame> stackFrames, boolean untilPrivileged,
+			Predicate<StackFrame> exempt) {
+		boolean isAnyFrameNonWhitelisted = !isCurrentThreadWhitelisted();
+		boolean isInTrustedRegion = !isAnyFrameNonWhitelisted && isInTrustedRegion();
+		int limit = Integer.MAX_VALUE;
+		int index = 0;
+		for (var iterator = stackFrames.iterator(); index < limit && iterator.hasNext(); index++) {
+			StackFrame stackFrame = iterator.next();
+			// the frames below were checked when the region was entered
+			if (isInTrustedRegion && TrustedRegion.isMarker(stackFrame))
+				break;
+			// include AccessController itself and the caller
+			if (untilPrivileged && limit == Integer.MAX_VALUE && !isNotPrivileged(stackFrame))
+				limit = index + 2;
+			boolean exempted = exempt != null && exempt.test(stackFrame);
+			if (isAnyFrameNonWhitelisted || !exempted && isStackFrameNotWhitelisted(stackFrame))
+				return Optional.of(stackFrame);
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Checks the whole stack for {@link TrustedRegion#call(TrustedRegion.Action)}
+	 * and counts the region if all frames are whitelisted.
+	 *
+	 * @return true, if the region was entered and must be exited again
+	 */
+	boolean enterTrustedRegion() {
+		var state = currentThreadState();
+		long generation = state.generation;
+		if (findFirstNonWhitelistedStackFrame(false).isPresent())
+			return false;
+		state.trustedRegionGeneration = generation;
+		state.trustedRegionDepth++;
+		return true;
+	}
+
+	void exitTrustedRegion() {
+		threadState.get().trustedRegionDepth--;
+	}
+
+	/**
+	 * @return true, if the frames below the topmost {@link TrustedRegion} marker
+	 *         were checked with the current sessions and thread whitelisting
+	 */
+	private boolean isInTrustedRegion() {
+		var state = currentThreadState();
+		return state.trustedRegionDepth > 0 && state.trustedRegionGeneration == state.generation;
 	}
 
-	private List<StackFrame> getNonWhitelistedStackFrames(Predicate<StackFrame> takeFromTopWhileFilter) {
+	/**
+	 * Collects all non-whitelisted frames, which is only needed for logging.
+	 */
+	private List<StackFrame> getNonWhitelistedStackFrames(boolean untilPrivileged) {
+		// one for AccessController itself and one for the caller
+		Predicate<StackFrame> takeFromTopWhileFilter = untilPrivileged
+				? new DelayedFilter<>(2, this::isNotPrivileged, true)
+				: stackFrame -> true;
 		List<StackFrame> result;
 		if (isCurrentThreadWhitelisted()) {
 			result = stackWalker.walk(sfs -> sfs.takeWhile(takeFromTopWhileFilter)
@@ -468,18 +788,22 @@ public final class ArtemisSecurityManager extends SecurityManager {
 	}
 
 	private boolean isNotPrivileged(StackFrame stackFrame) {
-		return !AccessController.class.getName().equals(stackFrame.getClassName());
+		return stackFrame.getDeclaringClass() != AccessController.class;
 	}
 
 	private boolean isCallNotWhitelisted(String call) {
-		return SecurityConstants.STACK_BLACKLIST.stream().anyMatch(call::startsWith)
-				|| (SecurityConstants.STACK_WHITELIST.stream().noneMatch(call::startsWith)
-						&& (configuration == null || !(configuration.whitelistedClassNames().contains(call)
-								|| configuration.trustedPackages().stream().anyMatch(pm -> pm.matches(call)))));
+		return getStackWhitelistMatcher().isCallNotWhitelisted(call);
+	}
+
+	private StackWhitelistMatcher getStackWhitelistMatcher() {
+		var currentConfiguration = currentConfiguration();
+		if (currentConfiguration == null)
+			return StackWhitelistMatcher.STATIC;
+		return currentConfiguration.stackWhitelistMatcher();
 	}
 
 	private boolean isStackFrameNotWhitelisted(StackFrame sf) {
-		return isCallNotWhitelisted(sf.getClassName());
+		return getStackWhitelistMatcher().isCallNotWhitelisted(sf);
 	}
 
 	private boolean isStackFrameNotWhitelisted(StackTraceElement ste) {
@@ -494,154 +818,167 @@ public final class ArtemisSecurityManager extends SecurityManager {
 		return Optional.empty();
 	}
 
+	private static SecurityAuditLog createAuditLog() {
+		var auditLog = new SecurityAuditLog(SecurityAuditLog.DEFAULT_CAPACITY, SecurityAuditLog.DEFAULT_SAMPLE_RATE,
+				ArtemisSecurityManager::logAuditRecord);
+		auditLog.start("Ares-Security-Audit", dropped -> LOG.warn("{} audit records dropped, the buffer was full", //$NON-NLS-1$ //$NON-NLS-2$
+				dropped));
+		return auditLog;
+	}
+
+	private static void logAuditRecord(AuditRecord auditRecord) {
+		// formatted here, the classes it loads would not be allowed below the frames of
+		// the logger
+		String message = auditRecord.toString();
+		if (auditRecord.getKind().getLevel() == Level.WARN)
+			LOG.warn(message);
+		else
+			LOG.info(message);
+	}
+
+	static ArtemisSecurityManager getInstance() {
+		return INSTANCE;
+	}
+
 	public static void checkCurrentStack(Supplier<String> exceptionMessage) {
 		INSTANCE.checkForNonWhitelistedStackFrames(exceptionMessage);
 	}
 
 	private boolean isConnectionAllowed(String host, int port) {
-		var nwsfs = getNonWhitelistedStackFrames();
-		LOG.info("Connection use request: {}:{} [NWSFs: {}]", host, port, nwsfs.size()); //$NON-NLS-1$
-		if (nwsfs.isEmpty())
+		var configuration = currentConfiguration();
+		// the port rules are cheap compared to the stack walk and cover most local use
+		if (configuration != null && isLocalPortUsageAllowed(configuration, port) && isLocalHost(host)) {
+			LOG.debug("Connection use request: {}:{} [local port allowed]", host, port); //$NON-NLS-1$
 			return true;
-		return configuration != null && isLocalHost(host) && isLocalPortUsageAllowed(port);
+		}
+		var nwsf = findFirstNonWhitelistedStackFrame(true);
+		AUDIT_LOG.record(Kind.CONNECTION_REQUEST, host, port, nwsf.orElse(null));
+		return nwsf.isEmpty();
 	}
 
-	private static boolean isLocalHost(String host) {
-		try {
-			InetAddress address = InetAddress.getByName(host);
-			return address.isLoopbackAddress() || address.isAnyLocalAddress();
-		} catch (@SuppressWarnings("unused") UnknownHostException e) {
-			return false;
-		}
+	private boolean isLocalHost(String host) {
+		var session = currentSession();
+		if (session == null)
+			return LocalHostResolver.resolvesToLocalHost(host);
+		return session.getLocalHostResolver().isLocalHost(host);
 	}
 
-	private boolean isLocalPortUsageAllowed(int port) {
+	private static boolean isLocalPortUsageAllowed(ArtemisSecurityConfiguration configuration, int port) {
 		if (port < -1 || port > MAX_PORT)
 			return false;
 		if (port == -1 || port == 0)
 			return true;
-		if (configuration == null)
-			return false;
-		return configuration.allowedLocalPorts().contains(port)
-				|| (configuration.allowLocalPortsAbove().orElse(MAX_PORT) < port
-						&& !configuration.excludedLocalPorts().contains(port));
+		return configuration.localPortIndex().isAllowed(port);
 	}
 
 	@Override
 	public ThreadGroup getThreadGroup() {
-		if (!isActive)
+		var session = currentSession();
+		if (session == null)
 			return super.getThreadGroup();
-		return testThreadGroup;
-	}
-
-	@SuppressWarnings("deprecation")
-	private Thread[] checkThreadGroup() {
-		blockThreadCreation = true;
-		int originalCount = testThreadGroup.activeCount();
-		if (originalCount == 0)
-			return new Thread[0]; // everything ok
-		Thread[] threads = new Thread[originalCount];
-		testThreadGroup.enumerate(threads);
-		// try gentle shutdown; without that, runs on CI might fail because of previous.
-		for (Thread thread : threads) {
-			if (thread == null)
-				continue;
-			try {
-				thread.interrupt();
-				thread.join(500 / originalCount + 1L);
-				LOG.debug("State {} after interrupt and join of {}", thread.getState(), thread); //$NON-NLS-1$
-			} catch (@SuppressWarnings("unused") InterruptedException e) {
-				Thread.currentThread().interrupt();
-			}
-		}
-		if (testThreadGroup.activeCount() == 0)
-			return new Thread[0];
-		// try forceful shutdown
+		return session.getThreadGroup();
+	}
+
+	private Thread[] checkThreadGroup(SandboxSession session) {
+		session.blockThreadCreation();
+		Thread[] threads = session.getActiveThreads();
+		if (threads.length == 0)
+			return threads; // everything ok
+		var termination = new ThreadGroupTermination(threads);
 		SecurityException exception = new SecurityException(
 				formatLocalized("security.error_threads_not_stoppable", Arrays.toString(threads))); //$NON-NLS-1$
-		int alive = threads.length;
-		TRIES: for (int i = 0; i < 50 && alive > 0; i++) {
-			alive = 0;
-			for (Thread thread : threads) {
-				if (thread == null || !thread.isAlive())
-					continue;
-				alive++;
-				LOG.debug("Try {} to stop {}, state: {}", i + 1, thread, thread.getState()); //$NON-NLS-1$
+		boolean stoppedForcefully = true;
+		try {
+			// try gentle shutdown; without that, runs on CI might fail because of previous.
+			stoppedForcefully = !termination.interruptAll(THREAD_INTERRUPT_BUDGET);
+			if (stoppedForcefully) {
 				/*
 				 * we definitely want to forcefully terminate all threads (otherwise, next tests
 				 * will fail)
 				 */
-				thread.stop();
-				try {
-					thread.join(20 / originalCount + 1L);
-				} catch (InterruptedException e) {
-					LOG.warn("Error in checkThreadGroup 1", e);
-					exception.addSuppressed(e);
-					Thread.currentThread().interrupt();
-					break TRIES;
-				}
+				termination.stopAll(THREAD_STOP_BUDGET);
 			}
+		} catch (InterruptedException e) {
+			LOG.warn("Error in checkThreadGroup", e); //$NON-NLS-1$
+			exception.addSuppressed(e);
+			Thread.currentThread().interrupt();
+			termination.stopRemaining();
 		}
-		for (Thread thread : threads) {
-			if (thread == null || !thread.isAlive())
-				continue;
-			try {
-				thread.join(100 / originalCount + 1L);
-			} catch (InterruptedException e) {
-				LOG.warn("Error in checkThreadGroup 2", e);
-				exception.addSuppressed(e);
-				Thread.currentThread().interrupt();
-				break;
-			}
-			if (thread.getState() != State.TERMINATED)
-				LOG.error("THREAD STOP ERROR: Thread {} is still in state {}", thread, thread.getState()); //$NON-NLS-1$ //$NON-NLS-2$
+		var terminations = termination.getTerminations();
+		for (ThreadTermination threadTermination : terminations) {
+			if (threadTermination.getOutcome() == ThreadOutcome.NOT_STOPPABLE)
+				LOG.error("THREAD STOP ERROR: {}", threadTermination); //$NON-NLS-1$
+			else
+				LOG.debug("Thread termination: {}", threadTermination); //$NON-NLS-1$
 		}
-		if (testThreadGroup.activeCount() > 0)
+		session.updateMetrics(metrics -> metrics.withThreadTerminations(terminations));
+		if (session.activeThreadCount() > 0)
 			throw exception;
-		return threads;
+		// threads that ended on interrupt are no error
+		return stoppedForcefully ? threads : new Thread[0];
 	}
 
-	private void checkCommonThreadPool() {
-		ForkJoinPool common = ForkJoinPool.commonPool();
-		if (common.isQuiescent())
+	private void checkCommonThreadPool(SandboxSession session) {
+		var config = session.getConfiguration();
+		Duration budget = config == null ? Duration.ofMillis(SandboxTeardown.DEFAULT_COMMON_POOL_DRAIN_BUDGET)
+				: config.commonPoolDrainBudget();
+		CommonPoolDrain drain = COMMON_POOL_DRAINER.drain(budget);
+		if (drain == null)
 			return;
-		LOG.debug("Common pool is active: {} with number {} workers", !common.isQuiescent(), //$NON-NLS-1$
-				common.getActiveThreadCount());
-		ThreadGroup root = getRootThreadGroup();
-		ThreadGroup[] tgs = new ThreadGroup[root.activeGroupCount() + 5];
-		root.enumerate(tgs, true);
-		ThreadGroup commong = Stream.of(tgs).filter(tg -> "InnocuousForkJoinWorkerThreadGroup".equals(tg.getName())) //$NON-NLS-1$
-				.findFirst().orElseThrow(IllegalStateException::new); // was created indirectly in the static
-																		// initializer
-		Thread[] threads = new Thread[commong.activeCount() + 5];
-		commong.enumerate(threads);
-		LOG.info("Try interrupt common pool"); //$NON-NLS-1$
-		for (Thread thread : threads) {
-			if (thread != null && thread.isAlive()) { // $NON-NLS-1$
-				thread.interrupt();
-			}
-		}
-		try {
-			Thread.sleep(100);
-		} catch (@SuppressWarnings("unused") InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
-		if (common.isQuiescent())
-			return;
-		LOG.warn("There are still {} common pool workers active", common.getActiveThreadCount()); //$NON-NLS-1$
+		LOG.debug("Common pool drain: {}", drain); //$NON-NLS-1$
+		session.updateMetrics(metrics -> metrics.withCommonPoolDrain(drain));
+		if (!drain.isQuiescent())
+			LOG.warn("There are still {} common pool workers active", ForkJoinPool.commonPool().getActiveThreadCount()); //$NON-NLS-1$
 	}
 
-	private void checkThreadCreation() {
-		if (blockThreadCreation || configuration == null || configuration.allowedThreadCount().isEmpty()) {
+	private void checkThreadCreation(SandboxSession session) {
+		var configuration = session == null ? null : session.getConfiguration();
+		if (configuration == null || session.isThreadCreationBlocked()
+				|| configuration.allowedThreadCount().isEmpty()) {
 			checkForNonWhitelistedStackFrames(() -> localized("security.error_thread_access")); //$NON-NLS-1$
-			return;
 		}
-		int current = testThreadGroup.activeCount();
+	}
+
+	/**
+	 * Checks the thread limit before a thread is created in the thread group of the
+	 * session. Since Java 19, the constructor of a thread only checks the access to
+	 * its thread group and no longer to the thread itself, so
+	 * {@link #checkThreadCount(SandboxSession, Thread)} is not reached. The new
+	 * thread does not exist yet and can therefore not be registered, the threads of
+	 * the session that are alive are counted instead.
+	 */
+	private void checkThreadGroupCount(SandboxSession session) {
+		var configuration = session.getConfiguration();
+		if (configuration == null || configuration.allowedThreadCount().isEmpty())
+			return;
 		int max = configuration.allowedThreadCount().getAsInt();
+		var liveThreads = session.getLiveThreads();
+		int registered = liveThreads.count() > max ? liveThreads.countAlive(null) : 0;
+		int current = Math.max(session.activeThreadCount(), registered);
 		if (max < current)
 			checkForNonWhitelistedStackFrames(() -> formatLocalized("security.error_thread_maxExceeded", current, max)); //$NON-NLS-1$
 	}
 
+	/**
+	 * Counts the new thread for the session and checks that no more than the
+	 * allowed number of threads of the session are alive.
+	 */
+	private void checkThreadCount(SandboxSession session, Thread t) {
+		var configuration = session.getConfiguration();
+		var liveThreads = session.getLiveThreads();
+		if (configuration == null || configuration.allowedThreadCount().isEmpty()) {
+			// creation was already checked, only whitelisted code gets here
+			liveThreads.register(t);
+			return;
+		}
+		int max = configuration.allowedThreadCount().getAsInt();
+		if (liveThreads.tryRegister(t, max))
+			return;
+		int current = liveThreads.countAlive(t);
+		checkForNonWhitelistedStackFrames(() -> formatLocalized("security.error_thread_maxExceeded", current, max)); //$NON-NLS-1$
+		liveThreads.register(t);
+	}
+
 	/**
 	 * Similar to the way in {@link ForkJoinWorkerThread} in the JDK
 	 */
@@ -653,93 +990,209 @@ public final class ArtemisSecurityManager extends SecurityManager {
 	}
 
 	private boolean isMainThreadAndInactive() {
-		return !isActive && Thread.currentThread() == SecurityConstants.MAIN_THREAD;
+		return Thread.currentThread() == SecurityConstants.MAIN_THREAD && currentSession() == null;
 	}
 
-	private boolean isCurrentThreadWhitelisted() {
+	/**
+	 * Returns the session and whitelisting state of the current thread. The state
+	 * is cached per thread and only computed again if the sessions or their
+	 * whitelisted threads changed since, or if the thread got a new name.
+	 */
+	private ThreadState currentThreadState() {
 		Thread current = Thread.currentThread();
-		String name = externGet(current::getName);
+		ThreadState state = threadState.get();
+		long generation = stateGeneration.get();
+		String name = current.getName();
+		if (state.generation != generation || state.name != name) {
+			state.session = findSession(current);
+			state.retainedConfiguration = state.session == null ? retainedConfigurationOf(current) : null;
+			state.whitelisted = computeThreadWhitelisted(current, name, state.session);
+			state.name = name;
+			state.generation = generation;
+		}
+		return state;
+	}
+
+	private SandboxSession currentSession() {
+		return currentThreadState().session;
+	}
+
+	/**
+	 * @return the configuration of the session of the current thread; threads
+	 *         outside of all sessions keep the configuration of the last session
+	 *         they owned or were whitelisted by, workers of the common pool get the
+	 *         one of the only active session; all others get null and are only
+	 *         checked against the static rules, as the configuration of another
+	 *         session must not apply to them
+	 */
+	private ArtemisSecurityConfiguration currentConfiguration() {
+		var state = currentThreadState();
+		return state.session == null ? state.retainedConfiguration : state.session.getConfiguration();
+	}
+
+	/**
+	 * Work submitted to the common pool is not mapped to the session that submitted
+	 * it, so its workers get the configuration of the only active session, e.g. for
+	 * {@link java.util.Collection#parallelStream()} in a test. With several active
+	 * sessions, the submitting one is not known and they get none.
+	 */
+	private ArtemisSecurityConfiguration retainedConfigurationOf(Thread thread) {
+		if (isCommonPoolWorker(thread)) {
+			SandboxSession onlySession = null;
+			for (SandboxSession session : sessions) {
+				if (onlySession != null)
+					return null;
+				onlySession = session;
+			}
+			if (onlySession != null)
+				return onlySession.getConfiguration();
+		}
+		return retainedConfigurations.get(thread);
+	}
+
+	private static boolean isCommonPoolWorker(Thread thread) {
+		return thread instanceof ForkJoinWorkerThread
+				&& ((ForkJoinWorkerThread) thread).getPool() == ForkJoinPool.commonPool();
+	}
+
+	/**
+	 * Returns the newest session the thread belongs to, as owner or by its thread
+	 * group.
+	 */
+	private SandboxSession findSession(Thread thread) {
+		SandboxSession found = null;
+		for (SandboxSession session : sessions) {
+			if (session.contains(thread))
+				found = session;
+		}
+		return found;
+	}
+
+	private boolean isCurrentThreadWhitelisted() {
+		return currentThreadState().whitelisted;
+	}
+
+	private boolean computeThreadWhitelisted(Thread thread, String name, SandboxSession session) {
 		/*
 		 * NOTE: the order is very important here!
 		 */
-		var blacklist = Set.of("Finalizer", "InnocuousThread", "ForkJoinPool.commonPool"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		if (blacklist.stream().anyMatch(name::startsWith))
-			return false;
-		if (!testThreadGroup.parentOf(current.getThreadGroup()))
+		for (String prefix : THREAD_NAME_BLACKLIST) {
+			if (name.startsWith(prefix))
+				return false;
+		}
+		if (!testThreadGroup.parentOf(thread.getThreadGroup()) && (session == null || !session.isSandboxed(thread)))
 			return true;
-		return whitelistedThreads.stream().anyMatch(t -> t.equals(current));
+		return session != null && session.getWhitelistedThreads().contains(thread);
 	}
 
 	private void whitelistThread(Thread t) {
-		LOG.info("Request whitelisting: {} {}", t, INSTANCE.whitelistedThreads); //$NON-NLS-1$
+		LOG.info("Request whitelisting: {}", t); //$NON-NLS-1$
 		boolean whitelisted = isCurrentThreadWhitelisted();
 		if (!whitelisted)
 			throw new SecurityException(localized("security.error_thread_whitelisting_failed")); //$NON-NLS-1$
-		whitelistedThreads.add(t);
+		var session = findSession(t);
+		if (session == null)
+			session = currentSession();
+		if (session == null) {
+			LOG.info("Thread not part of a sandbox: {}", t); //$NON-NLS-1$
+			return;
+		}
+		session.getWhitelistedThreads().add(t);
+		retainedConfigurations.put(t, session.getConfiguration());
+		stateGeneration.incrementAndGet();
 		LOG.info("Thread whitelisted: {}", t); //$NON-NLS-1$
 	}
 
-	private void unwhitelistThreads() {
-		whitelistedThreads.clear();
-	}
-
-	private void removeDeadThreads() {
-		whitelistedThreads.removeIf(thread -> !thread.isAlive());
+	private void unwhitelistThreads(SandboxSession session) {
+		session.getWhitelistedThreads().clear();
+		stateGeneration.incrementAndGet();
 	}
 
 	static boolean isStaticWhitelisted(String name) {
-		return SecurityConstants.STACK_WHITELIST.stream().anyMatch(name::startsWith);
+		return StackWhitelistMatcher.STATIC.isStaticWhitelisted(name);
 	}
 
 	public static synchronized boolean isInstalled() {
+		if (SandboxCallSites.isBackendEnabled())
+			return SandboxCallSites.isActive();
 		return System.getSecurityManager() instanceof ArtemisSecurityManager;
 	}
 
+	/**
+	 * Starts a new sandbox session for the current thread and the threads it
+	 * creates. Several sessions can be active at the same time.
+	 *
+	 * @param configuration the configuration of the session
+	 * @return the access token needed to uninstall or configure the session
+	 */
 	public static synchronized String install(ArtemisSecurityConfiguration configuration) {
-		if (INSTANCE.lastUninstallFailed) {
-			LOG.info("Try recovery from lastUninstallFailed"); //$NON-NLS-1$
-			INSTANCE.checkThreadGroup();
-			INSTANCE.isPartlyDisabled = true;
-			System.setSecurityManager(ORIGINAL);
-			INSTANCE.isPartlyDisabled = false;
-			INSTANCE.lastUninstallFailed = false;
-		}
+		INSTANCE.recoverFailedSessions();
 		if (LOG.isInfoEnabled())
 			LOG.info("Request install with {}", configuration.shortDesc()); //$NON-NLS-1$ //$NON-NLS-2$
-		String token = INSTANCE.generateAccessToken();
-		INSTANCE.blockThreadCreation = false;
-		INSTANCE.configuration = Objects.requireNonNull(configuration);
-		INSTANCE.removeDeadThreads();
-		if (!isInstalled())
+		reportBytecodeScan(configuration);
+		String token = UUID.randomUUID().toString();
+		var threadGroup = new ThreadGroup(INSTANCE.testThreadGroup,
+				INSTANCE.testThreadGroup.getName() + "-" + INSTANCE.sessionCounter.incrementAndGet()); //$NON-NLS-1$
+		var session = new SandboxSession(hash(token), Thread.currentThread(), threadGroup,
+				Objects.requireNonNull(configuration), MEMORY.getHeapMemoryUsage().getUsed());
+		INSTANCE.sessionsByToken.put(session.getAccessTokenHash(), session);
+		INSTANCE.sessions.add(session);
+		INSTANCE.stateGeneration.incrementAndGet();
+		if (SandboxCallSites.isBackendEnabled())
+			SandboxCallSites.setActive(true);
+		else if (!isInstalled())
 			System.setSecurityManager(INSTANCE);
-		INSTANCE.isActive = true;
 		return token;
 	}
 
+	/**
+	 * Logs the classes that can reach guarded APIs, once per scan, before the test
+	 * executes any of them.
+	 */
+	private static void reportBytecodeScan(ArtemisSecurityConfiguration configuration) {
+		var scan = configuration.bytecodeScan();
+		if (scan == null || !scan.markReported())
+			return;
+		var users = scan.getGuardedApiUsers();
+		LOG.info("Static bytecode scan: {} of {} untrusted classes reference guarded APIs", users.size(), //$NON-NLS-1$
+				scan.getScans().size());
+		for (ClassFileScan classScan : users)
+			LOG.warn("Static bytecode scan: {} can reach {} via {}", classScan.getClassName(), //$NON-NLS-1$
+					classScan.getFamilies(), classScan.getGuardedReferences());
+	}
+
+	/**
+	 * Ends the session of the access token, stopping all threads of the session.
+	 * Other sessions are not affected, but their install and uninstall wait until
+	 * the session is ended.
+	 *
+	 * @param accessToken the access token returned by the install
+	 */
 	public static synchronized void uninstall(String accessToken) {
 		if (!isInstalled())
 			throw new IllegalStateException(localized("security.not_installed")); //$NON-NLS-1$
+		var session = getSession(accessToken);
 		Thread[] active = new Thread[0];
 		int oldPrio = Thread.currentThread().getPriority();
 		try {
-			INSTANCE.checkAccess(accessToken);
 			if (INSTANCE.isPartlyDisabled)
 				throw new IllegalStateException(localized("security.already_disabled")); //$NON-NLS-1$
+			session.stopMetricsRecording();
+			// the records of the test are logged before its uninstall
+			AUDIT_LOG.flush(AUDIT_FLUSH_TIMEOUT);
 
 			Thread.currentThread().setPriority(Thread.MAX_PRIORITY);
-			LOG.info("Request uninstall"); //$NON-NLS-1$
+			LOG.info("Request uninstall of {}", session); //$NON-NLS-1$
 			// try to clean up and try to run finalize() of test objects
-			System.gc();
-			System.runFinalization();
+			tearDown(session);
 			// cannot be used in conjunction with classic JUnit timeout, use @StrictTimeout
-			active = INSTANCE.checkThreadGroup();
-			INSTANCE.checkCommonThreadPool();
-			INSTANCE.unwhitelistThreads();
-			INSTANCE.blockThreadCreation = false;
-			INSTANCE.lastUninstallFailed = false;
-			INSTANCE.isActive = false;
+			active = INSTANCE.checkThreadGroup(session);
+			// the common pool is shared, only check it if no other test is running
+			if (INSTANCE.sessions.equals(List.of(session)))
+				INSTANCE.checkCommonThreadPool(session);
+			endSession(session);
 		} catch (Throwable t) {
-			INSTANCE.lastUninstallFailed = true;
+			session.markUninstallFailed();
 			LOG.error("UNINSTALL FAILED", t); //$NON-NLS-1$
 			throw t;
 		} finally {
@@ -750,9 +1203,56 @@ public final class ArtemisSecurityManager extends SecurityManager {
 					formatLocalized("security.error_threads_still_active", Arrays.toString(active))); //$NON-NLS-1$
 	}
 
+	private static synchronized void endSession(SandboxSession session) {
+		var configuration = session.getConfiguration();
+		INSTANCE.retainedConfigurations.put(session.getOwner(), configuration);
+		for (Thread thread : session.getWhitelistedThreads())
+			INSTANCE.retainedConfigurations.put(thread, configuration);
+		INSTANCE.sessions.remove(session);
+		INSTANCE.unwhitelistThreads(session);
+		try {
+			if (!session.getThreadGroup().isDestroyed())
+				session.getThreadGroup().destroy();
+		} catch (IllegalThreadStateException e) {
+			LOG.debug("Could not destroy thread group of {}", session, e); //$NON-NLS-1$
+		}
+	}
+
+	private void recoverFailedSessions() {
+		boolean recovered = false;
+		for (SandboxSession session : sessions) {
+			if (!session.hasUninstallFailed())
+				continue;
+			LOG.info("Try recovery of failed {}", session); //$NON-NLS-1$
+			checkThreadGroup(session);
+			endSession(session);
+			recovered = true;
+		}
+		if (recovered && sessions.isEmpty() && SandboxCallSites.isBackendEnabled()) {
+			SandboxCallSites.setActive(false);
+		} else if (recovered && sessions.isEmpty()) {
+			isPartlyDisabled = true;
+			System.setSecurityManager(ORIGINAL);
+			isPartlyDisabled = false;
+		}
+	}
+
+	/**
+	 * Returns the metrics of the security checks of the session between the
+	 * {@link #install(ArtemisSecurityConfiguration)} and
+	 * {@link #uninstall(String)}. The cleanup performed by uninstall is not part of
+	 * the metrics.
+	 *
+	 * @param accessToken the access token returned by the install
+	 * @return the metrics, or an empty Optional if the session has not been
+	 *         uninstalled yet
+	 */
+	public static Optional<SecurityMetrics> getLastMetrics(String accessToken) {
+		return Optional.ofNullable(getSession(accessToken).getMetrics());
+	}
+
 	public static synchronized void configure(String accessToken, ArtemisSecurityConfiguration configuration) {
-		INSTANCE.checkAccess(accessToken);
-		INSTANCE.configuration = configuration;
+		getSession(accessToken).setConfiguration(configuration);
 	}
 
 	public static synchronized void requestThreadWhitelisting(Thread t) {
@@ -760,8 +1260,37 @@ public final class ArtemisSecurityManager extends SecurityManager {
 	}
 
 	public static synchronized void revokeThreadWhitelisting() {
-		if (INSTANCE.isCurrentThreadWhitelisted())
-			INSTANCE.unwhitelistThreads();
+		var session = INSTANCE.currentSession();
+		if (session != null && INSTANCE.isCurrentThreadWhitelisted())
+			INSTANCE.unwhitelistThreads(session);
+	}
+
+	/**
+	 * Forces garbage collection and finalization if the configuration demands it or
+	 * if the test may have left objects behind whose finalizers must run while the
+	 * test is still considered active.
+	 */
+	private static void tearDown(SandboxSession session) {
+		long start = System.nanoTime();
+		var reasons = EnumSet.noneOf(TeardownReason.class);
+		var config = session.getConfiguration();
+		if (config == null || config.teardownMode().isStrict())
+			reasons.add(TeardownReason.STRICT_MODE);
+		if (session.haveThreadsBeenCreated() || session.activeThreadCount() > 0)
+			reasons.add(TeardownReason.THREADS_CREATED);
+		if (config != null && MEMORY.getHeapMemoryUsage().getUsed() - session.getHeapUsedAtInstall() > config
+				.heapGrowthThreshold())
+			reasons.add(TeardownReason.HEAP_GROWTH);
+		if (MEMORY.getObjectPendingFinalizationCount() > 0)
+			reasons.add(TeardownReason.PENDING_FINALIZATION);
+		var path = TeardownPath.of(reasons);
+		if (path == TeardownPath.GC_AND_FINALIZATION)
+			System.gc();
+		if (path != TeardownPath.SKIPPED)
+			System.runFinalization();
+		var teardown = new Teardown(reasons, Duration.ofNanos(System.nanoTime() - start));
+		LOG.debug("Teardown: {}", teardown); //$NON-NLS-1$
+		session.updateMetrics(metrics -> metrics.withTeardown(teardown));
 	}
 
 	private static String hash(String s) {
@@ -773,4 +1302,27 @@ public final class ArtemisSecurityManager extends SecurityManager {
 	public static BiConsumer<String, Object> getOnSuppressedModification() {
 		return ON_SUPPRESSED_MOD;
 	}
+
+	/**
+	 * The cached session and whitelisting state of one thread, valid as long as the
+	 * generation and the name (by identity) are the same.
+	 */
+	private static final class ThreadState {
+		long generation = -1;
+		String name;
+		SandboxSession session;
+		ArtemisSecurityConfiguration retainedConfiguration;
+		boolean whitelisted;
+		int trustedRegionDepth;
+		long trustedRegionGeneration = -1;
+	}
+
+	/**
+	 * Decides about a {@link Permission} that is requested, by throwing a
+	 * {@link SecurityException} if it is not granted.
+	 */
+	@FunctionalInterface
+	private interface PermissionHandler {
+		void check(Permission perm);
+	}
 }
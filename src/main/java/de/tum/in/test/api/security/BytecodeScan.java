@@ -0,0 +1,232 @@
+package de.tum.in.test.api.security;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tum.in.test.api.util.LruCache;
+
+/**
+ * The {@link ClassFileScan}s of the untrusted class files in the execution
+ * path. Class files that are whitelisted by name, like the tests themselves,
+ * are not part of the result.
+ * <p>
+ * A loaded class is only matched with a scan if it has the same name and was
+ * loaded from a directory in the execution path, so that a class of the same
+ * name from somewhere else is never mistaken for the analyzed one.
+ * <p>
+ * The directory is only walked once per execution path, all configurations with
+ * the same execution path share the scans of its class files, which are assumed
+ * not to change while the tests run.
+ */
+final class BytecodeScan {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BytecodeScan.class);
+	private static final int MAX_CACHED_ROOTS = 16;
+	private static final Map<Path, Map<String, ClassFileScan>> SCANS_BY_ROOT = Collections
+			.synchronizedMap(new LruCache<>(MAX_CACHED_ROOTS));
+	/**
+	 * Packages of the JDK, whose classes only load other classes by name with a
+	 * frame of their own on the stack
+	 */
+	private static final List<String> JDK_PACKAGE_PREFIXES = List.of("java.", "javax.", "jdk.", "sun.", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"com.sun."); //$NON-NLS-1$
+
+	private final Path root;
+	private final Map<String, ClassFileScan> scansByName;
+	private final Map<String, Reach> reachByName = new ConcurrentHashMap<>();
+	private final AtomicBoolean reported = new AtomicBoolean();
+	private final ClassValue<ClassFileScan> scansByClass = new ClassValue<>() {
+		@Override
+		protected ClassFileScan computeValue(Class<?> type) {
+			var scan = scansByName.get(type.getName());
+			return scan != null && isLoadedFromRoot(type) ? scan : null;
+		}
+	};
+
+	private BytecodeScan(Path root, Map<String, ClassFileScan> scansByName) {
+		this.root = root;
+		this.scansByName = Map.copyOf(scansByName);
+	}
+
+	/**
+	 * Scans all class files below the root directory, skipping hidden directories.
+	 * Files that cannot be read or parsed are left out.
+	 *
+	 * @param root    the directory to scan
+	 * @param matcher the matcher deciding which classes are trusted
+	 * @return the scan of the untrusted classes
+	 */
+	static BytecodeScan of(Path root, StackWhitelistMatcher matcher) {
+		Path absoluteRoot = root.toAbsolutePath().normalize();
+		var scans = SCANS_BY_ROOT.get(absoluteRoot);
+		if (scans == null) {
+			// walked outside of the lock, at worst twice
+			scans = scanDirectory(absoluteRoot);
+			SCANS_BY_ROOT.put(absoluteRoot, scans);
+		}
+		var untrusted = scans.values().stream().filter(scan -> matcher.isCallNotWhitelisted(scan.getClassName()))
+				.collect(Collectors.toMap(ClassFileScan::getClassName, scan -> scan));
+		return new BytecodeScan(absoluteRoot, untrusted);
+	}
+
+	private static Map<String, ClassFileScan> scanDirectory(Path absoluteRoot) {
+		Map<String, ClassFileScan> scans = new HashMap<>();
+		try {
+			Files.walkFileTree(absoluteRoot, new SimpleFileVisitor<>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					Path name = dir.getFileName();
+					if (!dir.equals(absoluteRoot) && name != null && name.toString().startsWith(".")) //$NON-NLS-1$
+						return FileVisitResult.SKIP_SUBTREE;
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (attrs.isRegularFile() && file.toString().endsWith(".class")) //$NON-NLS-1$
+						scanFile(file, scans);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			LOG.warn("Static bytecode scan of {} incomplete", absoluteRoot, e); //$NON-NLS-1$
+		}
+		return Map.copyOf(scans);
+	}
+
+	private static void scanFile(Path file, Map<String, ClassFileScan> scans) {
+		try {
+			var scan = ClassFileScan.of(Files.readAllBytes(file));
+			scans.put(scan.getClassName(), scan);
+		} catch (IOException e) {
+			LOG.debug("Could not scan {}", file, e); //$NON-NLS-1$
+		}
+	}
+
+	Collection<ClassFileScan> getScans() {
+		return scansByName.values();
+	}
+
+	/**
+	 * @return the scan of the class, or null if the class was not analyzed
+	 */
+	ClassFileScan get(Class<?> type) {
+		return scansByClass.get(type);
+	}
+
+	/**
+	 * Decides whether the code of the class can cause the loading of a class in the
+	 * package, including the classes loaded or linked because the class refers to
+	 * them. The analyzed classes it refers to are followed transitively. References
+	 * to classes that are neither analyzed nor part of the JDK are unknown and make
+	 * the result false, as well as the use of reflection anywhere along the way.
+	 *
+	 * @return true, if the class was analyzed and cannot reach the package
+	 */
+	boolean cannotReachPackage(Class<?> type, String packageName) {
+		var scan = get(type);
+		if (scan == null)
+			return false;
+		var reach = reachByName.computeIfAbsent(scan.getClassName(), name -> computeReach(scan));
+		return !reach.unknown && !reach.packages.contains(packageName);
+	}
+
+	private Reach computeReach(ClassFileScan start) {
+		Set<String> packages = new HashSet<>();
+		Set<String> visited = new HashSet<>();
+		var pending = new ArrayDeque<ClassFileScan>();
+		visited.add(start.getClassName());
+		pending.add(start);
+		while (!pending.isEmpty()) {
+			var scan = pending.poll();
+			if (scan.getFamilies().contains(ApiFamily.REFLECTION))
+				return Reach.UNKNOWN;
+			for (String referenced : scan.getReferencedClasses()) {
+				var referencedScan = scansByName.get(referenced);
+				if (referencedScan != null) {
+					if (visited.add(referenced))
+						pending.add(referencedScan);
+				} else if (JDK_PACKAGE_PREFIXES.stream().noneMatch(referenced::startsWith)) {
+					return Reach.UNKNOWN;
+				}
+			}
+			packages.addAll(scan.getReferencedPackages());
+		}
+		return new Reach(false, packages);
+	}
+
+	/**
+	 * @return the analyzed classes that reference guarded APIs, sorted by name
+	 */
+	List<ClassFileScan> getGuardedApiUsers() {
+		return scansByName.values().stream().filter(scan -> !scan.getFamilies().isEmpty())
+				.sorted((a, b) -> a.getClassName().compareTo(b.getClassName())).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return true only for the first call, so that the scan is reported once
+	 */
+	boolean markReported() {
+		return reported.compareAndSet(false, true);
+	}
+
+	private boolean isLoadedFromRoot(Class<?> type) {
+		CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null
+				|| !"file".equals(codeSource.getLocation().getProtocol())) //$NON-NLS-1$
+			return false;
+		try {
+			// JAR files are trusted anyway, so only directories are of interest
+			return codeSource.getLocation().getPath().endsWith("/") //$NON-NLS-1$
+					&& Path.of(codeSource.getLocation().toURI()).toAbsolutePath().normalize().startsWith(root);
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The packages of the classes an analyzed class can cause to be loaded
+	 */
+	private static final class Reach {
+
+		static final Reach UNKNOWN = new Reach(true, Set.of());
+
+		final boolean unknown;
+		final Set<String> packages;
+
+		Reach(boolean unknown, Set<String> packages) {
+			this.unknown = unknown;
+			this.packages = packages;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BytecodeScan[" + root + ", " + scansByName.size() + " classes]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -0,0 +1,53 @@
+package de.tum.in.test.api.security;
+
+/**
+ * The checks of {@link SandboxCallSites} that rewritten call sites invoke, with
+ * the name and descriptor of the corresponding method and the API family they
+ * guard.
+ */
+enum CallSiteCheck {
+	FILE_READ(ApiFamily.FILE_SYSTEM, "checkFileRead", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	FILE_WRITE(ApiFamily.FILE_SYSTEM, "checkFileWrite", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	FILE_DELETE(ApiFamily.FILE_SYSTEM, "checkFileDelete", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	FILE_OPEN(ApiFamily.FILE_SYSTEM, "checkFileOpen", "(Ljava/lang/Object;Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	TEMP_FILE(ApiFamily.FILE_SYSTEM, "checkTempFile", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+	EXEC(ApiFamily.PROCESS, "checkExec", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	EXIT(ApiFamily.RUNTIME, "checkExit", "(I)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	SHUTDOWN_HOOK(ApiFamily.RUNTIME, "checkShutdownHook", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+	SET_IO(ApiFamily.RUNTIME, "checkSetIO", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+	SET_SECURITY_MANAGER(ApiFamily.RUNTIME, "checkSetSecurityManager", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+	CONNECT_HOST(ApiFamily.NETWORK, "checkConnect", "(Ljava/lang/Object;I)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	CONNECT_ADDRESS(ApiFamily.NETWORK, "checkConnect", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	LISTEN(ApiFamily.NETWORK, "checkListen", "(I)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	BIND(ApiFamily.NETWORK, "checkBind", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	THREAD_START(ApiFamily.THREADS, "checkThreadStart", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	SUPPRESS_ACCESS_CHECKS(ApiFamily.REFLECTION, "checkSuppressAccessChecks", "()V"), //$NON-NLS-1$ //$NON-NLS-2$
+	CLASS_NAME(ApiFamily.REFLECTION, "checkClassName", "(Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	INVOKE(ApiFamily.REFLECTION, "checkInvoke", "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	NEW_INSTANCE(ApiFamily.REFLECTION, "checkNewInstance", "(Ljava/lang/Object;Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	FIND_METHOD(ApiFamily.REFLECTION, "checkFindMethod", "(Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	FIND_CONSTRUCTOR(ApiFamily.REFLECTION, "checkFindConstructor", "(Ljava/lang/Object;Ljava/lang/Object;)V"), //$NON-NLS-1$ //$NON-NLS-2$
+	UNREFLECT(ApiFamily.REFLECTION, "checkUnreflect", "(Ljava/lang/Object;)V"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private final ApiFamily family;
+	private final String methodName;
+	private final String descriptor;
+
+	CallSiteCheck(ApiFamily family, String methodName, String descriptor) {
+		this.family = family;
+		this.methodName = methodName;
+		this.descriptor = descriptor;
+	}
+
+	ApiFamily getFamily() {
+		return family;
+	}
+
+	String getMethodName() {
+		return methodName;
+	}
+
+	String getDescriptor() {
+		return descriptor;
+	}
+}
@@ -0,0 +1,282 @@
+package de.tum.in.test.api.security;
+
+import static de.tum.in.test.api.security.CallSiteCheck.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes a JDK method or constructor whose call sites in untrusted classes
+ * are rewritten by the {@link SandboxAgent}, and which values of the call are
+ * passed to which {@link CallSiteCheck}.
+ * <p>
+ * Rules are matched by the owner and name of the call and a prefix of its
+ * descriptor, so one rule can cover several overloads. The owner
+ * {@value #ANY_OWNER} matches every class, which is needed for
+ * {@link Thread#start()} as subclasses appear as owner of the call. Calls of
+ * other methods through a subtype have to be matched with the supertypes of the
+ * owner, see {@link #inheritsRules(String)}. Constructors are not inherited,
+ * the call of the super constructor in the subclass is guarded itself.
+ */
+final class CallSiteRule {
+
+	/**
+	 * The index of the receiver of an instance method in {@link #getArguments()}
+	 */
+	static final int RECEIVER = -1;
+	static final String ANY_OWNER = "*"; //$NON-NLS-1$
+
+	private static final String ANY = "("; //$NON-NLS-1$
+	private static final String CONSTRUCTOR = "<init>"; //$NON-NLS-1$
+
+	private static final Map<String, List<CallSiteRule>> RULES_BY_NAME = new HashMap<>();
+	private static final Set<String> OWNERS_WITH_METHOD_RULES = new HashSet<>();
+
+	static {
+		// file system
+		for (String owner : List.of("java/io/FileInputStream", "java/io/FileReader", "java/util/Scanner")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			constructor(owner, "(Ljava/lang/String;", FILE_READ, 0); //$NON-NLS-1$
+			constructor(owner, "(Ljava/io/File;", FILE_READ, 0); //$NON-NLS-1$
+		}
+		constructor("java/util/Scanner", "(Ljava/nio/file/Path;", FILE_READ, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String owner : List.of("java/util/zip/ZipFile", "java/util/jar/JarFile")) { //$NON-NLS-1$ //$NON-NLS-2$
+			constructor(owner, "(Ljava/lang/String;", FILE_READ, 0); //$NON-NLS-1$
+			constructor(owner, "(Ljava/io/File;", FILE_READ, 0); //$NON-NLS-1$
+		}
+		// the mode can contain OPEN_DELETE
+		constructor("java/util/zip/ZipFile", "(Ljava/io/File;I", FILE_OPEN, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		constructor("java/util/jar/JarFile", "(Ljava/io/File;ZI", FILE_OPEN, 0, 2); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String owner : List.of("java/io/FileOutputStream", "java/io/FileWriter", "java/io/PrintStream", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"java/io/PrintWriter", "java/util/Formatter")) { //$NON-NLS-1$ //$NON-NLS-2$
+			constructor(owner, "(Ljava/lang/String;", FILE_WRITE, 0); //$NON-NLS-1$
+			constructor(owner, "(Ljava/io/File;", FILE_WRITE, 0); //$NON-NLS-1$
+		}
+		constructor("java/io/RandomAccessFile", ANY, FILE_OPEN, 0, 1); //$NON-NLS-1$
+		instanceMethod("java/io/File", FILE_READ, "exists", "isFile", "isDirectory", "length", "list", "listFiles", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+				"lastModified", "canRead", "canWrite", "canExecute"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		instanceMethod("java/io/File", FILE_WRITE, "createNewFile", "mkdir", "mkdirs", "setLastModified", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"setReadOnly", "setReadable", "setWritable", "setExecutable"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		instanceMethod("java/io/File", FILE_DELETE, "delete", "deleteOnExit"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/io/File", "renameTo", ANY, Kind.INSTANCE, FILE_DELETE, RECEIVER); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/io/File", "renameTo", ANY, Kind.INSTANCE, FILE_WRITE, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/io/File", "createTempFile", "(Ljava/lang/String;Ljava/lang/String;)", Kind.STATIC, TEMP_FILE); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/io/File", "createTempFile", "(Ljava/lang/String;Ljava/lang/String;Ljava/io/File;)", Kind.STATIC, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				FILE_WRITE, 2);
+		String path = "(Ljava/nio/file/Path;"; //$NON-NLS-1$
+		staticMethod("java/nio/file/Files", path, FILE_READ, "newInputStream", "newBufferedReader", "readAllBytes", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"readString", "readAllLines", "lines", "newDirectoryStream", "list", "walk", "walkFileTree", "find", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+				"readAttributes", "getAttribute", "size", "exists", "notExists", "isDirectory", "isRegularFile", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+				"isReadable", "isWritable", "isExecutable", "isHidden", "isSameFile", "getLastModifiedTime", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				"getOwner", "getPosixFilePermissions", "readSymbolicLink", "probeContentType"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		staticMethod("java/nio/file/Files", path, FILE_WRITE, "newOutputStream", "newBufferedWriter", "write", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"writeString", "createFile", "createDirectory", "createDirectories", "createTempFile", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"createTempDirectory", "createSymbolicLink", "createLink", "setAttribute", "setLastModifiedTime", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"setOwner", "setPosixFilePermissions"); //$NON-NLS-1$ //$NON-NLS-2$
+		staticMethod("java/nio/file/Files", "(Ljava/lang/String;", TEMP_FILE, "createTempFile", "createTempDirectory"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		staticMethod("java/nio/file/Files", path, FILE_DELETE, "delete", "deleteIfExists"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/nio/file/Files", "copy", "(Ljava/nio/file/Path;Ljava/nio/file/Path;", Kind.STATIC, FILE_READ, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/nio/file/Files", "copy", "(Ljava/nio/file/Path;Ljava/nio/file/Path;", Kind.STATIC, FILE_WRITE, 1); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/nio/file/Files", "copy", "(Ljava/nio/file/Path;Ljava/io/OutputStream;", Kind.STATIC, FILE_READ, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/nio/file/Files", "copy", "(Ljava/io/InputStream;Ljava/nio/file/Path;", Kind.STATIC, FILE_WRITE, 1); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/nio/file/Files", "move", path, Kind.STATIC, FILE_DELETE, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/nio/file/Files", "move", path, Kind.STATIC, FILE_WRITE, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/nio/file/Files", "newByteChannel", path, Kind.STATIC, FILE_OPEN, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/nio/channels/FileChannel", "open", path, Kind.STATIC, FILE_OPEN, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/nio/channels/AsynchronousFileChannel", "open", path, Kind.STATIC, FILE_OPEN, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/nio/file/FileSystems", "newFileSystem", path, Kind.STATIC, FILE_READ, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		// file system providers are reachable by Path.getFileSystem().provider()
+		String provider = "java/nio/file/spi/FileSystemProvider"; //$NON-NLS-1$
+		instanceMethod(provider, FILE_READ, 0, "newInputStream", "newDirectoryStream", "checkAccess", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"readAttributes", "getFileAttributeView", "readSymbolicLink", "isHidden", "isSameFile", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"getFileStore"); //$NON-NLS-1$
+		instanceMethod(provider, FILE_WRITE, 0, "newOutputStream", "createDirectory", "createSymbolicLink", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"createLink", "setAttribute"); //$NON-NLS-1$ //$NON-NLS-2$
+		instanceMethod(provider, FILE_DELETE, 0, "delete", "deleteIfExists"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String name : List.of("newByteChannel", "newFileChannel", "newAsynchronousFileChannel")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			add(provider, name, ANY, Kind.INSTANCE, FILE_OPEN, 0, 1);
+		add(provider, "copy", ANY, Kind.INSTANCE, FILE_READ, 0); //$NON-NLS-1$
+		add(provider, "copy", ANY, Kind.INSTANCE, FILE_WRITE, 1); //$NON-NLS-1$
+		add(provider, "move", ANY, Kind.INSTANCE, FILE_DELETE, 0); //$NON-NLS-1$
+		add(provider, "move", ANY, Kind.INSTANCE, FILE_WRITE, 1); //$NON-NLS-1$
+		add(provider, "newFileSystem", path, Kind.INSTANCE, FILE_READ, 0); //$NON-NLS-1$
+		// processes and the runtime
+		instanceMethod("java/lang/Runtime", EXEC, 0, "exec"); //$NON-NLS-1$ //$NON-NLS-2$
+		instanceMethod("java/lang/ProcessBuilder", EXEC, "start"); //$NON-NLS-1$ //$NON-NLS-2$
+		staticMethod("java/lang/ProcessBuilder", ANY, EXEC, "startPipeline"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/lang/System", "exit", "(I)V", Kind.STATIC, EXIT, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/Runtime", "exit", "(I)V", Kind.INSTANCE, EXIT, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/Runtime", "halt", "(I)V", Kind.INSTANCE, EXIT, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/Runtime", "addShutdownHook", ANY, Kind.INSTANCE, SHUTDOWN_HOOK); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/lang/Runtime", "removeShutdownHook", ANY, Kind.INSTANCE, SHUTDOWN_HOOK); //$NON-NLS-1$ //$NON-NLS-2$
+		staticMethod("java/lang/System", ANY, SET_IO, "setIn", "setOut", "setErr"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		staticMethod("java/lang/System", ANY, SET_SECURITY_MANAGER, "setSecurityManager"); //$NON-NLS-1$ //$NON-NLS-2$
+		// network
+		constructor("java/net/Socket", "(Ljava/lang/String;I", CONNECT_HOST, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		constructor("java/net/Socket", "(Ljava/net/InetAddress;I", CONNECT_HOST, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/net/Socket", "connect", ANY, Kind.INSTANCE, CONNECT_ADDRESS, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		constructor("java/net/ServerSocket", "(I", LISTEN, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/net/ServerSocket", "bind", ANY, Kind.INSTANCE, BIND, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		for (String owner : List.of("java/net/DatagramSocket", "java/net/MulticastSocket")) { //$NON-NLS-1$ //$NON-NLS-2$
+			constructor(owner, "(I", LISTEN, 0); //$NON-NLS-1$
+			constructor(owner, "(Ljava/net/SocketAddress;", BIND, 0); //$NON-NLS-1$
+		}
+		add("java/net/DatagramSocket", "bind", ANY, Kind.INSTANCE, BIND, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/net/DatagramSocket", "connect", "(Ljava/net/SocketAddress;", Kind.INSTANCE, CONNECT_ADDRESS, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		instanceMethod("java/net/URL", CONNECT_ADDRESS, "openConnection", "openStream", "getContent"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		add("java/nio/channels/SocketChannel", "open", "(Ljava/net/SocketAddress;", Kind.STATIC, CONNECT_ADDRESS, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (String owner : List.of("java/nio/channels/SocketChannel", "java/nio/channels/AsynchronousSocketChannel", //$NON-NLS-1$ //$NON-NLS-2$
+				"java/nio/channels/DatagramChannel")) //$NON-NLS-1$
+			add(owner, "connect", ANY, Kind.INSTANCE, CONNECT_ADDRESS, 0); //$NON-NLS-1$
+		for (String owner : List.of("java/nio/channels/ServerSocketChannel", //$NON-NLS-1$
+				"java/nio/channels/AsynchronousServerSocketChannel", "java/nio/channels/SocketChannel", //$NON-NLS-1$ //$NON-NLS-2$
+				"java/nio/channels/DatagramChannel")) //$NON-NLS-1$
+			add(owner, "bind", ANY, Kind.INSTANCE, BIND, 0); //$NON-NLS-1$
+		instanceMethod("java/net/http/HttpClient", CONNECT_ADDRESS, 0, "send", "sendAsync"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		// threads, subclasses of Thread appear as owner
+		add(ANY_OWNER, "start", "()V", Kind.INSTANCE, THREAD_START, RECEIVER); //$NON-NLS-1$ //$NON-NLS-2$
+		// reflection
+		for (String owner : List.of("java/lang/reflect/AccessibleObject", "java/lang/reflect/Field", //$NON-NLS-1$ //$NON-NLS-2$
+				"java/lang/reflect/Method", "java/lang/reflect/Constructor", "java/lang/reflect/Executable")) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			add(owner, "setAccessible", "(Z)V", Kind.INSTANCE, SUPPRESS_ACCESS_CHECKS); //$NON-NLS-1$ //$NON-NLS-2$
+			add(owner, "trySetAccessible", ANY, Kind.INSTANCE, SUPPRESS_ACCESS_CHECKS); //$NON-NLS-1$
+		}
+		add("java/lang/reflect/AccessibleObject", "setAccessible", ANY, Kind.STATIC, SUPPRESS_ACCESS_CHECKS); //$NON-NLS-1$ //$NON-NLS-2$
+		staticMethod("java/lang/invoke/MethodHandles", ANY, SUPPRESS_ACCESS_CHECKS, "privateLookupIn"); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/lang/Class", "forName", "(Ljava/lang/String;", Kind.STATIC, CLASS_NAME, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/Class", "forName", "(Ljava/lang/Module;", Kind.STATIC, CLASS_NAME, 1); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/ClassLoader", "loadClass", "(Ljava/lang/String;", Kind.INSTANCE, CLASS_NAME, 0); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add("java/lang/reflect/Method", "invoke", ANY, Kind.INSTANCE, INVOKE, RECEIVER, 0, 1); //$NON-NLS-1$ //$NON-NLS-2$
+		add("java/lang/reflect/Constructor", "newInstance", ANY, Kind.INSTANCE, NEW_INSTANCE, RECEIVER, 0); //$NON-NLS-1$ //$NON-NLS-2$
+		String lookup = "java/lang/invoke/MethodHandles$Lookup"; //$NON-NLS-1$
+		String classAndName = "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/invoke/MethodType;"; //$NON-NLS-1$
+		instanceMethod(lookup, classAndName, FIND_METHOD, 0, 1, 2, "findStatic", "findVirtual", "findSpecial"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		add(lookup, "findConstructor", ANY, Kind.INSTANCE, FIND_CONSTRUCTOR, 0, 1); //$NON-NLS-1$
+		instanceMethod(lookup, UNREFLECT, 0, "unreflect", "unreflectConstructor", "unreflectSpecial"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	enum Kind {
+		STATIC,
+		INSTANCE,
+		CONSTRUCTOR
+	}
+
+	private final String owner;
+	private final String name;
+	private final String descriptorPrefix;
+	private final Kind kind;
+	private final CallSiteCheck check;
+	private final int[] arguments;
+
+	private CallSiteRule(String owner, String name, String descriptorPrefix, Kind kind, CallSiteCheck check,
+			int[] arguments) {
+		this.owner = owner;
+		this.name = name;
+		this.descriptorPrefix = descriptorPrefix;
+		this.kind = kind;
+		this.check = check;
+		this.arguments = arguments;
+	}
+
+	CallSiteCheck getCheck() {
+		return check;
+	}
+
+	/**
+	 * @return the indices of the call arguments passed to the check, or
+	 *         {@link #RECEIVER}; must not be modified
+	 */
+	int[] getArguments() {
+		return arguments;
+	}
+
+	boolean matches(Kind callKind, String callOwner, String callDescriptor) {
+		return kind == callKind && (owner.equals(callOwner) || owner.equals(ANY_OWNER))
+				&& callDescriptor.startsWith(descriptorPrefix);
+	}
+
+	/**
+	 * Returns the rules that apply to a call, in the order the checks are to be
+	 * performed.
+	 *
+	 * @param kind       the kind of the call
+	 * @param owner      the internal name of the owner of the called member
+	 * @param name       the name of the called member, <code>&lt;init&gt;</code>
+	 *                   for constructors
+	 * @param descriptor the method descriptor of the call
+	 * @return the matching rules, empty if the call is not guarded
+	 */
+	static List<CallSiteRule> find(Kind kind, String owner, String name, String descriptor) {
+		var candidates = RULES_BY_NAME.get(name);
+		if (candidates == null)
+			return List.of();
+		List<CallSiteRule> result = null;
+		for (CallSiteRule rule : candidates) {
+			if (rule.matches(kind, owner, descriptor)) {
+				if (result == null)
+					result = new ArrayList<>(2);
+				result.add(rule);
+			}
+		}
+		return result == null ? List.of() : result;
+	}
+
+	/**
+	 * @param name the name of a method
+	 * @return true if there are rules for methods or constructors of that name
+	 */
+	static boolean isGuardedName(String name) {
+		return RULES_BY_NAME.containsKey(name);
+	}
+
+	/**
+	 * @param owner the internal name of a class
+	 * @return true if subtypes of the class inherit rules, because there are rules
+	 *         for its static or instance methods
+	 */
+	static boolean inheritsRules(String owner) {
+		return OWNERS_WITH_METHOD_RULES.contains(owner);
+	}
+
+	@Override
+	public String toString() {
+		return owner + "." + name + descriptorPrefix + " -> " + check; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void add(String owner, String name, String descriptorPrefix, Kind kind, CallSiteCheck check,
+			int... arguments) {
+		RULES_BY_NAME.computeIfAbsent(name, key -> new ArrayList<>())
+				.add(new CallSiteRule(owner, name, descriptorPrefix, kind, check, arguments));
+		if (kind != Kind.CONSTRUCTOR && !owner.equals(ANY_OWNER))
+			OWNERS_WITH_METHOD_RULES.add(owner);
+	}
+
+	private static void constructor(String owner, String descriptorPrefix, CallSiteCheck check, int... arguments) {
+		add(owner, CONSTRUCTOR, descriptorPrefix, Kind.CONSTRUCTOR, check, arguments);
+	}
+
+	private static void staticMethod(String owner, String descriptorPrefix, CallSiteCheck check, String... names) {
+		int[] arguments = check.getDescriptor().startsWith("()") ? new int[0] : new int[] { 0 }; //$NON-NLS-1$
+		for (String name : names)
+			add(owner, name, descriptorPrefix, Kind.STATIC, check, arguments);
+	}
+
+	private static void instanceMethod(String owner, CallSiteCheck check, String... names) {
+		for (String name : names)
+			add(owner, name, ANY, Kind.INSTANCE, check, RECEIVER);
+	}
+
+	private static void instanceMethod(String owner, CallSiteCheck check, int argument, String... names) {
+		for (String name : names)
+			add(owner, name, ANY, Kind.INSTANCE, check, argument);
+	}
+
+	private static void instanceMethod(String owner, String descriptorPrefix, CallSiteCheck check, int first,
+			int second, int third, String... names) {
+		for (String name : names)
+			add(owner, name, descriptorPrefix, Kind.INSTANCE, check, first, second, third);
+	}
+}
@@ -0,0 +1,422 @@
+package de.tum.in.test.api.security;
+
+import static de.tum.in.test.api.localization.Messages.formatLocalized;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tum.in.test.api.security.CallSiteRule.Kind;
+
+/**
+ * Rewrites the guarded call sites of {@link CallSiteRule} in the code under
+ * test, so that the corresponding check of {@link SandboxCallSites} is invoked
+ * with the arguments of the call right before the call itself.
+ * <p>
+ * Classes of trusted origins as decided by
+ * {@link ClassOrigins#isTrustedLocation(ProtectionDomain)} are never rewritten.
+ * Method references and lambdas that directly refer to a guarded member are
+ * redirected to a generated bridge method that contains the rewritten call.
+ * Calls through a subtype of a guarded type are matched by the supertypes of
+ * the owner as resolved by the {@link TypeHierarchy}. Subtypes of guarded types
+ * that are defined at runtime without a class file, like generated ones, are
+ * refused, as calls through them could not be matched. Classes that cannot be
+ * rewritten, for example because ASM does not support their class file version,
+ * are never loaded unchanged. They are replaced by a class that fails its
+ * initialization with a {@link SecurityException}.
+ */
+final class CallSiteTransformer implements ClassFileTransformer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CallSiteTransformer.class);
+	private static final ClassLoader PLATFORM_CLASS_LOADER = ClassLoader.getPlatformClassLoader();
+	private static final String CALL_SITES = Type.getInternalName(SandboxCallSites.class);
+	private static final String LAMBDA_METAFACTORY = "java/lang/invoke/LambdaMetafactory"; //$NON-NLS-1$
+	private static final String BRIDGE_PREFIX = "ares$callSite$"; //$NON-NLS-1$
+	private static final int FLAG_SERIALIZABLE = 1;
+
+	private final List<String> packagePrefixes;
+
+	/**
+	 * @param packagePrefixes the internal names of the packages to rewrite, all
+	 *                        untrusted classes if empty
+	 */
+	CallSiteTransformer(List<String> packagePrefixes) {
+		this.packagePrefixes = List.copyOf(packagePrefixes);
+	}
+
+	@Override
+	public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+			ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+		if (loader == null || loader == PLATFORM_CLASS_LOADER || className == null || classBeingRedefined != null)
+			return null;
+		if (!packagePrefixes.isEmpty() && packagePrefixes.stream().noneMatch(className::startsWith))
+			return null;
+		if (ClassOrigins.isTrustedLocation(protectionDomain))
+			return null;
+		try {
+			return instrument(classfileBuffer, loader);
+		} catch (RuntimeException | LinkageError e) {
+			LOG.error("Could not rewrite the call sites of {}, the class is refused", className, e); //$NON-NLS-1$
+			return refusedClass(className);
+		}
+	}
+
+	/**
+	 * Generates the replacement of a class that could not be rewritten. It has no
+	 * members and its static initializer throws a {@link SecurityException}, so the
+	 * class cannot be used in any way.
+	 *
+	 * @param className the internal name of the class
+	 */
+	static byte[] refusedClass(String className) {
+		var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, className, null,
+				"java/lang/Object", null); //$NON-NLS-1$
+		MethodVisitor mv = writer.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null); //$NON-NLS-1$ //$NON-NLS-2$
+		mv.visitCode();
+		String exception = Type.getInternalName(SecurityException.class);
+		mv.visitTypeInsn(Opcodes.NEW, exception);
+		mv.visitInsn(Opcodes.DUP);
+		mv.visitLdcInsn(formatLocalized("security.error_class_not_guarded", className.replace('/', '.'))); //$NON-NLS-1$
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, exception, "<init>", "(Ljava/lang/String;)V", false); //$NON-NLS-1$ //$NON-NLS-2$
+		mv.visitInsn(Opcodes.ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+
+	/**
+	 * @param classfile the class file to rewrite
+	 * @param loader    the class loader that defines the class
+	 * @return the rewritten class file, or null if the class contains no guarded
+	 *         call sites
+	 * @throws SecurityException if the class is a subtype of a guarded type but has
+	 *                           no class file
+	 */
+	static byte[] instrument(byte[] classfile, ClassLoader loader) {
+		var reader = new ClassReader(classfile);
+		var hierarchy = new TypeHierarchy(loader);
+		String className = reader.getClassName();
+		hierarchy.add(className, reader.getSuperName(), reader.getInterfaces());
+		if (hierarchy.supertypesOf(className).stream().anyMatch(CallSiteRule::inheritsRules)
+				&& !hierarchy.hasClassFile(className))
+			throw new SecurityException("Subtype of a guarded type without class file: " + className); //$NON-NLS-1$
+		Map<String, Integer> maxLocals = new HashMap<>();
+		reader.accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				return new MethodVisitor(Opcodes.ASM9) {
+					@Override
+					public void visitMaxs(int maxStack, int locals) {
+						maxLocals.put(name + descriptor, locals);
+					}
+				};
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		var writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+		var rewriter = new ClassRewriter(writer, maxLocals, hierarchy);
+		reader.accept(rewriter, 0);
+		return rewriter.changed ? writer.toByteArray() : null;
+	}
+
+	static Kind kindOf(int opcode, String name) {
+		if (opcode == Opcodes.INVOKESTATIC)
+			return Kind.STATIC;
+		if (opcode == Opcodes.INVOKESPECIAL && "<init>".equals(name)) //$NON-NLS-1$
+			return Kind.CONSTRUCTOR;
+		return Kind.INSTANCE;
+	}
+
+	private static Kind kindOf(Handle handle) {
+		switch (handle.getTag()) {
+		case Opcodes.H_INVOKESTATIC:
+			return Kind.STATIC;
+		case Opcodes.H_NEWINVOKESPECIAL:
+			return Kind.CONSTRUCTOR;
+		case Opcodes.H_INVOKEVIRTUAL:
+		case Opcodes.H_INVOKEINTERFACE:
+			return Kind.INSTANCE;
+		default:
+			// super calls cannot be moved to a bridge
+			return null;
+		}
+	}
+
+	private static final class ClassRewriter extends ClassVisitor {
+
+		private final Map<String, Integer> maxLocals;
+		private final TypeHierarchy hierarchy;
+		private final Map<Handle, Handle> bridges = new HashMap<>();
+		private final List<Handle> bridgeTargets = new ArrayList<>();
+		private String className;
+		private boolean isInterface;
+		boolean changed;
+
+		ClassRewriter(ClassVisitor next, Map<String, Integer> maxLocals, TypeHierarchy hierarchy) {
+			super(Opcodes.ASM9, next);
+			this.maxLocals = maxLocals;
+			this.hierarchy = hierarchy;
+		}
+
+		@Override
+		public void visit(int version, int access, String name, String signature, String superName,
+				String[] interfaces) {
+			className = name;
+			isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
+			super.visit(version, access, name, signature, superName, interfaces);
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+				String[] exceptions) {
+			MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+			Integer locals = maxLocals.get(name + descriptor);
+			if (next == null || locals == null)
+				return next;
+			return new CallSiteRewriter(next, locals);
+		}
+
+		@Override
+		public void visitEnd() {
+			for (Handle target : bridgeTargets)
+				generateBridge(target, bridges.get(target));
+			super.visitEnd();
+		}
+
+		/**
+		 * Finds the rules of a call, for methods also the ones of the supertypes of the
+		 * owner, as the call can go through a subtype.
+		 */
+		List<CallSiteRule> findRules(Kind kind, String owner, String name, String descriptor) {
+			List<CallSiteRule> rules = CallSiteRule.find(kind, owner, name, descriptor);
+			if (!rules.isEmpty() || kind == Kind.CONSTRUCTOR || !CallSiteRule.isGuardedName(name))
+				return rules;
+			for (String supertype : hierarchy.supertypesOf(owner)) {
+				if (CallSiteRule.inheritsRules(supertype)) {
+					rules = CallSiteRule.find(kind, supertype, name, descriptor);
+					if (!rules.isEmpty())
+						return rules;
+				}
+			}
+			return List.of();
+		}
+
+		/**
+		 * @return the bridge for the handle, or the handle itself if it is not guarded
+		 */
+		Handle bridgeOf(Handle handle) {
+			Kind kind = kindOf(handle);
+			if (kind == null || findRules(kind, handle.getOwner(), handle.getName(), handle.getDesc()).isEmpty())
+				return handle;
+			return bridges.computeIfAbsent(handle, key -> {
+				String descriptor = bridgeDescriptor(key, kind);
+				bridgeTargets.add(key);
+				changed = true;
+				return new Handle(Opcodes.H_INVOKESTATIC, className, BRIDGE_PREFIX + bridges.size(), descriptor,
+						isInterface);
+			});
+		}
+
+		private void generateBridge(Handle target, Handle bridge) {
+			int access = Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC
+					| (isInterface ? Opcodes.ACC_PUBLIC : Opcodes.ACC_PRIVATE);
+			Type bridgeType = Type.getMethodType(bridge.getDesc());
+			int parameterSize = 0;
+			for (Type parameter : bridgeType.getArgumentTypes())
+				parameterSize += parameter.getSize();
+			MethodVisitor mv = new CallSiteRewriter(
+					cv.visitMethod(access, bridge.getName(), bridge.getDesc(), null, null), parameterSize);
+			mv.visitCode();
+			Kind kind = Objects.requireNonNull(kindOf(target));
+			if (kind == Kind.CONSTRUCTOR) {
+				mv.visitTypeInsn(Opcodes.NEW, target.getOwner());
+				mv.visitInsn(Opcodes.DUP);
+			}
+			int slot = 0;
+			for (Type parameter : bridgeType.getArgumentTypes()) {
+				mv.visitVarInsn(parameter.getOpcode(Opcodes.ILOAD), slot);
+				slot += parameter.getSize();
+			}
+			int opcode;
+			switch (target.getTag()) {
+			case Opcodes.H_INVOKESTATIC:
+				opcode = Opcodes.INVOKESTATIC;
+				break;
+			case Opcodes.H_INVOKEINTERFACE:
+				opcode = Opcodes.INVOKEINTERFACE;
+				break;
+			case Opcodes.H_INVOKEVIRTUAL:
+				opcode = Opcodes.INVOKEVIRTUAL;
+				break;
+			default: // constructor
+				opcode = Opcodes.INVOKESPECIAL;
+			}
+			mv.visitMethodInsn(opcode, target.getOwner(), target.getName(), target.getDesc(), target.isInterface());
+			mv.visitInsn(bridgeType.getReturnType().getOpcode(Opcodes.IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		private static String bridgeDescriptor(Handle handle, Kind kind) {
+			Type type = Type.getMethodType(handle.getDesc());
+			switch (kind) {
+			case CONSTRUCTOR:
+				return Type.getMethodDescriptor(Type.getObjectType(handle.getOwner()), type.getArgumentTypes());
+			case INSTANCE:
+				Type[] arguments = type.getArgumentTypes();
+				Type[] withReceiver = new Type[arguments.length + 1];
+				withReceiver[0] = Type.getObjectType(handle.getOwner());
+				System.arraycopy(arguments, 0, withReceiver, 1, arguments.length);
+				return Type.getMethodDescriptor(type.getReturnType(), withReceiver);
+			default:
+				return handle.getDesc();
+			}
+		}
+
+		/**
+		 * Inserts the checks before the guarded calls of one method. The values passed
+		 * to the checks are stored in fresh local variables above the ones the method
+		 * uses, and loaded again for the call itself.
+		 */
+		private final class CallSiteRewriter extends MethodVisitor {
+
+			private final int firstFreeLocal;
+
+			CallSiteRewriter(MethodVisitor next, int firstFreeLocal) {
+				super(Opcodes.ASM9, next);
+				this.firstFreeLocal = firstFreeLocal;
+			}
+
+			@Override
+			public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+				Kind kind = kindOf(opcode, name);
+				List<CallSiteRule> rules = findRules(kind, owner, name, descriptor);
+				if (!rules.isEmpty()) {
+					insertChecks(kind, owner, descriptor, rules);
+					changed = true;
+				}
+				super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+			}
+
+			@Override
+			public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+					Object... bootstrapMethodArguments) {
+				if (LAMBDA_METAFACTORY.equals(bootstrapMethodHandle.getOwner()) && bootstrapMethodArguments.length >= 3
+						&& bootstrapMethodArguments[1] instanceof Handle && !isSerializable(bootstrapMethodArguments)) {
+					Object[] arguments = bootstrapMethodArguments.clone();
+					arguments[1] = bridgeOf((Handle) arguments[1]);
+					bootstrapMethodArguments = arguments;
+				}
+				super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+			}
+
+			@Override
+			public void visitLdcInsn(Object value) {
+				super.visitLdcInsn(value instanceof Handle ? bridgeOf((Handle) value) : value);
+			}
+
+			private boolean isSerializable(Object[] bootstrapMethodArguments) {
+				return bootstrapMethodArguments.length > 3 && bootstrapMethodArguments[3] instanceof Integer
+						&& ((Integer) bootstrapMethodArguments[3] & FLAG_SERIALIZABLE) != 0;
+			}
+
+			private void insertChecks(Kind kind, String owner, String descriptor, List<CallSiteRule> rules) {
+				boolean needsValues = rules.stream().anyMatch(rule -> rule.getArguments().length > 0);
+				if (!needsValues) {
+					for (CallSiteRule rule : rules)
+						invokeCheck(rule.getCheck());
+					return;
+				}
+				Type[] arguments = Type.getArgumentTypes(descriptor);
+				int[] slots = new int[arguments.length];
+				int next = firstFreeLocal;
+				for (int i = 0; i < arguments.length; i++) {
+					slots[i] = next;
+					next += arguments[i].getSize();
+				}
+				boolean storeReceiver = kind == Kind.INSTANCE;
+				int receiverSlot = next;
+				for (int i = arguments.length - 1; i >= 0; i--)
+					super.visitVarInsn(arguments[i].getOpcode(Opcodes.ISTORE), slots[i]);
+				if (storeReceiver)
+					super.visitVarInsn(Opcodes.ASTORE, receiverSlot);
+				for (CallSiteRule rule : rules) {
+					Type[] parameters = Type.getArgumentTypes(rule.getCheck().getDescriptor());
+					int[] indices = rule.getArguments();
+					for (int i = 0; i < indices.length; i++) {
+						int index = indices[i];
+						if (index == CallSiteRule.RECEIVER) {
+							if (storeReceiver)
+								super.visitVarInsn(Opcodes.ALOAD, receiverSlot);
+							else
+								super.visitInsn(Opcodes.ACONST_NULL);
+						} else {
+							super.visitVarInsn(arguments[index].getOpcode(Opcodes.ILOAD), slots[index]);
+							convert(arguments[index], parameters[i]);
+						}
+					}
+					invokeCheck(rule.getCheck());
+				}
+				if (storeReceiver)
+					super.visitVarInsn(Opcodes.ALOAD, receiverSlot);
+				for (int i = 0; i < arguments.length; i++)
+					super.visitVarInsn(arguments[i].getOpcode(Opcodes.ILOAD), slots[i]);
+			}
+
+			private void convert(Type from, Type to) {
+				if (to.getSort() != Type.OBJECT || from.getSort() == Type.OBJECT || from.getSort() == Type.ARRAY)
+					return;
+				// box primitives passed as Object
+				Type boxed;
+				switch (from.getSort()) {
+				case Type.BOOLEAN:
+					boxed = Type.getType(Boolean.class);
+					break;
+				case Type.CHAR:
+					boxed = Type.getType(Character.class);
+					break;
+				case Type.BYTE:
+					boxed = Type.getType(Byte.class);
+					break;
+				case Type.SHORT:
+					boxed = Type.getType(Short.class);
+					break;
+				case Type.INT:
+					boxed = Type.getType(Integer.class);
+					break;
+				case Type.FLOAT:
+					boxed = Type.getType(Float.class);
+					break;
+				case Type.LONG:
+					boxed = Type.getType(Long.class);
+					break;
+				default:
+					boxed = Type.getType(Double.class);
+				}
+				super.visitMethodInsn(Opcodes.INVOKESTATIC, boxed.getInternalName(), "valueOf", //$NON-NLS-1$
+						Type.getMethodDescriptor(boxed, from), false);
+			}
+
+			private void invokeCheck(CallSiteCheck check) {
+				super.visitMethodInsn(Opcodes.INVOKESTATIC, CALL_SITES, check.getMethodName(), check.getDescriptor(),
+						false);
+			}
+		}
+	}
+}
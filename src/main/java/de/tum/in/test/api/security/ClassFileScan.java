@@ -0,0 +1,329 @@
+package de.tum.in.test.api.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import de.tum.in.test.api.security.CallSiteRule.Kind;
+
+/**
+ * The guarded APIs one class file refers to, found by parsing its constant pool
+ * without loading the class. Every method, constructor and field reference is
+ * matched against the {@link CallSiteRule}s, and references to reflection,
+ * method handles and class loading are reported as
+ * {@link ApiFamily#REFLECTION}. Only direct references are found; what the
+ * referenced JDK code does internally is not analyzed.
+ * <p>
+ * The referenced classes include the ones only named in descriptors, as the
+ * verifier may load them when the class is linked.
+ * <p>
+ * Results are cached by the SHA-256 hash of the class file, so a class is only
+ * parsed again if its content changed.
+ */
+final class ClassFileScan {
+
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final int MAX_CACHED_SCANS = 4096;
+	private static final Map<String, ClassFileScan> SCANS_BY_HASH = new ConcurrentHashMap<>();
+	/**
+	 * Owners that are part of lambdas, string concatenation and records, which the
+	 * compiler generates
+	 */
+	private static final Set<String> COMPILER_BOOTSTRAPS = Set.of("java/lang/invoke/LambdaMetafactory", //$NON-NLS-1$
+			"java/lang/invoke/StringConcatFactory", "java/lang/runtime/ObjectMethods"); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final List<String> REFLECTION_OWNER_PREFIXES = List.of("java/lang/reflect/", //$NON-NLS-1$
+			"java/lang/invoke/", "java/lang/ClassLoader", "java/net/URLClassLoader", "java/util/ServiceLoader"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	private static final Set<String> THREAD_OWNERS = Set.of("java/lang/ThreadGroup", "java/util/Timer", //$NON-NLS-1$ //$NON-NLS-2$
+			"java/util/concurrent/Executors", "java/util/concurrent/ForkJoinPool", //$NON-NLS-1$ //$NON-NLS-2$
+			"java/util/concurrent/ThreadPoolExecutor", "java/util/concurrent/ScheduledThreadPoolExecutor"); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final Set<String> REFLECTIVE_CLASS_METHODS = Set.of("forName", "newInstance", "getMethod", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"getMethods", "getDeclaredMethod", "getDeclaredMethods", "getField", "getFields", "getDeclaredField", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+			"getDeclaredFields", "getConstructor", "getConstructors", "getDeclaredConstructor", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"getDeclaredConstructors", "getClassLoader"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final int UTF8 = 1;
+	private static final int INTEGER = 3;
+	private static final int FLOAT = 4;
+	private static final int LONG = 5;
+	private static final int DOUBLE = 6;
+	private static final int CLASS = 7;
+	private static final int STRING = 8;
+	private static final int FIELD_REF = 9;
+	private static final int METHOD_REF = 10;
+	private static final int INTERFACE_METHOD_REF = 11;
+	private static final int NAME_AND_TYPE = 12;
+	private static final int METHOD_HANDLE = 15;
+	private static final int METHOD_TYPE = 16;
+	private static final int DYNAMIC = 17;
+	private static final int INVOKE_DYNAMIC = 18;
+	private static final int MODULE = 19;
+	private static final int PACKAGE = 20;
+
+	private final String className;
+	private final Set<ApiFamily> families;
+	private final Set<String> guardedReferences;
+	private final Set<String> referencedClasses;
+	private final Set<String> referencedPackages;
+
+	private ClassFileScan(String className, Set<ApiFamily> families, Set<String> guardedReferences,
+			Set<String> referencedClasses) {
+		this.className = className;
+		this.families = Collections.unmodifiableSet(families);
+		this.guardedReferences = Collections.unmodifiableSet(guardedReferences);
+		this.referencedClasses = Set.copyOf(referencedClasses);
+		this.referencedPackages = referencedClasses.stream().map(ClassFileScan::packageOf)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	/**
+	 * @return the binary name of the class, like <code>a.b.C$D</code>
+	 */
+	String getClassName() {
+		return className;
+	}
+
+	Set<ApiFamily> getFamilies() {
+		return families;
+	}
+
+	/**
+	 * @return the guarded members referenced, as <code>owner.name</code>, sorted
+	 */
+	Set<String> getGuardedReferences() {
+		return guardedReferences;
+	}
+
+	/**
+	 * @return the binary names of all classes referenced by the class, including
+	 *         itself
+	 */
+	Set<String> getReferencedClasses() {
+		return referencedClasses;
+	}
+
+	/**
+	 * @return the packages of the {@link #getReferencedClasses() referenced
+	 *         classes}
+	 */
+	Set<String> getReferencedPackages() {
+		return referencedPackages;
+	}
+
+	/**
+	 * @return true, if the class cannot cause the loading of a class in the package
+	 *         by itself; the classes it references are not considered
+	 */
+	boolean cannotReachPackage(String packageName) {
+		return !families.contains(ApiFamily.REFLECTION) && !referencedPackages.contains(packageName);
+	}
+
+	/**
+	 * Returns the scan of the class file, from the cache if a class file with the
+	 * same content was scanned before.
+	 *
+	 * @param classFile the content of the class file
+	 * @return the scan result
+	 * @throws IOException if the class file is malformed
+	 */
+	static ClassFileScan of(byte[] classFile) throws IOException {
+		String hash = hash(classFile);
+		var scan = SCANS_BY_HASH.get(hash);
+		if (scan != null)
+			return scan;
+		scan = parse(classFile);
+		if (SCANS_BY_HASH.size() >= MAX_CACHED_SCANS)
+			SCANS_BY_HASH.clear();
+		SCANS_BY_HASH.put(hash, scan);
+		return scan;
+	}
+
+	static ClassFileScan parse(byte[] classFile) throws IOException {
+		var in = new DataInputStream(new ByteArrayInputStream(classFile));
+		if (in.readInt() != MAGIC)
+			throw new IOException("not a class file"); //$NON-NLS-1$
+		in.readUnsignedShort(); // minor
+		in.readUnsignedShort(); // major
+		int count = in.readUnsignedShort();
+		int[] tags = new int[count];
+		int[] first = new int[count];
+		int[] second = new int[count];
+		String[] utf8 = new String[count];
+		for (int i = 1; i < count; i++) {
+			int tag = in.readUnsignedByte();
+			tags[i] = tag;
+			switch (tag) {
+			case UTF8:
+				utf8[i] = in.readUTF();
+				break;
+			case INTEGER:
+			case FLOAT:
+				in.readInt();
+				break;
+			case LONG:
+			case DOUBLE:
+				in.readLong();
+				i++; // takes two entries
+				break;
+			case CLASS:
+			case STRING:
+			case METHOD_TYPE:
+			case MODULE:
+			case PACKAGE:
+				first[i] = in.readUnsignedShort();
+				break;
+			case FIELD_REF:
+			case METHOD_REF:
+			case INTERFACE_METHOD_REF:
+			case NAME_AND_TYPE:
+			case DYNAMIC:
+			case INVOKE_DYNAMIC:
+				first[i] = in.readUnsignedShort();
+				second[i] = in.readUnsignedShort();
+				break;
+			case METHOD_HANDLE:
+				first[i] = in.readUnsignedByte();
+				second[i] = in.readUnsignedShort();
+				break;
+			default:
+				throw new IOException("unknown constant pool tag " + tag); //$NON-NLS-1$
+			}
+		}
+		in.readUnsignedShort(); // access flags
+		String name = utf8[first[in.readUnsignedShort()]];
+		int superIndex = in.readUnsignedShort();
+		String superName = superIndex == 0 ? null : utf8[first[superIndex]];
+
+		Set<ApiFamily> families = EnumSet.noneOf(ApiFamily.class);
+		Set<String> guarded = new TreeSet<>();
+		Set<String> classes = new HashSet<>();
+		// the interfaces are class entries, the descriptors of the members are not
+		in.skipBytes(2 * in.readUnsignedShort());
+		for (int members = 0; members < 2; members++)
+			readMemberDescriptors(in, utf8, classes);
+		if ("java/lang/Thread".equals(superName)) { //$NON-NLS-1$
+			families.add(ApiFamily.THREADS);
+			guarded.add("java/lang/Thread"); //$NON-NLS-1$
+		}
+		for (int i = 1; i < count; i++) {
+			if (tags[i] == CLASS) {
+				addClass(utf8[first[i]], classes);
+			} else if (tags[i] == NAME_AND_TYPE) {
+				addDescriptorClasses(utf8[second[i]], classes);
+			} else if (tags[i] == METHOD_TYPE) {
+				addDescriptorClasses(utf8[first[i]], classes);
+			} else if (tags[i] == FIELD_REF || tags[i] == METHOD_REF || tags[i] == INTERFACE_METHOD_REF) {
+				String owner = utf8[first[first[i]]];
+				int nameAndType = second[i];
+				String member = utf8[first[nameAndType]];
+				String descriptor = utf8[second[nameAndType]];
+				addClass(owner, classes);
+				if (tags[i] != FIELD_REF)
+					classifyMethod(owner, member, descriptor, families, guarded);
+			}
+		}
+		return new ClassFileScan(name.replace('/', '.'), families, guarded, classes);
+	}
+
+	/**
+	 * Reads the fields or methods of the class file and adds the classes of their
+	 * descriptors, skipping all attributes.
+	 */
+	private static void readMemberDescriptors(DataInputStream in, String[] utf8, Set<String> classes)
+			throws IOException {
+		int count = in.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			in.readUnsignedShort(); // access flags
+			in.readUnsignedShort(); // name
+			String descriptor = utf8[in.readUnsignedShort()];
+			if (descriptor == null)
+				throw new IOException("invalid member descriptor"); //$NON-NLS-1$
+			addDescriptorClasses(descriptor, classes);
+			int attributes = in.readUnsignedShort();
+			for (int j = 0; j < attributes; j++) {
+				in.readUnsignedShort(); // name
+				in.skipBytes(in.readInt());
+			}
+		}
+	}
+
+	/**
+	 * Adds the classes of a field or method descriptor, like
+	 * <code>(ILjava/lang/String;)[Ljava/util/List;</code>
+	 */
+	private static void addDescriptorClasses(String descriptor, Set<String> classes) {
+		int start = descriptor.indexOf('L');
+		while (start >= 0) {
+			int end = descriptor.indexOf(';', start);
+			if (end < 0)
+				break;
+			addClass(descriptor.substring(start + 1, end), classes);
+			start = descriptor.indexOf('L', end);
+		}
+	}
+
+	/**
+	 * Adds the class of an internal name, or the element class of an array
+	 * descriptor
+	 */
+	private static void addClass(String internalName, Set<String> classes) {
+		if (internalName.startsWith("[")) //$NON-NLS-1$
+			addDescriptorClasses(internalName, classes);
+		else
+			classes.add(internalName.replace('/', '.'));
+	}
+
+	private static void classifyMethod(String owner, String name, String descriptor, Set<ApiFamily> families,
+			Set<String> guarded) {
+		List<CallSiteRule> rules;
+		if ("<init>".equals(name)) { //$NON-NLS-1$
+			rules = CallSiteRule.find(Kind.CONSTRUCTOR, owner, name, descriptor);
+		} else {
+			rules = CallSiteRule.find(Kind.STATIC, owner, name, descriptor);
+			if (rules.isEmpty())
+				rules = CallSiteRule.find(Kind.INSTANCE, owner, name, descriptor);
+		}
+		boolean reflective = !COMPILER_BOOTSTRAPS.contains(owner)
+				&& (REFLECTION_OWNER_PREFIXES.stream().anyMatch(owner::startsWith)
+						|| "java/lang/Class".equals(owner) && REFLECTIVE_CLASS_METHODS.contains(name)); //$NON-NLS-1$
+		boolean threads = THREAD_OWNERS.contains(owner);
+		if (rules.isEmpty() && !reflective && !threads)
+			return;
+		for (CallSiteRule rule : rules)
+			families.add(rule.getCheck().getFamily());
+		if (reflective)
+			families.add(ApiFamily.REFLECTION);
+		if (threads)
+			families.add(ApiFamily.THREADS);
+		guarded.add(owner + "." + name); //$NON-NLS-1$
+	}
+
+	private static String packageOf(String binaryName) {
+		int end = binaryName.lastIndexOf('.');
+		return end < 0 ? "" : binaryName.substring(0, end); //$NON-NLS-1$
+	}
+
+	private static String hash(byte[] classFile) {
+		try {
+			return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(classFile)); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return className + " " + families + " " + guardedReferences; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
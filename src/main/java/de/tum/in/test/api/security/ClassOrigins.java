@@ -0,0 +1,69 @@
+package de.tum.in.test.api.security;
+
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+
+/**
+ * Decides whether a class comes from a trusted origin, based on its defining
+ * {@link ClassLoader}, its {@link Module} and the location of its
+ * {@link CodeSource}.
+ * <p>
+ * Trusted are classes of the JDK (defined by the bootstrap or platform class
+ * loader), classes in named modules, classes loaded from a JAR file and the
+ * classes of this library. Classes loaded from any other directory, which is
+ * where the code under test is compiled to, are not. The verdict is cached per
+ * class.
+ */
+final class ClassOrigins {
+
+	private static final ClassLoader PLATFORM_CLASS_LOADER = ClassLoader.getPlatformClassLoader();
+	private static final String OWN_LOCATION = locationOf(ClassOrigins.class.getProtectionDomain());
+
+	private static final ClassValue<Boolean> TRUSTED = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return computeIsTrusted(type);
+		}
+	};
+
+	private ClassOrigins() {
+
+	}
+
+	static boolean isTrusted(Class<?> type) {
+		return TRUSTED.get(type);
+	}
+
+	private static boolean computeIsTrusted(Class<?> type) {
+		ClassLoader classLoader = type.getClassLoader();
+		if (classLoader == null || classLoader == PLATFORM_CLASS_LOADER)
+			return true;
+		if (type.getModule().isNamed())
+			return true;
+		return isTrustedLocation(type.getProtectionDomain());
+	}
+
+	/**
+	 * Decides by location only, for classes that are not defined yet.
+	 */
+	static boolean isTrustedLocation(ProtectionDomain protectionDomain) {
+		String location = locationOf(protectionDomain);
+		if (location == null)
+			return false;
+		return location.equals(OWN_LOCATION) || !location.endsWith("/"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the location as string, {@link URL#equals(Object)} might resolve host
+	 * names.
+	 */
+	private static String locationOf(ProtectionDomain protectionDomain) {
+		if (protectionDomain == null)
+			return null;
+		CodeSource codeSource = protectionDomain.getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null)
+			return null;
+		return codeSource.getLocation().toExternalForm();
+	}
+}
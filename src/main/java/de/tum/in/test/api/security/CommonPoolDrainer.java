@@ -0,0 +1,104 @@
+package de.tum.in.test.api.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+import de.tum.in.test.api.security.SecurityMetrics.CommonPoolDrain;
+
+/**
+ * Interrupts the workers of a {@link ForkJoinPool} and waits until the pool is
+ * quiescent or the time budget is used up.
+ * <p>
+ * {@link ForkJoinPool#awaitQuiescence(long, TimeUnit)} is not used, as it runs
+ * the queued tasks in the calling thread if that is not a worker of the pool.
+ * Instead, the pool is polled with a pause that starts short and doubles up to
+ * a limit, so a pool that drains quickly costs about a millisecond.
+ * <p>
+ * The thread group of the workers is looked up once and then reused. If the
+ * security manager was installed when the common pool was created, its workers
+ * are <code>InnocuousForkJoinWorkerThread</code>s in a thread group of their
+ * own. Otherwise, the workers are found by enumerating all threads.
+ */
+final class CommonPoolDrainer {
+
+	private static final String INNOCUOUS_GROUP_NAME = "InnocuousForkJoinWorkerThreadGroup"; //$NON-NLS-1$
+	private static final long MIN_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long MAX_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final ForkJoinPool pool;
+	private final ThreadGroup rootThreadGroup;
+	private volatile ThreadGroup workerThreadGroup;
+
+	CommonPoolDrainer(ForkJoinPool pool, ThreadGroup rootThreadGroup) {
+		this.pool = pool;
+		this.rootThreadGroup = rootThreadGroup;
+	}
+
+	/**
+	 * @return the drain, or null if the pool was already quiescent
+	 */
+	CommonPoolDrain drain(Duration budget) {
+		if (pool.isQuiescent())
+			return null;
+		long start = System.nanoTime();
+		int interrupted = 0;
+		for (Thread worker : findWorkers()) {
+			if (worker.isAlive()) {
+				worker.interrupt();
+				interrupted++;
+			}
+		}
+		boolean quiescent = awaitQuiescence(start + budget.toNanos());
+		return new CommonPoolDrain(interrupted, quiescent, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private boolean awaitQuiescence(long deadline) {
+		long pause = MIN_PAUSE_NANOS;
+		while (!pool.isQuiescent()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return false;
+			try {
+				TimeUnit.NANOSECONDS.sleep(Math.min(pause, remaining));
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return pool.isQuiescent();
+			}
+			pause = Math.min(pause * 2, MAX_PAUSE_NANOS);
+		}
+		return true;
+	}
+
+	private Thread[] findWorkers() {
+		ThreadGroup group = workerThreadGroup;
+		if (group == null && pool == ForkJoinPool.commonPool()) {
+			group = findInnocuousGroup();
+			workerThreadGroup = group;
+		}
+		if (group != null)
+			return enumerate(group);
+		return Arrays.stream(enumerate(rootThreadGroup)).filter(this::isWorker).toArray(Thread[]::new);
+	}
+
+	private boolean isWorker(Thread thread) {
+		return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+	}
+
+	private ThreadGroup findInnocuousGroup() {
+		ThreadGroup[] groups = new ThreadGroup[rootThreadGroup.activeGroupCount() + 5];
+		int count = rootThreadGroup.enumerate(groups, true);
+		for (int i = 0; i < count; i++) {
+			if (INNOCUOUS_GROUP_NAME.equals(groups[i].getName()))
+				return groups[i];
+		}
+		return null;
+	}
+
+	private static Thread[] enumerate(ThreadGroup group) {
+		Thread[] threads = new Thread[group.activeCount() + 5];
+		return Arrays.copyOf(threads, group.enumerate(threads));
+	}
+}
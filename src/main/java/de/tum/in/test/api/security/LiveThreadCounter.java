@@ -0,0 +1,80 @@
+package de.tum.in.test.api.security;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the threads created in a sandbox, so that the limit of
+ * {@link de.tum.in.test.api.AllowThreads AllowThreads} can be checked without
+ * enumerating the thread group as long as the limit is not reached.
+ * <p>
+ * Threads are registered when they are created, before they are started. The
+ * number of registered threads is only an upper bound of the live threads: the
+ * security manager is not notified when a thread terminates, and threads might
+ * never be started. Only if this bound exceeds the limit, the registered
+ * threads are recounted, and like {@link ThreadGroup#activeCount()} only the
+ * threads that are alive count, plus the new thread. Terminated threads are
+ * removed then. Threads that were not started yet stay registered, so that they
+ * are counted once they are started. The recount takes time linear in the
+ * number of registered threads, it is repeated for each thread created while
+ * the bound exceeds the limit.
+ */
+final class LiveThreadCounter {
+
+	private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * Registers the thread, if no more than <code>max</code> other registered
+	 * threads are alive.
+	 *
+	 * @return true, if the thread is registered now or already was
+	 */
+	boolean tryRegister(Thread thread, int max) {
+		if (!threads.add(thread))
+			return true;
+		if (count.incrementAndGet() - 1 > max && countAlive(thread) - 1 > max) {
+			unregister(thread);
+			return false;
+		}
+		return true;
+	}
+
+	void register(Thread thread) {
+		if (threads.add(thread))
+			count.incrementAndGet();
+	}
+
+	/**
+	 * @return the number of registered threads, which might include threads that
+	 *         terminated or were not started yet
+	 */
+	int count() {
+		return count.get();
+	}
+
+	/**
+	 * Removes the terminated threads.
+	 *
+	 * @param candidate a registered thread to count, although it was not started
+	 *                  yet
+	 * @return the number of registered threads that are alive, plus the candidate
+	 *         if it is registered
+	 */
+	int countAlive(Thread candidate) {
+		int alive = 0;
+		for (Thread thread : threads) {
+			if (thread == candidate || thread.isAlive())
+				alive++;
+			else if (thread.getState() == Thread.State.TERMINATED)
+				unregister(thread);
+		}
+		return alive;
+	}
+
+	private void unregister(Thread thread) {
+		if (threads.remove(thread))
+			count.decrementAndGet();
+	}
+}
@@ -0,0 +1,85 @@
+package de.tum.in.test.api.security;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a host name refers to the local host, meaning a loopback or
+ * the wildcard address.
+ * <p>
+ * <code>localhost</code> and IPv4 literals are decided without the resolver.
+ * All other host names are resolved once and the verdict is cached, the cache
+ * is owned by a {@link SandboxSession} and dropped together with it.
+ */
+final class LocalHostResolver {
+
+	static final int NOT_A_LITERAL = 0;
+	static final int LOCAL_LITERAL = 1;
+	static final int REMOTE_LITERAL = 2;
+
+	private static final int MAX_CACHE_SIZE = 256;
+	private static final String LOCALHOST = "localhost"; //$NON-NLS-1$
+
+	private final Map<String, Boolean> verdicts = new ConcurrentHashMap<>();
+
+	boolean isLocalHost(String host) {
+		if (host == null || host.isEmpty() || LOCALHOST.equalsIgnoreCase(host))
+			return true;
+		int literal = classifyIPv4Literal(host);
+		if (literal != NOT_A_LITERAL)
+			return literal == LOCAL_LITERAL;
+		var verdict = verdicts.get(host);
+		if (verdict == null) {
+			verdict = resolvesToLocalHost(host);
+			if (verdicts.size() < MAX_CACHE_SIZE)
+				verdicts.putIfAbsent(host, verdict);
+		}
+		return verdict;
+	}
+
+	static boolean resolvesToLocalHost(String host) {
+		try {
+			InetAddress address = InetAddress.getByName(host);
+			return address.isLoopbackAddress() || address.isAnyLocalAddress();
+		} catch (@SuppressWarnings("unused") UnknownHostException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Classifies a dotted-quad IPv4 literal, <code>127.0.0.0/8</code> and
+	 * <code>0.0.0.0</code> are local.
+	 *
+	 * @param host the host name
+	 * @return {@link #NOT_A_LITERAL} if the host is not of the form
+	 *         <code>a.b.c.d</code>, otherwise {@link #LOCAL_LITERAL} or
+	 *         {@link #REMOTE_LITERAL}
+	 */
+	static int classifyIPv4Literal(String host) {
+		int octets = 0;
+		int value = -1;
+		int first = -1;
+		boolean allZero = true;
+		for (int i = 0; i <= host.length(); i++) {
+			char c = i < host.length() ? host.charAt(i) : '.';
+			if (c >= '0' && c <= '9') {
+				value = (value < 0 ? 0 : value * 10) + (c - '0');
+				if (value > 255)
+					return NOT_A_LITERAL;
+			} else if (c == '.' && value >= 0 && octets < 4) {
+				if (octets == 0)
+					first = value;
+				allZero &= value == 0;
+				octets++;
+				value = -1;
+			} else {
+				return NOT_A_LITERAL;
+			}
+		}
+		if (octets != 4)
+			return NOT_A_LITERAL;
+		return first == 127 || allZero ? LOCAL_LITERAL : REMOTE_LITERAL;
+	}
+}
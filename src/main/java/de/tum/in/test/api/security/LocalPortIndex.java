@@ -0,0 +1,56 @@
+package de.tum.in.test.api.security;
+
+import java.util.BitSet;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import de.tum.in.test.api.AllowLocalPort;
+
+/**
+ * Compiled form of the local port rules of an
+ * {@link ArtemisSecurityConfiguration}, as one bit per port. Ports that are
+ * allowed explicitly, and ports above the threshold that are not excluded, are
+ * set, so a lookup neither boxes the port nor consults any of the sets.
+ * <p>
+ * Instances are immutable.
+ */
+final class LocalPortIndex {
+
+	private static final int MAX_PORT = AllowLocalPort.MAXIMUM;
+
+	private final BitSet allowedPorts;
+
+	private LocalPortIndex(BitSet allowedPorts) {
+		this.allowedPorts = allowedPorts;
+	}
+
+	/**
+	 * Returns whether the port is allowed by the rules, the special ports
+	 * <code>-1</code> and <code>0</code> are not considered here.
+	 *
+	 * @param port the local port
+	 * @return true, if the port is allowed
+	 */
+	boolean isAllowed(int port) {
+		return port >= 0 && port <= MAX_PORT && allowedPorts.get(port);
+	}
+
+	static LocalPortIndex of(Set<Integer> allowedLocalPorts, OptionalInt allowLocalPortsAbove,
+			Set<Integer> excludedLocalPorts) {
+		var allowedPorts = new BitSet();
+		int above = allowLocalPortsAbove.orElse(MAX_PORT);
+		if (above < MAX_PORT) {
+			allowedPorts.set(Math.max(above + 1, 0), MAX_PORT + 1);
+			for (int port : excludedLocalPorts) {
+				if (port >= 0 && port <= MAX_PORT)
+					allowedPorts.clear(port);
+			}
+		}
+		// explicitly allowed ports take precedence over the excluded ones
+		for (int port : allowedLocalPorts) {
+			if (port >= 0 && port <= MAX_PORT)
+				allowedPorts.set(port);
+		}
+		return new LocalPortIndex(allowedPorts);
+	}
+}
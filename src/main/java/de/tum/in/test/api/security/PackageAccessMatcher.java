@@ -0,0 +1,232 @@
+package de.tum.in.test.api.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.tum.in.test.api.util.PackageRule;
+import de.tum.in.test.api.util.RuleType;
+
+/**
+ * Compiled form of the rules deciding whether the access to a package is
+ * forbidden.
+ * <p>
+ * The {@link SecurityConstants#PACKAGE_USE_BLACKLIST} prefixes and the package
+ * blacklist and whitelist are merged into a single automaton that shares common
+ * prefixes of the patterns. The automaton understands the {@link PackageRule}
+ * wildcards: <code>*</code> matches any characters except the dot,
+ * <code>**</code> matches any characters. A package name is traversed only once
+ * for all rules, and the result is memoized per package name.
+ * <p>
+ * Instances are immutable apart from the memoized results and are created once
+ * per {@link ArtemisSecurityConfiguration}.
+ */
+final class PackageAccessMatcher {
+
+	static final int BUILT_IN_FORBIDDEN = 1;
+	static final int BLACKLISTED = 1 << 1;
+	static final int WHITELISTED = 1 << 2;
+
+	private static final String ANY = "**"; //$NON-NLS-1$
+
+	/**
+	 * Matcher without any configuration, only containing the built-in rules.
+	 */
+	static final PackageAccessMatcher STATIC = new PackageAccessMatcher(List.of(), List.of());
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final Node start = newNode(Loop.NONE);
+	private final ConcurrentMap<String, Integer> matchCache = new ConcurrentHashMap<>();
+
+	private PackageAccessMatcher(Collection<PackageRule> blacklistedPackages,
+			Collection<PackageRule> whitelistedPackages) {
+		SecurityConstants.PACKAGE_USE_BLACKLIST.forEach(prefix -> insert(prefix + ANY, BUILT_IN_FORBIDDEN));
+		blacklistedPackages.forEach(rule -> insert(rule.getPackagePattern(), flagOf(rule)));
+		whitelistedPackages.forEach(rule -> insert(rule.getPackagePattern(), flagOf(rule)));
+		nodes.forEach(Node::computeClosure);
+	}
+
+	/**
+	 * Returns whether the access to the package is forbidden, which is the case if
+	 * it is covered by the built-in rules or if it is blacklisted and not
+	 * whitelisted.
+	 *
+	 * @param packageName the name of the package
+	 * @return true, if the access to the package is forbidden
+	 */
+	boolean isForbidden(String packageName) {
+		int match = getMatch(packageName);
+		return (match & BUILT_IN_FORBIDDEN) != 0 || (match & (BLACKLISTED | WHITELISTED)) == BLACKLISTED;
+	}
+
+	/**
+	 * Returns the flags of all patterns that match the package name.
+	 *
+	 * @param packageName the name of the package
+	 * @return a combination of {@link #BUILT_IN_FORBIDDEN}, {@link #BLACKLISTED}
+	 *         and {@link #WHITELISTED}
+	 */
+	int getMatch(String packageName) {
+		Integer match = matchCache.get(packageName);
+		if (match == null) {
+			match = computeMatch(packageName);
+			matchCache.putIfAbsent(packageName, match);
+		}
+		return match;
+	}
+
+	/**
+	 * Runs the automaton without using the memoized results.
+	 */
+	int computeMatch(String packageName) {
+		BitSet current = new BitSet(nodes.size());
+		BitSet next = new BitSet(nodes.size());
+		start.addClosureTo(current);
+		for (int i = 0; i < packageName.length() && !current.isEmpty(); i++) {
+			char c = packageName.charAt(i);
+			for (int id = current.nextSetBit(0); id >= 0; id = current.nextSetBit(id + 1))
+				nodes.get(id).step(c, next);
+			BitSet swap = current;
+			current = next;
+			next = swap;
+			next.clear();
+		}
+		int match = 0;
+		for (int id = current.nextSetBit(0); id >= 0; id = current.nextSetBit(id + 1))
+			match |= nodes.get(id).acceptFlags;
+		return match;
+	}
+
+	private void insert(String pattern, int flag) {
+		Node current = start;
+		int i = 0;
+		while (i < pattern.length()) {
+			if (pattern.startsWith(ANY, i)) {
+				if (current.anyWildcard == null)
+					current.anyWildcard = newNode(Loop.ANY);
+				current = current.anyWildcard;
+				i += ANY.length();
+			} else if (pattern.charAt(i) == '*') {
+				if (current.nonDotWildcard == null)
+					current.nonDotWildcard = newNode(Loop.NON_DOT);
+				current = current.nonDotWildcard;
+				i++;
+			} else {
+				char c = pattern.charAt(i);
+				Node child = current.getChild(c);
+				if (child == null) {
+					child = newNode(Loop.NONE);
+					current.addChild(c, child);
+				}
+				current = child;
+				i++;
+			}
+		}
+		current.acceptFlags |= flag;
+	}
+
+	private Node newNode(Loop loop) {
+		Node node = new Node(nodes.size(), loop);
+		nodes.add(node);
+		return node;
+	}
+
+	private static int flagOf(PackageRule rule) {
+		return rule.getRuleType() == RuleType.BLACKLIST ? BLACKLISTED : WHITELISTED;
+	}
+
+	static PackageAccessMatcher of(Collection<PackageRule> blacklistedPackages,
+			Collection<PackageRule> whitelistedPackages) {
+		return new PackageAccessMatcher(blacklistedPackages, whitelistedPackages);
+	}
+
+	/**
+	 * The characters a node can consume without leaving it, as a result of the
+	 * wildcard that led to the node.
+	 */
+	private enum Loop {
+		NONE,
+		NON_DOT,
+		ANY
+	}
+
+	/**
+	 * A state of the nondeterministic automaton. It has the shape of a trie: each
+	 * node has one successor per literal character and at most one per wildcard
+	 * type. The wildcard successors can be reached without consuming a character.
+	 */
+	private static final class Node {
+		private static final char[] NO_KEYS = {};
+		private static final Node[] NO_CHILDREN = {};
+
+		private final int id;
+		private final Loop loop;
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		private Node nonDotWildcard;
+		private Node anyWildcard;
+		private int acceptFlags;
+		/**
+		 * Ids of all nodes reachable without consuming a character, including this one
+		 */
+		private int[] closure;
+
+		Node(int id, Loop loop) {
+			this.id = id;
+			this.loop = loop;
+		}
+
+		void step(char c, BitSet next) {
+			Node child = getChild(c);
+			if (child != null)
+				child.addClosureTo(next);
+			if (loop == Loop.ANY || (loop == Loop.NON_DOT && c != '.'))
+				addClosureTo(next);
+		}
+
+		void addClosureTo(BitSet states) {
+			for (int reachable : closure)
+				states.set(reachable);
+		}
+
+		void computeClosure() {
+			BitSet reachable = new BitSet();
+			collectClosure(reachable);
+			closure = reachable.stream().toArray();
+		}
+
+		private void collectClosure(BitSet reachable) {
+			if (reachable.get(id))
+				return;
+			reachable.set(id);
+			if (nonDotWildcard != null)
+				nonDotWildcard.collectClosure(reachable);
+			if (anyWildcard != null)
+				anyWildcard.collectClosure(reachable);
+		}
+
+		Node getChild(char c) {
+			int index = Arrays.binarySearch(keys, c);
+			return index < 0 ? null : children[index];
+		}
+
+		void addChild(char c, Node child) {
+			int insertionPoint = -Arrays.binarySearch(keys, c) - 1;
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+			System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+			newKeys[insertionPoint] = c;
+			newChildren[insertionPoint] = child;
+			System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+			System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1,
+					children.length - insertionPoint);
+			keys = newKeys;
+			children = newChildren;
+		}
+	}
+}
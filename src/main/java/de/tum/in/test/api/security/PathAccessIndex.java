@@ -0,0 +1,229 @@
+package de.tum.in.test.api.security;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.PathType;
+import de.tum.in.test.api.util.LruCache;
+import de.tum.in.test.api.util.PathRule;
+import de.tum.in.test.api.util.RuleType;
+
+/**
+ * Compiled form of the path whitelist and blacklist of an
+ * {@link ArtemisSecurityConfiguration}.
+ * <p>
+ * {@link PathType#EXACT} and {@link PathType#STARTS_WITH} rules are stored as
+ * action levels in a trie of path components. All other rules that have a
+ * literal base path (see {@link PathType#getLiteralBase(String)}) are attached
+ * to the trie node of that base, so that they are only tried for paths below
+ * it. The remaining rules are tried for every path. Verdicts are cached per
+ * {@link PathActionLevel} and normalized absolute path.
+ * <p>
+ * Instances are immutable apart from the verdict caches and are created once
+ * per {@link ArtemisSecurityConfiguration}, so the caches are dropped together
+ * with the configuration.
+ */
+final class PathAccessIndex {
+
+	private static final int CACHE_SIZE = 512;
+
+	private final Node root = new Node();
+	private final List<PathRule> unindexedBlacklist = new ArrayList<>();
+	private final List<PathRule> unindexedWhitelist = new ArrayList<>();
+	private final Map<PathActionLevel, LruCache<Path, Verdict>> verdictCaches = new EnumMap<>(PathActionLevel.class);
+
+	private PathAccessIndex(Optional<? extends Collection<PathRule>> whitelistedPaths,
+			Collection<PathRule> blacklistedPaths, Path executionPath) {
+		if (whitelistedPaths.isPresent())
+			whitelistedPaths.get().forEach(this::addRule);
+		else
+			root.getOrCreate(executionPath.toAbsolutePath().normalize()).allowAllBelow();
+		blacklistedPaths.forEach(this::addRule);
+		for (PathActionLevel level : PathActionLevel.values())
+			verdictCaches.put(level, new LruCache<>(CACHE_SIZE));
+	}
+
+	/**
+	 * Returns whether the path is blacklisted and whether it is whitelisted for the
+	 * requested action, equivalent to trying all rules of the configuration.
+	 *
+	 * @param path  the path that is accessed, may be relative
+	 * @param level the requested action level
+	 * @return the verdict for the normalized absolute path
+	 */
+	Verdict getVerdict(Path path, PathActionLevel level) {
+		Path normalizedPath = path.toAbsolutePath().normalize();
+		LruCache<Path, Verdict> cache = verdictCaches.get(level);
+		Verdict verdict;
+		synchronized (cache) {
+			verdict = cache.get(normalizedPath);
+		}
+		if (verdict == null) {
+			verdict = computeVerdict(normalizedPath, level);
+			synchronized (cache) {
+				cache.put(normalizedPath, verdict);
+			}
+		}
+		return verdict;
+	}
+
+	private void addRule(PathRule rule) {
+		boolean isBlacklist = rule.getRuleType() == RuleType.BLACKLIST;
+		Optional<Path> literalBase = rule.getPathType().getLiteralBase(rule.getPathPattern());
+		if (literalBase.isEmpty()) {
+			(isBlacklist ? unindexedBlacklist : unindexedWhitelist).add(rule);
+			return;
+		}
+		Node node = root.getOrCreate(literalBase.get());
+		switch (rule.getPathType()) {
+		case EXACT:
+			node.exactLevels.add(rule);
+			break;
+		case STARTS_WITH:
+			node.prefixLevels.add(rule);
+			break;
+		default:
+			node.addCandidate(rule, isBlacklist);
+			break;
+		}
+	}
+
+	private Verdict computeVerdict(Path path, PathActionLevel level) {
+		boolean blacklisted = false;
+		boolean whitelisted = false;
+		int nameCount = path.getNameCount();
+		Node current = root.getChild(path.getRoot());
+		for (int i = 0; current != null; i++) {
+			boolean complete = i == nameCount;
+			blacklisted = blacklisted || current.blacklists(path, level, complete);
+			whitelisted = whitelisted || current.whitelists(path, level, complete);
+			current = complete ? null : current.getChild(path.getName(i));
+		}
+		blacklisted = blacklisted || anyMatches(unindexedBlacklist, path, level);
+		whitelisted = whitelisted || anyMatches(unindexedWhitelist, path, level);
+		return Verdict.of(blacklisted, whitelisted);
+	}
+
+	private static boolean anyMatches(List<PathRule> rules, Path path, PathActionLevel level) {
+		for (PathRule rule : rules) {
+			if (rule.matchesWithLevel(path, level))
+				return true;
+		}
+		return false;
+	}
+
+	static PathAccessIndex of(Optional<? extends Collection<PathRule>> whitelistedPaths,
+			Collection<PathRule> blacklistedPaths, Path executionPath) {
+		return new PathAccessIndex(whitelistedPaths, blacklistedPaths, executionPath);
+	}
+
+	/**
+	 * The result of the path rule evaluation.
+	 */
+	enum Verdict {
+		NONE(false, false),
+		BLACKLISTED(true, false),
+		WHITELISTED(false, true),
+		BLACKLISTED_AND_WHITELISTED(true, true);
+
+		private final boolean blacklisted;
+		private final boolean whitelisted;
+
+		Verdict(boolean blacklisted, boolean whitelisted) {
+			this.blacklisted = blacklisted;
+			this.whitelisted = whitelisted;
+		}
+
+		boolean isBlacklisted() {
+			return blacklisted;
+		}
+
+		boolean isWhitelisted() {
+			return whitelisted;
+		}
+
+		boolean isAllowed() {
+			return whitelisted && !blacklisted;
+		}
+
+		static Verdict of(boolean blacklisted, boolean whitelisted) {
+			if (blacklisted)
+				return whitelisted ? BLACKLISTED_AND_WHITELISTED : BLACKLISTED;
+			return whitelisted ? WHITELISTED : NONE;
+		}
+	}
+
+	/**
+	 * The most permissive action levels of whitelist and blacklist rules: a
+	 * blacklist rule applies to all levels above or equal to its own, a whitelist
+	 * rule to all levels below or equal.
+	 */
+	private static final class LevelBounds {
+		private int minBlacklisted = Integer.MAX_VALUE;
+		private int maxWhitelisted = -1;
+
+		void add(PathRule rule) {
+			int ordinal = rule.getActionLevel().ordinal();
+			if (rule.getRuleType() == RuleType.BLACKLIST)
+				minBlacklisted = Math.min(minBlacklisted, ordinal);
+			else
+				maxWhitelisted = Math.max(maxWhitelisted, ordinal);
+		}
+
+		boolean blacklists(PathActionLevel level) {
+			return level.ordinal() >= minBlacklisted;
+		}
+
+		boolean whitelists(PathActionLevel level) {
+			return level.ordinal() <= maxWhitelisted;
+		}
+	}
+
+	/**
+	 * A node of the path component trie. The children of the root node are keyed by
+	 * the root components of the paths.
+	 */
+	private static final class Node {
+		private final Map<Path, Node> children = new HashMap<>();
+		private final LevelBounds exactLevels = new LevelBounds();
+		private final LevelBounds prefixLevels = new LevelBounds();
+		private final List<PathRule> blacklistCandidates = new ArrayList<>(0);
+		private final List<PathRule> whitelistCandidates = new ArrayList<>(0);
+
+		Node getOrCreate(Path absolutePath) {
+			Node current = children.computeIfAbsent(absolutePath.getRoot(), key -> new Node());
+			for (Path name : absolutePath)
+				current = current.children.computeIfAbsent(name, key -> new Node());
+			return current;
+		}
+
+		Node getChild(Path name) {
+			return children.get(name);
+		}
+
+		void allowAllBelow() {
+			prefixLevels.maxWhitelisted = PathActionLevel.values().length - 1;
+		}
+
+		void addCandidate(PathRule rule, boolean isBlacklist) {
+			(isBlacklist ? blacklistCandidates : whitelistCandidates).add(rule);
+		}
+
+		boolean blacklists(Path path, PathActionLevel level, boolean complete) {
+			return prefixLevels.blacklists(level) || (complete && exactLevels.blacklists(level))
+					|| anyMatches(blacklistCandidates, path, level);
+		}
+
+		boolean whitelists(Path path, PathActionLevel level, boolean complete) {
+			return prefixLevels.whitelists(level) || (complete && exactLevels.whitelists(level))
+					|| anyMatches(whitelistCandidates, path, level);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package de.tum.in.test.api.security;
+
+import java.lang.instrument.Instrumentation;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+/**
+ * A java agent that enforces the sandbox by rewriting the guarded call sites in
+ * the code under test, as an alternative to installing the
+ * {@link ArtemisSecurityManager} as security manager. The decisions are made by
+ * the {@link ArtemisSecurityManager} in both cases, only the way the checks are
+ * triggered differs.
+ * <p>
+ * The agent is started with
+ * <code>-javaagent:path/to/artemis-java-test-sandbox.jar</code> and requires
+ * ASM 9.7 or later on the class path. Optionally, the packages to rewrite can
+ * be restricted by a comma separated list of package names as agent argument,
+ * like <code>-javaagent:sandbox.jar=de.tum.in.student,com.example</code>.
+ * Otherwise, all classes not loaded from a JAR file or the JDK are rewritten.
+ * As no security manager is installed, the agent also works on JDKs that do not
+ * allow one.
+ * <p>
+ * Other than the security manager, the agent only sees calls made directly by
+ * the code under test. Threads created inside the JDK on behalf of that code,
+ * for example by executors, are not tracked, and native code is not covered.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+public final class SandboxAgent {
+
+	private SandboxAgent() {
+
+	}
+
+	public static void premain(String agentArgs, Instrumentation instrumentation) {
+		SandboxCallSites.enableBackend();
+		instrumentation.addTransformer(new CallSiteTransformer(parsePackagePrefixes(agentArgs)));
+	}
+
+	static List<String> parsePackagePrefixes(String agentArgs) {
+		if (agentArgs == null)
+			return List.of();
+		return Stream.of(agentArgs.split(",")).map(String::strip).filter(s -> !s.isEmpty()) //$NON-NLS-1$
+				.map(s -> s.replace('.', '/') + "/").collect(Collectors.toUnmodifiableList()); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,422 @@
+package de.tum.in.test.api.security;
+
+import static de.tum.in.test.api.localization.Messages.formatLocalized;
+
+import java.io.File;
+import java.io.FilePermission;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ReflectPermission;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipFile;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+import de.tum.in.test.api.security.CallSiteRule.Kind;
+
+/**
+ * The checks that the {@link SandboxAgent} inserts before guarded calls in the
+ * code under test. They translate the arguments of the call into the checks of
+ * the {@link ArtemisSecurityManager}, which then decides exactly as if it was
+ * installed as security manager.
+ * <p>
+ * The checks do nothing until the first sandbox was installed with the agent
+ * backend enabled. This class must be public, as the rewritten classes are in
+ * arbitrary packages, but it is not meant to be used directly.
+ */
+@API(status = Status.INTERNAL)
+public final class SandboxCallSites {
+
+	private static volatile boolean backendEnabled;
+	private static volatile boolean active;
+
+	private SandboxCallSites() {
+
+	}
+
+	public static void checkFileRead(Object file) {
+		if (active)
+			checkFile(file, "read"); //$NON-NLS-1$
+	}
+
+	public static void checkFileWrite(Object file) {
+		if (active)
+			checkFile(file, "write"); //$NON-NLS-1$
+	}
+
+	public static void checkFileDelete(Object file) {
+		if (active)
+			checkFile(file, "delete"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param file the file or path
+	 * @param mode the mode string of a {@link java.io.RandomAccessFile}, open
+	 *             options as set or array, or the mode of a {@link ZipFile}
+	 */
+	public static void checkFileOpen(Object file, Object mode) {
+		if (!active)
+			return;
+		Collection<?> options;
+		if (mode instanceof String)
+			options = ((String) mode).contains("w") ? List.of(StandardOpenOption.WRITE) : List.of(); //$NON-NLS-1$
+		else if (mode instanceof Object[])
+			options = Arrays.asList((Object[]) mode);
+		else if (mode instanceof Collection)
+			options = (Collection<?>) mode;
+		else if (mode instanceof Integer)
+			options = ((Integer) mode & ZipFile.OPEN_DELETE) != 0 ? List.of(StandardOpenOption.DELETE_ON_CLOSE)
+					: List.of();
+		else
+			options = List.of();
+		if (options.contains(StandardOpenOption.DELETE_ON_CLOSE))
+			checkFile(file, "delete"); //$NON-NLS-1$
+		if (options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND)
+				|| options.contains(StandardOpenOption.CREATE) || options.contains(StandardOpenOption.CREATE_NEW))
+			checkFile(file, "write"); //$NON-NLS-1$
+		else
+			checkFile(file, "read"); //$NON-NLS-1$
+	}
+
+	public static void checkTempFile() {
+		if (active)
+			checkFile(System.getProperty("java.io.tmpdir"), "write"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public static void checkExec(Object command) {
+		if (active)
+			manager().checkExec(String.valueOf(command));
+	}
+
+	public static void checkExit(int status) {
+		if (active)
+			manager().checkExit(status);
+	}
+
+	public static void checkShutdownHook() {
+		if (active)
+			manager().checkPermission(new RuntimePermission("shutdownHooks")); //$NON-NLS-1$
+	}
+
+	public static void checkSetIO() {
+		if (active)
+			manager().checkPermission(new RuntimePermission("setIO")); //$NON-NLS-1$
+	}
+
+	public static void checkSetSecurityManager() {
+		if (active)
+			manager().checkPermission(new RuntimePermission("setSecurityManager")); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param host a host name or an {@link InetAddress}
+	 * @param port the port
+	 */
+	public static void checkConnect(Object host, int port) {
+		if (!active)
+			return;
+		if (host instanceof InetAddress)
+			manager().checkConnect(((InetAddress) host).getHostAddress(), port);
+		else
+			manager().checkConnect(String.valueOf(host), port);
+	}
+
+	/**
+	 * @param address a socket address, URL, URI or HTTP request
+	 */
+	public static void checkConnect(Object address) {
+		if (!active)
+			return;
+		if (address instanceof InetSocketAddress) {
+			var socketAddress = (InetSocketAddress) address;
+			manager().checkConnect(socketAddress.getHostString(), socketAddress.getPort());
+		} else if (address instanceof URL) {
+			var url = (URL) address;
+			if ("file".equals(url.getProtocol())) //$NON-NLS-1$
+				checkFile(url.getPath(), "read"); //$NON-NLS-1$
+			else
+				manager().checkConnect(url.getHost(), url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+		} else if (address instanceof URI) {
+			var uri = (URI) address;
+			if ("file".equals(uri.getScheme())) //$NON-NLS-1$
+				checkFile(Path.of(uri), "read"); //$NON-NLS-1$
+			else
+				manager().checkConnect(uri.getHost(), uri.getPort());
+		} else if (address instanceof HttpRequest) {
+			checkConnect(((HttpRequest) address).uri());
+		}
+	}
+
+	public static void checkListen(int port) {
+		if (active)
+			manager().checkListen(port);
+	}
+
+	/**
+	 * @param address the local socket address, null for an ephemeral port
+	 */
+	public static void checkBind(Object address) {
+		if (!active)
+			return;
+		if (address instanceof InetSocketAddress)
+			manager().checkListen(((InetSocketAddress) address).getPort());
+		else if (address == null)
+			manager().checkListen(0);
+	}
+
+	public static void checkThreadStart(Object thread) {
+		if (active && thread instanceof Thread)
+			manager().checkThreadStart((Thread) thread);
+	}
+
+	public static void checkSuppressAccessChecks() {
+		if (active)
+			manager().checkPermission(new ReflectPermission("suppressAccessChecks")); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param className the binary name of a class
+	 */
+	public static void checkClassName(Object className) {
+		if (!active || !(className instanceof String))
+			return;
+		String name = (String) className;
+		int packageEnd = name.lastIndexOf('.');
+		if (packageEnd < 0)
+			return;
+		int start = name.lastIndexOf('[') + 1;
+		if (start > 0 && name.charAt(start) == 'L')
+			start++;
+		if (start < packageEnd)
+			manager().checkPackageAccess(name.substring(start, packageEnd));
+	}
+
+	/**
+	 * Applies the checks of the invoked method, as reflection would bypass the
+	 * rewritten call sites otherwise.
+	 */
+	public static void checkInvoke(Object method, Object target, Object arguments) {
+		if (!active || !(method instanceof Method))
+			return;
+		var m = (Method) method;
+		Kind kind = Modifier.isStatic(m.getModifiers()) ? Kind.STATIC : Kind.INSTANCE;
+		for (CallSiteRule rule : rulesOf(kind, m, m.getName(),
+				MethodType.methodType(m.getReturnType(), m.getParameterTypes())))
+			apply(rule, target, arguments);
+	}
+
+	public static void checkNewInstance(Object constructor, Object arguments) {
+		if (!active || !(constructor instanceof Constructor))
+			return;
+		var c = (Constructor<?>) constructor;
+		for (CallSiteRule rule : rulesOf(Kind.CONSTRUCTOR, c, "<init>", //$NON-NLS-1$
+				MethodType.methodType(void.class, c.getParameterTypes())))
+			apply(rule, null, arguments);
+	}
+
+	/**
+	 * Method handles of guarded members can be invoked without any further check,
+	 * so they are only available to whitelisted callers. The members are inherited,
+	 * so the supertypes of the owner are checked as well.
+	 */
+	public static void checkFindMethod(Object owner, Object name, Object type) {
+		if (!active || !(owner instanceof Class) || !(name instanceof String) || !(type instanceof MethodType))
+			return;
+		String descriptor = ((MethodType) type).toMethodDescriptorString();
+		for (Class<?> candidate : withSupertypes((Class<?>) owner)) {
+			String internalName = internalNameOf(candidate);
+			if (!CallSiteRule.find(Kind.STATIC, internalName, (String) name, descriptor).isEmpty()
+					|| !CallSiteRule.find(Kind.INSTANCE, internalName, (String) name, descriptor).isEmpty()) {
+				denyGuardedMember(((Class<?>) owner).getName() + "." + name); //$NON-NLS-1$
+				return;
+			}
+		}
+	}
+
+	public static void checkFindConstructor(Object owner, Object type) {
+		if (!active || !(owner instanceof Class) || !(type instanceof MethodType))
+			return;
+		if (!CallSiteRule.find(Kind.CONSTRUCTOR, internalNameOf((Class<?>) owner), "<init>", //$NON-NLS-1$
+				((MethodType) type).toMethodDescriptorString()).isEmpty())
+			denyGuardedMember(((Class<?>) owner).getName());
+	}
+
+	public static void checkUnreflect(Object member) {
+		if (!active || !(member instanceof Executable))
+			return;
+		var executable = (Executable) member;
+		List<CallSiteRule> rules;
+		if (executable instanceof Method) {
+			var m = (Method) executable;
+			Kind kind = Modifier.isStatic(m.getModifiers()) ? Kind.STATIC : Kind.INSTANCE;
+			rules = rulesOf(kind, m, m.getName(), MethodType.methodType(m.getReturnType(), m.getParameterTypes()));
+		} else {
+			rules = rulesOf(Kind.CONSTRUCTOR, executable, "<init>", //$NON-NLS-1$
+					MethodType.methodType(void.class, executable.getParameterTypes()));
+		}
+		if (!rules.isEmpty())
+			denyGuardedMember(executable.toString());
+	}
+
+	static boolean isBackendEnabled() {
+		return backendEnabled;
+	}
+
+	static void enableBackend() {
+		backendEnabled = true;
+	}
+
+	static boolean isActive() {
+		return active;
+	}
+
+	static void setActive(boolean active) {
+		SandboxCallSites.active = active;
+	}
+
+	private static ArtemisSecurityManager manager() {
+		return ArtemisSecurityManager.getInstance();
+	}
+
+	private static void checkFile(Object file, String actions) {
+		String path;
+		if (file instanceof File)
+			path = ((File) file).getPath();
+		else if (file == null)
+			return;
+		else
+			path = file.toString();
+		manager().checkPermission(new FilePermission(path, actions));
+	}
+
+	private static void denyGuardedMember(String member) {
+		ArtemisSecurityManager.checkCurrentStack(() -> formatLocalized("security.error_guarded_member", member)); //$NON-NLS-1$
+	}
+
+	private static List<CallSiteRule> rulesOf(Kind kind, Executable executable, String name, MethodType type) {
+		return CallSiteRule.find(kind, internalNameOf(executable.getDeclaringClass()), name,
+				type.toMethodDescriptorString());
+	}
+
+	private static String internalNameOf(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	private static Set<Class<?>> withSupertypes(Class<?> type) {
+		Set<Class<?>> types = new LinkedHashSet<>();
+		var queue = new ArrayDeque<Class<?>>();
+		queue.add(type);
+		while (!queue.isEmpty()) {
+			Class<?> next = queue.remove();
+			if (!types.add(next))
+				continue;
+			if (next.getSuperclass() != null)
+				queue.add(next.getSuperclass());
+			queue.addAll(List.of(next.getInterfaces()));
+		}
+		return types;
+	}
+
+	private static void apply(CallSiteRule rule, Object receiver, Object arguments) {
+		Object[] args = arguments instanceof Object[] ? (Object[]) arguments : new Object[0];
+		int[] indices = rule.getArguments();
+		Object[] values = new Object[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			int index = indices[i];
+			if (index == CallSiteRule.RECEIVER)
+				values[i] = receiver;
+			else if (index < args.length)
+				values[i] = args[index];
+		}
+		apply(rule.getCheck(), values);
+	}
+
+	private static void apply(CallSiteCheck check, Object[] values) {
+		switch (check) {
+		case FILE_READ:
+			checkFileRead(values[0]);
+			break;
+		case FILE_WRITE:
+			checkFileWrite(values[0]);
+			break;
+		case FILE_DELETE:
+			checkFileDelete(values[0]);
+			break;
+		case FILE_OPEN:
+			checkFileOpen(values[0], values[1]);
+			break;
+		case TEMP_FILE:
+			checkTempFile();
+			break;
+		case EXEC:
+			checkExec(values[0]);
+			break;
+		case EXIT:
+			checkExit(values[0] instanceof Integer ? (Integer) values[0] : 0);
+			break;
+		case SHUTDOWN_HOOK:
+			checkShutdownHook();
+			break;
+		case SET_IO:
+			checkSetIO();
+			break;
+		case SET_SECURITY_MANAGER:
+			checkSetSecurityManager();
+			break;
+		case CONNECT_HOST:
+			checkConnect(values[0], values[1] instanceof Integer ? (Integer) values[1] : -1);
+			break;
+		case CONNECT_ADDRESS:
+			checkConnect(values[0]);
+			break;
+		case LISTEN:
+			checkListen(values[0] instanceof Integer ? (Integer) values[0] : 0);
+			break;
+		case BIND:
+			checkBind(values[0]);
+			break;
+		case THREAD_START:
+			checkThreadStart(values[0]);
+			break;
+		case SUPPRESS_ACCESS_CHECKS:
+			checkSuppressAccessChecks();
+			break;
+		case CLASS_NAME:
+			checkClassName(values[0]);
+			break;
+		case INVOKE:
+			checkInvoke(values[0], values[1], values[2]);
+			break;
+		case NEW_INSTANCE:
+			checkNewInstance(values[0], values[1]);
+			break;
+		case FIND_METHOD:
+			checkFindMethod(values[0], values[1], values[2]);
+			break;
+		case FIND_CONSTRUCTOR:
+			checkFindConstructor(values[0], values[1]);
+			break;
+		case UNREFLECT:
+			checkUnreflect(values[0]);
+			break;
+		default:
+			throw new IllegalArgumentException(check.toString());
+		}
+	}
+}
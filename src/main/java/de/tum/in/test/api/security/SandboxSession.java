@@ -0,0 +1,197 @@
+package de.tum.in.test.api.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * The state of one sandbox, from an
+ * {@link ArtemisSecurityManager#install(ArtemisSecurityConfiguration) install}
+ * to the corresponding {@link ArtemisSecurityManager#uninstall(String)
+ * uninstall}. Several sessions can be active at the same time, for tests that
+ * are executed in parallel.
+ * <p>
+ * A session belongs to the thread that installed it, its owner, and to all
+ * threads in its own thread group. The threads created by the owner or by the
+ * threads of the session are placed in that thread group. With the
+ * {@link SandboxAgent} there is no security manager that could place them
+ * there, so the threads started by the session are adopted instead.
+ */
+final class SandboxSession {
+
+	private final String accessTokenHash;
+	private final Thread owner;
+	private final ThreadGroup threadGroup;
+	private final Set<Thread> whitelistedThreads = ConcurrentHashMap.newKeySet();
+	private final Set<Thread> adoptedThreads = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+	private final long heapUsedAtInstall;
+	private final LocalHostResolver localHostResolver = new LocalHostResolver();
+	private final LiveThreadCounter liveThreads = new LiveThreadCounter();
+
+	private volatile ArtemisSecurityConfiguration configuration;
+	private volatile SecurityMetricsRecorder metricsRecorder = new SecurityMetricsRecorder();
+	private volatile boolean blockThreadCreation;
+	private volatile boolean threadsCreated;
+	private volatile boolean uninstallFailed;
+	private SecurityMetrics metrics;
+
+	SandboxSession(String accessTokenHash, Thread owner, ThreadGroup threadGroup,
+			ArtemisSecurityConfiguration configuration, long heapUsedAtInstall) {
+		this.accessTokenHash = Objects.requireNonNull(accessTokenHash);
+		this.owner = Objects.requireNonNull(owner);
+		this.threadGroup = Objects.requireNonNull(threadGroup);
+		this.configuration = Objects.requireNonNull(configuration);
+		this.heapUsedAtInstall = heapUsedAtInstall;
+	}
+
+	Thread getOwner() {
+		return owner;
+	}
+
+	/**
+	 * @return true, if the thread is the owner, in the thread group or adopted by
+	 *         this session
+	 */
+	boolean contains(Thread thread) {
+		return owner == thread || isSandboxed(thread);
+	}
+
+	/**
+	 * @return true, if the thread is in the thread group or adopted by this
+	 *         session, which excludes the owner
+	 */
+	boolean isSandboxed(Thread thread) {
+		return threadGroup.parentOf(thread.getThreadGroup()) || adoptedThreads.contains(thread);
+	}
+
+	void adoptThread(Thread thread) {
+		adoptedThreads.add(thread);
+	}
+
+	/**
+	 * @return the threads created in this session, for the limit of the thread
+	 *         count
+	 */
+	LiveThreadCounter getLiveThreads() {
+		return liveThreads;
+	}
+
+	/**
+	 * @return the live threads in the thread group and the live adopted threads
+	 */
+	Thread[] getActiveThreads() {
+		Thread[] grouped = new Thread[threadGroup.activeCount()];
+		grouped = Arrays.copyOf(grouped, threadGroup.enumerate(grouped));
+		List<Thread> active = new ArrayList<>(List.of(grouped));
+		synchronized (adoptedThreads) {
+			for (Thread thread : adoptedThreads) {
+				if (thread.isAlive() && !active.contains(thread))
+					active.add(thread);
+			}
+		}
+		return active.toArray(Thread[]::new);
+	}
+
+	/**
+	 * @return an estimate of the number of live threads, like
+	 *         {@link ThreadGroup#activeCount()}
+	 */
+	int activeThreadCount() {
+		int count = threadGroup.activeCount();
+		if (adoptedThreads.isEmpty())
+			return count;
+		synchronized (adoptedThreads) {
+			for (Thread thread : adoptedThreads) {
+				if (thread.isAlive())
+					count++;
+			}
+		}
+		return count;
+	}
+
+	String getAccessTokenHash() {
+		return accessTokenHash;
+	}
+
+	ThreadGroup getThreadGroup() {
+		return threadGroup;
+	}
+
+	Set<Thread> getWhitelistedThreads() {
+		return whitelistedThreads;
+	}
+
+	long getHeapUsedAtInstall() {
+		return heapUsedAtInstall;
+	}
+
+	LocalHostResolver getLocalHostResolver() {
+		return localHostResolver;
+	}
+
+	ArtemisSecurityConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	void setConfiguration(ArtemisSecurityConfiguration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * @return the recorder, or null if the recording was stopped
+	 */
+	SecurityMetricsRecorder getMetricsRecorder() {
+		return metricsRecorder;
+	}
+
+	boolean isThreadCreationBlocked() {
+		return blockThreadCreation;
+	}
+
+	void blockThreadCreation() {
+		blockThreadCreation = true;
+	}
+
+	boolean haveThreadsBeenCreated() {
+		return threadsCreated;
+	}
+
+	void markThreadsCreated() {
+		threadsCreated = true;
+	}
+
+	boolean hasUninstallFailed() {
+		return uninstallFailed;
+	}
+
+	void markUninstallFailed() {
+		uninstallFailed = true;
+	}
+
+	synchronized void stopMetricsRecording() {
+		var recorder = metricsRecorder;
+		metricsRecorder = null;
+		metrics = recorder == null ? null : recorder.snapshot();
+	}
+
+	synchronized SecurityMetrics getMetrics() {
+		return metrics;
+	}
+
+	synchronized void updateMetrics(UnaryOperator<SecurityMetrics> update) {
+		if (metrics != null)
+			metrics = update.apply(metrics);
+	}
+
+	@Override
+	public String toString() {
+		return "SandboxSession[" + threadGroup.getName() + ", owner=" + owner + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -0,0 +1,437 @@
+package de.tum.in.test.api.security;
+
+import java.lang.StackWalker.StackFrame;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.event.Level;
+
+/**
+ * Records decisions and violations of the {@link ArtemisSecurityManager} in a
+ * bounded ring buffer, so that the security checks do not need to format and
+ * log messages themselves.
+ * <p>
+ * Recording is lock-free and only writes one slot of the buffer, the slots are
+ * claimed with a compare-and-set on the tail sequence and published with the
+ * sequence number of the slot. If the buffer is full, the record is dropped and
+ * counted instead of blocking the check. A single consumer, usually a daemon
+ * thread, drains the buffer and passes the records to a sink.
+ * <p>
+ * Repeated identical records, same kind, target, detail and frame, are sampled
+ * by the consumer: the first one is always passed on, after that only every
+ * n-th one, with the number of suppressed records in between. A
+ * {@link #flush(Duration) flush} ends the sampling: the last suppressed record
+ * of each kind is passed on with the number of records suppressed before it,
+ * and the next record of that kind is passed on again, so that records of one
+ * test do not suppress those of the next one.
+ */
+final class SecurityAuditLog {
+
+	static final int DEFAULT_CAPACITY = 1024;
+	static final int DEFAULT_SAMPLE_RATE = 10;
+
+	private static final long IDLE_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long FLUSH_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final int MAX_SAMPLED_KEYS = 4096;
+
+	enum Kind {
+		PACKAGE_DEFINITION(Level.INFO),
+		BAD_PATH_ACCESS(Level.WARN),
+		BAD_PACKAGE_ACCESS(Level.WARN),
+		NON_WHITELISTED_FRAME(Level.WARN),
+		CONNECTION_REQUEST(Level.INFO);
+
+		private final Level level;
+
+		Kind(Level level) {
+			this.level = level;
+		}
+
+		Level getLevel() {
+			return level;
+		}
+	}
+
+	/**
+	 * A drained record, immutable.
+	 */
+	static final class AuditRecord {
+
+		private final Kind kind;
+		private final String target;
+		private final Object detail;
+		private final StackFrame frame;
+		private final String threadName;
+		private final Instant timestamp;
+		private final long suppressed;
+
+		AuditRecord(Kind kind, String target, Object detail, StackFrame frame, String threadName, Instant timestamp,
+				long suppressed) {
+			this.kind = kind;
+			this.target = target;
+			this.detail = detail;
+			this.frame = frame;
+			this.threadName = threadName;
+			this.timestamp = timestamp;
+			this.suppressed = suppressed;
+		}
+
+		Kind getKind() {
+			return kind;
+		}
+
+		String getTarget() {
+			return target;
+		}
+
+		Object getDetail() {
+			return detail;
+		}
+
+		StackFrame getFrame() {
+			return frame;
+		}
+
+		String getThreadName() {
+			return threadName;
+		}
+
+		Instant getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return the number of identical records that were not passed on since the
+		 *         last one that was
+		 */
+		long getSuppressed() {
+			return suppressed;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder message = new StringBuilder();
+			switch (kind) {
+			case PACKAGE_DEFINITION:
+				message.append("PKG-DEF: ").append(target); //$NON-NLS-1$
+				break;
+			case BAD_PATH_ACCESS:
+				message.append("BAD PATH ACCESS: ").append(target).append(' ').append(detail); //$NON-NLS-1$
+				break;
+			case BAD_PACKAGE_ACCESS:
+				message.append("BAD PACKAGE ACCESS: ").append(target).append(' ').append(detail); //$NON-NLS-1$
+				break;
+			case NON_WHITELISTED_FRAME:
+				message.append("NWSF ==> ").append(frame); //$NON-NLS-1$
+				break;
+			case CONNECTION_REQUEST:
+				message.append("Connection use request: ").append(target).append(':').append(detail) //$NON-NLS-1$
+						.append(" [NWSF: ").append(frame).append(']'); //$NON-NLS-1$
+				break;
+			default:
+				throw new IllegalStateException(kind.name());
+			}
+			message.append(" [").append(threadName).append(", ").append(timestamp).append(']'); //$NON-NLS-1$ //$NON-NLS-2$
+			if (suppressed > 0)
+				message.append(" (").append(suppressed).append(" similar suppressed)"); //$NON-NLS-1$ //$NON-NLS-2$
+			return message.toString();
+		}
+	}
+
+	private final int mask;
+	private final int sampleRate;
+	private final Consumer<AuditRecord> sink;
+	private final AtomicLongArray sequences;
+	private final Kind[] kinds;
+	private final String[] targets;
+	private final Object[] details;
+	private final StackFrame[] frames;
+	private final String[] threadNames;
+	private final long[] timestamps;
+	private final AtomicLong tail = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	/*
+	 * only accessed by the consumer
+	 */
+	private final Map<SampleKey, SampleState> samples = new HashMap<>();
+	private long reportedDropped;
+	private volatile long head;
+	private volatile Thread consumer;
+	private final AtomicLong samplingEndRequests = new AtomicLong();
+	/**
+	 * Only written by the consumer
+	 */
+	private volatile long samplingEnds;
+
+	/**
+	 * @param capacity   the number of slots, must be a power of two
+	 * @param sampleRate pass on every n-th of repeated identical records, 1 passes
+	 *                   on all records
+	 * @param sink       receives the drained records in the consumer thread
+	 */
+	SecurityAuditLog(int capacity, int sampleRate, Consumer<AuditRecord> sink) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("capacity must be a power of two: " + capacity); //$NON-NLS-1$
+		if (sampleRate < 1)
+			throw new IllegalArgumentException("sample rate must be positive: " + sampleRate); //$NON-NLS-1$
+		this.mask = capacity - 1;
+		this.sampleRate = sampleRate;
+		this.sink = Objects.requireNonNull(sink);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++)
+			sequences.set(i, i);
+		this.kinds = new Kind[capacity];
+		this.targets = new String[capacity];
+		this.details = new Object[capacity];
+		this.frames = new StackFrame[capacity];
+		this.threadNames = new String[capacity];
+		this.timestamps = new long[capacity];
+	}
+
+	/**
+	 * Records an event, never blocks.
+	 *
+	 * @param detail an immutable value like a String or an Integer, or null
+	 * @param frame  the first frame that is not whitelisted, or null
+	 * @return false if the buffer was full and the record was dropped
+	 */
+	boolean record(Kind kind, String target, Object detail, StackFrame frame) {
+		long position = tail.get();
+		int index;
+		while (true) {
+			index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1))
+					break;
+				position = tail.get();
+			} else if (difference < 0) {
+				dropped.increment();
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+		kinds[index] = kind;
+		targets[index] = target;
+		details[index] = detail;
+		frames[index] = frame;
+		threadNames[index] = Thread.currentThread().getName();
+		timestamps[index] = System.currentTimeMillis();
+		sequences.set(index, position + 1);
+		return true;
+	}
+
+	/**
+	 * Passes all published records to the sink, must only be called by one consumer
+	 * at a time.
+	 *
+	 * @return the number of records taken from the buffer
+	 */
+	int drain() {
+		int count = 0;
+		long position = head;
+		while (true) {
+			int index = (int) position & mask;
+			if (sequences.get(index) != position + 1)
+				break;
+			var key = new SampleKey(kinds[index], targets[index], details[index], frames[index]);
+			String threadName = threadNames[index];
+			long timestamp = timestamps[index];
+			targets[index] = null;
+			details[index] = null;
+			frames[index] = null;
+			threadNames[index] = null;
+			sequences.set(index, position + mask + 1);
+			head = ++position;
+			count++;
+			long suppressed = sample(key, threadName, timestamp);
+			if (suppressed >= 0)
+				sink.accept(new AuditRecord(key.kind, key.target, key.detail, key.frame, threadName,
+						Instant.ofEpochMilli(timestamp), suppressed));
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of suppressed records to report, or -1 if the record is
+	 *         suppressed itself
+	 */
+	private long sample(SampleKey key, String threadName, long timestamp) {
+		if (sampleRate == 1)
+			return 0;
+		if (samples.size() >= MAX_SAMPLED_KEYS && !samples.containsKey(key))
+			endSampling();
+		SampleState state = samples.computeIfAbsent(key, k -> new SampleState());
+		long occurrence = state.occurrences++;
+		if (occurrence == 0)
+			return 0;
+		if (occurrence % sampleRate != 0) {
+			state.suppressed++;
+			state.lastThreadName = threadName;
+			state.lastTimestamp = timestamp;
+			return -1;
+		}
+		long suppressed = state.suppressed;
+		state.suppressed = 0;
+		return suppressed;
+	}
+
+	/**
+	 * Passes on the last suppressed record of each kind and forgets all sampled
+	 * records, must only be called by the consumer.
+	 */
+	private void endSampling() {
+		samples.forEach((key, state) -> {
+			if (state.suppressed > 0)
+				sink.accept(new AuditRecord(key.kind, key.target, key.detail, key.frame, state.lastThreadName,
+						Instant.ofEpochMilli(state.lastTimestamp), state.suppressed - 1));
+		});
+		samples.clear();
+	}
+
+	/**
+	 * Ends the sampling if it was requested, must only be called by the consumer.
+	 */
+	private void endSamplingIfRequested() {
+		long requests = samplingEndRequests.get();
+		if (requests == samplingEnds)
+			return;
+		drain();
+		endSampling();
+		samplingEnds = requests;
+	}
+
+	/**
+	 * @return the number of records dropped so far, because the buffer was full
+	 */
+	long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return the number of records dropped since the last call
+	 */
+	long takeNewlyDropped() {
+		long total = getDropped();
+		long newlyDropped = total - reportedDropped;
+		reportedDropped = total;
+		return newlyDropped;
+	}
+
+	/**
+	 * Starts a daemon thread that drains the buffer, in the thread group of the
+	 * calling thread.
+	 *
+	 * @param onDropped called by the consumer with the number of newly dropped
+	 *                  records
+	 */
+	synchronized void start(String threadName, Consumer<Long> onDropped) {
+		if (consumer != null)
+			throw new IllegalStateException("already started"); //$NON-NLS-1$
+		Thread thread = new Thread(() -> {
+			while (true) {
+				if (drain() == 0)
+					LockSupport.parkNanos(this, IDLE_PAUSE_NANOS);
+				endSamplingIfRequested();
+				long newlyDropped = takeNewlyDropped();
+				if (newlyDropped > 0)
+					onDropped.accept(newlyDropped);
+			}
+		}, threadName);
+		thread.setDaemon(true);
+		thread.start();
+		consumer = thread;
+	}
+
+	/**
+	 * Waits until all records recorded before the call are drained and the sampling
+	 * is ended, or until the timeout is over. Drains in the calling thread if no
+	 * consumer was started.
+	 *
+	 * @return true if all records were drained
+	 */
+	boolean flush(Duration timeout) {
+		long target = tail.get();
+		var thread = consumer;
+		if (thread == null) {
+			synchronized (this) {
+				drain();
+				endSampling();
+			}
+			return head >= target;
+		}
+		if (thread == Thread.currentThread())
+			return false;
+		long deadline = System.nanoTime() + timeout.toNanos();
+		LockSupport.unpark(thread);
+		while (head < target) {
+			if (System.nanoTime() - deadline >= 0)
+				return false;
+			LockSupport.parkNanos(this, FLUSH_PAUSE_NANOS);
+		}
+		long request = samplingEndRequests.incrementAndGet();
+		LockSupport.unpark(thread);
+		while (samplingEnds < request) {
+			if (System.nanoTime() - deadline >= 0)
+				return false;
+			LockSupport.parkNanos(this, FLUSH_PAUSE_NANOS);
+		}
+		return true;
+	}
+
+	/**
+	 * Only accessed by the consumer
+	 */
+	private static final class SampleState {
+
+		long occurrences;
+		long suppressed;
+		String lastThreadName;
+		long lastTimestamp;
+	}
+
+	private static final class SampleKey {
+
+		private final Kind kind;
+		private final String target;
+		private final Object detail;
+		private final StackFrame frame;
+		private final String frameKey;
+
+		SampleKey(Kind kind, String target, Object detail, StackFrame frame) {
+			this.kind = kind;
+			this.target = target;
+			this.detail = detail;
+			this.frame = frame;
+			// StackFrame does not implement equals
+			this.frameKey = frame == null ? null
+					: frame.getClassName() + '.' + frame.getMethodName() + ':' + frame.getLineNumber();
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(kind, target, detail, frameKey);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof SampleKey))
+				return false;
+			SampleKey other = (SampleKey) obj;
+			return kind == other.kind && Objects.equals(target, other.target) && Objects.equals(detail, other.detail)
+					&& Objects.equals(frameKey, other.frameKey);
+		}
+	}
+}
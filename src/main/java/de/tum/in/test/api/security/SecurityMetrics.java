@@ -0,0 +1,482 @@
+package de.tum.in.test.api.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+/**
+ * Immutable snapshot of the number and duration of the checks the
+ * {@link ArtemisSecurityManager} performed between
+ * {@link ArtemisSecurityManager#install(ArtemisSecurityConfiguration) install}
+ * and {@link ArtemisSecurityManager#uninstall(String) uninstall}, per
+ * {@link Hook} and {@link Verdict}.
+ * <p>
+ * Durations are recorded in a histogram with power of two buckets: bucket
+ * <code>i</code> counts the checks that took less than <code>2^(i+1)</code>
+ * nanoseconds (and at least <code>2^i</code>, apart from the first bucket). The
+ * last bucket contains all longer checks.
+ * <p>
+ * The cleanup at uninstall is not part of the statistics, but the
+ * {@link Teardown} that was performed, the {@link ThreadTermination}s of the
+ * threads left by the test and the {@link CommonPoolDrain} are recorded
+ * separately.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.EXPERIMENTAL)
+public final class SecurityMetrics {
+
+	/**
+	 * Number of buckets of the latency histograms.
+	 */
+	public static final int HISTOGRAM_BUCKETS = 32;
+
+	private final Map<Hook, Map<Verdict, HookStatistics>> statistics;
+	private final Optional<Teardown> teardown;
+	private final List<ThreadTermination> threadTerminations;
+	private final Optional<CommonPoolDrain> commonPoolDrain;
+
+	SecurityMetrics(Map<Hook, Map<Verdict, HookStatistics>> statistics) {
+		var copy = new EnumMap<Hook, Map<Verdict, HookStatistics>>(Hook.class);
+		for (Hook hook : Hook.values()) {
+			var byVerdict = new EnumMap<Verdict, HookStatistics>(Verdict.class);
+			for (Verdict verdict : Verdict.values())
+				byVerdict.put(verdict,
+						statistics.getOrDefault(hook, Map.of()).getOrDefault(verdict, HookStatistics.EMPTY));
+			copy.put(hook, Collections.unmodifiableMap(byVerdict));
+		}
+		this.statistics = Collections.unmodifiableMap(copy);
+		this.teardown = Optional.empty();
+		this.threadTerminations = List.of();
+		this.commonPoolDrain = Optional.empty();
+	}
+
+	private SecurityMetrics(SecurityMetrics metrics, Optional<Teardown> teardown,
+			List<ThreadTermination> threadTerminations, Optional<CommonPoolDrain> commonPoolDrain) {
+		this.statistics = metrics.statistics;
+		this.teardown = teardown;
+		this.threadTerminations = List.copyOf(threadTerminations);
+		this.commonPoolDrain = commonPoolDrain;
+	}
+
+	SecurityMetrics withTeardown(Teardown teardown) {
+		return new SecurityMetrics(this, Optional.of(teardown), threadTerminations, commonPoolDrain);
+	}
+
+	SecurityMetrics withThreadTerminations(List<ThreadTermination> threadTerminations) {
+		return new SecurityMetrics(this, teardown, threadTerminations, commonPoolDrain);
+	}
+
+	SecurityMetrics withCommonPoolDrain(CommonPoolDrain commonPoolDrain) {
+		return new SecurityMetrics(this, teardown, threadTerminations, Optional.of(commonPoolDrain));
+	}
+
+	public HookStatistics get(Hook hook, Verdict verdict) {
+		return statistics.get(Objects.requireNonNull(hook)).get(Objects.requireNonNull(verdict));
+	}
+
+	public Map<Hook, Map<Verdict, HookStatistics>> getAll() {
+		return statistics;
+	}
+
+	/**
+	 * @return the cleanup performed by the uninstall, or an empty Optional if the
+	 *         security manager was not uninstalled successfully
+	 */
+	public Optional<Teardown> getTeardown() {
+		return teardown;
+	}
+
+	/**
+	 * @return how the threads that were still active after the test terminated, in
+	 *         no particular order; empty if there were none
+	 */
+	public List<ThreadTermination> getThreadTerminations() {
+		return threadTerminations;
+	}
+
+	/**
+	 * @return the wait for the common pool at uninstall, or an empty Optional if
+	 *         the pool was not checked because other tests were running or it was
+	 *         already quiescent
+	 */
+	public Optional<CommonPoolDrain> getCommonPoolDrain() {
+		return commonPoolDrain;
+	}
+
+	/**
+	 * Returns the time spent in the outermost hooks, which does not count the path
+	 * checks separately, as they are part of {@link Hook#CHECK_PERMISSION}.
+	 *
+	 * @return the total time spent in the security checks
+	 */
+	public Duration getTotalTime() {
+		long totalNanos = 0;
+		for (Hook hook : Hook.values()) {
+			if (hook.isNested())
+				continue;
+			for (HookStatistics hookStatistics : statistics.get(hook).values())
+				totalNanos += hookStatistics.getTotalNanos();
+		}
+		return Duration.ofNanos(totalNanos);
+	}
+
+	/**
+	 * Formats the metrics of all hooks that were called as key value pairs, as used
+	 * for test report entries.
+	 *
+	 * @return the metrics in a human readable form, by hook
+	 */
+	public Map<String, String> toReportEntries() {
+		Map<String, String> entries = new LinkedHashMap<>();
+		entries.put("security.totalTime", formatNanos(getTotalTime().toNanos())); //$NON-NLS-1$
+		statistics.forEach((hook, byVerdict) -> {
+			if (byVerdict.values().stream().allMatch(hookStatistics -> hookStatistics.getCount() == 0))
+				return;
+			entries.put("security." + hook.getHookName(), String.format(Locale.ROOT, "granted: %s; denied: %s", //$NON-NLS-1$ //$NON-NLS-2$
+					byVerdict.get(Verdict.GRANTED), byVerdict.get(Verdict.DENIED)));
+		});
+		teardown.ifPresent(value -> entries.put("security.teardown", value.toString())); //$NON-NLS-1$
+		if (!threadTerminations.isEmpty())
+			entries.put("security.threadTerminations", threadTerminations.toString()); //$NON-NLS-1$
+		commonPoolDrain.ifPresent(value -> entries.put("security.commonPoolDrain", value.toString())); //$NON-NLS-1$
+		return entries;
+	}
+
+	@Override
+	public String toString() {
+		return "SecurityMetrics" + toReportEntries(); //$NON-NLS-1$
+	}
+
+	static String formatNanos(long nanos) {
+		if (nanos < 1_000L)
+			return nanos + " ns"; //$NON-NLS-1$
+		if (nanos < 1_000_000L)
+			return String.format(Locale.ROOT, "%.1f µs", nanos / 1e3); //$NON-NLS-1$
+		if (nanos < 1_000_000_000L)
+			return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6); //$NON-NLS-1$
+		return String.format(Locale.ROOT, "%.2f s", nanos / 1e9); //$NON-NLS-1$
+	}
+
+	/**
+	 * The instrumented security manager hooks.
+	 */
+	public enum Hook {
+		CHECK_PERMISSION("checkPermission", false), //$NON-NLS-1$
+		/**
+		 * Path checks for file permissions, nested in {@link #CHECK_PERMISSION}
+		 */
+		CHECK_PATH_ACCESS("checkPathAccess", true), //$NON-NLS-1$
+		CHECK_PACKAGE_ACCESS("checkPackageAccess", false), //$NON-NLS-1$
+		CHECK_THREAD_ACCESS("checkAccess(Thread)", false), //$NON-NLS-1$
+		CHECK_CONNECT("checkConnect", false); //$NON-NLS-1$
+
+		private final String hookName;
+		private final boolean nested;
+
+		Hook(String hookName, boolean nested) {
+			this.hookName = hookName;
+			this.nested = nested;
+		}
+
+		public String getHookName() {
+			return hookName;
+		}
+
+		public boolean isNested() {
+			return nested;
+		}
+	}
+
+	/**
+	 * The outcome of a check.
+	 */
+	public enum Verdict {
+		GRANTED,
+		DENIED
+	}
+
+	/**
+	 * The cleanup that was performed by the uninstall.
+	 */
+	public enum TeardownPath {
+		/**
+		 * Neither garbage collection nor finalization were forced
+		 */
+		SKIPPED,
+		/**
+		 * Only the finalization of the objects already pending was forced
+		 */
+		FINALIZATION_ONLY,
+		/**
+		 * Garbage collection and finalization were forced
+		 */
+		GC_AND_FINALIZATION;
+
+		static TeardownPath of(Set<TeardownReason> reasons) {
+			if (reasons.isEmpty())
+				return SKIPPED;
+			if (reasons.equals(Set.of(TeardownReason.PENDING_FINALIZATION)))
+				return FINALIZATION_ONLY;
+			return GC_AND_FINALIZATION;
+		}
+	}
+
+	/**
+	 * Why the uninstall forced garbage collection or finalization.
+	 */
+	public enum TeardownReason {
+		/**
+		 * The strict teardown mode was configured
+		 */
+		STRICT_MODE,
+		/**
+		 * The test created threads
+		 */
+		THREADS_CREATED,
+		/**
+		 * The used heap grew above the configured threshold
+		 */
+		HEAP_GROWTH,
+		/**
+		 * Objects were already waiting for finalization
+		 */
+		PENDING_FINALIZATION
+	}
+
+	/**
+	 * The teardown path taken by the uninstall, why, and how long it took.
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static final class Teardown {
+
+		private final TeardownPath path;
+		private final Set<TeardownReason> reasons;
+		private final Duration duration;
+
+		Teardown(Set<TeardownReason> reasons, Duration duration) {
+			var copy = EnumSet.noneOf(TeardownReason.class);
+			copy.addAll(reasons);
+			this.path = TeardownPath.of(copy);
+			this.reasons = Collections.unmodifiableSet(copy);
+			this.duration = Objects.requireNonNull(duration);
+		}
+
+		public TeardownPath getPath() {
+			return path;
+		}
+
+		public Set<TeardownReason> getReasons() {
+			return reasons;
+		}
+
+		public Duration getDuration() {
+			return duration;
+		}
+
+		@Override
+		public String toString() {
+			String text = path + " in " + formatNanos(duration.toNanos()); //$NON-NLS-1$
+			if (reasons.isEmpty())
+				return text;
+			return reasons.stream().map(TeardownReason::name).collect(Collectors.joining(", ", text + " (", ")")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	/**
+	 * How a thread that was still active after the test was terminated.
+	 */
+	public enum ThreadOutcome {
+		/**
+		 * The thread terminated after it was interrupted
+		 */
+		INTERRUPTED,
+		/**
+		 * The thread terminated after it was stopped
+		 */
+		STOPPED,
+		/**
+		 * The thread was still alive when the time for stopping it ran out
+		 */
+		NOT_STOPPABLE
+	}
+
+	/**
+	 * The outcome of the termination of one thread, and the time from the beginning
+	 * of the termination until the thread was found terminated.
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static final class ThreadTermination {
+
+		private final String threadName;
+		private final ThreadOutcome outcome;
+		private final Duration duration;
+
+		ThreadTermination(String threadName, ThreadOutcome outcome, Duration duration) {
+			this.threadName = Objects.requireNonNull(threadName);
+			this.outcome = Objects.requireNonNull(outcome);
+			this.duration = Objects.requireNonNull(duration);
+		}
+
+		/**
+		 * @return the {@link Thread#toString()} of the thread
+		 */
+		public String getThreadName() {
+			return threadName;
+		}
+
+		public ThreadOutcome getOutcome() {
+			return outcome;
+		}
+
+		public Duration getDuration() {
+			return duration;
+		}
+
+		@Override
+		public String toString() {
+			return threadName + " " + outcome + " after " + formatNanos(duration.toNanos()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * The wait for the common {@link java.util.concurrent.ForkJoinPool
+	 * ForkJoinPool} to become quiescent after its workers were interrupted.
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static final class CommonPoolDrain {
+
+		private final int interruptedWorkers;
+		private final boolean quiescent;
+		private final Duration duration;
+
+		CommonPoolDrain(int interruptedWorkers, boolean quiescent, Duration duration) {
+			this.interruptedWorkers = interruptedWorkers;
+			this.quiescent = quiescent;
+			this.duration = Objects.requireNonNull(duration);
+		}
+
+		public int getInterruptedWorkers() {
+			return interruptedWorkers;
+		}
+
+		/**
+		 * @return true, if the pool became quiescent within the budget
+		 */
+		public boolean isQuiescent() {
+			return quiescent;
+		}
+
+		public Duration getDuration() {
+			return duration;
+		}
+
+		@Override
+		public String toString() {
+			return (quiescent ? "quiescent" : "still active") + " after " + formatNanos(duration.toNanos()) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ " (" + interruptedWorkers + " workers interrupted)"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Number, total duration and latency histogram of the checks of one hook with
+	 * one verdict.
+	 */
+	@API(status = Status.EXPERIMENTAL)
+	public static final class HookStatistics {
+
+		static final HookStatistics EMPTY = new HookStatistics(0, 0, 0, new long[HISTOGRAM_BUCKETS]);
+
+		private final long count;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long[] histogram;
+
+		HookStatistics(long count, long totalNanos, long maxNanos, long[] histogram) {
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.histogram = histogram.clone();
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * @return a copy of the histogram, see {@link SecurityMetrics}
+		 */
+		public long[] getHistogram() {
+			return histogram.clone();
+		}
+
+		/**
+		 * Returns an upper bound for the given percentile of the check durations, which
+		 * is the upper bound of the histogram bucket containing the percentile.
+		 *
+		 * @param percentile the percentile, between 0 and 100
+		 * @return the upper bound in nanoseconds, or zero if there were no checks
+		 */
+		public long getPercentileUpperBoundNanos(double percentile) {
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile); //$NON-NLS-1$
+			if (count == 0)
+				return 0;
+			long rank = (long) Math.ceil(count * percentile / 100.0);
+			long seen = 0;
+			for (int i = 0; i < histogram.length - 1; i++) {
+				seen += histogram[i];
+				if (seen >= rank)
+					return Math.min(1L << (i + 1), maxNanos);
+			}
+			return maxNanos;
+		}
+
+		@Override
+		public String toString() {
+			if (count == 0)
+				return "0"; //$NON-NLS-1$
+			return String.format(Locale.ROOT, "%d in %s (p50 <= %s, p99 <= %s, max %s)", count, //$NON-NLS-1$
+					formatNanos(totalNanos), formatNanos(getPercentileUpperBoundNanos(50)),
+					formatNanos(getPercentileUpperBoundNanos(99)), formatNanos(maxNanos));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(count, totalNanos, maxNanos, Arrays.hashCode(histogram));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof HookStatistics))
+				return false;
+			HookStatistics other = (HookStatistics) obj;
+			return count == other.count && totalNanos == other.totalNanos && maxNanos == other.maxNanos
+					&& Arrays.equals(histogram, other.histogram);
+		}
+	}
+}
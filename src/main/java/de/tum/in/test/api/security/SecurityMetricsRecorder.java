@@ -0,0 +1,96 @@
+package de.tum.in.test.api.security;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.tum.in.test.api.security.SecurityMetrics.Hook;
+import de.tum.in.test.api.security.SecurityMetrics.HookStatistics;
+import de.tum.in.test.api.security.SecurityMetrics.Verdict;
+
+/**
+ * Collects the {@link SecurityMetrics} of one installation of the
+ * {@link ArtemisSecurityManager}. All counters are striped ({@link LongAdder}),
+ * so that recording from many threads does not contend.
+ * <p>
+ * Violations and checks that take longer than
+ * {@link #SLOW_CHECK_THRESHOLD_NANOS} are additionally emitted as JFR events,
+ * which cost nothing as long as no recording is running.
+ */
+final class SecurityMetricsRecorder {
+
+	static final long SLOW_CHECK_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final int VERDICTS = Verdict.values().length;
+
+	private final Counter[] counters = new Counter[Hook.values().length * VERDICTS];
+
+	SecurityMetricsRecorder() {
+		for (int i = 0; i < counters.length; i++)
+			counters[i] = new Counter();
+	}
+
+	void recordGranted(Hook hook, long startNanos) {
+		long durationNanos = System.nanoTime() - startNanos;
+		counterOf(hook, Verdict.GRANTED).add(durationNanos);
+		if (durationNanos > SLOW_CHECK_THRESHOLD_NANOS)
+			SlowSecurityCheckEvent.commit(hook, Verdict.GRANTED, durationNanos);
+	}
+
+	void recordDenied(Hook hook, long startNanos, SecurityException violation) {
+		long durationNanos = System.nanoTime() - startNanos;
+		counterOf(hook, Verdict.DENIED).add(durationNanos);
+		if (durationNanos > SLOW_CHECK_THRESHOLD_NANOS)
+			SlowSecurityCheckEvent.commit(hook, Verdict.DENIED, durationNanos);
+		SecurityViolationEvent.commit(hook, violation);
+	}
+
+	SecurityMetrics snapshot() {
+		Map<Hook, Map<Verdict, HookStatistics>> statistics = new EnumMap<>(Hook.class);
+		for (Hook hook : Hook.values()) {
+			Map<Verdict, HookStatistics> byVerdict = new EnumMap<>(Verdict.class);
+			for (Verdict verdict : Verdict.values())
+				byVerdict.put(verdict, counterOf(hook, verdict).snapshot());
+			statistics.put(hook, byVerdict);
+		}
+		return new SecurityMetrics(statistics);
+	}
+
+	private Counter counterOf(Hook hook, Verdict verdict) {
+		return counters[hook.ordinal() * VERDICTS + verdict.ordinal()];
+	}
+
+	static int bucketOf(long durationNanos) {
+		if (durationNanos <= 1)
+			return 0;
+		return Math.min(63 - Long.numberOfLeadingZeros(durationNanos), SecurityMetrics.HISTOGRAM_BUCKETS - 1);
+	}
+
+	private static final class Counter {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final LongAdder[] histogram = new LongAdder[SecurityMetrics.HISTOGRAM_BUCKETS];
+
+		Counter() {
+			for (int i = 0; i < histogram.length; i++)
+				histogram[i] = new LongAdder();
+		}
+
+		void add(long durationNanos) {
+			count.increment();
+			totalNanos.add(durationNanos);
+			maxNanos.accumulate(durationNanos);
+			histogram[bucketOf(durationNanos)].increment();
+		}
+
+		HookStatistics snapshot() {
+			long[] buckets = new long[histogram.length];
+			for (int i = 0; i < buckets.length; i++)
+				buckets[i] = histogram[i].sum();
+			return new HookStatistics(count.sum(), totalNanos.sum(), maxNanos.get(), buckets);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package de.tum.in.test.api.security;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import de.tum.in.test.api.security.SecurityMetrics.Hook;
+
+/**
+ * JFR event for a check of the {@link ArtemisSecurityManager} that failed.
+ */
+@Name("de.tum.in.test.api.SecurityViolation")
+@Label("Security Violation")
+@Category({ "Artemis Java Test Sandbox", "Security" })
+@Description("A security check of the ArtemisSecurityManager denied an action")
+@StackTrace(true)
+final class SecurityViolationEvent extends jdk.jfr.Event {
+
+	@Label("Hook")
+	String hook;
+
+	@Label("Message")
+	String message;
+
+	static void commit(Hook hook, SecurityException violation) {
+		SecurityViolationEvent event = new SecurityViolationEvent();
+		if (!event.shouldCommit())
+			return;
+		event.hook = hook.getHookName();
+		event.message = violation.getMessage();
+		event.commit();
+	}
+}
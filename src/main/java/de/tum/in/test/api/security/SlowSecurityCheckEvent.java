@@ -0,0 +1,43 @@
+package de.tum.in.test.api.security;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import de.tum.in.test.api.security.SecurityMetrics.Hook;
+import de.tum.in.test.api.security.SecurityMetrics.Verdict;
+
+/**
+ * JFR event for a check of the {@link ArtemisSecurityManager} that took longer
+ * than {@link SecurityMetricsRecorder#SLOW_CHECK_THRESHOLD_NANOS}.
+ */
+@Name("de.tum.in.test.api.SlowSecurityCheck")
+@Label("Slow Security Check")
+@Category({ "Artemis Java Test Sandbox", "Security" })
+@Description("A security check of the ArtemisSecurityManager took longer than the threshold")
+@StackTrace(true)
+final class SlowSecurityCheckEvent extends jdk.jfr.Event {
+
+	@Label("Hook")
+	String hook;
+
+	@Label("Verdict")
+	String verdict;
+
+	@Label("Check Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long checkDuration;
+
+	static void commit(Hook hook, Verdict verdict, long durationNanos) {
+		SlowSecurityCheckEvent event = new SlowSecurityCheckEvent();
+		if (!event.shouldCommit())
+			return;
+		event.hook = hook.getHookName();
+		event.verdict = verdict.name();
+		event.checkDuration = durationNanos;
+		event.commit();
+	}
+}
@@ -0,0 +1,207 @@
+package de.tum.in.test.api.security;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.util.PackageRule;
+
+/**
+ * Compiled form of the rules deciding whether a stack frame (given by the name
+ * of its class) is whitelisted.
+ * <p>
+ * The static stack whitelist and blacklist of {@link SecurityConstants}, the
+ * whitelisted class names and all trusted packages that are plain names or
+ * prefixes are merged into one character trie, so that a class name needs to be
+ * traversed only once. Trusted package patterns that cannot be represented as
+ * prefix remain regular expressions. Verdicts are cached per class name, and
+ * for stack frames per class in a {@link ClassValue}, as the same classes
+ * appear on the stack over and over again.
+ * <p>
+ * In the {@link ClassificationMode#ORIGIN ORIGIN} mode, classes that are only
+ * covered by the static whitelist must in addition have a trusted origin, see
+ * {@link ClassOrigins}.
+ * <p>
+ * Instances are immutable apart from the verdict cache and are created once per
+ * {@link ArtemisSecurityConfiguration}.
+ */
+final class StackWhitelistMatcher {
+
+	private static final int WHITELISTED_PREFIX = 1;
+	private static final int BLACKLISTED_PREFIX = 1 << 1;
+	private static final int WHITELISTED_NAME = 1 << 2;
+	private static final int TRUSTED_PREFIX = 1 << 3;
+
+	private static final String ANY = "**"; //$NON-NLS-1$
+
+	/**
+	 * Matcher without any configuration, only containing the static rules.
+	 */
+	static final StackWhitelistMatcher STATIC = new StackWhitelistMatcher(List.of(), List.of(),
+			ClassificationMode.NAME);
+
+	private final Node root = new Node();
+	private final List<PackageRule> trustedPackagePatterns = new ArrayList<>();
+	private final ConcurrentMap<String, Boolean> verdictCache = new ConcurrentHashMap<>();
+	private final ClassificationMode classification;
+	private final ClassValue<Boolean> classVerdicts = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return computeIsCallNotWhitelisted(type.getName(), type);
+		}
+	};
+
+	private StackWhitelistMatcher(Collection<String> whitelistedClassNames, Collection<PackageRule> trustedPackages,
+			ClassificationMode classification) {
+		this.classification = classification;
+		SecurityConstants.STACK_WHITELIST.forEach(prefix -> root.insert(prefix, WHITELISTED_PREFIX));
+		SecurityConstants.STACK_BLACKLIST.forEach(prefix -> root.insert(prefix, BLACKLISTED_PREFIX));
+		whitelistedClassNames.forEach(className -> root.insert(className, WHITELISTED_NAME));
+		for (PackageRule trustedPackage : trustedPackages) {
+			String pattern = trustedPackage.getPackagePattern();
+			int firstWildcard = pattern.indexOf('*');
+			if (firstWildcard == -1)
+				root.insert(pattern, WHITELISTED_NAME);
+			else if (firstWildcard == pattern.length() - ANY.length() && pattern.endsWith(ANY))
+				root.insert(pattern.substring(0, firstWildcard), TRUSTED_PREFIX);
+			else
+				trustedPackagePatterns.add(trustedPackage);
+		}
+	}
+
+	/**
+	 * Returns whether a call originating from the given class is not whitelisted,
+	 * equivalent to the checks previously done with the raw configuration.
+	 *
+	 * @param className the fully qualified name of the class
+	 * @return true, if the class is blacklisted or neither whitelisted nor trusted
+	 */
+	boolean isCallNotWhitelisted(String className) {
+		Boolean verdict = verdictCache.get(className);
+		if (verdict == null) {
+			verdict = computeIsCallNotWhitelisted(className, null);
+			verdictCache.putIfAbsent(className, verdict);
+		}
+		return verdict;
+	}
+
+	/**
+	 * Returns whether a call from the class of the stack frame is not whitelisted.
+	 * The frame must have been obtained with
+	 * {@link StackWalker.Option#RETAIN_CLASS_REFERENCE}.
+	 *
+	 * @param stackFrame the stack frame
+	 * @return true, if the class is blacklisted, neither whitelisted nor trusted,
+	 *         or whitelisted by a static prefix only and of untrusted origin in the
+	 *         {@link ClassificationMode#ORIGIN ORIGIN} mode
+	 */
+	boolean isCallNotWhitelisted(StackFrame stackFrame) {
+		return classVerdicts.get(stackFrame.getDeclaringClass());
+	}
+
+	/**
+	 * Returns whether the name starts with one of the prefixes of
+	 * {@link SecurityConstants#STACK_WHITELIST}, regardless of the configuration.
+	 *
+	 * @param name a class or package name
+	 * @return true, if the name is covered by the static whitelist
+	 */
+	boolean isStaticWhitelisted(String name) {
+		return (root.collectFlags(name) & WHITELISTED_PREFIX) != 0;
+	}
+
+	/**
+	 * @param type the class, or null if only the name is known
+	 */
+	private boolean computeIsCallNotWhitelisted(String className, Class<?> type) {
+		int flags = root.collectFlags(className);
+		if ((flags & BLACKLISTED_PREFIX) != 0)
+			return true;
+		if ((flags & (WHITELISTED_NAME | TRUSTED_PREFIX)) != 0)
+			return false;
+		for (PackageRule trustedPackage : trustedPackagePatterns) {
+			if (trustedPackage.matches(className))
+				return false;
+		}
+		if ((flags & WHITELISTED_PREFIX) != 0)
+			return type != null && classification == ClassificationMode.ORIGIN && !ClassOrigins.isTrusted(type);
+		return true;
+	}
+
+	static StackWhitelistMatcher of(Collection<String> whitelistedClassNames, Collection<PackageRule> trustedPackages,
+			ClassificationMode classification) {
+		return new StackWhitelistMatcher(whitelistedClassNames, trustedPackages, classification);
+	}
+
+	/**
+	 * A node of the character trie. The children are kept in a sorted array to
+	 * allow for binary search without boxing the characters.
+	 */
+	private static final class Node {
+		private static final char[] NO_KEYS = {};
+		private static final Node[] NO_CHILDREN = {};
+
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		/**
+		 * Flags of the prefixes ending at this node
+		 */
+		private int prefixFlags;
+		/**
+		 * Flags of complete names ending at this node
+		 */
+		private int nameFlags;
+
+		void insert(String key, int flag) {
+			Node current = this;
+			for (int i = 0; i < key.length(); i++)
+				current = current.getOrCreateChild(key.charAt(i));
+			if (flag == WHITELISTED_NAME)
+				current.nameFlags |= flag;
+			else
+				current.prefixFlags |= flag;
+		}
+
+		int collectFlags(String name) {
+			Node current = this;
+			int flags = prefixFlags;
+			for (int i = 0; i < name.length(); i++) {
+				current = current.getChild(name.charAt(i));
+				if (current == null)
+					return flags;
+				flags |= current.prefixFlags;
+			}
+			return flags | current.nameFlags;
+		}
+
+		private Node getChild(char c) {
+			int index = Arrays.binarySearch(keys, c);
+			return index < 0 ? null : children[index];
+		}
+
+		private Node getOrCreateChild(char c) {
+			int index = Arrays.binarySearch(keys, c);
+			if (index >= 0)
+				return children[index];
+			int insertionPoint = -index - 1;
+			Node child = new Node();
+			char[] newKeys = new char[keys.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+			System.arraycopy(children, 0, newChildren, 0, insertionPoint);
+			newKeys[insertionPoint] = c;
+			newChildren[insertionPoint] = child;
+			System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, keys.length - insertionPoint);
+			System.arraycopy(children, insertionPoint, newChildren, insertionPoint + 1,
+					children.length - insertionPoint);
+			keys = newKeys;
+			children = newChildren;
+			return child;
+		}
+	}
+}
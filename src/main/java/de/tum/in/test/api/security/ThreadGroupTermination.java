@@ -0,0 +1,134 @@
+package de.tum.in.test.api.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.tum.in.test.api.security.SecurityMetrics.ThreadOutcome;
+import de.tum.in.test.api.security.SecurityMetrics.ThreadTermination;
+
+/**
+ * Terminates a fixed set of threads, first by interrupting and then by stopping
+ * them.
+ * <p>
+ * Each phase acts on all threads at once and then waits for all of them until a
+ * single deadline, so the total time needed does not depend on the number of
+ * threads. Threads that already terminated cost nothing in the following
+ * phases.
+ * <p>
+ * Instances are not thread safe, they are only used by the thread uninstalling
+ * the {@link ArtemisSecurityManager}.
+ */
+final class ThreadGroupTermination {
+
+	/**
+	 * Time a stopped thread gets to terminate before it is stopped again, as the
+	 * {@link ThreadDeath} might be caught.
+	 */
+	private static final long STOP_ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+	private final Thread[] threads;
+	private final ThreadOutcome[] outcomes;
+	private final long[] terminationNanos;
+	private final long start;
+	private boolean stopped;
+
+	ThreadGroupTermination(Thread[] threads) {
+		this.threads = threads.clone();
+		this.outcomes = new ThreadOutcome[threads.length];
+		this.terminationNanos = new long[threads.length];
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Interrupts all threads and waits for them to terminate.
+	 *
+	 * @param budget the total time to wait for all threads
+	 * @return true, if all threads terminated
+	 * @throws InterruptedException if the current thread was interrupted while
+	 *                              waiting
+	 */
+	boolean interruptAll(Duration budget) throws InterruptedException {
+		for (int i = 0; i < threads.length; i++) {
+			if (outcomes[i] == null)
+				threads[i].interrupt();
+		}
+		return awaitAll(System.nanoTime() + budget.toNanos(), ThreadOutcome.INTERRUPTED);
+	}
+
+	/**
+	 * Stops all threads that are still alive, repeatedly, until all terminated or
+	 * the time budget is used up.
+	 *
+	 * @param budget the total time to wait for all threads
+	 * @return true, if all threads terminated
+	 * @throws InterruptedException if the current thread was interrupted while
+	 *                              waiting
+	 */
+	boolean stopAll(Duration budget) throws InterruptedException {
+		long deadline = System.nanoTime() + budget.toNanos();
+		boolean terminated = false;
+		while (!terminated && deadline - System.nanoTime() > 0) {
+			stopRemaining();
+			terminated = awaitAll(Math.min(System.nanoTime() + STOP_ROUND_NANOS, deadline), ThreadOutcome.STOPPED);
+		}
+		return terminated;
+	}
+
+	/**
+	 * Stops all threads that are still alive once, without waiting for them.
+	 */
+	@SuppressWarnings("deprecation")
+	void stopRemaining() {
+		stopped = true;
+		for (int i = 0; i < threads.length; i++) {
+			if (outcomes[i] == null && threads[i].isAlive())
+				threads[i].stop();
+		}
+	}
+
+	/**
+	 * Returns the outcome for each thread. The time is measured from the creation
+	 * of this object until the termination was noticed, or until now for threads
+	 * that did not terminate.
+	 *
+	 * @return the outcomes in the order of the threads
+	 */
+	List<ThreadTermination> getTerminations() {
+		long now = System.nanoTime();
+		List<ThreadTermination> terminations = new ArrayList<>(threads.length);
+		for (int i = 0; i < threads.length; i++) {
+			ThreadOutcome outcome = outcomes[i];
+			long nanos = terminationNanos[i];
+			if (outcome == null) {
+				// waiting was interrupted, or the budget was used up
+				if (threads[i].isAlive())
+					outcome = ThreadOutcome.NOT_STOPPABLE;
+				else
+					outcome = stopped ? ThreadOutcome.STOPPED : ThreadOutcome.INTERRUPTED;
+				nanos = now - start;
+			}
+			terminations.add(new ThreadTermination(threads[i].toString(), outcome, Duration.ofNanos(nanos)));
+		}
+		return terminations;
+	}
+
+	private boolean awaitAll(long deadline, ThreadOutcome outcomeOnTermination) throws InterruptedException {
+		boolean allTerminated = true;
+		for (int i = 0; i < threads.length; i++) {
+			if (outcomes[i] != null)
+				continue;
+			long remaining = deadline - System.nanoTime();
+			if (remaining > 0)
+				TimeUnit.NANOSECONDS.timedJoin(threads[i], remaining);
+			if (threads[i].isAlive()) {
+				allTerminated = false;
+			} else {
+				outcomes[i] = outcomeOnTermination;
+				terminationNanos[i] = System.nanoTime() - start;
+			}
+		}
+		return allTerminated;
+	}
+}
@@ -0,0 +1,85 @@
+package de.tum.in.test.api.security;
+
+import java.lang.StackWalker.StackFrame;
+
+import org.apiguardian.api.API;
+import org.apiguardian.api.API.Status;
+
+/**
+ * Runs framework code, like the reporting, the sanitization and assertions,
+ * such that the stack walks of the {@link ArtemisSecurityManager} inside it
+ * stop at the frame of the region.
+ * <p>
+ * On entry, the whole stack is checked once. If all frames are whitelisted, the
+ * region is marked by a frame of a private method of this class and counted in
+ * a thread local depth. Later checks in the same thread only walk the frames
+ * above the topmost marker, as the frames below it are known to be whitelisted.
+ * All frames above the marker are still checked, so code of the tested program
+ * called by the framework inside the region is treated as before. If the stack
+ * is not whitelisted on entry, the action is executed without a marker.
+ * <p>
+ * The marker cannot be forged: the method creating it is private, and the depth
+ * is only counted after the check on entry. The marker is also ignored if the
+ * sandbox sessions or the whitelisting of threads changed since the entry, as
+ * the frames might not be whitelisted by the current configuration.
+ *
+ * @since 1.4.7
+ * @version 1.0.0
+ */
+@API(status = Status.INTERNAL)
+public final class TrustedRegion {
+
+	private static final String MARKER_METHOD_NAME = "callMarked"; //$NON-NLS-1$
+
+	private TrustedRegion() {
+		// static methods only
+	}
+
+	/**
+	 * An action that returns a result and might throw an exception.
+	 *
+	 * @param <T> the type of the result
+	 * @param <X> the type of the exception
+	 */
+	@FunctionalInterface
+	public interface Action<T, X extends Throwable> {
+		T call() throws X;
+	}
+
+	/**
+	 * An action without a result that might throw an exception.
+	 *
+	 * @param <X> the type of the exception
+	 */
+	@FunctionalInterface
+	public interface VoidAction<X extends Throwable> {
+		void run() throws X;
+	}
+
+	public static <T, X extends Throwable> T call(Action<T, X> action) throws X {
+		var securityManager = ArtemisSecurityManager.getInstance();
+		if (!securityManager.enterTrustedRegion())
+			return action.call();
+		try {
+			return callMarked(action);
+		} finally {
+			securityManager.exitTrustedRegion();
+		}
+	}
+
+	public static <X extends Throwable> void run(VoidAction<X> action) throws X {
+		call(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	static boolean isMarker(StackFrame stackFrame) {
+		return stackFrame.getDeclaringClass() == TrustedRegion.class
+				&& MARKER_METHOD_NAME.equals(stackFrame.getMethodName());
+	}
+
+	private static <T, X extends Throwable> T callMarked(Action<T, X> action) throws X {
+		return action.call();
+	}
+}
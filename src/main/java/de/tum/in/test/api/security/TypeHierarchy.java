@@ -0,0 +1,118 @@
+package de.tum.in.test.api.security;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Resolves the supertypes of classes by their internal name for the
+ * {@link CallSiteTransformer}, so that calls through a subtype of a guarded JDK
+ * type are matched with the {@link CallSiteRule}s of that type.
+ * <p>
+ * As this happens while classes are being defined, the classes are not loaded.
+ * Their class files are read as resources of the class loader instead, only the
+ * <code>java.*</code> classes are looked up by reflection. Types whose class
+ * file cannot be found contribute no supertypes. Not thread safe, an instance
+ * is used for one transformation only.
+ */
+final class TypeHierarchy {
+
+	private static final ClassLoader PLATFORM_CLASS_LOADER = ClassLoader.getPlatformClassLoader();
+	private static final Map<String, List<String>> JDK_SUPERTYPES = new ConcurrentHashMap<>();
+
+	private final ClassLoader loader;
+	private final Map<String, List<String>> directSupertypes = new HashMap<>();
+
+	TypeHierarchy(ClassLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Registers a class that is being defined and can therefore not be read yet.
+	 */
+	void add(String name, String superName, String[] interfaces) {
+		directSupertypes.put(name, namesOf(superName, interfaces));
+	}
+
+	/**
+	 * @param name the internal name of the type
+	 * @return all supertypes that could be resolved, the closer ones first
+	 */
+	Set<String> supertypesOf(String name) {
+		Set<String> supertypes = new LinkedHashSet<>();
+		var queue = new ArrayDeque<String>();
+		queue.add(name);
+		while (!queue.isEmpty()) {
+			for (String supertype : directSupertypesOf(queue.remove())) {
+				if (supertypes.add(supertype))
+					queue.add(supertype);
+			}
+		}
+		return supertypes;
+	}
+
+	/**
+	 * @return true if the class file of the type can be found through the class
+	 *         loader, which is not the case for classes defined at runtime
+	 */
+	boolean hasClassFile(String name) {
+		return loader != null && loader.getResource(name + ".class") != null; //$NON-NLS-1$
+	}
+
+	private List<String> directSupertypesOf(String name) {
+		if (name.startsWith("[")) //$NON-NLS-1$
+			return List.of();
+		if (name.startsWith("java/")) //$NON-NLS-1$
+			return JDK_SUPERTYPES.computeIfAbsent(name, TypeHierarchy::jdkSupertypesOf);
+		return directSupertypes.computeIfAbsent(name, this::readSupertypesOf);
+	}
+
+	private List<String> readSupertypesOf(String name) {
+		if (loader == null)
+			return List.of();
+		try (InputStream in = loader.getResourceAsStream(name + ".class")) { //$NON-NLS-1$
+			if (in == null)
+				return List.of();
+			var reader = new ClassReader(in);
+			return namesOf(reader.getSuperName(), reader.getInterfaces());
+		} catch (@SuppressWarnings("unused") IOException | RuntimeException e) {
+			return List.of();
+		}
+	}
+
+	private static List<String> jdkSupertypesOf(String name) {
+		try {
+			Class<?> type = Class.forName(name.replace('/', '.'), false, PLATFORM_CLASS_LOADER);
+			List<String> supertypes = new ArrayList<>();
+			if (type.getSuperclass() != null)
+				supertypes.add(internalNameOf(type.getSuperclass()));
+			for (Class<?> implemented : type.getInterfaces())
+				supertypes.add(internalNameOf(implemented));
+			return List.copyOf(supertypes);
+		} catch (@SuppressWarnings("unused") ClassNotFoundException | LinkageError e) {
+			return List.of();
+		}
+	}
+
+	private static List<String> namesOf(String superName, String[] interfaces) {
+		List<String> names = new ArrayList<>();
+		if (superName != null)
+			names.add(superName);
+		if (interfaces != null)
+			names.addAll(List.of(interfaces));
+		return List.copyOf(names);
+	}
+
+	private static String internalNameOf(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+}
@@ -76,6 +76,10 @@ public final class PathRule {
 				&& Objects.equals(pathPattern, other.pathPattern);
 	}
 
+	public static PathRule of(RuleType ruleType, PathType pathType, PathActionLevel actionLevel, String pathPattern) {
+		return new PathRule(ruleType, pathType, actionLevel, pathPattern);
+	}
+
 	public static Stream<PathRule> allOf(WhitelistPath whitelistedPath) {
 		return Stream.of(whitelistedPath.value()).map(pathPattern -> new PathRule(RuleType.WHITELIST,
 				whitelistedPath.type(), whitelistedPath.level(), pathPattern));
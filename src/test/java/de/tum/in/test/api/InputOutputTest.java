@@ -5,6 +5,7 @@ import static org.junit.platform.testkit.engine.EventConditions.*;
 
 import org.junit.ComparisonFailure;
 import org.junit.platform.testkit.engine.Events;
+import org.opentest4j.AssertionFailedError;
 
 import de.tum.in.test.testutilities.TestTest;
 import de.tum.in.test.testutilities.UserBased;
@@ -17,7 +18,11 @@ class InputOutputTest {
 	@UserTestResults
 	private static Events tests;
 
+	private final String makeIncompleteUTF8Error = "makeIncompleteUTF8Error";
 	private final String makeUTF8Error = "makeUTF8Error";
+	private final String testAsyncMirrorOutput = "testAsyncMirrorOutput";
+	private final String testBoundedOutput = "testBoundedOutput";
+	private final String testExpectLinesMatch = "testExpectLinesMatch";
 	private final String testLinesMatch = "testLinesMatch";
 	private final String testPenguin1 = "testPenguin1";
 	private final String testPenguin2 = "testPenguin2";
@@ -27,11 +32,35 @@ class InputOutputTest {
 	private final String testTooManyChars = "testTooManyChars";
 	private final String testTooManyReads = "testTooManyReads";
 
+	@TestTest
+	void test_makeIncompleteUTF8Error() {
+		tests.assertThatEvents().haveExactly(1,
+				testFailedWith(makeIncompleteUTF8Error, IllegalArgumentException.class));
+	}
+
 	@TestTest
 	void test_makeUTF8Error() {
 		tests.assertThatEvents().haveExactly(1, testFailedWith(makeUTF8Error, IllegalArgumentException.class));
 	}
 
+	@TestTest
+	void test_testAsyncMirrorOutput() {
+		tests.assertThatEvents().haveExactly(1, event(test(testAsyncMirrorOutput), finishedSuccessfullyRep()));
+	}
+
+	@TestTest
+	void test_testBoundedOutput() {
+		tests.assertThatEvents().haveExactly(1, event(test(testBoundedOutput), finishedSuccessfullyRep()));
+	}
+
+	@TestTest
+	void test_testExpectLinesMatch() {
+		tests.assertThatEvents().haveExactly(1,
+				testFailedWith(testExpectLinesMatch, AssertionFailedError.class,
+						String.format("Wrong output ==> expected line #1 doesn't match actual line #1%n"
+								+ "\texpected: `Pinguine sind die Besten!`%n\t  actual: `Eisbären sind die Besten!`")));
+	}
+
 	@TestTest
 	void test_testLinesMatch() {
 		tests.assertThatEvents().haveExactly(1, event(test(testLinesMatch), finishedSuccessfullyRep()));
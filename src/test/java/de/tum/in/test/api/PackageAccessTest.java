@@ -22,6 +22,9 @@ class PackageAccessTest {
 	private final String package_cBlacklistingAll = "package_cBlacklistingAll";
 	private final String package_dBlackAndWhitelisting = "package_dBlackAndWhitelisting";
 	private final String package_eBlackAgain = "package_eBlackAgain";
+	private final String package_fCallbackWithoutScan = "package_fCallbackWithoutScan";
+	private final String package_gCallbackWithScan = "package_gCallbackWithScan";
+	private final String package_hCallbackBelowJdkWithScan = "package_hCallbackBelowJdkWithScan";
 
 	@TestTest
 	void test_package_aBlacklistingRegex() {
@@ -48,4 +51,20 @@ class PackageAccessTest {
 	void test_package_eBlackAgain() {
 		tests.assertThatEvents().haveExactly(1, testFailedWith(package_eBlackAgain, SecurityException.class));
 	}
+
+	@TestTest
+	void test_package_fCallbackWithoutScan() {
+		tests.assertThatEvents().haveExactly(1, testFailedWith(package_fCallbackWithoutScan, SecurityException.class));
+	}
+
+	@TestTest
+	void test_package_gCallbackWithScan() {
+		tests.assertThatEvents().haveExactly(1, event(test(package_gCallbackWithScan), finishedSuccessfullyRep()));
+	}
+
+	@TestTest
+	void test_package_hCallbackBelowJdkWithScan() {
+		tests.assertThatEvents().haveExactly(1,
+				testFailedWith(package_hCallbackBelowJdkWithScan, SecurityException.class));
+	}
 }
@@ -0,0 +1,39 @@
+package de.tum.in.test.api;
+
+import static de.tum.in.test.testutilities.CustomConditions.*;
+import static org.junit.platform.testkit.engine.EventConditions.*;
+
+import org.junit.platform.testkit.engine.Events;
+
+import de.tum.in.test.testutilities.TestTest;
+import de.tum.in.test.testutilities.UserBased;
+import de.tum.in.test.testutilities.UserTestResults;
+import de.tum.in.testuser.ParallelUser;
+
+@UserBased(value = ParallelUser.class, configurationParameters = { "junit.jupiter.execution.parallel.enabled=true",
+		"junit.jupiter.execution.parallel.config.strategy=fixed",
+		"junit.jupiter.execution.parallel.config.fixed.parallelism=3" })
+class ParallelTest {
+
+	@UserTestResults
+	private static Events tests;
+
+	private final String accessPathAllowedParallel = "accessPathAllowedParallel";
+	private final String accessPathNormalParallel = "accessPathNormalParallel";
+	private final String threadStoppedParallel = "threadStoppedParallel";
+
+	@TestTest
+	void test_accessPathAllowedParallel() {
+		tests.assertThatEvents().haveExactly(1, event(test(accessPathAllowedParallel), finishedSuccessfullyRep()));
+	}
+
+	@TestTest
+	void test_accessPathNormalParallel() {
+		tests.assertThatEvents().haveExactly(1, testFailedWith(accessPathNormalParallel, SecurityException.class));
+	}
+
+	@TestTest
+	void test_threadStoppedParallel() {
+		tests.assertThatEvents().haveExactly(1, event(test(threadStoppedParallel), finishedSuccessfullyRep()));
+	}
+}
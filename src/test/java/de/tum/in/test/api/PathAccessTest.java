@@ -18,6 +18,8 @@ class PathAccessTest {
 
 	private final String accessPathAllowed = "accessPathAllowed";
 	private final String accessPathNormal = "accessPathNormal";
+	private final String accessPathParallelAllowed = "accessPathParallelAllowed";
+	private final String accessPathParallelNormal = "accessPathParallelNormal";
 	private final String accessPathRelativeGlobA = "accessPathRelativeGlobA";
 	private final String accessPathRelativeGlobB = "accessPathRelativeGlobB";
 	private final String accessPathTest = "accessPathTest";
@@ -33,6 +35,16 @@ class PathAccessTest {
 		tests.assertThatEvents().haveExactly(1, testFailedWith(accessPathNormal, SecurityException.class));
 	}
 
+	@TestTest
+	void test_accessPathParallelAllowed() {
+		tests.assertThatEvents().haveExactly(1, event(test(accessPathParallelAllowed), finishedSuccessfullyRep()));
+	}
+
+	@TestTest
+	void test_accessPathParallelNormal() {
+		tests.assertThatEvents().haveExactly(1, testFailedWith(accessPathParallelNormal, SecurityException.class));
+	}
+
 	@TestTest
 	void test_accessPathRelativeGlobA() {
 		tests.assertThatEvents().haveExactly(1, event(test(accessPathRelativeGlobA), finishedSuccessfullyRep()));
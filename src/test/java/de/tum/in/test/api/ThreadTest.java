@@ -26,6 +26,7 @@ class ThreadTest {
 	private final String testThreadExtension = "testThreadExtension";
 	private final String testThreadGroup = "testThreadGroup";
 	private final String threadLimitExceeded = "threadLimitExceeded";
+	private final String threadGroupLimitExceeded = "threadGroupLimitExceeded";
 	private final String threadWhitelistingWithPathCorrect = "threadWhitelistingWithPathCorrect";
 	private final String threadWhitelistingWithPathFail = "threadWhitelistingWithPathFail";
 	private final String threadWhitelistingWithPathPenguin = "threadWhitelistingWithPathPenguin";
@@ -59,6 +60,12 @@ class ThreadTest {
 				finishedWithFailure(instanceOf(SecurityException.class), message(m -> m.contains("2 (max: 1)")))));
 	}
 
+	@TestTest
+	void test_threadGroupLimitExceeded() {
+		tests.assertThatEvents().haveExactly(1, event(test(threadGroupLimitExceeded),
+				finishedWithFailure(instanceOf(SecurityException.class), message(m -> m.contains("2 (max: 1)")))));
+	}
+
 	@TestTest
 	void test_threadWhitelistingWithPathCorrect() {
 		tests.assertThatEvents().haveExactly(1,
@@ -0,0 +1,263 @@
+package de.tum.in.test.api.internal;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tum.in.test.api.AddTrustedPackage;
+import de.tum.in.test.api.AllowLocalPort;
+import de.tum.in.test.api.AllowThreads;
+import de.tum.in.test.api.BlacklistPackage;
+import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.PathType;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.SandboxTeardown.TeardownMode;
+import de.tum.in.test.api.StackFrameClassification;
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.StaticBytecodeScan;
+import de.tum.in.test.api.StaticBytecodeScan.ScanMode;
+import de.tum.in.test.api.WhitelistClass;
+import de.tum.in.test.api.WhitelistPackage;
+import de.tum.in.test.api.WhitelistPath;
+import de.tum.in.test.api.security.ArtemisSecurityConfiguration;
+import de.tum.in.test.api.security.ArtemisSecurityConfigurationBuilder;
+
+class ConfigurationDescriptorTest {
+
+	@Retention(RUNTIME)
+	@Target({ METHOD, ANNOTATION_TYPE })
+	@SandboxTeardown(value = TeardownMode.STRICT, commonPoolDrainBudget = 5)
+	@StackFrameClassification(ClassificationMode.ORIGIN)
+	@WhitelistClass(List.class)
+	@AddTrustedPackage("org.example.**")
+	@BlacklistPackage("java.sql")
+	@WhitelistPackage({ "java.sql.Date", "java.sql.Time" })
+	@interface Configured {
+		// meta-annotated only
+	}
+
+	@Retention(RUNTIME)
+	@Target(METHOD)
+	@Configured
+	@StaticBytecodeScan(ScanMode.REPORT)
+	@WhitelistPath("meta")
+	@interface ConfiguredTwice {
+		// nested meta-annotation
+	}
+
+	@Retention(RUNTIME)
+	@Target(TYPE_USE)
+	@interface Bounded {
+		// type annotation
+	}
+
+	@WhitelistPath(value = "target/**", type = PathType.GLOB)
+	@BlacklistPath(value = "secret;file", level = PathActionLevel.DELETE)
+	@AllowThreads(maxActiveCount = 3)
+	@AllowLocalPort(value = { 80, 443 }, allowPortsAbove = 9000, exclude = 9999)
+	static class Fixture {
+
+		@ConfiguredTwice
+		@WhitelistPath("a")
+		@WhitelistPath("b")
+		@AllowThreads(maxActiveCount = 5)
+		void configured(String[] args, int count, List<String> names, Inner inner) {
+			// no test
+		}
+
+		void unconfigured() {
+			// no test
+		}
+
+		@AllowThreads(maxActiveCount = 7)
+		void annotatedParameterType(@Bounded int count) {
+			// no test
+		}
+
+		class Inner {
+
+			@AllowLocalPort
+			void inner() {
+				// no test
+			}
+		}
+	}
+
+	@WhitelistPath("interface")
+	interface Configuring {
+		// found by JUnit on implementing classes
+	}
+
+	static class WithConfiguringInterface implements Configuring {
+
+		@AllowThreads(maxActiveCount = 2)
+		void configured() {
+			// no test
+		}
+	}
+
+	@Test
+	void testSameAsReflection() throws NoSuchMethodException {
+		assertSameAsReflection(context(Fixture.class, Fixture.class.getDeclaredMethod("configured", String[].class, //$NON-NLS-1$
+				int.class, List.class, Fixture.Inner.class)));
+		assertSameAsReflection(context(Fixture.class, Fixture.class.getDeclaredMethod("unconfigured"))); //$NON-NLS-1$
+		assertSameAsReflection(
+				context(Fixture.class, Fixture.class.getDeclaredMethod("annotatedParameterType", int.class))); //$NON-NLS-1$
+		assertSameAsReflection(context(Fixture.Inner.class, Fixture.Inner.class.getDeclaredMethod("inner"))); //$NON-NLS-1$
+		assertSameAsReflection(context(Fixture.Inner.class, null));
+	}
+
+	@Test
+	void testMethodKey() throws NoSuchMethodException {
+		var descriptor = ConfigurationDescriptor.of(context(Fixture.class, Fixture.class.getDeclaredMethod("configured", //$NON-NLS-1$
+				String[].class, int.class, List.class, Fixture.Inner.class)));
+		assertThat(descriptor).isPresent();
+		assertThat(descriptor.get().find(ConfigurationKeys.ALLOW_THREADS)).contains("5"); //$NON-NLS-1$
+		var annotatedParameterType = ConfigurationDescriptor
+				.of(context(Fixture.class, Fixture.class.getDeclaredMethod("annotatedParameterType", int.class))); //$NON-NLS-1$
+		assertThat(annotatedParameterType).isPresent();
+		assertThat(annotatedParameterType.get().find(ConfigurationKeys.ALLOW_THREADS)).contains("7"); //$NON-NLS-1$
+		assertThat(descriptor.get().findAll(ConfigurationKeys.WHITELIST_PATH)).containsExactlyInAnyOrder(
+				"STARTS_WITH;READ;meta", "STARTS_WITH;READ;a", "STARTS_WITH;READ;b", "GLOB;READ;target/**"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	void testFallbackForUnprocessedClasses() {
+		class Local {
+			// not visible to the processor
+		}
+		assertThat(ConfigurationDescriptor.of(context(Local.class, null))).isEmpty();
+		assertThat(ConfigurationDescriptor.of(context(String.class, null))).isEmpty();
+	}
+
+	@Test
+	void testFallbackForAnnotatedInterfaces() throws NoSuchMethodException {
+		var context = context(WithConfiguringInterface.class,
+				WithConfiguringInterface.class.getDeclaredMethod("configured")); //$NON-NLS-1$
+		assertThat(ConfigurationDescriptor.of(context)).isEmpty();
+		assertThat(ConfigurationUtils.generatePathWhiteList(context)).isNotEmpty();
+	}
+
+	@Test
+	void testOnlyOwnFileIsUsed(@TempDir Path tempDir) throws IOException {
+		String fileName = ConfigurationKeys.fileNameOf(ConfigurationDescriptorTest.class.getName());
+		URL own = ConfigurationDescriptorTest.class.getClassLoader().getResource(fileName);
+		Path foreignFile = tempDir.resolve(fileName);
+		Files.createDirectories(foreignFile.getParent());
+		Files.writeString(foreignFile, ConfigurationKeys.VERSION_KEY + '=' + ConfigurationKeys.VERSION);
+		URL foreign = foreignFile.toUri().toURL();
+		assertThat(own).isNotNull();
+		assertThat(ConfigurationDescriptor.selectOwnFile(ConfigurationDescriptorTest.class, List.of(own)))
+				.contains(own);
+		assertThat(ConfigurationDescriptor.selectOwnFile(ConfigurationDescriptorTest.class, List.of(foreign)))
+				.isEmpty();
+		assertThat(ConfigurationDescriptor.selectOwnFile(ConfigurationDescriptorTest.class, List.of(foreign, own)))
+				.isEmpty();
+		assertThat(ConfigurationDescriptor.selectOwnFile(ConfigurationDescriptorTest.class, List.of(own, foreign)))
+				.isEmpty();
+	}
+
+	@Test
+	void testOutdatedFileIsIgnored(@TempDir Path tempDir) throws IOException {
+		String fileName = ConfigurationKeys.fileNameOf(ConfigurationDescriptorTest.class.getName());
+		URL own = ConfigurationDescriptorTest.class.getClassLoader().getResource(fileName);
+		Path outdatedFile = tempDir.resolve(fileName);
+		Files.createDirectories(outdatedFile.getParent());
+		try (var in = own.openStream()) {
+			Files.writeString(outdatedFile, new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceFirst(
+					ConfigurationKeys.FINGERPRINT_KEY + "=.*", ConfigurationKeys.FINGERPRINT_KEY + "=outdated"));
+		}
+		assertThat(ConfigurationFingerprint.of(ConfigurationDescriptorTest.class)).isPresent();
+		assertThat(ConfigurationDescriptor.read(ConfigurationDescriptorTest.class, own)).isPresent();
+		assertThat(ConfigurationDescriptor.read(ConfigurationDescriptorTest.class, outdatedFile.toUri().toURL()))
+				.isEmpty();
+	}
+
+	private static void assertSameAsReflection(TestContext context) {
+		var descriptor = ConfigurationDescriptor.of(context);
+		assertThat(descriptor).isPresent();
+		var precomputed = ArtemisSecurityConfigurationBuilder.create().configureFromContext(context).withCurrentPath();
+		ConfigurationUtils.configureFromDescriptor(precomputed, context, descriptor.get());
+		var reflective = ArtemisSecurityConfigurationBuilder.create().configureFromContext(context).withCurrentPath();
+		reflective.addWhitelistedClassNames(ConfigurationUtils.getWhitelistedClasses(context));
+		reflective.withPathWhitelist(ConfigurationUtils.generatePathWhiteList(context));
+		reflective.withPathBlacklist(ConfigurationUtils.generatePathBlackList(context));
+		reflective.withAllowedThreadCount(ConfigurationUtils.getAllowedThreadCount(context));
+		reflective.withPackageBlacklist(ConfigurationUtils.generatePackageBlackList(context));
+		reflective.withPackageWhitelist(ConfigurationUtils.generatePackageWhiteList(context));
+		reflective.withTrustedPackages(ConfigurationUtils.getTrustedPackages(context));
+		ConfigurationUtils.configureAllowLocalPort(reflective, context);
+		ConfigurationUtils.configureSandboxTeardown(reflective, context);
+		ConfigurationUtils.configureStackFrameClassification(reflective, context);
+		ConfigurationUtils.configureStaticBytecodeScan(reflective, context);
+		ArtemisSecurityConfiguration expected = reflective.build();
+		ArtemisSecurityConfiguration actual = precomputed.build();
+		// the precomputed configuration also contains the classes on the stack
+		assertThat(actual.whitelistedClassNames()).containsAll(expected.whitelistedClassNames());
+		assertThat(actual.whitelistedPaths()).isEqualTo(expected.whitelistedPaths());
+		assertThat(actual.blacklistedPaths()).isEqualTo(expected.blacklistedPaths());
+		assertThat(actual.allowedThreadCount()).isEqualTo(expected.allowedThreadCount());
+		assertThat(actual.blacklistedPackages()).isEqualTo(expected.blacklistedPackages());
+		assertThat(actual.whitelistedPackages()).isEqualTo(expected.whitelistedPackages());
+		assertThat(actual.trustedPackages()).isEqualTo(expected.trustedPackages());
+		assertThat(actual.allowedLocalPorts()).isEqualTo(expected.allowedLocalPorts());
+		assertThat(actual.allowLocalPortsAbove()).isEqualTo(expected.allowLocalPortsAbove());
+		assertThat(actual.excludedLocalPorts()).isEqualTo(expected.excludedLocalPorts());
+		assertThat(actual.teardownMode()).isEqualTo(expected.teardownMode());
+		assertThat(actual.heapGrowthThreshold()).isEqualTo(expected.heapGrowthThreshold());
+		assertThat(actual.commonPoolDrainBudget()).isEqualTo(expected.commonPoolDrainBudget());
+		assertThat(actual.stackFrameClassification()).isEqualTo(expected.stackFrameClassification());
+		assertThat(actual.bytecodeScanMode()).isEqualTo(expected.bytecodeScanMode());
+	}
+
+	private static TestContext context(Class<?> testClass, Method testMethod) {
+		return new TestContext() {
+
+			@Override
+			public Optional<Method> testMethod() {
+				return Optional.ofNullable(testMethod);
+			}
+
+			@Override
+			public Optional<Class<?>> testClass() {
+				return Optional.of(testClass);
+			}
+
+			@Override
+			public Optional<Object> testInstance() {
+				return Optional.empty();
+			}
+
+			@Override
+			public String displayName() {
+				return testClass.getSimpleName();
+			}
+
+			@Override
+			public Optional<AnnotatedElement> annotatedElement() {
+				return Optional.ofNullable(testMethod == null ? testClass : testMethod);
+			}
+
+			@Override
+			public Optional<TestType> findTestType() {
+				return Optional.empty();
+			}
+		};
+	}
+}
@@ -0,0 +1,67 @@
+package de.tum.in.test.api.internal;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigurationProcessorTest {
+
+	private static final String SOURCE = String.join("\n", //
+			"import de.tum.in.test.api.WhitelistPath;", //
+			"@WhitelistPath(\"data\")", //
+			"public class Sample {", //
+			"}"); //
+
+	/**
+	 * Only Ares is on the processor path, not the libraries it depends on, like
+	 * SLF4J. The processor is loaded in isolation, as the compiler would otherwise
+	 * load it with the class path of the tests.
+	 */
+	@Test
+	void testProcessorWithoutDependencies(@TempDir Path tempDir) throws Exception {
+		URL aresClasses = ConfigurationProcessor.class.getProtectionDomain().getCodeSource().getLocation();
+		Path source = tempDir.resolve("Sample.java");
+		Files.writeString(source, SOURCE);
+		Path classes = Files.createDirectory(tempDir.resolve("classes"));
+		var diagnostics = new StringWriter();
+		var compiler = ToolProvider.getSystemJavaCompiler();
+		try (var standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+				var processorLoader = new URLClassLoader(new URL[] { aresClasses },
+						ClassLoader.getPlatformClassLoader())) {
+			var fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+				@Override
+				public ClassLoader getClassLoader(JavaFileManager.Location location) {
+					if (location == StandardLocation.ANNOTATION_PROCESSOR_PATH)
+						return processorLoader;
+					return super.getClassLoader(location);
+				}
+			};
+			var task = compiler.getTask(diagnostics, fileManager, null,
+					List.of("-proc:only", "-processor", ConfigurationProcessor.class.getName(), "-processorpath",
+							Path.of(aresClasses.toURI()).toString(), "-cp", System.getProperty("java.class.path"), "-d",
+							classes.toString()),
+					null, standardFileManager.getJavaFileObjects(source));
+			assertThat(task.call()).as("compilation, diagnostics: %s", diagnostics).isTrue();
+		}
+		assertThat(diagnostics.toString()).doesNotContain("Ares could not precompute");
+		assertThat(Files.readAllLines(classes.resolve(ConfigurationKeys.fileNameOf("Sample")))).satisfiesExactly(
+				line -> assertThat(line).isEqualTo("Sample\\ processed=true"),
+				line -> assertThat(line).isEqualTo("Sample\\ whitelistPath.0=STARTS_WITH;READ;data"),
+				line -> assertThat(line).startsWith(ConfigurationKeys.FINGERPRINT_KEY + '='),
+				line -> assertThat(line).isEqualTo(ConfigurationKeys.VERSION_KEY + '=' + ConfigurationKeys.VERSION));
+	}
+}
@@ -0,0 +1,195 @@
+package de.tum.in.test.api.io;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.test.api.MirrorOutput.MirrorOverflowPolicy;
+
+class AsyncMirrorStreamTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final SlowStream target = new SlowStream();
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testWritesInOrder() {
+		target.release();
+		var mirror = new AsyncMirrorStream(target, 16, MirrorOverflowPolicy.BLOCK, "test-mirror"); //$NON-NLS-1$
+		var expected = new StringBuilder();
+		for (int i = 0; i < 1_000; i++) {
+			String text = i + "\n"; //$NON-NLS-1$
+			mirror.write(bytes(text));
+			expected.append(text);
+		}
+		mirror.write('!');
+		expected.append('!');
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		assertThat(target.getText()).isEqualTo(expected.toString());
+	}
+
+	@Test
+	void testDoesNotWaitForSlowTarget() {
+		var mirror = new AsyncMirrorStream(target, 1024, MirrorOverflowPolicy.BLOCK, "test-mirror"); //$NON-NLS-1$
+		// the target does not accept anything until it is released
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			for (int i = 0; i < 100; i++)
+				mirror.write(bytes("line\n")); //$NON-NLS-1$
+			mirror.flush();
+		});
+		target.release();
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		assertThat(target.getText()).isEqualTo("line\n".repeat(100)); //$NON-NLS-1$
+	}
+
+	@Test
+	void testDropsCompleteWritesWhenFull() {
+		var mirror = new AsyncMirrorStream(target, 8, MirrorOverflowPolicy.DROP, "test-mirror"); //$NON-NLS-1$
+		mirror.write('a');
+		mirror.write(bytes("12345678")); //$NON-NLS-1$
+		mirror.write(bytes("bc")); //$NON-NLS-1$
+		assertThat(mirror.getDropped()).isEqualTo(8);
+		target.release();
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		assertThat(target.getText()).isEqualTo(String.format("abc%n[8 bytes of output were not mirrored]%n")); //$NON-NLS-1$
+		assertThat(mirror.getDropped()).isZero();
+	}
+
+	@Test
+	void testBlocksWhenFull() throws InterruptedException {
+		var mirror = new AsyncMirrorStream(target, 4, MirrorOverflowPolicy.BLOCK, "test-mirror"); //$NON-NLS-1$
+		var producer = new Thread(() -> mirror.write(bytes("0123456789"))); //$NON-NLS-1$
+		producer.start();
+		producer.join(100);
+		assertThat(producer.isAlive()).isTrue();
+		target.release();
+		producer.join(TIMEOUT.toMillis());
+		assertThat(producer.isAlive()).isFalse();
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		assertThat(target.getText()).isEqualTo("0123456789"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testDropsLargeWritesCompletely() {
+		target.release();
+		var mirror = new AsyncMirrorStream(target, 4, MirrorOverflowPolicy.DROP, "test-mirror"); //$NON-NLS-1$
+		mirror.write(bytes("äöü")); //$NON-NLS-1$
+		assertThat(mirror.getDropped()).isEqualTo(6);
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		assertThat(target.getText()).isEqualTo(String.format("%n[6 bytes of output were not mirrored]%n")); //$NON-NLS-1$
+	}
+
+	@Test
+	void testInterruptedBlockedWriteIsDropped() throws InterruptedException {
+		var mirror = new AsyncMirrorStream(target, 4, MirrorOverflowPolicy.BLOCK, "test-mirror"); //$NON-NLS-1$
+		var interruptedAfterWrite = new AtomicBoolean();
+		var producer = new Thread(() -> {
+			mirror.write(bytes("0123456789")); //$NON-NLS-1$
+			interruptedAfterWrite.set(Thread.currentThread().isInterrupted());
+		});
+		producer.start();
+		producer.join(100);
+		assertThat(producer.isAlive()).isTrue();
+		producer.interrupt();
+		producer.join(TIMEOUT.toMillis());
+		assertThat(producer.isAlive()).isFalse();
+		assertThat(interruptedAfterWrite).isTrue();
+		assertThat(mirror.getDropped()).isPositive();
+		target.release();
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+	}
+
+	@Test
+	void testShutdownDropsLaterOutput() {
+		target.release();
+		var mirror = new AsyncMirrorStream(target, 8, MirrorOverflowPolicy.BLOCK, "test-mirror"); //$NON-NLS-1$
+		mirror.write(bytes("abc")); //$NON-NLS-1$
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+		mirror.write(bytes("def")); //$NON-NLS-1$
+		assertThat(target.getText()).isEqualTo("abc"); //$NON-NLS-1$
+		assertThat(mirror.getDropped()).isEqualTo(3);
+	}
+
+	@Test
+	void testIdleWriterParksUntilWrite() throws InterruptedException {
+		target.release();
+		var mirror = new AsyncMirrorStream(target, 8, MirrorOverflowPolicy.BLOCK, "test-mirror-idle"); //$NON-NLS-1$
+		Thread writer = Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().equals("test-mirror-idle")).findFirst().orElseThrow(); //$NON-NLS-1$
+		for (String text : new String[] { "abc", "def" }) { //$NON-NLS-1$ //$NON-NLS-2$
+			awaitWaiting(writer);
+			mirror.write(bytes(text));
+			mirror.flush();
+			awaitWaiting(writer);
+		}
+		assertThat(target.getText()).isEqualTo("abcdef"); //$NON-NLS-1$
+		assertThat(mirror.shutdown(TIMEOUT)).isTrue();
+	}
+
+	/**
+	 * Waits until the thread waits without a timeout, which it only does while it
+	 * is idle
+	 */
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline)
+			Thread.sleep(1);
+		assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+	}
+
+	@Test
+	void testInvalidCapacity() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new AsyncMirrorStream(target, 0, MirrorOverflowPolicy.DROP, "test-mirror")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Does not accept any bytes until it is released
+	 */
+	private static final class SlowStream extends OutputStream {
+
+		private final CountDownLatch released = new CountDownLatch(1);
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+		void release() {
+			released.countDown();
+		}
+
+		String getText() {
+			return new String(written.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void write(int b) throws InterruptedIOException {
+			awaitRelease();
+			written.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws InterruptedIOException {
+			awaitRelease();
+			written.write(b, off, len);
+		}
+
+		private void awaitRelease() throws InterruptedIOException {
+			try {
+				released.await();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException(e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package de.tum.in.test.api.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.CharBuffer;
+
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+class ExpectedLinesMatcherTest {
+
+	private final OutputTester tester = new OutputTester();
+
+	private void print(String output) {
+		tester.acceptOutput(CharBuffer.wrap(output));
+	}
+
+	@Test
+	void testMatchingOutput() {
+		tester.expectLinesMatch("output", "Hello", "||\\d+||", ">>>>", "end"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		print("Hello\n42\nsome\nother lines\nend\n"); //$NON-NLS-1$
+		assertThatCode(tester::assertExpectedLinesMatch).doesNotThrowAnyException();
+	}
+
+	@Test
+	void testMismatchFailsOnPrint() {
+		tester.expectLinesMatch("output", "a", "||b+||", "c"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		print("a\n"); //$NON-NLS-1$
+		// the line is not complete yet
+		print("x"); //$NON-NLS-1$
+		var failure = catchThrowableOfType(() -> print("\nc\n"), AssertionFailedError.class); //$NON-NLS-1$
+		assertThat(failure).hasMessage(String.format("output ==> expected line #2 doesn't match actual line #2%n" //$NON-NLS-1$
+				+ "\texpected: matches regular expression: `b+`%n\t  actual: `x`")); //$NON-NLS-1$
+		// the same failure as after the execution, and it is thrown again
+		var finalFailure = catchThrowableOfType(() -> tester.assertLinesMatch("output", "a", "||b+||", "c"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				AssertionFailedError.class);
+		assertThat(failure).hasMessage(finalFailure.getMessage());
+		assertThatThrownBy(() -> print("more\n")).isSameAs(failure); //$NON-NLS-1$
+		assertThatThrownBy(tester::assertExpectedLinesMatch).isSameAs(failure);
+		// the output is still captured
+		assertThat(tester.getLinesAsString()).containsExactly("a", "x", "c", "more"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	void testSurplusLines() {
+		tester.expectLinesMatch(null, "a"); //$NON-NLS-1$
+		print("a\n"); //$NON-NLS-1$
+		assertThatThrownBy(() -> print("b\n")).isInstanceOf(AssertionFailedError.class) //$NON-NLS-1$
+				.hasMessage("more actual lines than expected: 1"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testLimitedFastForward() {
+		tester.expectLinesMatch(null, "a", ">> 2 >>", "d", ">> 1 >>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		print("a\nb\nc\nd\ne\n"); //$NON-NLS-1$
+		assertThatThrownBy(() -> print("f\n")).isInstanceOf(AssertionFailedError.class) //$NON-NLS-1$
+				.hasMessage("terminal fast-forward(1) error: fast-forward(2) expected"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testUnlimitedFastForwardWaitsForLaterOutput() {
+		tester.expectLinesMatch(null, ">>>>", "done", ">> rest >>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		print("x\ny\n"); //$NON-NLS-1$
+		print("done\nanything\nelse\n"); //$NON-NLS-1$
+		assertThatCode(tester::assertExpectedLinesMatch).doesNotThrowAnyException();
+	}
+
+	@Test
+	void testMissingLinesOnlyFailAfterwards() {
+		tester.expectLinesMatch("output", "a", "b"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		print("a\n"); //$NON-NLS-1$
+		assertThatThrownBy(tester::assertExpectedLinesMatch).isInstanceOf(AssertionFailedError.class);
+		assertThatIllegalStateException().isThrownBy(tester::assertExpectedLinesMatch);
+	}
+
+	@Test
+	void testPreviousOutputAndReset() {
+		print("wrong\n"); //$NON-NLS-1$
+		assertThatThrownBy(() -> tester.expectLinesMatch(null, "right")).isInstanceOf(AssertionFailedError.class); //$NON-NLS-1$
+		tester.resetOutput();
+		print("right\n"); //$NON-NLS-1$
+		assertThatCode(tester::assertExpectedLinesMatch).doesNotThrowAnyException();
+	}
+
+	@Test
+	void testInvalidFastForwardLimit() {
+		assertThatIllegalArgumentException().isThrownBy(() -> tester.expectLinesMatch(null, ">> 0 >>")) //$NON-NLS-1$
+				.withMessage("fast-forward(0) limit must be greater than zero"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testTruncatedLineCannotBeMatched() {
+		var bounded = new OutputTester(10, 10, 5);
+		bounded.expectLinesMatch(null, "short", "toolong"); //$NON-NLS-1$ //$NON-NLS-2$
+		bounded.acceptOutput(CharBuffer.wrap("short\n")); //$NON-NLS-1$
+		// a wrong line that only differs after the kept characters is not accepted
+		var failure = catchThrowableOfType(() -> bounded.acceptOutput(CharBuffer.wrap("toolonX\n")), //$NON-NLS-1$
+				AssertionFailedError.class);
+		assertThat(failure)
+				.hasMessage(String.format("expected line #2 cannot be matched, actual line #2 was truncated%n" //$NON-NLS-1$
+						+ "\texpected: `toolong`%n\t  actual: `toolo...`")); //$NON-NLS-1$
+	}
+
+	@Test
+	void testTruncatedLinesCanBeSkipped() {
+		var bounded = new OutputTester(10, 10, 5);
+		bounded.expectLinesMatch(null, "a", ">> 1 >>", "b", ">> rest >>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		bounded.acceptOutput(CharBuffer.wrap("a\nvery long line\nb\nanother long line\n")); //$NON-NLS-1$
+		assertThatCode(bounded::assertExpectedLinesMatch).doesNotThrowAnyException();
+	}
+
+	@Test
+	void testTruncatedLastLineFailsFinalCheck() {
+		var bounded = new OutputTester(10, 10, 5);
+		bounded.expectLinesMatch(null, "a", "toolong"); //$NON-NLS-1$ //$NON-NLS-2$
+		bounded.acceptOutput(CharBuffer.wrap("a\ntoolong")); //$NON-NLS-1$
+		assertThatThrownBy(bounded::assertExpectedLinesMatch).isInstanceOf(AssertionFailedError.class)
+				.hasMessageContaining("actual line #2 was truncated"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testRegistrationAfterTruncation() {
+		var bounded = new OutputTester(10, 10, 5);
+		bounded.acceptOutput(CharBuffer.wrap("very long line\n")); //$NON-NLS-1$
+		assertThatIllegalStateException().isThrownBy(() -> bounded.expectLinesMatch(null, ">>>>")) //$NON-NLS-1$
+				.withMessage("Lines of the output were already truncated"); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,141 @@
+package de.tum.in.test.api.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.CharBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+class LineStoreTest {
+
+	private final OutputTester tester = new OutputTester();
+
+	private void print(String output) {
+		tester.acceptOutput(CharBuffer.wrap(output));
+	}
+
+	@Test
+	void testLines() {
+		print("first\r\nsec"); //$NON-NLS-1$
+		print("ond\rthird\n\nfifth"); //$NON-NLS-1$
+		assertThat(tester.getLinesAsString()).containsExactly("first", "second", "third", "", "fifth"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		List<Line> lines = tester.getLines();
+		assertThat(lines).extracting(Line::lineNumber).containsExactly(1, 2, 3, 4, 5);
+		assertThat(lines).extracting(Line::isComplete).containsExactly(true, true, true, true, false);
+		assertThat(lines.get(1).contentEquals("second")).isTrue(); //$NON-NLS-1$
+		assertThat(lines.get(1)).isEqualTo(Line.of("second")); //$NON-NLS-1$
+	}
+
+	@Test
+	void testLastEmptyLine() {
+		print("a\n"); //$NON-NLS-1$
+		assertThat(tester.getLinesAsString()).containsExactly("a"); //$NON-NLS-1$
+		assertThat(tester.getLinesAsString(OutputTestOptions.DONT_IGNORE_LAST_EMPTY_LINE)).containsExactly("a", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		assertThat(tester.getOutputAsString(OutputTestOptions.DONT_IGNORE_LAST_EMPTY_LINE)).isEqualTo("a\n"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testNonLatin1Text() {
+		print("Grüße\n"); //$NON-NLS-1$
+		List<String> before = tester.getLinesAsString();
+		print("10 € 😀\nEnde"); //$NON-NLS-1$
+		assertThat(before).containsExactly("Grüße"); //$NON-NLS-1$
+		assertThat(tester.getLinesAsString()).containsExactly("Grüße", "10 € 😀", "Ende"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	void testLastLineGrows() {
+		print("in progress"); //$NON-NLS-1$
+		Line line = tester.getLines().get(0);
+		List<String> texts = tester.getLinesAsString();
+		print(" done\n"); //$NON-NLS-1$
+		assertThat(line.text()).isEqualTo("in progress done"); //$NON-NLS-1$
+		assertThat(line.isComplete()).isTrue();
+		// the strings do not change
+		assertThat(texts).containsExactly("in progress"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testReset() {
+		print("kept\n"); //$NON-NLS-1$
+		List<Line> lines = tester.getLines();
+		tester.resetOutput();
+		print("new\n"); //$NON-NLS-1$
+		assertThat(lines).extracting(Line::text).containsExactly("kept"); //$NON-NLS-1$
+		assertThat(tester.getLinesAsString()).containsExactly("new"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testManyLines() {
+		StringBuilder output = new StringBuilder();
+		for (int i = 0; i < 100_000; i++)
+			output.append(i).append('\n');
+		print(output.toString());
+		List<String> lines = tester.getLinesAsString();
+		assertThat(lines).hasSize(100_000);
+		assertThat(lines.get(99_999)).isEqualTo("99999"); //$NON-NLS-1$
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> lines.add("x")); //$NON-NLS-1$
+	}
+
+	@Test
+	void testBoundedKeepsHeadAndTail() {
+		var bounded = new OutputTester(2, 2, 5);
+		for (int i = 1; i <= 10; i++)
+			bounded.acceptOutput(CharBuffer.wrap("line" + i + '\n')); //$NON-NLS-1$
+		bounded.acceptOutput(CharBuffer.wrap("current")); //$NON-NLS-1$
+		assertThat(bounded.getLinesAsString()).containsExactly("line1", "line2", "line9", "line1", "curre"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		assertThat(bounded.getLines()).extracting(Line::lineNumber).containsExactly(1, 2, 9, 10, 11);
+		assertThat(bounded.getTotalLineCount()).isEqualTo(11);
+		assertThat(bounded.getTotalCharCount()).isEqualTo(9 * 5 + 6 + 7);
+		var omitted = bounded.getOmittedLines();
+		assertThat(omitted.firstLineNumber()).isEqualTo(3);
+		assertThat(omitted.lineCount()).isEqualTo(6);
+		assertThat(omitted.charCount()).isEqualTo(6 * 5);
+		assertThat(omitted.hash())
+				.isEqualTo(OmittedLines.hashOf(List.of("line3", "line4", "line5", "line6", "line7", "line8"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+	@Test
+	void testBoundedHashesWholeLongLines() {
+		var bounded = new OutputTester(0, 0, 3);
+		bounded.acceptOutput(CharBuffer.wrap("abcdefgh\nü€😀\n")); //$NON-NLS-1$
+		assertThat(bounded.getLinesAsString()).isEmpty();
+		assertThat(bounded.getOmittedLines().hash()).isEqualTo(OmittedLines.hashOf(List.of("abcdefgh", "ü€😀"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertThat(bounded.getOmittedLines().charCount()).isEqualTo(8 + 4);
+		assertThat(tester.getOmittedLines().isEmpty()).isTrue();
+	}
+
+	@Test
+	void testBoundedLastLineView() {
+		var bounded = new OutputTester(0, 1, 100);
+		bounded.acceptOutput(CharBuffer.wrap("first\nsec")); //$NON-NLS-1$
+		List<Line> lines = bounded.getLines();
+		bounded.acceptOutput(CharBuffer.wrap("ond\n")); //$NON-NLS-1$
+		Line second = lines.get(1);
+		assertThat(second.text()).isEqualTo("second"); //$NON-NLS-1$
+		assertThat(second.isComplete()).isTrue();
+		// the copies of complete lines stay valid
+		bounded.acceptOutput(CharBuffer.wrap("third\n")); //$NON-NLS-1$
+		assertThat(lines.get(0).text()).isEqualTo("first"); //$NON-NLS-1$
+		assertThatIllegalStateException().isThrownBy(second::text);
+		bounded.resetOutput();
+		bounded.acceptOutput(CharBuffer.wrap("a\nb\n")); //$NON-NLS-1$
+		assertThat(bounded.getLinesAsString()).containsExactly("b"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testBoundedExpectedLines() {
+		var bounded = new OutputTester(1, 1, 100);
+		bounded.expectLinesMatch("output", "start", "||\\d+||", ">>>>", "end"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		StringBuilder output = new StringBuilder("start\n"); //$NON-NLS-1$
+		for (int i = 0; i < 1000; i++)
+			output.append(i).append('\n');
+		bounded.acceptOutput(CharBuffer.wrap(output.append("end\nlast"))); //$NON-NLS-1$
+		assertThat(bounded.getOmittedLines().lineCount()).isEqualTo(1000);
+		// the incomplete last line is one line too many
+		assertThatThrownBy(bounded::assertExpectedLinesMatch).isInstanceOf(AssertionFailedError.class)
+				.hasMessage("output ==> more actual lines than expected: 1"); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,77 @@
+package de.tum.in.test.api.io;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class TestOutStreamTest {
+
+	private final StringBuilder accepted = new StringBuilder();
+	private final ByteArrayOutputStream mirror = new ByteArrayOutputStream();
+	private final TestOutStream stream = new TestOutStream(accepted::append, mirror, 1_000_000);
+
+	@Test
+	void testCharacterSplitAcrossFlushes() throws IOException {
+		byte[] bytes = "aä€😀b".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+		for (byte b : bytes) {
+			stream.write(b);
+			stream.flush();
+		}
+		assertThat(accepted).hasToString("aä€😀b"); //$NON-NLS-1$
+		assertThat(mirror.toByteArray()).isEqualTo(bytes);
+	}
+
+	@Test
+	void testLargeOutput() throws IOException {
+		String line = "über".repeat(50_000) + '\n'; //$NON-NLS-1$
+		stream.write(line.getBytes(StandardCharsets.UTF_8));
+		stream.flush();
+		stream.write("x".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		stream.flush();
+		assertThat(accepted).hasToString(line + 'x');
+	}
+
+	@Test
+	void testInvalidUtf8() throws IOException {
+		stream.write(new byte[] { 'a', (byte) 0xff, 'b' });
+		assertThatIllegalArgumentException().isThrownBy(stream::flush).withMessageContaining("a�b"); //$NON-NLS-1$
+		assertThat(accepted).isEmpty();
+		// the invalid output is discarded
+		stream.write('c');
+		stream.flush();
+		assertThat(accepted).hasToString("c"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testResetDiscardsIncompleteCharacter() throws IOException {
+		stream.write(0xc3);
+		stream.flush();
+		stream.resetInternalState();
+		stream.write('d');
+		stream.flush();
+		assertThat(accepted).hasToString("d"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testIncompleteCharacterAtEndIsReported() throws IOException {
+		stream.write(new byte[] { 'e', (byte) 0xc3 });
+		stream.flush();
+		assertThat(accepted).hasToString("e"); //$NON-NLS-1$
+		assertThatIllegalArgumentException().isThrownBy(stream::finishInput).withMessageContaining("�"); //$NON-NLS-1$
+		// the bytes are discarded after the report
+		assertThatCode(stream::finishInput).doesNotThrowAnyException();
+		assertThat(accepted).hasToString("e"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testFinishInputWithoutIncompleteCharacter() throws IOException {
+		stream.write("ä".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		stream.flush();
+		assertThatCode(stream::finishInput).doesNotThrowAnyException();
+		assertThat(accepted).hasToString("ä"); //$NON-NLS-1$
+	}
+}
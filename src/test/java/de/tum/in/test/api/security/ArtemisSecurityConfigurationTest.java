@@ -5,6 +5,7 @@ import static org.assertj.core.api.InstanceOfAssertFactories.iterable;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
@@ -18,6 +19,8 @@ import de.tum.in.test.api.AllowThreads;
 import de.tum.in.test.api.BlacklistPackage;
 import de.tum.in.test.api.BlacklistPath;
 import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.SandboxTeardown;
+import de.tum.in.test.api.SandboxTeardown.TeardownMode;
 import de.tum.in.test.api.WhitelistClass;
 import de.tum.in.test.api.WhitelistPackage;
 import de.tum.in.test.api.WhitelistPath;
@@ -33,6 +36,8 @@ class ArtemisSecurityConfigurationTest {
 	private static final int ALLOW_PORT_ABOVE = 1000;
 	private static final int EXCLUDED_PORT_NUMBER = 1024;
 	private static final int THREAD_COUNT = 314;
+	private static final long HEAP_GROWTH_THRESHOLD = 1024;
+	private static final long COMMON_POOL_DRAIN_BUDGET = 25;
 	private static final String PATH_BLACKLIST = "target/classes";
 	private static final String PATH_WHITELIST = "target";
 	private static final String PACKAGE_WHITELIST = "java.util.regex";
@@ -83,6 +88,14 @@ class ArtemisSecurityConfigurationTest {
 		assertThat(configurationOneA.trustedPackages()).hasSize(1)
 				.allMatch(packageRule -> packageRule.getRuleType() == RuleType.WHITELIST //
 						&& TRUSTED_PACKAGE.equals(packageRule.getPackagePattern()));
+
+		assertThat(configurationOneA.teardownMode()).isEqualTo(TeardownMode.STRICT);
+		assertThat(configurationOneA.heapGrowthThreshold()).isEqualTo(HEAP_GROWTH_THRESHOLD);
+		assertThat(configurationTwo.teardownMode()).isEqualTo(TeardownMode.ADAPTIVE);
+		assertThat(configurationTwo.heapGrowthThreshold()).isEqualTo(SandboxTeardown.DEFAULT_HEAP_GROWTH_THRESHOLD);
+		assertThat(configurationOneA.commonPoolDrainBudget()).isEqualTo(Duration.ofMillis(COMMON_POOL_DRAIN_BUDGET));
+		assertThat(configurationTwo.commonPoolDrainBudget())
+				.isEqualTo(Duration.ofMillis(SandboxTeardown.DEFAULT_COMMON_POOL_DRAIN_BUDGET));
 	}
 
 	@Test
@@ -117,6 +130,7 @@ class ArtemisSecurityConfigurationTest {
 	static class TestTestClass {
 
 		@AllowThreads(maxActiveCount = THREAD_COUNT)
+		@SandboxTeardown(value = TeardownMode.STRICT, heapGrowthThreshold = HEAP_GROWTH_THRESHOLD, commonPoolDrainBudget = COMMON_POOL_DRAIN_BUDGET)
 		@AllowLocalPort(value = ALLOWED_PORT_NUMBER, allowPortsAbove = ALLOW_PORT_ABOVE, exclude = EXCLUDED_PORT_NUMBER)
 		void testOne() {
 			// nothing to do
@@ -0,0 +1,261 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import de.tum.in.testuser.subject.CallSitePenguin;
+import de.tum.in.testuser.subject.CustomException;
+import de.tum.in.testuser.subject.SubclassCallSitePenguin;
+import de.tum.in.testuser.subject.SubclassCallSitePenguin.GuardedFile;
+import de.tum.in.testuser.subject.SubclassCallSitePenguin.GuardedOutputStream;
+
+class CallSiteTransformerTest {
+
+	private static final String NOT_A_COMMAND = "ares-call-site-test-no-such-command";
+
+	@Test
+	void testInstrumentedCalls() throws IOException {
+		byte[] instrumented = instrument(CallSitePenguin.class);
+		assertThat(instrumented).isNotNull();
+		assertThat(checksOf(instrumented)).contains("checkFileRead", "checkFileWrite", "checkFileOpen",
+				"checkThreadStart", "checkExit", "checkExec", "checkInvoke");
+		// System::exit and processBuilder::start are redirected to bridges
+		assertThat(methodsOf(instrumented)).contains("ares$callSite$0", "ares$callSite$1");
+	}
+
+	@Test
+	void testSubclassCallSites() throws IOException {
+		byte[] instrumented = instrument(SubclassCallSitePenguin.class);
+		assertThat(checksOf(instrumented)).contains("checkFileDelete", "checkTempFile");
+		// GuardedFile::delete is redirected to a bridge
+		assertThat(methodsOf(instrumented)).contains("ares$callSite$0");
+		// the call of the super constructor is guarded in the subclass
+		assertThat(checksOf(instrument(GuardedOutputStream.class))).containsExactly("checkFileWrite");
+	}
+
+	@Test
+	void testSubclassesWithoutClassFileAreRefused() throws IOException {
+		byte[] classFile = classFileOf(GuardedFile.class);
+		assertThatCode(() -> CallSiteTransformer.instrument(classFile, CallSiteTransformerTest.class.getClassLoader()))
+				.doesNotThrowAnyException();
+		var withoutClassFiles = new ClassLoader(null) {
+			// finds only JDK classes
+		};
+		assertThatThrownBy(() -> CallSiteTransformer.instrument(classFile, withoutClassFiles))
+				.isInstanceOf(SecurityException.class);
+	}
+
+	@Test
+	void testInstrumentedClassBehavesUnchanged() throws Exception {
+		// loading the class verifies all rewritten methods, the file access is left to
+		// the security manager that might still be installed by previous tests
+		Class<?> penguin = instrumentedPenguin();
+		assertThat(call(penguin, "startThread")).isEqualTo(true);
+		assertThat(call(penguin, "exitReference")).isInstanceOf(IntConsumer.class);
+	}
+
+	@Test
+	void testChecksAreInvokedWhenActive() throws Exception {
+		Class<?> penguin = instrumentedPenguin();
+		var startLater = (Callable<?>) call(penguin, "startLater", new ProcessBuilder(NOT_A_COMMAND));
+		SandboxCallSites.setActive(true);
+		try {
+			assertThatThrownBy(() -> call(penguin, "exec", NOT_A_COMMAND)).isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+			assertThatThrownBy(() -> call(penguin, "openZipAndDelete", new File(NOT_A_COMMAND)))
+					.isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+			assertThatThrownBy(startLater::call).isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+			assertThatThrownBy(() -> call(penguin, "execReflectively", NOT_A_COMMAND))
+					.isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+		} finally {
+			SandboxCallSites.setActive(false);
+		}
+	}
+
+	@Test
+	void testCurrentClassFileVersions() throws IOException {
+		// Java 17 class file, the content does not use any newer features
+		byte[] instrumented = CallSiteTransformer.instrument(withMajorVersion(classFileOf(CallSitePenguin.class), 61),
+				CallSiteTransformerTest.class.getClassLoader());
+		assertThat(instrumented).isNotNull();
+		assertThat(majorVersionOf(instrumented)).isEqualTo(61);
+	}
+
+	@Test
+	void testClassesThatCannotBeRewrittenAreRefused() throws IOException {
+		var transformer = new CallSiteTransformer(List.of());
+		byte[] classFile = withMajorVersion(classFileOf(CallSitePenguin.class), 100);
+		byte[] refused = transformer.transform(getClass().getClassLoader(),
+				"de/tum/in/testuser/subject/CallSitePenguin", null, CallSitePenguin.class.getProtectionDomain(),
+				classFile);
+		assertThat(refused).isNotNull();
+		assertThatThrownBy(() -> defineAndInitialize(CallSitePenguin.class, refused))
+				.isInstanceOf(ExceptionInInitializerError.class).hasCauseInstanceOf(SecurityException.class).getCause()
+				.hasMessageContaining(CallSitePenguin.class.getName());
+	}
+
+	@Test
+	void testSubclassChecksAreInvokedWhenActive() throws Exception {
+		Class<?> penguin = defineAndInitialize(SubclassCallSitePenguin.class,
+				instrument(SubclassCallSitePenguin.class));
+		var file = new GuardedFile(NOT_A_COMMAND);
+		SandboxCallSites.setActive(true);
+		try {
+			assertThatThrownBy(() -> call(penguin, "delete", file)).isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+			assertThatThrownBy(() -> call(penguin, "createTempFile")).isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+			@SuppressWarnings("unchecked")
+			var deleteReference = (Predicate<GuardedFile>) call(penguin, "deleteReference");
+			assertThatThrownBy(() -> deleteReference.test(file)).isInstanceOf(SecurityException.class)
+					.satisfies(CallSiteTransformerTest::isThrownBySandboxCallSites);
+		} finally {
+			SandboxCallSites.setActive(false);
+		}
+	}
+
+	@Test
+	void testNothingToInstrument() throws IOException {
+		assertThat(instrument(CustomException.class)).isNull();
+	}
+
+	@Test
+	void testTrustedClassesAreSkipped() throws IOException {
+		var transformer = new CallSiteTransformer(List.of());
+		byte[] classFile = classFileOf(CallSitePenguin.class);
+		String name = "de/tum/in/testuser/subject/CallSitePenguin";
+		ClassLoader loader = getClass().getClassLoader();
+		assertThat(transformer.transform(null, name, null, CallSitePenguin.class.getProtectionDomain(), classFile))
+				.isNull();
+		assertThat(transformer.transform(loader, name, null, ClassOrigins.class.getProtectionDomain(), classFile))
+				.isNull();
+		assertThat(transformer.transform(loader, name, null, CallSitePenguin.class.getProtectionDomain(), classFile))
+				.isNotNull();
+		var restricted = new CallSiteTransformer(SandboxAgent.parsePackagePrefixes("com.example, de.tum.in.student"));
+		assertThat(restricted.transform(loader, name, null, CallSitePenguin.class.getProtectionDomain(), classFile))
+				.isNull();
+	}
+
+	@Test
+	void testParsePackagePrefixes() {
+		assertThat(SandboxAgent.parsePackagePrefixes(null)).isEmpty();
+		assertThat(SandboxAgent.parsePackagePrefixes("de.tum.in.student, com.example,"))
+				.containsExactly("de/tum/in/student/", "com/example/");
+	}
+
+	private static void isThrownBySandboxCallSites(Throwable t) {
+		assertThat(t.getStackTrace()).anyMatch(ste -> ste.getClassName().equals(SandboxCallSites.class.getName()));
+	}
+
+	private static Object call(Class<?> type, String name, Object... args) throws Exception {
+		for (Method method : type.getMethods()) {
+			if (method.getName().equals(name)) {
+				try {
+					return method.invoke(null, args);
+				} catch (InvocationTargetException e) {
+					if (e.getCause() instanceof Exception)
+						throw (Exception) e.getCause();
+					throw e;
+				}
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private static List<String> checksOf(byte[] classFile) {
+		List<String> checks = new ArrayList<>();
+		new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				return new MethodVisitor(Opcodes.ASM9) {
+					@Override
+					public void visitMethodInsn(int opcode, String owner, String name, String descriptor,
+							boolean isInterface) {
+						if (owner.equals("de/tum/in/test/api/security/SandboxCallSites"))
+							checks.add(name);
+					}
+				};
+			}
+		}, 0);
+		return checks;
+	}
+
+	private static List<String> methodsOf(byte[] classFile) {
+		List<String> methods = new ArrayList<>();
+		new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				methods.add(name);
+				return null;
+			}
+		}, 0);
+		return methods;
+	}
+
+	private static byte[] instrument(Class<?> type) throws IOException {
+		return CallSiteTransformer.instrument(classFileOf(type), CallSiteTransformerTest.class.getClassLoader());
+	}
+
+	private static byte[] classFileOf(Class<?> type) throws IOException {
+		try (InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static byte[] withMajorVersion(byte[] classFile, int majorVersion) {
+		byte[] result = classFile.clone();
+		result[6] = (byte) (majorVersion >>> 8);
+		result[7] = (byte) majorVersion;
+		return result;
+	}
+
+	private static int majorVersionOf(byte[] classFile) {
+		return (classFile[6] & 0xFF) << 8 | classFile[7] & 0xFF;
+	}
+
+	private static Class<?> instrumentedPenguin() throws IOException, ClassNotFoundException {
+		return defineAndInitialize(CallSitePenguin.class, instrument(CallSitePenguin.class));
+	}
+
+	/**
+	 * Defines the class file as the given type in a new class loader, the other
+	 * classes are shared.
+	 */
+	private static Class<?> defineAndInitialize(Class<?> type, byte[] classFile) throws ClassNotFoundException {
+		var loader = new ClassLoader(CallSiteTransformerTest.class.getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				if (!name.equals(type.getName()))
+					return super.loadClass(name, resolve);
+				synchronized (getClassLoadingLock(name)) {
+					Class<?> loaded = findLoadedClass(name);
+					if (loaded == null)
+						loaded = defineClass(name, classFile, 0, classFile.length);
+					return loaded;
+				}
+			}
+		};
+		return Class.forName(type.getName(), true, loader);
+	}
+}
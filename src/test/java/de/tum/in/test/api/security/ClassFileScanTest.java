@@ -0,0 +1,101 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.testuser.subject.CallSitePenguin;
+import de.tum.in.testuser.subject.CallbackPenguin;
+import de.tum.in.testuser.subject.DescriptorPenguin;
+import de.tum.in.testuser.subject.ForwardingPenguin;
+import de.tum.in.testuser.subject.PackageAccessPenguin;
+import de.tum.in.testuser.subject.scan.ScanTarget;
+
+class ClassFileScanTest {
+
+	@Test
+	void testGuardedReferences() throws IOException {
+		var scan = ClassFileScan.parse(classFileOf(CallSitePenguin.class));
+		assertThat(scan.getClassName()).isEqualTo(CallSitePenguin.class.getName());
+		assertThat(scan.getFamilies()).containsExactlyInAnyOrder(ApiFamily.FILE_SYSTEM, ApiFamily.PROCESS,
+				ApiFamily.RUNTIME, ApiFamily.THREADS, ApiFamily.REFLECTION);
+		assertThat(scan.getGuardedReferences()).contains("java/nio/file/Files.readString", "java/lang/System.exit",
+				"java/io/FileInputStream.<init>", "java/lang/Runtime.exec", "java/lang/reflect/Method.invoke");
+		assertThat(scan.cannotReachPackage("java.util")).isFalse();
+	}
+
+	@Test
+	void testNoGuardedReferences() throws IOException {
+		var scan = ClassFileScan.parse(classFileOf(CallbackPenguin.class));
+		assertThat(scan.getFamilies()).isEmpty();
+		assertThat(scan.getGuardedReferences()).isEmpty();
+		assertThat(scan.cannotReachPackage("java.util.regex")).isTrue();
+		assertThat(ClassFileScan.parse(classFileOf(PackageAccessPenguin.class)).cannotReachPackage("java.util.regex"))
+				.isFalse();
+	}
+
+	@Test
+	void testClassesOnlyInDescriptors() throws IOException {
+		var scan = ClassFileScan.parse(classFileOf(DescriptorPenguin.class));
+		assertThat(scan.getReferencedClasses()).contains(ScanTarget.class.getName());
+		assertThat(scan.cannotReachPackage(ScanTarget.class.getPackageName())).isFalse();
+	}
+
+	@Test
+	void testCachedByContent() throws IOException {
+		byte[] classFile = classFileOf(CallbackPenguin.class);
+		assertThat(ClassFileScan.of(classFile)).isSameAs(ClassFileScan.of(classFile.clone()));
+	}
+
+	@Test
+	void testMalformedClassFile() {
+		assertThatIOException().isThrownBy(() -> ClassFileScan.parse(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
+	@Test
+	void testBytecodeScan() throws Exception {
+		Path testClasses = Path.of(CallbackPenguin.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		var scan = BytecodeScan.of(testClasses, StackWhitelistMatcher.STATIC);
+		assertThat(scan.get(CallSitePenguin.class)).isNotNull();
+		assertThat(scan.get(CallbackPenguin.class).getFamilies()).isEmpty();
+		// trusted by name or not from the scanned directory
+		assertThat(scan.get(ClassFileScanTest.class)).isNull();
+		assertThat(scan.get(String.class)).isNull();
+		assertThat(scan.getGuardedApiUsers()).extracting(ClassFileScan::getClassName)
+				.contains(CallSitePenguin.class.getName()).doesNotContain(CallbackPenguin.class.getName());
+		assertThat(scan.markReported()).isTrue();
+		assertThat(scan.markReported()).isFalse();
+	}
+
+	@Test
+	void testBytecodeScanFollowsReferences() throws Exception {
+		Path testClasses = Path.of(CallbackPenguin.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		var scan = BytecodeScan.of(testClasses, StackWhitelistMatcher.STATIC);
+		String scanPackage = ScanTarget.class.getPackageName();
+		assertThat(scan.cannotReachPackage(CallbackPenguin.class, scanPackage)).isTrue();
+		assertThat(scan.get(ForwardingPenguin.class).cannotReachPackage(scanPackage)).isTrue();
+		assertThat(scan.cannotReachPackage(ForwardingPenguin.class, scanPackage)).isFalse();
+		assertThat(scan.cannotReachPackage(CallSitePenguin.class, "java.util.regex")).isFalse();
+		assertThat(scan.cannotReachPackage(String.class, scanPackage)).isFalse();
+	}
+
+	@Test
+	void testBytecodeScanSharedPerExecutionPath() throws Exception {
+		Path testClasses = Path.of(CallbackPenguin.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		var first = BytecodeScan.of(testClasses, StackWhitelistMatcher.STATIC);
+		var second = BytecodeScan.of(testClasses, StackWhitelistMatcher.STATIC);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.get(CallbackPenguin.class)).isSameAs(first.get(CallbackPenguin.class));
+		assertThat(second.markReported()).isTrue();
+	}
+
+	private static byte[] classFileOf(Class<?> type) throws IOException {
+		try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+			return in.readAllBytes();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.test.api.TestUtils;
+import de.tum.in.test.api.security.SecurityMetrics.CommonPoolDrain;
+
+class CommonPoolDrainerTest {
+
+	private final ForkJoinPool pool = new ForkJoinPool(2);
+	private final CommonPoolDrainer drainer = new CommonPoolDrainer(pool, TestUtils.getRootThreadGroup());
+	private final CountDownLatch started = new CountDownLatch(1);
+	private final AtomicBoolean release = new AtomicBoolean();
+
+	@AfterEach
+	void shutdown() {
+		release.set(true);
+		pool.shutdownNow();
+	}
+
+	@Test
+	void testQuiescentPool() {
+		assertThat(drainer.drain(Duration.ofSeconds(1))).isNull();
+	}
+
+	@Test
+	void testDrainAfterInterrupt() throws InterruptedException {
+		pool.execute(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(60_000);
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				// terminate
+			}
+		});
+		started.await();
+
+		CommonPoolDrain drain = drainer.drain(Duration.ofSeconds(5));
+		assertThat(drain.isQuiescent()).isTrue();
+		assertThat(drain.getInterruptedWorkers()).isPositive();
+		// returns as soon as the pool is quiescent instead of using up the budget
+		assertThat(drain.getDuration()).isLessThan(Duration.ofSeconds(1));
+	}
+
+	@Test
+	void testBudgetUsedUp() throws InterruptedException {
+		pool.execute(() -> {
+			started.countDown();
+			while (!release.get())
+				Thread.onSpinWait();
+		});
+		started.await();
+
+		CommonPoolDrain drain = drainer.drain(Duration.ofMillis(30));
+		assertThat(drain.isQuiescent()).isFalse();
+		assertThat(drain.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(30));
+	}
+}
@@ -0,0 +1,104 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LiveThreadCounterTest {
+
+	private final LiveThreadCounter counter = new LiveThreadCounter();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void releaseThreads() {
+		release.countDown();
+	}
+
+	private Thread startBlockingThread() {
+		Thread thread = new Thread(() -> {
+			try {
+				release.await();
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				// end
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	@Test
+	void testLimit() {
+		Thread first = startBlockingThread();
+		Thread second = new Thread();
+		assertThat(counter.tryRegister(first, 0)).isTrue();
+		assertThat(counter.tryRegister(first, 0)).isTrue();
+		assertThat(counter.tryRegister(second, 0)).isFalse();
+		assertThat(counter.count()).isEqualTo(1);
+		assertThat(counter.tryRegister(second, 1)).isTrue();
+		assertThat(counter.count()).isEqualTo(2);
+	}
+
+	@Test
+	void testTerminatedThreadsAreRemoved() throws InterruptedException {
+		Thread terminated = new Thread(() -> {
+			// nothing
+		});
+		assertThat(counter.tryRegister(terminated, 0)).isTrue();
+		terminated.start();
+		terminated.join();
+		assertThat(counter.count()).isEqualTo(1);
+		assertThat(counter.tryRegister(new Thread(), 0)).isTrue();
+		assertThat(counter.count()).isEqualTo(1);
+	}
+
+	@Test
+	void testUnstartedThreadsOnlyCountOnceStarted() {
+		Thread unstarted = new Thread(() -> {
+			try {
+				release.await();
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				// end
+			}
+		});
+		assertThat(counter.tryRegister(unstarted, 0)).isTrue();
+		// a thread that is never started does not block later threads
+		assertThat(counter.tryRegister(new Thread(), 0)).isTrue();
+		assertThat(counter.count()).isEqualTo(2);
+		// it still counts once it is started
+		unstarted.start();
+		assertThat(counter.tryRegister(new Thread(), 0)).isFalse();
+		assertThat(counter.countAlive(null)).isEqualTo(1);
+	}
+
+	@Test
+	void testConcurrentRegistrationAboveLimit() throws InterruptedException {
+		int max = 3;
+		for (int i = 0; i <= max; i++)
+			assertThat(counter.tryRegister(startBlockingThread(), max)).isTrue();
+		Thread[] registering = new Thread[64];
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger registered = new AtomicInteger();
+		for (int i = 0; i < registering.length; i++) {
+			registering[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					return;
+				}
+				if (counter.tryRegister(new Thread(), max))
+					registered.incrementAndGet();
+			});
+			registering[i].start();
+		}
+		start.countDown();
+		for (Thread thread : registering)
+			thread.join();
+		assertThat(registered.get()).isZero();
+		assertThat(counter.count()).isEqualTo(max + 1);
+	}
+}
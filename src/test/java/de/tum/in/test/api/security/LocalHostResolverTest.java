@@ -0,0 +1,34 @@
+package de.tum.in.test.api.security;
+
+import static de.tum.in.test.api.security.LocalHostResolver.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LocalHostResolverTest {
+
+	@Test
+	void testIPv4Literals() {
+		assertThat(classifyIPv4Literal("127.0.0.1")).isEqualTo(LOCAL_LITERAL);
+		assertThat(classifyIPv4Literal("127.255.1.2")).isEqualTo(LOCAL_LITERAL);
+		assertThat(classifyIPv4Literal("0.0.0.0")).isEqualTo(LOCAL_LITERAL);
+		assertThat(classifyIPv4Literal("192.168.0.1")).isEqualTo(REMOTE_LITERAL);
+		assertThat(classifyIPv4Literal("256.0.0.1")).isEqualTo(NOT_A_LITERAL);
+		assertThat(classifyIPv4Literal("127.0.0")).isEqualTo(NOT_A_LITERAL);
+		assertThat(classifyIPv4Literal("127.0.0.1.")).isEqualTo(NOT_A_LITERAL);
+		assertThat(classifyIPv4Literal("127..0.1")).isEqualTo(NOT_A_LITERAL);
+		assertThat(classifyIPv4Literal("example.org")).isEqualTo(NOT_A_LITERAL);
+	}
+
+	@Test
+	void testLocalHost() {
+		var resolver = new LocalHostResolver();
+		assertThat(resolver.isLocalHost("localhost")).isTrue();
+		assertThat(resolver.isLocalHost("LOCALHOST")).isTrue();
+		assertThat(resolver.isLocalHost("127.0.0.1")).isTrue();
+		assertThat(resolver.isLocalHost("::1")).isTrue();
+		assertThat(resolver.isLocalHost("10.0.0.1")).isFalse();
+		// cached verdict
+		assertThat(resolver.isLocalHost("::1")).isTrue();
+	}
+}
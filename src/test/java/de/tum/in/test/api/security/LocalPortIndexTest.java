@@ -0,0 +1,37 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.OptionalInt;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LocalPortIndexTest {
+
+	@Test
+	void testAllowedOnly() {
+		var index = LocalPortIndex.of(Set.of(80, 8080), OptionalInt.empty(), Set.of());
+		assertThat(index.isAllowed(80)).isTrue();
+		assertThat(index.isAllowed(8080)).isTrue();
+		assertThat(index.isAllowed(81)).isFalse();
+		assertThat(index.isAllowed(65535)).isFalse();
+	}
+
+	@Test
+	void testAboveWithExclusions() {
+		var index = LocalPortIndex.of(Set.of(1025), OptionalInt.of(1024), Set.of(1025, 2000));
+		assertThat(index.isAllowed(1024)).isFalse();
+		assertThat(index.isAllowed(1025)).isTrue();
+		assertThat(index.isAllowed(1026)).isTrue();
+		assertThat(index.isAllowed(2000)).isFalse();
+		assertThat(index.isAllowed(65535)).isTrue();
+	}
+
+	@Test
+	void testOutOfRange() {
+		var index = LocalPortIndex.of(Set.of(), OptionalInt.of(0), Set.of());
+		assertThat(index.isAllowed(-1)).isFalse();
+		assertThat(index.isAllowed(65536)).isFalse();
+	}
+}
@@ -0,0 +1,68 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.tum.in.test.api.util.PackageRule;
+import de.tum.in.test.api.util.RuleType;
+
+class PackageAccessMatcherTest {
+
+	private static final Set<PackageRule> BLACKLIST = PackageRule
+			.from(RuleType.BLACKLIST, "java.net**", "java.*.spi", "org.*.internal.**", "com.example", "a***b", "**.x")
+			.collect(Collectors.toSet());
+	private static final Set<PackageRule> WHITELIST = PackageRule
+			.from(RuleType.WHITELIST, "java.net.http", "org.foo.internal.ok**", "**.x.y*").collect(Collectors.toSet());
+	private static final List<String> PACKAGES = List.of("java.net", "java.netx", "java.net.http", "java.net.httpx",
+			"java.nio.spi", "java.nio.channels.spi", "java.spi", "org.foo.internal", "org.foo.internal.bar",
+			"org.foo.internal.ok", "org.foo.internal.okay.x", "org.foo.bar.internal.x", "com.example",
+			"com.example.sub", "ab", "a.b", "a.x.b", "ax.b.c", "b.x", "b.x.y", "b.x.yz", "b.x.y.z", "x", ".x", "",
+			"java", "sun.misc", "sunny", "jdk.internal.misc", "de.tum.in.test.api.internal",
+			"de.tum.in.test.api.security", "de.tum.in.test.api");
+
+	private final PackageAccessMatcher matcher = PackageAccessMatcher.of(BLACKLIST, WHITELIST);
+
+	@Test
+	void testEquivalentToRegex() {
+		for (String packageName : PACKAGES) {
+			boolean blacklisted = BLACKLIST.stream().anyMatch(rule -> rule.matches(packageName));
+			boolean whitelisted = WHITELIST.stream().anyMatch(rule -> rule.matches(packageName));
+			boolean builtIn = SecurityConstants.PACKAGE_USE_BLACKLIST.stream().anyMatch(packageName::startsWith);
+			int match = matcher.getMatch(packageName);
+			assertThat((match & PackageAccessMatcher.BLACKLISTED) != 0).as("BL %s", packageName).isEqualTo(blacklisted);
+			assertThat((match & PackageAccessMatcher.WHITELISTED) != 0).as("WL %s", packageName).isEqualTo(whitelisted);
+			assertThat((match & PackageAccessMatcher.BUILT_IN_FORBIDDEN) != 0).as("built-in %s", packageName)
+					.isEqualTo(builtIn);
+			assertThat(matcher.isForbidden(packageName)).as("forbidden %s", packageName)
+					.isEqualTo(builtIn || (blacklisted && !whitelisted));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "java.net", "java.nio.spi", "org.foo.internal.x", "sun.misc", "jdk.internal.misc" })
+	void testForbidden(String packageName) {
+		assertThat(matcher.isForbidden(packageName)).isTrue();
+		// second call is answered by the memoized result
+		assertThat(matcher.isForbidden(packageName)).isTrue();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "java.net.http", "java.util", "org.foo.internal.okay", "com.example.sub", "b.x.y" })
+	void testAllowed(String packageName) {
+		assertThat(matcher.isForbidden(packageName)).isFalse();
+		assertThat(matcher.isForbidden(packageName)).isFalse();
+	}
+
+	@Test
+	void testStaticMatcher() {
+		assertThat(PackageAccessMatcher.STATIC.isForbidden("de.tum.in.test.api.security")).isTrue();
+		assertThat(PackageAccessMatcher.STATIC.isForbidden("java.net")).isFalse();
+	}
+}
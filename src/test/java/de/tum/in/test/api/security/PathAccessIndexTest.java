@@ -0,0 +1,107 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.PathActionLevel;
+import de.tum.in.test.api.PathType;
+import de.tum.in.test.api.WhitelistPath;
+import de.tum.in.test.api.security.PathAccessIndex.Verdict;
+import de.tum.in.test.api.util.PathRule;
+
+class PathAccessIndexTest {
+
+	private static final Path EXECUTION_PATH = Path.of("").toAbsolutePath();
+
+	private final PathAccessIndex index = PathAccessIndex.of(Optional.of(rulesOf(WhitelistPath.class)),
+			rulesOf(BlacklistPath.class), EXECUTION_PATH);
+
+	@ParameterizedTest
+	@ValueSource(strings = { "src/main/java/A.java", "src/main/../main/java", "pom.xml", "target/x.txt",
+			"docs/a/b/readme.md", "some/deep/file.json" })
+	void testWhitelisted(String path) {
+		assertThat(index.getVerdict(Path.of(path), PathActionLevel.READ)).isEqualTo(Verdict.WHITELISTED);
+		// second call is answered by the verdict cache
+		assertThat(index.getVerdict(Path.of(path), PathActionLevel.READ)).isEqualTo(Verdict.WHITELISTED);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "src/test/A.java", "pom.xml.bak", "srcx/main", "docs/readme.md", "target/../x.txt",
+			"some/deep/file.txt", "/" })
+	void testNotWhitelisted(String path) {
+		assertThat(index.getVerdict(Path.of(path), PathActionLevel.READ).isWhitelisted()).isFalse();
+	}
+
+	@Test
+	void testActionLevels() {
+		assertThat(index.getVerdict(Path.of("target/x.txt"), PathActionLevel.DELETE)).isEqualTo(Verdict.WHITELISTED);
+		assertThat(index.getVerdict(Path.of("target/x.txt"), PathActionLevel.EXECUTE)).isEqualTo(Verdict.NONE);
+		assertThat(index.getVerdict(Path.of("pom.xml"), PathActionLevel.WRITE)).isEqualTo(Verdict.NONE);
+	}
+
+	@Test
+	void testBlacklist() {
+		assertThat(index.getVerdict(Path.of("src/main/java/secret/Key.java"), PathActionLevel.READ))
+				.isEqualTo(Verdict.BLACKLISTED_AND_WHITELISTED);
+		assertThat(index.getVerdict(Path.of("target/classes/A.class"), PathActionLevel.READ))
+				.isEqualTo(Verdict.WHITELISTED);
+		assertThat(index.getVerdict(Path.of("target/classes/A.class"), PathActionLevel.WRITE))
+				.isEqualTo(Verdict.BLACKLISTED_AND_WHITELISTED);
+		assertThat(index.getVerdict(Path.of("tmp/file.secret"), PathActionLevel.READ)).isEqualTo(Verdict.BLACKLISTED);
+		assertThat(index.getVerdict(Path.of("tmp/file.secret"), PathActionLevel.READ).isAllowed()).isFalse();
+	}
+
+	@Test
+	void testDefaultExecutionPath() {
+		var defaultIndex = PathAccessIndex.of(Optional.empty(), Set.of(), EXECUTION_PATH.resolve("src"));
+		assertThat(defaultIndex.getVerdict(Path.of("src/A.java"), PathActionLevel.EXECUTE).isAllowed()).isTrue();
+		assertThat(defaultIndex.getVerdict(Path.of("src/../pom.xml"), PathActionLevel.READ).isAllowed()).isFalse();
+		assertThat(defaultIndex.getVerdict(Path.of("pom.xml"), PathActionLevel.READ).isAllowed()).isFalse();
+	}
+
+	@Test
+	void testLiteralBase() {
+		assertThat(PathType.GLOB.getLiteralBase("src/main/*.java")).contains(EXECUTION_PATH.resolve("src/main"));
+		assertThat(PathType.GLOB.getLiteralBase("../x/y")).contains(EXECUTION_PATH.getParent().resolve("x/y"));
+		assertThat(PathType.GLOB.getLiteralBase("**/*.java")).isEmpty();
+		assertThat(PathType.REGEX.getLiteralBase("src/.*")).isEmpty();
+		assertThat(PathType.GLOB_ABSOLUTE.getLiteralBase("relative/*")).isEmpty();
+		assertThat(PathType.STARTS_WITH.getLiteralBase("a/../b")).contains(EXECUTION_PATH.resolve("b"));
+	}
+
+	private static <A extends java.lang.annotation.Annotation> List<PathRule> rulesOf(Class<A> annotationType) {
+		try {
+			var method = PathAccessIndexTest.class.getDeclaredMethod("annotated");
+			return Stream.of(method.getAnnotationsByType(annotationType)).flatMap(annotation -> {
+				if (annotation instanceof WhitelistPath)
+					return PathRule.allOf((WhitelistPath) annotation);
+				return PathRule.allOf((BlacklistPath) annotation);
+			}).collect(Collectors.toList());
+		} catch (NoSuchMethodException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@WhitelistPath("src/main")
+	@WhitelistPath(value = "pom.xml", type = PathType.EXACT)
+	@WhitelistPath(value = "target", level = PathActionLevel.DELETE)
+	@WhitelistPath(value = "docs/**/*.md", type = PathType.GLOB)
+	@WhitelistPath(value = ".*\\.json", type = PathType.REGEX)
+	@BlacklistPath(value = "src/main/java/secret")
+	@BlacklistPath(value = "target/classes/**", type = PathType.GLOB, level = PathActionLevel.WRITE)
+	@BlacklistPath(value = ".*\\.secret", type = PathType.REGEX)
+	private static void annotated() {
+		// only used for the annotations
+	}
+}
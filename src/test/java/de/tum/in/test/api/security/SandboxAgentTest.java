@@ -0,0 +1,77 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.tum.in.testuser.subject.CallSitePenguin;
+
+class SandboxAgentTest {
+
+	private static final String NOT_A_COMMAND = "ares-call-site-test-no-such-command";
+
+	/**
+	 * Starting with Java 12, the security manager can be disallowed, which is the
+	 * default since Java 18.
+	 */
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_12)
+	void testAgentWithSecurityManagerDisallowed(@TempDir Path tempDir) throws Exception {
+		Path agentJar = tempDir.resolve("agent.jar");
+		var manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue("Premain-Class", SandboxAgent.class.getName());
+		try (var out = new JarOutputStream(Files.newOutputStream(agentJar), manifest)) {
+			// the classes are on the class path
+		}
+		Path output = tempDir.resolve("output.txt");
+		var process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-Djava.security.manager=disallow", "-javaagent:" + agentJar, "-cp",
+				System.getProperty("java.class.path"), AgentMain.class.getName()).redirectErrorStream(true)
+						.redirectOutput(output.toFile()).start();
+		assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+		List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+		assertThat(process.exitValue()).as("exit value, output: %s", lines).isZero();
+		assertThat(lines).containsSubsequence("installed: true", "exec: denied", "uninstalled");
+	}
+
+	/**
+	 * Runs in a JVM started with the agent
+	 */
+	static final class AgentMain {
+
+		private AgentMain() {
+
+		}
+
+		public static void main(String[] args) {
+			String token = ArtemisSecurityManager
+					.install(ArtemisSecurityConfigurationBuilder.create().withCurrentPath().build());
+			System.out.println("installed: " + ArtemisSecurityManager.isInstalled());
+			try {
+				CallSitePenguin.exec(NOT_A_COMMAND);
+				System.out.println("exec: allowed");
+			} catch (@SuppressWarnings("unused") SecurityException e) {
+				System.out.println("exec: denied");
+			} catch (@SuppressWarnings("unused") IOException e) {
+				System.out.println("exec: allowed");
+			} finally {
+				ArtemisSecurityManager.uninstall(token);
+			}
+			System.out.println("uninstalled");
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.test.api.security.SecurityAuditLog.AuditRecord;
+import de.tum.in.test.api.security.SecurityAuditLog.Kind;
+
+class SecurityAuditLogTest {
+
+	private final List<AuditRecord> drained = new ArrayList<>();
+
+	@Test
+	void testRecordsAreDrainedInOrder() {
+		var auditLog = new SecurityAuditLog(4, 1, drained::add);
+		for (int round = 0; round < 3; round++) {
+			assertThat(auditLog.record(Kind.PACKAGE_DEFINITION, "a", null, null)).isTrue(); //$NON-NLS-1$
+			assertThat(auditLog.record(Kind.CONNECTION_REQUEST, "host", 80, null)).isTrue(); //$NON-NLS-1$
+			assertThat(auditLog.drain()).isEqualTo(2);
+		}
+		assertThat(drained).extracting(AuditRecord::getKind).containsExactly(Kind.PACKAGE_DEFINITION,
+				Kind.CONNECTION_REQUEST, Kind.PACKAGE_DEFINITION, Kind.CONNECTION_REQUEST, Kind.PACKAGE_DEFINITION,
+				Kind.CONNECTION_REQUEST);
+		assertThat(drained.get(1).getThreadName()).isEqualTo(Thread.currentThread().getName());
+		assertThat(drained.get(1)).hasToString("Connection use request: host:80 [NWSF: null] [" //$NON-NLS-1$
+				+ Thread.currentThread().getName() + ", " + drained.get(1).getTimestamp() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	void testFullBufferDropsRecords() {
+		var auditLog = new SecurityAuditLog(2, 1, drained::add);
+		assertThat(auditLog.record(Kind.PACKAGE_DEFINITION, "a", null, null)).isTrue(); //$NON-NLS-1$
+		assertThat(auditLog.record(Kind.PACKAGE_DEFINITION, "b", null, null)).isTrue(); //$NON-NLS-1$
+		assertThat(auditLog.record(Kind.PACKAGE_DEFINITION, "c", null, null)).isFalse(); //$NON-NLS-1$
+		assertThat(auditLog.getDropped()).isEqualTo(1);
+		assertThat(auditLog.takeNewlyDropped()).isEqualTo(1);
+		assertThat(auditLog.takeNewlyDropped()).isZero();
+		auditLog.drain();
+		assertThat(auditLog.record(Kind.PACKAGE_DEFINITION, "d", null, null)).isTrue(); //$NON-NLS-1$
+		auditLog.drain();
+		assertThat(drained).extracting(AuditRecord::getTarget).containsExactly("a", "b", "d"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	@Test
+	void testRepeatedRecordsAreSampled() {
+		var auditLog = new SecurityAuditLog(64, 10, drained::add);
+		for (int i = 0; i < 25; i++) {
+			auditLog.record(Kind.BAD_PATH_ACCESS, "secret", "(BL:true, WL:false)", null); //$NON-NLS-1$ //$NON-NLS-2$
+			auditLog.record(Kind.BAD_PATH_ACCESS, "other" + i, "(BL:true, WL:false)", null); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		auditLog.drain();
+		assertThat(drained).filteredOn(auditRecord -> "secret".equals(auditRecord.getTarget())) //$NON-NLS-1$
+				.extracting(AuditRecord::getSuppressed).containsExactly(0L, 9L, 9L);
+		assertThat(drained).filteredOn(auditRecord -> !"secret".equals(auditRecord.getTarget())).hasSize(25); //$NON-NLS-1$
+		var sampled = drained.stream().filter(auditRecord -> auditRecord.getSuppressed() > 0).findFirst().get();
+		assertThat(sampled).hasToString("BAD PATH ACCESS: secret (BL:true, WL:false) [" //$NON-NLS-1$
+				+ Thread.currentThread().getName() + ", " + sampled.getTimestamp() + "] (9 similar suppressed)"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	void testFlushEndsSampling() {
+		var auditLog = new SecurityAuditLog(64, 10, drained::add);
+		for (int i = 0; i < 25; i++)
+			auditLog.record(Kind.BAD_PATH_ACCESS, "secret", "(BL:true, WL:false)", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertThat(auditLog.flush(Duration.ofSeconds(10))).isTrue();
+		// the last of the four pending records is passed on
+		assertThat(drained).extracting(AuditRecord::getSuppressed).containsExactly(0L, 9L, 9L, 3L);
+		// the next test starts with a fresh sampling
+		auditLog.record(Kind.BAD_PATH_ACCESS, "secret", "(BL:true, WL:false)", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertThat(auditLog.flush(Duration.ofSeconds(10))).isTrue();
+		assertThat(drained).extracting(AuditRecord::getSuppressed).containsExactly(0L, 9L, 9L, 3L, 0L);
+	}
+
+	@Test
+	void testFlushEndsSamplingWithConsumerThread() {
+		List<AuditRecord> received = new CopyOnWriteArrayList<>();
+		var auditLog = new SecurityAuditLog(64, 10, received::add);
+		auditLog.start("audit-test-consumer", dropped -> { //$NON-NLS-1$
+			// counted by the log
+		});
+		for (int i = 0; i < 5; i++)
+			auditLog.record(Kind.NON_WHITELISTED_FRAME, null, null, null);
+		assertThat(auditLog.flush(Duration.ofSeconds(10))).isTrue();
+		assertThat(received).extracting(AuditRecord::getSuppressed).containsExactly(0L, 3L);
+		auditLog.record(Kind.NON_WHITELISTED_FRAME, null, null, null);
+		assertThat(auditLog.flush(Duration.ofSeconds(10))).isTrue();
+		assertThat(received).extracting(AuditRecord::getSuppressed).containsExactly(0L, 3L, 0L);
+	}
+
+	@Test
+	void testConcurrentProducersWithConsumerThread() throws InterruptedException {
+		List<AuditRecord> received = new CopyOnWriteArrayList<>();
+		var auditLog = new SecurityAuditLog(256, 1, received::add);
+		auditLog.start("audit-test-consumer", dropped -> { //$NON-NLS-1$
+			// counted by the log
+		});
+		int perProducer = 2000;
+		Thread[] producers = new Thread[4];
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger recorded = new AtomicInteger();
+		for (int i = 0; i < producers.length; i++) {
+			String target = "producer" + i; //$NON-NLS-1$
+			producers[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					return;
+				}
+				for (int j = 0; j < perProducer; j++) {
+					if (auditLog.record(Kind.CONNECTION_REQUEST, target, j, null))
+						recorded.incrementAndGet();
+				}
+			});
+			producers[i].start();
+		}
+		start.countDown();
+		for (Thread producer : producers)
+			producer.join();
+		assertThat(auditLog.flush(Duration.ofSeconds(10))).isTrue();
+		assertThat(received).hasSize(recorded.get());
+		assertThat(recorded.get() + auditLog.getDropped()).isEqualTo(producers.length * perProducer);
+		// records of one producer keep their order
+		for (int i = 0; i < producers.length; i++) {
+			String target = "producer" + i; //$NON-NLS-1$
+			assertThat(received).filteredOn(auditRecord -> target.equals(auditRecord.getTarget()))
+					.extracting(auditRecord -> (Integer) auditRecord.getDetail()).isSorted();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.test.api.security.SecurityMetrics.CommonPoolDrain;
+import de.tum.in.test.api.security.SecurityMetrics.Hook;
+import de.tum.in.test.api.security.SecurityMetrics.HookStatistics;
+import de.tum.in.test.api.security.SecurityMetrics.Teardown;
+import de.tum.in.test.api.security.SecurityMetrics.TeardownPath;
+import de.tum.in.test.api.security.SecurityMetrics.TeardownReason;
+import de.tum.in.test.api.security.SecurityMetrics.Verdict;
+
+class SecurityMetricsRecorderTest {
+
+	private final SecurityMetricsRecorder recorder = new SecurityMetricsRecorder();
+
+	@Test
+	void testRecordAndSnapshot() {
+		long now = System.nanoTime();
+		recorder.recordGranted(Hook.CHECK_PERMISSION, now);
+		recorder.recordGranted(Hook.CHECK_PERMISSION, now);
+		recorder.recordGranted(Hook.CHECK_PATH_ACCESS, now);
+		recorder.recordDenied(Hook.CHECK_PERMISSION, now - TimeUnit.MILLISECONDS.toNanos(5),
+				new SecurityException("denied")); //$NON-NLS-1$
+
+		SecurityMetrics metrics = recorder.snapshot();
+		HookStatistics granted = metrics.get(Hook.CHECK_PERMISSION, Verdict.GRANTED);
+		HookStatistics denied = metrics.get(Hook.CHECK_PERMISSION, Verdict.DENIED);
+		assertThat(granted.getCount()).isEqualTo(2);
+		assertThat(granted.getHistogram()).hasSize(SecurityMetrics.HISTOGRAM_BUCKETS);
+		assertThat(LongStream.of(granted.getHistogram()).sum()).isEqualTo(2);
+		assertThat(denied.getCount()).isEqualTo(1);
+		assertThat(denied.getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+		assertThat(denied.getPercentileUpperBoundNanos(99)).isEqualTo(denied.getMaxNanos());
+		assertThat(metrics.get(Hook.CHECK_CONNECT, Verdict.GRANTED)).isEqualTo(HookStatistics.EMPTY);
+		// path checks are nested in checkPermission and not counted twice
+		assertThat(metrics.getTotalTime().toNanos()).isEqualTo(granted.getTotalNanos() + denied.getTotalNanos());
+	}
+
+	@Test
+	void testSnapshotIsDetached() {
+		recorder.recordGranted(Hook.CHECK_THREAD_ACCESS, System.nanoTime());
+		SecurityMetrics metrics = recorder.snapshot();
+		recorder.recordGranted(Hook.CHECK_THREAD_ACCESS, System.nanoTime());
+		assertThat(metrics.get(Hook.CHECK_THREAD_ACCESS, Verdict.GRANTED).getCount()).isEqualTo(1);
+		assertThat(recorder.snapshot().get(Hook.CHECK_THREAD_ACCESS, Verdict.GRANTED).getCount()).isEqualTo(2);
+	}
+
+	@Test
+	void testReportEntries() {
+		recorder.recordGranted(Hook.CHECK_PACKAGE_ACCESS, System.nanoTime());
+		assertThat(recorder.snapshot().toReportEntries()).containsOnlyKeys("security.totalTime",
+				"security.checkPackageAccess");
+		assertThat(recorder.snapshot().toReportEntries().get("security.checkPackageAccess"))
+				.startsWith("granted: 1 in ").endsWith("denied: 0");
+	}
+
+	@Test
+	void testTeardown() {
+		SecurityMetrics metrics = recorder.snapshot();
+		assertThat(metrics.getTeardown()).isEmpty();
+		var teardown = new Teardown(Set.of(TeardownReason.THREADS_CREATED), Duration.ofMillis(3));
+		SecurityMetrics withTeardown = metrics.withTeardown(teardown);
+		assertThat(withTeardown.getTeardown()).containsSame(teardown);
+		assertThat(withTeardown.toReportEntries()).containsEntry("security.teardown",
+				"GC_AND_FINALIZATION in 3.0 ms (THREADS_CREATED)");
+	}
+
+	@Test
+	void testCommonPoolDrain() {
+		SecurityMetrics metrics = recorder.snapshot();
+		assertThat(metrics.getCommonPoolDrain()).isEmpty();
+		var drain = new CommonPoolDrain(2, true, Duration.ofMillis(4));
+		SecurityMetrics withDrain = metrics.withTeardown(new Teardown(Set.of(), Duration.ZERO))
+				.withCommonPoolDrain(drain);
+		assertThat(withDrain.getCommonPoolDrain()).containsSame(drain);
+		assertThat(withDrain.getTeardown()).isPresent();
+		assertThat(withDrain.toReportEntries()).containsEntry("security.commonPoolDrain",
+				"quiescent after 4.0 ms (2 workers interrupted)");
+	}
+
+	@Test
+	void testTeardownPath() {
+		assertThat(TeardownPath.of(Set.of())).isEqualTo(TeardownPath.SKIPPED);
+		assertThat(TeardownPath.of(Set.of(TeardownReason.PENDING_FINALIZATION)))
+				.isEqualTo(TeardownPath.FINALIZATION_ONLY);
+		assertThat(TeardownPath.of(Set.of(TeardownReason.PENDING_FINALIZATION, TeardownReason.HEAP_GROWTH)))
+				.isEqualTo(TeardownPath.GC_AND_FINALIZATION);
+		assertThat(TeardownPath.of(Set.of(TeardownReason.STRICT_MODE))).isEqualTo(TeardownPath.GC_AND_FINALIZATION);
+	}
+
+	@Test
+	void testBuckets() {
+		assertThat(SecurityMetricsRecorder.bucketOf(0)).isZero();
+		assertThat(SecurityMetricsRecorder.bucketOf(1)).isZero();
+		assertThat(SecurityMetricsRecorder.bucketOf(2)).isEqualTo(1);
+		assertThat(SecurityMetricsRecorder.bucketOf(1023)).isEqualTo(9);
+		assertThat(SecurityMetricsRecorder.bucketOf(1024)).isEqualTo(10);
+		assertThat(SecurityMetricsRecorder.bucketOf(Long.MAX_VALUE)).isEqualTo(SecurityMetrics.HISTOGRAM_BUCKETS - 1);
+	}
+
+	@Test
+	void testPercentileArguments() {
+		HookStatistics empty = HookStatistics.EMPTY;
+		assertThat(empty.getPercentileUpperBoundNanos(50)).isZero();
+		assertThatIllegalArgumentException().isThrownBy(() -> empty.getPercentileUpperBoundNanos(101));
+	}
+}
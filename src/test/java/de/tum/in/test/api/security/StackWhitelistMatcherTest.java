@@ -0,0 +1,87 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.StackWalker.Option;
+import java.lang.StackWalker.StackFrame;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import de.tum.in.test.api.StackFrameClassification.ClassificationMode;
+import de.tum.in.test.api.internal.BlacklistedInvoker;
+import de.tum.in.test.api.util.PackageRule;
+import de.tum.in.test.api.util.RuleType;
+
+class StackWhitelistMatcherTest {
+
+	private static final List<String> WHITELISTED_CLASSES = List.of("de.tum.in.testuser.SomeUser",
+			"de.tum.in.testuser.SomeUser$Nested");
+	private static final Set<PackageRule> TRUSTED_PACKAGES = PackageRule
+			.from(RuleType.WHITELIST, "org.powermock**", "abc.def", "xyz.*.impl.**").collect(Collectors.toSet());
+
+	private final StackWhitelistMatcher matcher = StackWhitelistMatcher.of(WHITELISTED_CLASSES, TRUSTED_PACKAGES,
+			ClassificationMode.NAME);
+
+	@ParameterizedTest
+	@ValueSource(strings = { "java.lang.String", "org.junit.jupiter.api.Test", "de.tum.in.test.api.io.IOTester",
+			"de.tum.in.testuser.SomeUser", "de.tum.in.testuser.SomeUser$Nested", "org.powermock.api.Mock",
+			"org.powermockito.X", "abc.def", "xyz.foo.impl.Bar" })
+	void testWhitelisted(String className) {
+		assertThat(matcher.isCallNotWhitelisted(className)).isFalse();
+		// second call is answered by the verdict cache
+		assertThat(matcher.isCallNotWhitelisted(className)).isFalse();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "de.tum.in.testuser.subject.Penguin", "de.tum.in.testuser.SomeUserX", "abc.defg",
+			"abc.def.X", "xyz.foo.bar.impl.Bar", "javax", "" })
+	void testNotWhitelisted(String className) {
+		assertThat(matcher.isCallNotWhitelisted(className)).isTrue();
+		assertThat(matcher.isCallNotWhitelisted(className)).isTrue();
+	}
+
+	@Test
+	void testBlacklistWins() {
+		String blacklisted = BlacklistedInvoker.class.getName();
+		assertThat(matcher.isCallNotWhitelisted(blacklisted)).isTrue();
+		assertThat(StackWhitelistMatcher.STATIC.isCallNotWhitelisted(blacklisted)).isTrue();
+	}
+
+	@Test
+	void testStaticMatcher() {
+		assertThat(StackWhitelistMatcher.STATIC.isCallNotWhitelisted("java.util.List")).isFalse();
+		assertThat(StackWhitelistMatcher.STATIC.isCallNotWhitelisted("de.tum.in.testuser.SomeUser")).isTrue();
+		assertThat(StackWhitelistMatcher.STATIC.isStaticWhitelisted("sun.misc")).isTrue();
+		assertThat(StackWhitelistMatcher.STATIC.isStaticWhitelisted("de.tum.in.testuser")).isFalse();
+		assertThat(matcher.isStaticWhitelisted("org.powermock")).isFalse();
+	}
+
+	@Test
+	void testStackFrameClassification() {
+		var origin = StackWhitelistMatcher.of(WHITELISTED_CLASSES, TRUSTED_PACKAGES, ClassificationMode.ORIGIN);
+		List<StackFrame> frames = StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE)
+				.walk(s -> s.collect(Collectors.toList()));
+		StackFrame ownFrame = frames.get(0);
+		StackFrame junitFrame = frames.stream()
+				.filter(frame -> frame.getClassName().startsWith("org.junit.platform.engine")).findFirst()
+				.orElseThrow();
+		// this test class is in a directory other than the one of the library
+		assertThat(matcher.isCallNotWhitelisted(ownFrame)).isFalse();
+		assertThat(origin.isCallNotWhitelisted(ownFrame)).isTrue();
+		assertThat(matcher.isCallNotWhitelisted(junitFrame)).isFalse();
+		assertThat(origin.isCallNotWhitelisted(junitFrame)).isFalse();
+	}
+
+	@Test
+	void testClassOrigins() {
+		assertThat(ClassOrigins.isTrusted(String.class)).isTrue();
+		assertThat(ClassOrigins.isTrusted(Test.class)).isTrue();
+		assertThat(ClassOrigins.isTrusted(StackWhitelistMatcher.class)).isTrue();
+		assertThat(ClassOrigins.isTrusted(StackWhitelistMatcherTest.class)).isFalse();
+	}
+}
@@ -0,0 +1,76 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.test.api.security.SecurityMetrics.ThreadOutcome;
+import de.tum.in.test.api.security.SecurityMetrics.ThreadTermination;
+
+class ThreadGroupTerminationTest {
+
+	private final CountDownLatch started = new CountDownLatch(2);
+
+	@Test
+	void testInterruptAndStop() throws InterruptedException {
+		Thread sleeping = new Thread(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(60_000);
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				// terminate
+			}
+		}, "sleeping"); //$NON-NLS-1$
+		Thread spinning = new Thread(() -> {
+			started.countDown();
+			while (true)
+				Thread.onSpinWait();
+		}, "spinning"); //$NON-NLS-1$
+		sleeping.start();
+		spinning.start();
+		started.await();
+
+		var termination = new ThreadGroupTermination(new Thread[] { sleeping, spinning });
+		assertThat(termination.interruptAll(Duration.ofMillis(100))).isFalse();
+		assertThat(termination.stopAll(Duration.ofSeconds(5))).isTrue();
+
+		assertThat(termination.getTerminations()).extracting(ThreadTermination::getOutcome)
+				.containsExactly(ThreadOutcome.INTERRUPTED, ThreadOutcome.STOPPED);
+		assertThat(sleeping.isAlive()).isFalse();
+		assertThat(spinning.isAlive()).isFalse();
+	}
+
+	@Test
+	void testBudgetIndependentOfThreadCount() throws InterruptedException {
+		Thread[] threads = new Thread[50];
+		CountDownLatch allStarted = new CountDownLatch(threads.length);
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				allStarted.countDown();
+				while (true) {
+					try {
+						Thread.sleep(60_000);
+					} catch (@SuppressWarnings("unused") InterruptedException e) {
+						// ignore
+					}
+				}
+			});
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		allStarted.await();
+
+		var termination = new ThreadGroupTermination(threads);
+		long start = System.nanoTime();
+		assertThat(termination.interruptAll(Duration.ofMillis(200))).isFalse();
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+		termination.stopRemaining();
+		for (Thread thread : threads)
+			thread.join(5_000);
+		assertThat(termination.getTerminations()).hasSize(threads.length)
+				.allMatch(threadTermination -> threadTermination.getOutcome() == ThreadOutcome.STOPPED);
+	}
+}
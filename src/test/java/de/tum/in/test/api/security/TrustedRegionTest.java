@@ -0,0 +1,41 @@
+package de.tum.in.test.api.security;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.testuser.subject.CallbackPenguin;
+
+class TrustedRegionTest {
+
+	private static void checkStack() {
+		ArtemisSecurityManager.checkCurrentStack(() -> "not whitelisted"); //$NON-NLS-1$
+	}
+
+	@Test
+	void testWhitelistedStack() {
+		assertThatCode(() -> TrustedRegion.run(TrustedRegionTest::checkStack)).doesNotThrowAnyException();
+		assertThat(TrustedRegion.call(() -> "result")).isEqualTo("result"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	void testFramesAboveTheRegionAreChecked() {
+		assertThatExceptionOfType(SecurityException.class)
+				.isThrownBy(() -> TrustedRegion.run(() -> CallbackPenguin.run(TrustedRegionTest::checkStack)));
+	}
+
+	@Test
+	void testRegionEnteredByNonWhitelistedCode() {
+		assertThatExceptionOfType(SecurityException.class).isThrownBy(() -> TrustedRegion
+				.run(() -> CallbackPenguin.run(() -> TrustedRegion.run(TrustedRegionTest::checkStack))));
+	}
+
+	@Test
+	void testExceptionsArePropagated() {
+		assertThatIOException().isThrownBy(() -> TrustedRegion.run(() -> {
+			throw new IOException("failed"); //$NON-NLS-1$
+		}));
+	}
+}
@@ -45,7 +45,12 @@ class TestUserExtension implements BeforeAllCallback, TestInstancePostProcessor,
 		var testEngineId = optionalAnnotation.get().testEngineId();
 		var users = List.of(optionalAnnotation.get().value());
 		var userSelectors = users.stream().map(DiscoverySelectors::selectClass).toArray(ClassSelector[]::new);
-		var tests = EngineTestKit.engine(testEngineId).selectors(userSelectors).execute();
+		var engine = EngineTestKit.engine(testEngineId).selectors(userSelectors);
+		for (var parameter : optionalAnnotation.get().configurationParameters()) {
+			var keyValue = parameter.split("=", 2);
+			engine.configurationParameter(keyValue[0], keyValue[1]);
+		}
+		var tests = engine.execute();
 		var testResults = tests.testEvents();
 
 		if (testResults.count() == 0) {
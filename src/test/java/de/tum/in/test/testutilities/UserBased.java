@@ -30,4 +30,10 @@ public @interface UserBased {
 	Class<?>[] value();
 
 	String testEngineId() default JupiterEngineDescriptor.ENGINE_ID;
+
+	/**
+	 * Configuration parameters for the test engine in the form
+	 * <code>key=value</code>.
+	 */
+	String[] configurationParameters() default {};
 }
@@ -12,13 +12,16 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.opentest4j.AssertionFailedError;
 
 import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.BoundedOutput;
 import de.tum.in.test.api.MirrorOutput;
 import de.tum.in.test.api.MirrorOutput.MirrorOutputPolicy;
+import de.tum.in.test.api.MirrorOutput.MirrorOverflowPolicy;
 import de.tum.in.test.api.PathType;
 import de.tum.in.test.api.StrictTimeout;
 import de.tum.in.test.api.WhitelistPath;
 import de.tum.in.test.api.io.IOTester;
 import de.tum.in.test.api.io.Line;
+import de.tum.in.test.api.io.OmittedLines;
 import de.tum.in.test.api.io.OutputTestOptions;
 import de.tum.in.test.api.jupiter.PublicTest;
 import de.tum.in.testuser.subject.InputOutputPenguin;
@@ -36,6 +39,39 @@ public class InputOutputUser {
 		System.out.write(new byte[] { 'P', 'i', 'n', 'g', 'u', (byte) 0xFF });
 	}
 
+	@PublicTest
+	void makeIncompleteUTF8Error() {
+		System.out.write(new byte[] { 'P', 'i', 'n', 'g', 'u', (byte) 0xC3 }, 0, 6);
+	}
+
+	@PublicTest
+	@MirrorOutput(asyncBufferSize = 16, overflowPolicy = MirrorOverflowPolicy.BLOCK)
+	void testAsyncMirrorOutput(IOTester tester) {
+		InputOutputPenguin.writeTwoLines();
+
+		tester.out().assertThatLines().containsExactly("Pinguine sind die Besten!", "Nieder mit den Eisbären!");
+	}
+
+	@PublicTest
+	@BoundedOutput(head = 0, tail = 1)
+	@MirrorOutput(maxCharCount = 10, value = MirrorOutputPolicy.DISABLED)
+	void testBoundedOutput(IOTester tester) {
+		InputOutputPenguin.writeTwoLines();
+
+		tester.out().assertThatLines().containsExactly("Nieder mit den Eisbären!");
+		assertEquals(2, tester.out().getTotalLineCount());
+		var omitted = tester.out().getOmittedLines();
+		assertEquals(1, omitted.lineCount());
+		assertEquals(OmittedLines.hashOf(List.of("Pinguine sind die Besten!")), omitted.hash());
+	}
+
+	@PublicTest
+	void testExpectLinesMatch(IOTester tester) {
+		tester.out().expectLinesMatch("Wrong output", "Pinguine sind die Besten!", ">>>>");
+
+		InputOutputPenguin.writeWrongAndLoop();
+	}
+
 	@PublicTest
 	void testLinesMatch(IOTester tester) {
 		System.out.println("ABC ((");
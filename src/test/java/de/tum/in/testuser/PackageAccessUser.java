@@ -1,5 +1,6 @@
 package de.tum.in.testuser;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.MethodOrderer.MethodName;
@@ -10,12 +11,16 @@ import de.tum.in.test.api.BlacklistPath;
 import de.tum.in.test.api.MirrorOutput;
 import de.tum.in.test.api.MirrorOutput.MirrorOutputPolicy;
 import de.tum.in.test.api.PathType;
+import de.tum.in.test.api.StaticBytecodeScan;
 import de.tum.in.test.api.StrictTimeout;
 import de.tum.in.test.api.WhitelistPackage;
 import de.tum.in.test.api.WhitelistPath;
 import de.tum.in.test.api.jupiter.PublicTest;
 import de.tum.in.test.api.localization.UseLocale;
+import de.tum.in.testuser.subject.CallbackPenguin;
 import de.tum.in.testuser.subject.PackageAccessPenguin;
+import de.tum.in.testuser.subject.scan.HiddenScanTarget;
+import de.tum.in.testuser.subject.scan.ScanTarget;
 
 @MirrorOutput(MirrorOutputPolicy.DISABLED)
 @StrictTimeout(value = 300, unit = TimeUnit.MILLISECONDS)
@@ -56,4 +61,24 @@ public class PackageAccessUser {
 	void package_eBlackPenguinAgain() {
 		PackageAccessPenguin.useArrayList();
 	}
-}
\ No newline at end of file
+
+	@BlacklistPackage("de.tum.in.testuser.subject.scan")
+	@PublicTest
+	void package_fCallbackWithoutScan() {
+		CallbackPenguin.run(() -> ScanTarget.touch());
+	}
+
+	@BlacklistPackage("de.tum.in.testuser.subject.scan")
+	@StaticBytecodeScan
+	@PublicTest
+	void package_gCallbackWithScan() {
+		CallbackPenguin.run(() -> ScanTarget.touch());
+	}
+
+	@BlacklistPackage("de.tum.in.testuser.subject.scan")
+	@StaticBytecodeScan
+	@PublicTest
+	void package_hCallbackBelowJdkWithScan() {
+		CallbackPenguin.run(() -> Optional.of(0).map(i -> HiddenScanTarget.touch()));
+	}
+}
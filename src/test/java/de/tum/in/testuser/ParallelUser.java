@@ -0,0 +1,57 @@
+package de.tum.in.testuser;
+
+import java.nio.file.Path;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import de.tum.in.test.api.AllowThreads;
+import de.tum.in.test.api.BlacklistPath;
+import de.tum.in.test.api.PathType;
+import de.tum.in.test.api.WhitelistPath;
+import de.tum.in.test.api.jupiter.JupiterSecurityExtension;
+import de.tum.in.testuser.subject.PathAccessPenguin;
+
+@Execution(ExecutionMode.CONCURRENT)
+@ExtendWith(JupiterSecurityExtension.class)
+@WhitelistPath(value = "target/**", type = PathType.GLOB)
+@BlacklistPath(value = "**Test*.{java,class}", type = PathType.GLOB)
+@SuppressWarnings("static-method")
+public class ParallelUser {
+
+	/**
+	 * Makes sure all tests run at the same time, each inside of its own sandbox
+	 */
+	private static final CyclicBarrier BARRIER = new CyclicBarrier(3);
+
+	private static void awaitOthers() throws Exception {
+		BARRIER.await(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	@WhitelistPath("")
+	void accessPathAllowedParallel() throws Exception {
+		awaitOthers();
+		PathAccessPenguin.accessPath(Path.of("pom.xml"));
+	}
+
+	@Test
+	void accessPathNormalParallel() throws Exception {
+		awaitOthers();
+		PathAccessPenguin.accessPath(Path.of("pom.xml"));
+	}
+
+	@Test
+	@AllowThreads(maxActiveCount = 1)
+	void threadStoppedParallel() throws Exception {
+		new Thread(() -> {
+			while (true)
+				Thread.onSpinWait();
+		}).start();
+		awaitOthers();
+	}
+}
@@ -50,6 +50,17 @@ public class PathAccessUser {
 		PathAccessPenguin.accessPath(Path.of("pom.xml").toAbsolutePath());
 	}
 
+	@PublicTest
+	@WhitelistPath("")
+	void accessPathParallelAllowed() {
+		PathAccessPenguin.accessPathInParallel(Path.of("pom.xml"));
+	}
+
+	@PublicTest
+	void accessPathParallelNormal() {
+		PathAccessPenguin.accessPathInParallel(Path.of("pom.xml"));
+	}
+
 	@PublicTest
 	@WhitelistPath("")
 	void accessPathTest() throws IOException {
@@ -113,6 +113,12 @@ public class ThreadUser {
 		ThreadPenguin.tryStartTwoThreads();
 	}
 
+	@AllowThreads(maxActiveCount = 1)
+	@PublicTest
+	void threadGroupLimitExceeded() throws Throwable {
+		ThreadPenguin.tryThreadGroupAccessAtLimit();
+	}
+
 	@PublicTest
 	void threadWhitelistingWithPathPenguin() throws Throwable {
 		ThreadPenguin.tryThreadWhitelisting();
@@ -0,0 +1,65 @@
+package de.tum.in.testuser.subject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.zip.ZipFile;
+
+public final class CallSitePenguin {
+
+	private CallSitePenguin() {
+
+	}
+
+	public static String readString(Path path) throws IOException {
+		return Files.readString(path);
+	}
+
+	public static int readFirstByte(String name) throws IOException {
+		try (var in = new FileInputStream(name)) {
+			return in.read();
+		}
+	}
+
+	public static boolean touch(File file, long time) {
+		return file.setLastModified(time);
+	}
+
+	public static ZipFile openZipAndDelete(File file) throws IOException {
+		return new ZipFile(file, ZipFile.OPEN_READ | ZipFile.OPEN_DELETE);
+	}
+
+	public static InputStream readThroughProvider(Path path) throws IOException {
+		return path.getFileSystem().provider().newInputStream(path);
+	}
+
+	public static boolean startThread() throws InterruptedException {
+		AtomicBoolean ran = new AtomicBoolean();
+		Thread thread = new Thread(() -> ran.set(true));
+		thread.start();
+		thread.join();
+		return ran.get();
+	}
+
+	public static IntConsumer exitReference() {
+		return System::exit;
+	}
+
+	public static Process exec(String command) throws IOException {
+		return Runtime.getRuntime().exec(command);
+	}
+
+	public static Callable<Process> startLater(ProcessBuilder processBuilder) {
+		return processBuilder::start;
+	}
+
+	public static Object execReflectively(String command) throws ReflectiveOperationException {
+		return Runtime.class.getMethod("exec", String.class).invoke(Runtime.getRuntime(), command);
+	}
+}
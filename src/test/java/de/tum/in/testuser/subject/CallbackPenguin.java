@@ -0,0 +1,12 @@
+package de.tum.in.testuser.subject;
+
+public final class CallbackPenguin {
+
+	private CallbackPenguin() {
+
+	}
+
+	public static void run(Runnable action) {
+		action.run();
+	}
+}
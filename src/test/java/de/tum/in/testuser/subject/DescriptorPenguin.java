@@ -0,0 +1,14 @@
+package de.tum.in.testuser.subject;
+
+import de.tum.in.testuser.subject.scan.ScanTarget;
+
+public final class DescriptorPenguin {
+
+	private DescriptorPenguin() {
+
+	}
+
+	public static Object pass(ScanTarget target) {
+		return target;
+	}
+}
@@ -0,0 +1,12 @@
+package de.tum.in.testuser.subject;
+
+public final class ForwardingPenguin {
+
+	private ForwardingPenguin() {
+
+	}
+
+	public static Object forward() {
+		return DescriptorPenguin.class;
+	}
+}
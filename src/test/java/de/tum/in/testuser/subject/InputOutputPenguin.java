@@ -11,6 +11,13 @@ public final class InputOutputPenguin extends MiniJava {
 		write("Nieder mit den Eisbären!");
 	}
 
+	public static void writeWrongAndLoop() {
+		write("Eisbären sind die Besten!");
+		while (true) {
+			// never terminates
+		}
+	}
+
 	public static void calculateSquare() {
 		int a = readInt("Zahl eingeben:");
 		write("Ausgabe:");
@@ -1,8 +1,10 @@
 package de.tum.in.testuser.subject;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 
 public final class PathAccessPenguin {
 
@@ -13,4 +15,14 @@ public final class PathAccessPenguin {
 	public static void accessPath(Path p) throws IOException {
 		Files.readString(p);
 	}
+
+	public static void accessPathInParallel(Path p) {
+		Collections.nCopies(64, p).parallelStream().forEach(path -> {
+			try {
+				Files.readString(path);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
 }
@@ -0,0 +1,47 @@
+package de.tum.in.testuser.subject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Predicate;
+
+public final class SubclassCallSitePenguin {
+
+	private SubclassCallSitePenguin() {
+
+	}
+
+	public static boolean delete(GuardedFile file) {
+		return file.delete();
+	}
+
+	public static File createTempFile() throws IOException {
+		return GuardedFile.createTempFile("ares", null);
+	}
+
+	public static Predicate<GuardedFile> deleteReference() {
+		return GuardedFile::delete;
+	}
+
+	public static OutputStream open(String name) throws IOException {
+		return new GuardedOutputStream(name);
+	}
+
+	public static final class GuardedFile extends File {
+
+		private static final long serialVersionUID = 1L;
+
+		public GuardedFile(String pathname) {
+			super(pathname);
+		}
+	}
+
+	public static final class GuardedOutputStream extends FileOutputStream {
+
+		public GuardedOutputStream(String name) throws FileNotFoundException {
+			super(name);
+		}
+	}
+}
@@ -28,6 +28,26 @@ public final class ThreadPenguin extends Thread {
 		new Thread().start();
 	}
 
+	/**
+	 * Since Java 19, the constructor of a thread only checks the access to its
+	 * thread group, this does the same for a second thread.
+	 */
+	public static void tryThreadGroupAccessAtLimit() throws InterruptedException {
+		Thread t1 = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				// ignore
+			}
+		});
+		t1.start();
+		try {
+			Thread.currentThread().getThreadGroup().checkAccess();
+		} finally {
+			t1.join();
+		}
+	}
+
 	public static void tryBreakThreadGroup() {
 		ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
 		for (;;) {
@@ -0,0 +1,12 @@
+package de.tum.in.testuser.subject.scan;
+
+public final class HiddenScanTarget {
+
+	private HiddenScanTarget() {
+
+	}
+
+	public static int touch() {
+		return 42;
+	}
+}